@@ -1,6 +1,11 @@
 package com.micropay.gateway.filter;
 
+import com.micropay.events.revocation.RevokedTokenIndex;
+import com.micropay.gateway.util.JwtClaimsCache;
 import com.micropay.gateway.util.JwtUtil;
+import com.micropay.security.identity.IdentityHeaderSigner;
+import com.micropay.security.identity.IdentityHeaders;
+import io.jsonwebtoken.Claims;
 import org.springframework.web.server.ServerWebExchange;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
@@ -19,6 +24,15 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private JwtClaimsCache claimsCache;
+
+    @Autowired
+    private IdentityHeaderSigner identityHeaderSigner;
+
+    @Autowired
+    private RevokedTokenIndex revokedTokenIndex;
+
     public AuthenticationFilter() {
         super(Config.class);
     }
@@ -42,16 +56,31 @@ public class AuthenticationFilter extends AbstractGatewayFilterFactory<Authentic
 
                 String token = authHeader.substring(7);
 
+                // Logged-out tokens, learned from token.revoked; no call to auth-service
+                if (revokedTokenIndex.isRevoked(token)) {
+                    return onError(exchange, "Token has been revoked", HttpStatus.UNAUTHORIZED);
+                }
+
+                Claims claims;
                 try {
-                    if (jwtUtil.isInvalid(token)) {
+                    claims = claimsCache.getClaims(token);
+                    if (jwtUtil.isExpired(claims)) {
                         return onError(exchange, "Invalid or Expired Token", HttpStatus.UNAUTHORIZED);
                     }
                 } catch (Exception e) {
                     return onError(exchange, "JWT Error", HttpStatus.UNAUTHORIZED);
                 }
+
+                // Forward the verified identity so downstream services can skip re-verifying the JWT
+                return chain.filter(exchange.mutate()
+                        .request(r -> r.headers(headers -> identityHeaderSigner.apply(claims, headers)))
+                        .build());
             }
 
-            return chain.filter(exchange);
+            // Never let a client supply identity headers on an open route
+            return chain.filter(exchange.mutate()
+                    .request(r -> r.headers(headers -> IdentityHeaders.HEADERS.forEach(headers::remove)))
+                    .build());
         };
     }
 
@@ -0,0 +1,122 @@
+package com.micropay.gateway.util;
+
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bounded cache of verified JWT claims, keyed by the SHA-256 of the token.
+ *
+ * A session presents the same bearer token on every request. Only the first request
+ * pays for signature verification and claims parsing. Later requests are served from
+ * this cache until the token's own exp, after which the entry is dropped and the
+ * token is rejected by the normal path. Raw tokens are never stored.
+ */
+@Component
+public class JwtClaimsCache {
+
+    private final JwtUtil jwtUtil;
+    private final int maxEntries;
+    private final ConcurrentHashMap<ByteBuffer, CachedClaims> entries = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+
+    public JwtClaimsCache(JwtUtil jwtUtil,
+                          @Value("${gateway.jwt.cache.max-entries:10000}") int maxEntries,
+                          MeterRegistry meterRegistry) {
+        this.jwtUtil = jwtUtil;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.hits = Counter.builder("gateway.jwt.cache.hits")
+            .description("Requests whose JWT claims were served from the cache")
+            .register(meterRegistry);
+        this.misses = Counter.builder("gateway.jwt.cache.misses")
+            .description("Requests whose JWT had to be verified and parsed")
+            .register(meterRegistry);
+        Gauge.builder("gateway.jwt.cache.hit.ratio", this, JwtClaimsCache::hitRatio)
+            .description("Share of JWT lookups answered from the cache")
+            .register(meterRegistry);
+        Gauge.builder("gateway.jwt.cache.size", entries, ConcurrentHashMap::size)
+            .description("Verified tokens currently cached")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Return verified claims for {@code token}, verifying and caching them on a miss
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is malformed, forged or expired
+     */
+    public Claims getClaims(String token) {
+        ByteBuffer key = hash(token);
+        long now = System.currentTimeMillis();
+        CachedClaims cached = entries.get(key);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                hits.increment();
+                return cached.claims;
+            }
+            entries.remove(key, cached);
+        }
+
+        misses.increment();
+        Claims claims = jwtUtil.getAllClaimsFromToken(token);
+        Date expiration = claims.getExpiration();
+        if (expiration != null && expiration.getTime() > now) {
+            if (entries.size() >= maxEntries) {
+                evict(now);
+            }
+            entries.put(key, new CachedClaims(claims, expiration.getTime()));
+        }
+        return claims;
+    }
+
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    /**
+     * Drop expired entries; if the cache is still full, drop arbitrary ones to make room
+     */
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        Iterator<ByteBuffer> keys = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static ByteBuffer hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class CachedClaims {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private CachedClaims(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -1,28 +1,36 @@
 package com.micropay.gateway.util;
 
+import com.micropay.security.jwt.JwtCodec;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
 import java.util.Date;
 
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    // Key and parser are immutable and thread-safe, so the shared codec builds them once rather than per request
+    private final JwtCodec codec;
+
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
+        this.codec = new JwtCodec(secret);
+    }
 
     public Claims getAllClaimsFromToken(String token) {
-        SecretKey key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+        return codec.parseClaims(token);
+    }
+
+    /**
+     * Tokens without an exp claim are never accepted, so they count as expired
+     */
+    public boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration == null || expiration.before(new Date());
     }
 
     private boolean isTokenExpired(String token) {
-        return this.getAllClaimsFromToken(token).getExpiration().before(new Date());
+        return isExpired(this.getAllClaimsFromToken(token));
     }
 
     public boolean isInvalid(String token) {
@@ -0,0 +1,117 @@
+package com.micropay.gateway.benchmark;
+
+import com.micropay.events.revocation.RevokedTokenIndex;
+import com.micropay.gateway.filter.AuthenticationFilter;
+import com.micropay.gateway.filter.RouteValidator;
+import com.micropay.gateway.util.JwtClaimsCache;
+import com.micropay.gateway.util.JwtUtil;
+import com.micropay.security.identity.IdentityHeaderSigner;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Mono;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of JWT authentication in the gateway.
+ *
+ * Compares the old path (key and parser built, signature verified on every request),
+ * the prebuilt parser, a claims cache hit, and the full AuthenticationFilter with the
+ * cache (the latter includes building the mock exchange).
+ *
+ * Run with (JMH forks a JVM, so the test classpath is passed explicitly):
+ * mvn -B test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     "-Dexec.args=-cp %classpath com.micropay.gateway.benchmark.AuthenticationFilterBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthenticationFilterBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-long-enough-for-hmac-sha256-signing";
+
+    private String token;
+    private JwtUtil jwtUtil;
+    private JwtClaimsCache claimsCache;
+    private GatewayFilter filter;
+
+    @Setup
+    public void setUp() {
+        SecretKey key = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        token = Jwts.builder()
+            .setSubject("benchmark-user")
+            .claim("userId", "8a7c5e1e-1111-4c2b-9a55-000000000001")
+            .claim("role", "USER")
+            .setIssuedAt(new Date())
+            .setExpiration(new Date(System.currentTimeMillis() + TimeUnit.HOURS.toMillis(1)))
+            .signWith(key, SignatureAlgorithm.HS256)
+            .compact();
+
+        jwtUtil = new JwtUtil(SECRET);
+        AuthenticationFilter factory = new AuthenticationFilter();
+        ReflectionTestUtils.setField(factory, "validator", new RouteValidator());
+        ReflectionTestUtils.setField(factory, "jwtUtil", jwtUtil);
+        claimsCache = new JwtClaimsCache(jwtUtil, 10_000, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(factory, "claimsCache", claimsCache);
+        ReflectionTestUtils.setField(factory, "identityHeaderSigner", new IdentityHeaderSigner(SECRET));
+        ReflectionTestUtils.setField(factory, "revokedTokenIndex", new RevokedTokenIndex());
+        filter = factory.apply(new AuthenticationFilter.Config());
+    }
+
+    @Benchmark
+    public Claims parserPerRequest() {
+        SecretKey key = new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    @Benchmark
+    public Claims prebuiltParser() {
+        return jwtUtil.getAllClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public Claims claimsCacheHit() {
+        return claimsCache.getClaims(token);
+    }
+
+    @Benchmark
+    public Void filterWithClaimsCache() {
+        MockServerWebExchange exchange = MockServerWebExchange.from(
+            MockServerHttpRequest.get("/api/payment/123")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + token));
+        return filter.filter(exchange, ignored -> Mono.empty()).block();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(AuthenticationFilterBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,84 @@
+package com.micropay.gateway.util;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JWT Claims Cache Tests")
+class JwtClaimsCacheTest {
+
+    private static final String SECRET = "test-secret-key-for-testing-only-long-enough-to-be-secure";
+
+    private SimpleMeterRegistry meterRegistry;
+    private JwtClaimsCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new JwtClaimsCache(new JwtUtil(SECRET), 2, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should verify a token once and serve repeats from the cache")
+    void getClaims_CachesVerifiedClaims() {
+        // Given
+        String token = token(SECRET, "alice", 60_000);
+
+        // When
+        String first = cache.getClaims(token).getSubject();
+        String second = cache.getClaims(token).getSubject();
+
+        // Then
+        assertEquals("alice", first);
+        assertEquals("alice", second);
+        assertEquals(1.0, meterRegistry.get("gateway.jwt.cache.hits").counter().count());
+        assertEquals(1.0, meterRegistry.get("gateway.jwt.cache.misses").counter().count());
+        assertEquals(0.5, meterRegistry.get("gateway.jwt.cache.hit.ratio").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should reject forged and expired tokens without caching them")
+    void getClaims_RejectsInvalidTokens() {
+        // Given
+        String forged = token("another-secret-key-that-is-also-long-enough-for-hs256", "mallory", 60_000);
+        String expired = token(SECRET, "bob", -1_000);
+
+        // When & Then
+        assertThrows(SignatureException.class, () -> cache.getClaims(forged));
+        assertThrows(ExpiredJwtException.class, () -> cache.getClaims(expired));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    @DisplayName("Should stay within max entries")
+    void getClaims_Bounded() {
+        // When
+        cache.getClaims(token(SECRET, "u1", 60_000));
+        cache.getClaims(token(SECRET, "u2", 60_000));
+        cache.getClaims(token(SECRET, "u3", 60_000));
+
+        // Then
+        assertEquals(2, cache.size());
+    }
+
+    private static String token(String secret, String subject, long ttlMillis) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+            .setSubject(subject)
+            .setIssuedAt(new Date(now))
+            .setExpiration(new Date(now + ttlMillis))
+            .signWith(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"), SignatureAlgorithm.HS256)
+            .compact();
+    }
+}
@@ -2,21 +2,21 @@ package com.micropay.auth.config;
 
 import com.micropay.events.dto.UserCreatedEvent;
 import com.micropay.events.dto.PasswordResetEvent;
-import org.apache.kafka.clients.producer.ProducerConfig;
-import org.apache.kafka.common.serialization.StringSerializer;
+import com.micropay.events.dto.TokenRevokedEvent;
+import com.micropay.outbox.ProducerProfile;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.apache.kafka.common.config.TopicConfig;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.core.ProducerFactory;
 import org.springframework.kafka.support.serializer.JsonSerializer;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
- * Kafka producer configuration
+ * Kafka producer configuration, plus the token.revoked topic
  */
 @Configuration
 public class KafkaConfig {
@@ -24,38 +24,43 @@ public class KafkaConfig {
     @Value("${spring.kafka.bootstrap-servers}")
     private String bootstrapServers;
 
+    // Producers use the shared producer profile: acks=all + idempotence, per-topic batching and
+    // compression, send outcomes metered and failed records dead-lettered to <topic>.DLT
+
     // --- 1. Beans for UserCreatedEvent (Existing) ---
     @Bean
-    public ProducerFactory<String, UserCreatedEvent> userCreatedProducerFactory() {
-        return new DefaultKafkaProducerFactory<>(getBasicConfig());
+    public ProducerFactory<String, UserCreatedEvent> userCreatedProducerFactory(ProducerProfile producerProfile) {
+        return new DefaultKafkaProducerFactory<>(producerProfile.producerConfigs("user.created", JsonSerializer.class));
     }
 
     @Bean
-    public KafkaTemplate<String, UserCreatedEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(userCreatedProducerFactory());
+    public KafkaTemplate<String, UserCreatedEvent> kafkaTemplate(ProducerProfile producerProfile) {
+        return producerProfile.kafkaTemplate(userCreatedProducerFactory(producerProfile));
     }
 
     // --- 2. Beans for PasswordResetEvent (MISSING PIECE) ---
     @Bean
-    public ProducerFactory<String, PasswordResetEvent> passwordResetProducerFactory() {
-        return new DefaultKafkaProducerFactory<>(getBasicConfig());
+    public ProducerFactory<String, PasswordResetEvent> passwordResetProducerFactory(ProducerProfile producerProfile) {
+        return new DefaultKafkaProducerFactory<>(producerProfile.producerConfigs("password.reset", JsonSerializer.class));
     }
 
     @Bean
-    public KafkaTemplate<String, PasswordResetEvent> passwordResetKafkaTemplate() {
-        return new KafkaTemplate<>(passwordResetProducerFactory());
+    public KafkaTemplate<String, PasswordResetEvent> passwordResetKafkaTemplate(ProducerProfile producerProfile) {
+        return producerProfile.kafkaTemplate(passwordResetProducerFactory(producerProfile));
     }
 
-    // Helper method to keep your code clean
-    private Map<String, Object> getBasicConfig() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
-        configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
-        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return configProps;
+    // --- 3. token.revoked: published on logout through the outbox, consumed by every instance ---
+    /**
+     * Revocations only matter until the token expires, so retention matches the token lifetime;
+     * a consumer starting from the earliest offset rebuilds its index from what is retained.
+     * Consumers assign partition 0 directly rather than joining a group, so keep one partition.
+     */
+    @Bean
+    public NewTopic tokenRevokedTopic(@Value("${jwt.expiration:86400000}") long tokenLifetimeMs) {
+        return TopicBuilder.name(TokenRevokedEvent.TOPIC)
+                .partitions(1)
+                .replicas(1)
+                .config(TopicConfig.RETENTION_MS_CONFIG, Long.toString(tokenLifetimeMs))
+                .build();
     }
 }
-
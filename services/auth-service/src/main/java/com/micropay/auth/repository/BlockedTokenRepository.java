@@ -2,8 +2,21 @@ package com.micropay.auth.repository;
 
 import com.micropay.auth.model.BlockedToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface BlockedTokenRepository extends JpaRepository<BlockedToken, UUID> {
     boolean existsByToken(String token);
+
+    List<BlockedToken> findAllByExpiryDateAfter(LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM BlockedToken b WHERE b.expiryDate < :now")
+    int deleteByExpiryDateBefore(LocalDateTime now);
 }
@@ -0,0 +1,171 @@
+package com.micropay.auth.revocation;
+
+import com.micropay.auth.model.BlockedToken;
+import com.micropay.auth.repository.BlockedTokenRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory view of {@code blocked_tokens} used on the token validation path.
+ *
+ * A Bloom filter answers the common "not revoked" case without touching the database;
+ * a hit is confirmed against an exact set of token digests. Both are loaded from
+ * {@code blocked_tokens} on startup and updated on logout, including logouts on other
+ * instances received over {@code token.revoked}. Every
+ * {@code auth.revocation.purge-interval-ms} entries past their expiry are dropped
+ * (the filter is rebuilt, since Bloom filters cannot delete) and the expired rows are
+ * deleted from the table. Tokens are held as SHA-256 digests, never in clear.
+ */
+@Component
+public class TokenRevocationList {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationList.class);
+
+    private final BlockedTokenRepository blockedTokenRepository;
+    private final long expectedTokens;
+    private final double falsePositiveRate;
+    private final long purgeIntervalMs;
+    private final ConcurrentHashMap<ByteBuffer, Long> revoked = new ConcurrentHashMap<>();
+    private final Object writeLock = new Object();
+
+    private volatile BloomFilter bloomFilter;
+    private ScheduledExecutorService purger;
+
+    public TokenRevocationList(BlockedTokenRepository blockedTokenRepository,
+                               @Value("${auth.revocation.expected-tokens:100000}") long expectedTokens,
+                               @Value("${auth.revocation.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${auth.revocation.purge-interval-ms:60000}") long purgeIntervalMs) {
+        this.blockedTokenRepository = blockedTokenRepository;
+        this.expectedTokens = expectedTokens;
+        this.falsePositiveRate = falsePositiveRate;
+        this.purgeIntervalMs = purgeIntervalMs;
+        this.bloomFilter = new BloomFilter(expectedTokens, falsePositiveRate);
+    }
+
+    @PostConstruct
+    void start() {
+        load();
+        purger = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "token-revocation-purge");
+            thread.setDaemon(true);
+            return thread;
+        });
+        purger.scheduleWithFixedDelay(this::purgeQuietly, purgeIntervalMs, purgeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (purger != null) {
+            purger.shutdownNow();
+        }
+    }
+
+    /**
+     * Rebuild the in-memory set from the unexpired rows of {@code blocked_tokens}
+     */
+    public void load() {
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (writeLock) {
+            revoked.clear();
+            for (BlockedToken blockedToken : blockedTokenRepository.findAllByExpiryDateAfter(now)) {
+                revoked.put(ByteBuffer.wrap(digest(blockedToken.getToken())), toEpochMillis(blockedToken.getExpiryDate()));
+            }
+            rebuildFilter();
+        }
+        logger.info("Loaded {} revoked tokens", revoked.size());
+    }
+
+    public boolean isRevoked(String token) {
+        byte[] digest = digest(token);
+        if (!bloomFilter.mightContain(digest)) {
+            return false;
+        }
+        return revoked.containsKey(ByteBuffer.wrap(digest));
+    }
+
+    /**
+     * Record a revocation made on this instance; the caller persists it to {@code blocked_tokens}
+     */
+    public void revoke(String token, LocalDateTime expiryDate) {
+        revokeDigest(digest(token), toEpochMillis(expiryDate));
+    }
+
+    /**
+     * Record a revocation broadcast on {@code token.revoked}, possibly by another instance
+     */
+    public void revokeDigest(byte[] digest, long expiresAtMillis) {
+        synchronized (writeLock) {
+            revoked.put(ByteBuffer.wrap(digest), expiresAtMillis);
+            bloomFilter.add(digest);
+        }
+    }
+
+    /**
+     * Drop expired entries from memory and from {@code blocked_tokens}
+     *
+     * @return number of in-memory entries dropped
+     */
+    public int purgeExpired() {
+        long now = System.currentTimeMillis();
+        int dropped;
+        synchronized (writeLock) {
+            int before = revoked.size();
+            revoked.values().removeIf(expiresAt -> expiresAt <= now);
+            dropped = before - revoked.size();
+            if (dropped > 0) {
+                rebuildFilter();
+            }
+        }
+        int deleted = blockedTokenRepository.deleteByExpiryDateBefore(LocalDateTime.now());
+        if (dropped > 0 || deleted > 0) {
+            logger.info("Purged {} expired revoked tokens ({} rows deleted)", dropped, deleted);
+        }
+        return dropped;
+    }
+
+    int size() {
+        return revoked.size();
+    }
+
+    private void purgeQuietly() {
+        try {
+            purgeExpired();
+        } catch (Exception e) {
+            logger.error("Failed to purge expired revoked tokens, will retry", e);
+        }
+    }
+
+    private void rebuildFilter() {
+        // Size for twice the current population so the false-positive rate holds as logouts accumulate
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, 2L * revoked.size()), falsePositiveRate);
+        revoked.keySet().forEach(key -> rebuilt.add(key.array()));
+        bloomFilter = rebuilt;
+    }
+
+    private static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private static byte[] digest(String token) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.micropay.auth.revocation;
+
+import com.micropay.events.dto.TokenRevokedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.Base64;
+
+/**
+ * Kafka consumer for token.revoked events
+ * Keeps this instance's revocation list in step with logouts handled by other instances
+ */
+@Component
+public class TokenRevokedEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevokedEventConsumer.class);
+
+    private final TokenRevocationList revocationList;
+
+    public TokenRevokedEventConsumer(TokenRevocationList revocationList) {
+        this.revocationList = revocationList;
+    }
+
+    // Every instance needs every revocation: assign the single partition directly, with no
+    // consumer group, and replay it from the start of retention (as the shared consumer in micropay-events does)
+    @KafkaListener(topicPartitions = @TopicPartition(topic = TokenRevokedEvent.TOPIC,
+            partitionOffsets = @PartitionOffset(partition = "0", initialOffset = "0")),
+            containerFactory = "tokenRevokedListenerContainerFactory")
+    public void consumeTokenRevokedEvent(@Payload TokenRevokedEvent event) {
+        try {
+            revocationList.revokeDigest(Base64.getUrlDecoder().decode(event.getTokenHash()), event.getExpiresAt());
+        } catch (Exception e) {
+            logger.error("Ignoring malformed token.revoked event. Event ID: {}", event.getEventId(), e);
+        }
+    }
+}
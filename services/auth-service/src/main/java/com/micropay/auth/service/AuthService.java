@@ -14,6 +14,11 @@ import com.micropay.auth.repository.BlockedTokenRepository;
 import com.micropay.auth.repository.PasswordResetTokenRepository;
 import com.micropay.auth.repository.RoleRepository;
 import com.micropay.auth.repository.UserRepository;
+import com.micropay.auth.revocation.TokenRevocationList;
+import com.micropay.events.dto.TokenRevokedEvent;
+import com.micropay.events.revocation.RevokedTokenIndex;
+import com.micropay.outbox.OutboxWriter;
+import com.micropay.security.identity.CallerIdentity;
 import io.jsonwebtoken.Claims;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +34,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 import java.util.UUID;
 
 @Service
@@ -45,6 +51,8 @@ public class AuthService implements UserDetailsService {
     private final KafkaTemplate<String, PasswordResetEvent> passwordResetKafkaTemplate;
     private final PasswordResetTokenRepository passwordResetTokenRepository;
     private final BlockedTokenRepository blockedTokenRepository;
+    private final TokenRevocationList revocationList;
+    private final OutboxWriter outboxWriter;
 
     private static final String USER_ROLE_NAME = "ROLE_USER";
     private static final String USER_CREATED_TOPIC = "user.created";
@@ -58,7 +66,9 @@ public class AuthService implements UserDetailsService {
             KafkaTemplate<String, UserCreatedEvent> kafkaTemplate,
             KafkaTemplate<String, PasswordResetEvent> passwordResetKafkaTemplate,
             PasswordResetTokenRepository passwordResetTokenRepository,
-            BlockedTokenRepository blockedTokenRepository
+            BlockedTokenRepository blockedTokenRepository,
+            TokenRevocationList revocationList,
+            OutboxWriter outboxWriter
     ) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
@@ -69,9 +79,12 @@ public class AuthService implements UserDetailsService {
         this.passwordResetKafkaTemplate = passwordResetKafkaTemplate;
         this.passwordResetTokenRepository = passwordResetTokenRepository;
         this.blockedTokenRepository = blockedTokenRepository;
+        this.revocationList = revocationList;
+        this.outboxWriter = outboxWriter;
     }
 
     // ----------------------- Logout -----------------------
+    @Transactional
     public void logout(String token) {
         Claims claims = jwtService.extractAllClaims(token);
         LocalDateTime expiryDate = claims.getExpiration()
@@ -80,6 +93,13 @@ public class AuthService implements UserDetailsService {
                 .toLocalDateTime();
         BlockedToken blockedToken = new BlockedToken(token, expiryDate);
         blockedTokenRepository.save(blockedToken);
+
+        // Broadcast so the gateway and services reject the token without calling back here;
+        // the event commits with the blocked token, so a logout is never left unannounced
+        String tokenHash = RevokedTokenIndex.hash(token);
+        outboxWriter.append(TokenRevokedEvent.TOPIC, tokenHash,
+                new TokenRevokedEvent(tokenHash, claims.getExpiration().getTime()));
+        revocationList.revoke(token, expiryDate);
     }
 
     // ----------------------- Password Reset -----------------------
@@ -137,7 +157,7 @@ public class AuthService implements UserDetailsService {
         publishUserCreatedEvent(savedUser);
 
         UserDetails userDetails = loadUserByUsername(savedUser.getEmail());
-        String token = jwtService.generateToken(userDetails);
+        String token = jwtService.generateToken(userIdClaim(savedUser), userDetails);
 
         return new AuthResponse(
                 token,
@@ -170,7 +190,7 @@ public class AuthService implements UserDetailsService {
         userRepository.save(user);
 
         UserDetails userDetails = loadUserByUsername(user.getEmail());
-        String token = jwtService.generateToken(userDetails);
+        String token = jwtService.generateToken(userIdClaim(user), userDetails);
 
         return new AuthResponse(
                 token,
@@ -181,6 +201,13 @@ public class AuthService implements UserDetailsService {
         );
     }
 
+    /**
+     * The subject is the email; services match callers against their data by this claim
+     */
+    private static Map<String, Object> userIdClaim(User user) {
+        return Map.of(CallerIdentity.USER_ID_CLAIM, user.getId().toString());
+    }
+
     // ----------------------- Load User -----------------------
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -1,40 +1,39 @@
 package com.micropay.auth.service;
 
+import com.micropay.security.jwt.JwtCodec;
+import com.micropay.security.jwt.VerifiedToken;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
-import com.micropay.auth.repository.BlockedTokenRepository;
 import org.springframework.stereotype.Service;
-import com.micropay.auth.repository.BlockedTokenRepository;
+import com.micropay.auth.revocation.TokenRevocationList;
 
-import javax.crypto.SecretKey;
-import java.nio.charset.StandardCharsets;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * JWT Service for generating, validating, and parsing tokens.
+ * Signing key and parser are derived once by the shared {@link JwtCodec}.
  */
 @Service
 public class JwtService {
 
-    private final String secret;
+    private final JwtCodec codec;
     private final Long expiration;
-    private final BlockedTokenRepository blockedTokenRepository;
+    private final TokenRevocationList revocationList;
 
     public JwtService(
             @Value("${jwt.secret}") String secret,
             @Value("${jwt.expiration:86400000}") Long expiration,
-            BlockedTokenRepository blockedTokenRepository
+            TokenRevocationList revocationList
     ) {
-        this.secret = secret;
+        this.codec = new JwtCodec(secret);
         this.expiration = expiration;
-        this.blockedTokenRepository = blockedTokenRepository;
+        this.revocationList = revocationList;
     }
 
     /**
@@ -60,21 +59,17 @@ public class JwtService {
     }
 
     /**
-     * Extract all claims from token (modern parser)
+     * Extract all claims from token (signature verified)
      */
     public Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token) // ensures token signature is verified
-                .getBody();
+        return codec.parseClaims(token);
     }
 
     /**
-     * Check if token is expired
+     * Verify signature and expiry and extract subject, authorities and dates in one parse
      */
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    public VerifiedToken validateAndExtract(String token) {
+        return codec.validateAndExtract(token);
     }
 
     /**
@@ -85,41 +80,29 @@ public class JwtService {
     }
 
     /**
-     * Generate token with extra claims
+     * Generate token with extra claims; the user's roles go into the {@code authorities} claim
+     * so services can authorize on them without a lookup
      */
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
-        return createToken(extraClaims, userDetails.getUsername());
+        Map<String, Object> claims = new HashMap<>(extraClaims);
+        claims.put("authorities", userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList()));
+        return createToken(claims, userDetails.getUsername());
     }
 
     /**
      * Create JWT token
      */
     private String createToken(Map<String, Object> claims, String subject) {
-        Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration);
-
-        return Jwts.builder()
-                .setClaims(claims)
-                .setSubject(subject)
-                .setIssuedAt(now)
-                .setExpiration(expiryDate)
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
-                .compact();
+        return codec.sign(subject, claims, expiration);
     }
 
     /**
-     * Validate token against user details
+     * Validate token against user details in a single parse; revocation is checked in memory, not per call in the DB
      */
     public boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token) && !blockedTokenRepository.existsByToken(token);
-    }
-
-    /**
-     * Get signing key from secret
-     */
-    private SecretKey getSigningKey() {
-        byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-        return Keys.hmacShaKeyFor(keyBytes);
+        VerifiedToken verified = validateAndExtract(token);
+        return verified.getSubject().equals(userDetails.getUsername()) && !revocationList.isRevoked(token);
     }
 }
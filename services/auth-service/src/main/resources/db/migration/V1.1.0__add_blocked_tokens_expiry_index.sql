@@ -0,0 +1,2 @@
+-- Revoked tokens are reloaded by expiry on startup and purged once expired
+CREATE INDEX IF NOT EXISTS idx_blocked_token_expiry ON blocked_tokens(expiry_date);
@@ -0,0 +1,13 @@
+-- Transactional outbox: token.revoked events are inserted in the same transaction as the
+-- blocked token and published to Kafka by OutboxRelay (micropay-outbox)
+CREATE TABLE IF NOT EXISTS outbox_events (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    event_key VARCHAR(255),
+    payload TEXT NOT NULL,
+    payload_type VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+COMMENT ON TABLE outbox_events IS 'Events waiting to be relayed to Kafka';
+COMMENT ON COLUMN outbox_events.payload_type IS 'Event class name, sent as the __TypeId__ header';
@@ -0,0 +1,77 @@
+package com.micropay.auth.revocation;
+
+import com.micropay.auth.model.BlockedToken;
+import com.micropay.auth.repository.BlockedTokenRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTest {
+
+    private final BlockedTokenRepository blockedTokenRepository = mock(BlockedTokenRepository.class);
+    private final TokenRevocationList revocationList = new TokenRevocationList(blockedTokenRepository, 1000, 0.01, 60_000);
+
+    @Test
+    @DisplayName("load rebuilds the revocation set from blocked_tokens")
+    void load_fromBlockedTokens() {
+        when(blockedTokenRepository.findAllByExpiryDateAfter(any(LocalDateTime.class))).thenReturn(List.of(
+                new BlockedToken("revoked-1", LocalDateTime.now().plusHours(1)),
+                new BlockedToken("revoked-2", LocalDateTime.now().plusHours(1))
+        ));
+
+        revocationList.load();
+
+        assertThat(revocationList.isRevoked("revoked-1")).isTrue();
+        assertThat(revocationList.isRevoked("revoked-2")).isTrue();
+        assertThat(revocationList.isRevoked("still-valid")).isFalse();
+        verify(blockedTokenRepository, never()).existsByToken(any());
+    }
+
+    @Test
+    @DisplayName("revoke takes effect immediately and purge drops expired entries")
+    void revoke_thenPurge() {
+        revocationList.revoke("short-lived", LocalDateTime.now().minusSeconds(1));
+        revocationList.revoke("long-lived", LocalDateTime.now().plusHours(1));
+        assertThat(revocationList.isRevoked("short-lived")).isTrue();
+
+        int dropped = revocationList.purgeExpired();
+
+        assertThat(dropped).isEqualTo(1);
+        assertThat(revocationList.isRevoked("short-lived")).isFalse();
+        assertThat(revocationList.isRevoked("long-lived")).isTrue();
+        verify(blockedTokenRepository).deleteByExpiryDateBefore(any(LocalDateTime.class));
+    }
+
+    @Test
+    @DisplayName("bloom filter has no false negatives and few false positives")
+    void bloomFilter_falsePositiveRate() throws Exception {
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.add(digest("revoked-" + i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain(digest("probe-" + i))) {
+                falsePositives++;
+            }
+        }
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(filter.mightContain(digest("revoked-" + i))).isTrue();
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+
+    private static byte[] digest(String value) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
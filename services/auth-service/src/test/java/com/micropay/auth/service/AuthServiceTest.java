@@ -3,6 +3,7 @@ package com.micropay.auth.service;
 import com.micropay.auth.dto.AuthResponse;
 import com.micropay.auth.dto.LoginRequest;
 import com.micropay.auth.dto.RegisterRequest;
+import com.micropay.auth.model.BlockedToken;
 import com.micropay.auth.model.Role;
 import com.micropay.auth.model.User;
 import com.micropay.auth.model.UserStatus;
@@ -10,8 +11,14 @@ import com.micropay.auth.repository.BlockedTokenRepository;
 import com.micropay.auth.repository.PasswordResetTokenRepository;
 import com.micropay.auth.repository.RoleRepository;
 import com.micropay.auth.repository.UserRepository;
+import com.micropay.auth.revocation.TokenRevocationList;
 import com.micropay.events.dto.PasswordResetEvent;
+import com.micropay.events.dto.TokenRevokedEvent;
 import com.micropay.events.dto.UserCreatedEvent;
+import com.micropay.events.revocation.RevokedTokenIndex;
+import com.micropay.outbox.OutboxWriter;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.kafka.core.KafkaTemplate;
@@ -22,6 +29,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
@@ -44,6 +53,8 @@ class AuthServiceTest {
     private final KafkaTemplate<String, PasswordResetEvent> passwordResetKafkaTemplate = mock(KafkaTemplate.class);
     private final PasswordResetTokenRepository passwordResetTokenRepository = mock(PasswordResetTokenRepository.class);
     private final BlockedTokenRepository blockedTokenRepository = mock(BlockedTokenRepository.class);
+    private final TokenRevocationList revocationList = mock(TokenRevocationList.class);
+    private final OutboxWriter outboxWriter = mock(OutboxWriter.class);
 
     private final AuthService authService = new AuthService(
             userRepository,
@@ -54,7 +65,9 @@ class AuthServiceTest {
             kafkaTemplate,
             passwordResetKafkaTemplate,
             passwordResetTokenRepository,
-            blockedTokenRepository
+            blockedTokenRepository,
+            revocationList,
+            outboxWriter
     );
 
     @Test
@@ -87,7 +100,8 @@ class AuthServiceTest {
 
         when(userRepository.save(any(User.class))).thenReturn(saved);
         when(userRepository.findByEmail(req.getEmail())).thenReturn(Optional.of(saved));
-        when(jwtService.generateToken(any(UserDetails.class))).thenReturn("jwt-token");
+        when(jwtService.generateToken(eq(Map.of("userId", saved.getId().toString())), any(UserDetails.class)))
+                .thenReturn("jwt-token");
 
         AuthResponse resp = authService.register(req);
 
@@ -112,7 +126,8 @@ class AuthServiceTest {
         user.setStatus(UserStatus.ACTIVE);
 
         when(userRepository.findByEmail(req.getEmail())).thenReturn(Optional.of(user));
-        when(jwtService.generateToken(any(UserDetails.class))).thenReturn("jwt-token");
+        when(jwtService.generateToken(eq(Map.of("userId", user.getId().toString())), any(UserDetails.class)))
+                .thenReturn("jwt-token");
 
         AuthResponse resp = authService.login(req);
 
@@ -129,4 +144,20 @@ class AuthServiceTest {
         assertThatThrownBy(() -> authService.loadUserByUsername("missing@example.com"))
                 .isInstanceOf(UsernameNotFoundException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("logout persists the blocked token, revokes it in memory and writes token.revoked to the outbox")
+    void logout_revokesToken() {
+        Claims claims = Jwts.claims().setSubject("test@example.com");
+        claims.setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        when(jwtService.extractAllClaims("jwt-token")).thenReturn(claims);
+
+        authService.logout("jwt-token");
+
+        verify(blockedTokenRepository).save(any(BlockedToken.class));
+        verify(revocationList).revoke(eq("jwt-token"), any(LocalDateTime.class));
+        String tokenHash = RevokedTokenIndex.hash("jwt-token");
+        verify(outboxWriter).append(eq(TokenRevokedEvent.TOPIC), eq(tokenHash), argThat((TokenRevokedEvent event) ->
+                tokenHash.equals(event.getTokenHash()) && event.getExpiresAt() == claims.getExpiration().getTime()));
+    }
+}
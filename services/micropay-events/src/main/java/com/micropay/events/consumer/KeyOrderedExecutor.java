@@ -0,0 +1,130 @@
+package com.micropay.events.consumer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Processes a polled batch of records on several lanes while keeping per-key order.
+ *
+ * Records are split into {@code lanes} sub-lists by key hash, preserving their order,
+ * and each non-empty lane runs on its own thread. Records with the same key (userId)
+ * always land on the same lane and are handled one after another in offset order;
+ * different keys proceed in parallel. {@link #processAll} returns once every lane is
+ * done, so a listener that acknowledges afterwards never commits past an unprocessed
+ * record.
+ *
+ * A record whose handler throws is reported in the result and the lane moves on,
+ * exactly as a one-record-at-a-time listener logs a failure and reads the next record.
+ */
+public class KeyOrderedExecutor implements AutoCloseable {
+
+    private final int lanes;
+    private final ExecutorService executor;
+
+    public KeyOrderedExecutor(String name, int lanes) {
+        this.lanes = Math.max(1, lanes);
+        this.executor = Executors.newFixedThreadPool(this.lanes, daemonThreads(name));
+    }
+
+    public int lanes() {
+        return lanes;
+    }
+
+    /**
+     * Handle every record, in order per key, and return the ones whose handler failed
+     */
+    public <T> List<Failure<T>> processAll(List<T> records, Function<? super T, ?> keyOf, Consumer<? super T> handler) {
+        if (lanes == 1 || records.size() <= 1) {
+            return runLane(records, handler);
+        }
+
+        List<List<T>> byLane = new ArrayList<>(lanes);
+        for (int i = 0; i < lanes; i++) {
+            byLane.add(new ArrayList<>());
+        }
+        for (T record : records) {
+            byLane.get(laneFor(keyOf.apply(record), lanes)).add(record);
+        }
+
+        List<CompletableFuture<List<Failure<T>>>> running = new ArrayList<>(lanes);
+        for (List<T> lane : byLane) {
+            if (!lane.isEmpty()) {
+                running.add(CompletableFuture.supplyAsync(() -> runLane(lane, handler), executor));
+            }
+        }
+
+        List<Failure<T>> failures = new ArrayList<>();
+        for (CompletableFuture<List<Failure<T>>> lane : running) {
+            failures.addAll(lane.join());
+        }
+        return failures;
+    }
+
+    static int laneFor(Object key, int lanes) {
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), lanes);
+    }
+
+    private static <T> List<Failure<T>> runLane(List<T> records, Consumer<? super T> handler) {
+        List<Failure<T>> failures = new ArrayList<>(0);
+        for (T record : records) {
+            try {
+                handler.accept(record);
+            } catch (RuntimeException e) {
+                failures.add(new Failure<>(record, e));
+            }
+        }
+        return failures;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-lane-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * A record whose handler threw, with the exception
+     */
+    public static final class Failure<T> {
+        private final T record;
+        private final RuntimeException error;
+
+        Failure(T record, RuntimeException error) {
+            this.record = record;
+            this.error = error;
+        }
+
+        public T getRecord() {
+            return record;
+        }
+
+        public RuntimeException getError() {
+            return error;
+        }
+    }
+}
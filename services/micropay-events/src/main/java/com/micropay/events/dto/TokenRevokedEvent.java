@@ -0,0 +1,77 @@
+package com.micropay.events.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published by auth-service on logout so every hop can reject the token locally.
+ *
+ * Carries the token's SHA-256 (base64url, no padding) rather than the token itself,
+ * and the token's own expiry so consumers can forget it once it could no longer be used.
+ */
+public class TokenRevokedEvent {
+
+    public static final String TOPIC = "token.revoked";
+
+    private String eventId;
+    private String eventType;
+    private LocalDateTime timestamp;
+    private String tokenHash;
+    private long expiresAt;
+
+    // Constructors
+    public TokenRevokedEvent() {
+    }
+
+    public TokenRevokedEvent(String tokenHash, long expiresAt) {
+        this.eventId = UUID.randomUUID().toString();
+        this.eventType = TOPIC;
+        this.timestamp = LocalDateTime.now();
+        this.tokenHash = tokenHash;
+        this.expiresAt = expiresAt;
+    }
+
+    // Getters and Setters
+    public String getEventId() {
+        return eventId;
+    }
+
+    public void setEventId(String eventId) {
+        this.eventId = eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getTokenHash() {
+        return tokenHash;
+    }
+
+    public void setTokenHash(String tokenHash) {
+        this.tokenHash = tokenHash;
+    }
+
+    /**
+     * Token expiry in epoch milliseconds
+     */
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(long expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,65 @@
+package com.micropay.events.revocation;
+
+import com.micropay.events.dto.TokenRevokedEvent;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local, expiry-aware set of revoked tokens fed from the {@code token.revoked} stream.
+ *
+ * Lookups hash the presented token and probe a concurrent map, so a request path can
+ * reject a logged-out token without calling auth-service. Entries are kept only until
+ * the token's own expiry (after which signature checks reject it anyway); expired
+ * entries are swept on write, at most once per {@link #SWEEP_INTERVAL_MS}.
+ */
+public class RevokedTokenIndex {
+
+    static final long SWEEP_INTERVAL_MS = 60_000;
+
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile long lastSweep = System.currentTimeMillis();
+
+    public void revoke(TokenRevokedEvent event) {
+        revoke(event.getTokenHash(), event.getExpiresAt());
+    }
+
+    public void revoke(String tokenHash, long expiresAt) {
+        long now = System.currentTimeMillis();
+        if (tokenHash == null || expiresAt <= now) {
+            return;
+        }
+        revoked.merge(tokenHash, expiresAt, Math::max);
+        if (now - lastSweep >= SWEEP_INTERVAL_MS) {
+            lastSweep = now;
+            revoked.values().removeIf(expiry -> expiry <= now);
+        }
+    }
+
+    public boolean isRevoked(String token) {
+        if (revoked.isEmpty()) {
+            return false;
+        }
+        Long expiresAt = revoked.get(hash(token));
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    /**
+     * SHA-256 of the token, base64url without padding, as carried by {@link TokenRevokedEvent}
+     */
+    public static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
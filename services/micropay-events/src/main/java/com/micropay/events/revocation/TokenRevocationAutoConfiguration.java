@@ -0,0 +1,63 @@
+package com.micropay.events.revocation;
+
+import com.micropay.events.dto.TokenRevokedEvent;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Gives every service a {@link RevokedTokenIndex} fed from token.revoked.
+ *
+ * The listener container factory is registered on its own, so a service that keeps its
+ * own revocation store (auth-service) can listen through it with
+ * {@code security.revocation.index.enabled=false}.
+ */
+@AutoConfiguration
+@ConditionalOnClass(KafkaListener.class)
+public class TokenRevocationAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(name = "tokenRevokedListenerContainerFactory")
+    public ConcurrentKafkaListenerContainerFactory<String, TokenRevokedEvent> tokenRevokedListenerContainerFactory(
+            @Value("${spring.kafka.bootstrap-servers:kafka:29092}") String bootstrapServers) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        // Every instance must see every revocation, so each one reads the whole topic
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        // Not a bean: a ConsumerFactory bean would replace the service's auto-configured one
+        ConcurrentKafkaListenerContainerFactory<String, TokenRevokedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new JsonDeserializer<>(TokenRevokedEvent.class, false)));
+        return factory;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "security.revocation.index", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public RevokedTokenIndex revokedTokenIndex() {
+        return new RevokedTokenIndex();
+    }
+
+    @Bean
+    @ConditionalOnBean(RevokedTokenIndex.class)
+    @ConditionalOnMissingBean
+    public TokenRevokedEventConsumer tokenRevokedEventConsumer(RevokedTokenIndex revokedTokenIndex) {
+        return new TokenRevokedEventConsumer(revokedTokenIndex);
+    }
+}
@@ -0,0 +1,32 @@
+package com.micropay.events.revocation;
+
+import com.micropay.events.dto.TokenRevokedEvent;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.PartitionOffset;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.messaging.handler.annotation.Payload;
+
+/**
+ * Kafka consumer for token.revoked events
+ * Feeds the local index the authentication filters check before trusting a token
+ *
+ * Every instance needs every revocation, so instead of joining a consumer group it assigns
+ * the topic's single partition itself and reads it from the start of retention on every
+ * boot. With no group nothing is committed and no group is left behind per restart.
+ * Listens through the {@code tokenRevokedListenerContainerFactory} of {@link TokenRevocationAutoConfiguration}.
+ */
+public class TokenRevokedEventConsumer {
+
+    private final RevokedTokenIndex revokedTokenIndex;
+
+    public TokenRevokedEventConsumer(RevokedTokenIndex revokedTokenIndex) {
+        this.revokedTokenIndex = revokedTokenIndex;
+    }
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = TokenRevokedEvent.TOPIC,
+            partitionOffsets = @PartitionOffset(partition = "0", initialOffset = "0")),
+            containerFactory = "tokenRevokedListenerContainerFactory")
+    public void consumeTokenRevokedEvent(@Payload TokenRevokedEvent event) {
+        revokedTokenIndex.revoke(event);
+    }
+}
@@ -0,0 +1,125 @@
+package com.micropay.events.consumer;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Key Ordered Executor Tests")
+class KeyOrderedExecutorTest {
+
+    private final KeyOrderedExecutor executor = new KeyOrderedExecutor("test", 4);
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    private record Event(String key, int sequence) {
+    }
+
+    @Test
+    @DisplayName("Should handle records of one key in the order they were read")
+    void processAll_KeepsPerKeyOrder() {
+        // Given
+        List<Event> records = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            records.add(new Event("user-" + (i % 7), i));
+        }
+        Map<String, List<Integer>> seen = new ConcurrentHashMap<>();
+
+        // When
+        List<KeyOrderedExecutor.Failure<Event>> failures = executor.processAll(records, Event::key,
+            event -> seen.computeIfAbsent(event.key(), key -> new CopyOnWriteArrayList<>()).add(event.sequence()));
+
+        // Then
+        assertTrue(failures.isEmpty());
+        assertEquals(7, seen.size());
+        for (List<Integer> sequences : seen.values()) {
+            List<Integer> sorted = new ArrayList<>(sequences);
+            sorted.sort(null);
+            assertEquals(sorted, sequences);
+        }
+        assertEquals(1_000, seen.values().stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    @DisplayName("Should run different keys in parallel and return only after every lane is done")
+    void processAll_RunsLanesInParallel() {
+        // Given: two keys on different lanes, each waiting for the other to start
+        String first = "a";
+        String second = keyOnAnotherLane(first);
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Set<String> done = ConcurrentHashMap.newKeySet();
+
+        // When
+        List<KeyOrderedExecutor.Failure<Event>> failures = executor.processAll(
+            List.of(new Event(first, 0), new Event(second, 1)), Event::key, event -> {
+                bothStarted.countDown();
+                try {
+                    assertTrue(bothStarted.await(5, TimeUnit.SECONDS), "lanes should run concurrently");
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.add(event.key());
+            });
+
+        // Then
+        assertTrue(failures.isEmpty());
+        assertEquals(Set.of(first, second), done);
+    }
+
+    @Test
+    @DisplayName("Should report a failing record and carry on with the rest of its lane")
+    void processAll_ReportsFailures() {
+        // Given
+        List<Event> records = List.of(new Event("user", 0), new Event("user", 1), new Event("user", 2));
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+        IllegalStateException boom = new IllegalStateException("boom");
+
+        // When
+        List<KeyOrderedExecutor.Failure<Event>> failures = executor.processAll(records, Event::key, event -> {
+            if (event.sequence() == 1) {
+                throw boom;
+            }
+            handled.add(event.sequence());
+        });
+
+        // Then
+        assertEquals(List.of(0, 2), handled);
+        assertEquals(1, failures.size());
+        assertEquals(records.get(1), failures.get(0).getRecord());
+        assertSame(boom, failures.get(0).getError());
+    }
+
+    @Test
+    @DisplayName("Should map a key to the same lane every time, and null keys to lane 0")
+    void laneFor_IsStable() {
+        assertEquals(KeyOrderedExecutor.laneFor("user-42", 4), KeyOrderedExecutor.laneFor("user-42", 4));
+        assertEquals(0, KeyOrderedExecutor.laneFor(null, 4));
+        for (int i = 0; i < 100; i++) {
+            int lane = KeyOrderedExecutor.laneFor("user-" + i, 4);
+            assertTrue(lane >= 0 && lane < 4);
+        }
+    }
+
+    private static String keyOnAnotherLane(String key) {
+        int lane = KeyOrderedExecutor.laneFor(key, 4);
+        for (int i = 0; ; i++) {
+            String candidate = key + i;
+            if (KeyOrderedExecutor.laneFor(candidate, 4) != lane) {
+                return candidate;
+            }
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.micropay.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnSingleCandidate;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * Wires the outbox writer and relay into any service with a DataSource and spring-kafka.
+ * The relay publishes with the shared {@link ProducerProfile}: events are already durable
+ * in the outbox, so it can afford to linger and compress.
+ */
+@AutoConfiguration(after = {DataSourceAutoConfiguration.class, ProducerProfileAutoConfiguration.class})
+@ConditionalOnClass(KafkaTemplate.class)
+@ConditionalOnSingleCandidate(DataSource.class)
+public class OutboxAutoConfiguration {
+
+    private static final long SEND_TIMEOUT_MARGIN_MS = 5000;
+
+    @Bean
+    @ConditionalOnMissingBean
+    public OutboxWriter outboxWriter(DataSource dataSource) {
+        return new OutboxWriter(new JdbcTemplate(dataSource));
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(prefix = "outbox.relay", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public OutboxRelay outboxRelay(DataSource dataSource,
+                                   ProducerProfile producerProfile,
+                                   ObjectProvider<MeterRegistry> meterRegistry,
+                                   @Value("${outbox.relay.batch-size:500}") int batchSize,
+                                   @Value("${outbox.relay.poll-interval-ms:100}") long pollIntervalMs) {
+        // Rows stay in the outbox until acknowledged, so the relay dead-letters itself rather than on every failure
+        return new OutboxRelay(
+            new JdbcTemplate(dataSource),
+            producerProfile.topicTemplates(StringSerializer.class, false),
+            new OutboxRelayLock(dataSource),
+            meterRegistry.getIfAvailable(SimpleMeterRegistry::new),
+            batchSize,
+            pollIntervalMs,
+            // The producer settles every send within its delivery timeout; waiting less would re-send live ones
+            producerProfile.getDeliveryTimeoutMs() + SEND_TIMEOUT_MARGIN_MS
+        );
+    }
+}
@@ -0,0 +1,55 @@
+package com.micropay.outbox;
+
+import java.time.LocalDateTime;
+
+/**
+ * A row of the outbox_events table waiting to be relayed to Kafka
+ */
+public class OutboxEvent {
+
+    private final long id;
+    private final String topic;
+    private final String key;
+    private final String payload;
+    private final String payloadType;
+    private final LocalDateTime createdAt;
+
+    public OutboxEvent(long id, String topic, String key, String payload, String payloadType, LocalDateTime createdAt) {
+        this.id = id;
+        this.topic = topic;
+        this.key = key;
+        this.payload = payload;
+        this.payloadType = payloadType;
+        this.createdAt = createdAt;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public String getTopic() {
+        return topic;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Event serialized as JSON, exactly as the Kafka JsonSerializer would write it
+     */
+    public String getPayload() {
+        return payload;
+    }
+
+    /**
+     * Class name of the original event, sent as the __TypeId__ header
+     */
+    public String getPayloadType() {
+        return payloadType;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -0,0 +1,297 @@
+package com.micropay.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background publisher for the outbox_events table.
+ *
+ * Every {@code outbox.relay.poll-interval-ms} the relay reads up to
+ * {@code outbox.relay.batch-size} rows in id order, publishes them and deletes the rows
+ * that were settled. It keeps draining while batches come back full. Rows whose send
+ * failed transiently stay in the table and are retried, so delivery is at-least-once; a
+ * row Kafka rejects outright (too large, invalid topic) would fail forever, so it is
+ * published to its dead-letter topic and deleted.
+ *
+ * Events with the same topic and key are published in id order: a row is handed to the
+ * producer only once the previous row with its key has been acknowledged, and after a
+ * failure the rest of that key waits for the next cycle. Rows with different keys go out
+ * together, one producer flush per round. Only the instance holding the
+ * {@link OutboxRelayLock} relays, so no other instance can publish a key's later rows
+ * meanwhile. The relay takes no row locks and holds no transaction while it talks to Kafka.
+ *
+ * Each topic is sent through the producer its {@link ProducerProfile} settings call for.
+ */
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    private static final String TYPE_ID_HEADER = "__TypeId__";
+
+    static final String SELECT_SQL =
+        "SELECT id, topic, event_key, payload, payload_type, created_at FROM outbox_events "
+            + "ORDER BY id LIMIT ?";
+    static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id = ?";
+
+    private static final RowMapper<OutboxEvent> ROW_MAPPER = (rs, rowNum) -> new OutboxEvent(
+        rs.getLong("id"),
+        rs.getString("topic"),
+        rs.getString("event_key"),
+        rs.getString("payload"),
+        rs.getString("payload_type"),
+        rs.getTimestamp("created_at").toLocalDateTime()
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TopicTemplates<String> producers;
+    private final OutboxRelayLock relayLock;
+    private final int batchSize;
+    private final long pollIntervalMs;
+    private final long sendTimeoutMs;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter published;
+    private final Counter failed;
+    private final Counter deadLettered;
+    private final DistributionSummary batchFill;
+
+    private ScheduledExecutorService poller;
+
+    /**
+     * @param sendTimeoutMs how long to wait for an acknowledgement; keep it above the
+     *                      producer's delivery.timeout.ms, or a send still in flight is
+     *                      counted as failed and published again
+     */
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       TopicTemplates<String> producers,
+                       OutboxRelayLock relayLock,
+                       MeterRegistry meterRegistry,
+                       int batchSize,
+                       long pollIntervalMs,
+                       long sendTimeoutMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.producers = producers;
+        this.relayLock = relayLock;
+        this.batchSize = Math.max(1, batchSize);
+        this.pollIntervalMs = pollIntervalMs;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.published = Counter.builder("outbox.relay.published")
+            .description("Outbox events acknowledged by Kafka")
+            .register(meterRegistry);
+        this.failed = Counter.builder("outbox.relay.failed")
+            .description("Outbox event sends that failed and will be retried")
+            .register(meterRegistry);
+        this.deadLettered = Counter.builder("outbox.relay.dead.lettered")
+            .description("Outbox events Kafka rejected, moved to their dead-letter topic")
+            .register(meterRegistry);
+        this.batchFill = DistributionSummary.builder("outbox.relay.batch.size")
+            .description("Outbox events read per relay cycle")
+            .baseUnit("events")
+            .register(meterRegistry);
+        TimeGauge.builder("outbox.relay.lag", lagMillis, TimeUnit.MILLISECONDS, AtomicLong::get)
+            .description("Age of the oldest outbox event at the last relay cycle")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        poller = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "outbox-relay");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::drainQuietly, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Outbox relay started with batch size {}, poll interval {} ms", batchSize, pollIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (poller == null) {
+            return;
+        }
+        poller.shutdown();
+        try {
+            poller.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        relayLock.release();
+        producers.destroy();
+    }
+
+    private void drainQuietly() {
+        try {
+            // Keep draining while whole batches go through; back off to the poll interval otherwise
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize && !Thread.currentThread().isInterrupted());
+        } catch (Exception e) {
+            logger.error("Outbox relay cycle failed, will retry", e);
+        }
+    }
+
+    /**
+     * Read, publish and delete one batch of outbox rows, if this instance is the relay
+     *
+     * @return number of rows published (or dead-lettered) and deleted in this cycle
+     */
+    public int relayBatch() {
+        if (!relayLock.tryAcquire()) {
+            return 0;
+        }
+        List<OutboxEvent> batch = jdbcTemplate.query(SELECT_SQL, ROW_MAPPER, batchSize);
+        if (batch.isEmpty()) {
+            lagMillis.set(0);
+            return 0;
+        }
+        lagMillis.set(Duration.between(batch.get(0).getCreatedAt(), LocalDateTime.now()).toMillis());
+        batchFill.record(batch.size());
+
+        Map<List<String>, Deque<OutboxEvent>> lanes = lanes(batch);
+        List<Object[]> settled = new ArrayList<>(batch.size());
+        // Each round sends the oldest unsent row of every key; a key drops out at its first unsettled row
+        while (!lanes.isEmpty() && !Thread.currentThread().isInterrupted()) {
+            List<OutboxEvent> round = new ArrayList<>(lanes.size());
+            lanes.values().forEach(lane -> round.add(lane.peekFirst()));
+            Set<Long> acknowledged = publish(round);
+            Iterator<Deque<OutboxEvent>> remaining = lanes.values().iterator();
+            while (remaining.hasNext()) {
+                Deque<OutboxEvent> lane = remaining.next();
+                OutboxEvent head = lane.pollFirst();
+                if (!acknowledged.contains(head.getId())) {
+                    logger.debug("Holding {} later outbox events behind event {}", lane.size(), head.getId());
+                    remaining.remove();
+                    continue;
+                }
+                settled.add(new Object[] {head.getId()});
+                if (lane.isEmpty()) {
+                    remaining.remove();
+                }
+            }
+        }
+        if (!settled.isEmpty()) {
+            jdbcTemplate.batchUpdate(DELETE_SQL, settled);
+        }
+        return settled.size();
+    }
+
+    /**
+     * The batch's rows per topic and key, in id order; unkeyed rows carry no order and
+     * each get a lane of their own
+     */
+    private static Map<List<String>, Deque<OutboxEvent>> lanes(List<OutboxEvent> batch) {
+        Map<List<String>, Deque<OutboxEvent>> lanes = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            List<String> lane = event.getKey() != null
+                ? List.of(event.getTopic(), event.getKey())
+                : List.of(String.valueOf(event.getId()));
+            lanes.computeIfAbsent(lane, key -> new ArrayDeque<>()).add(event);
+        }
+        return lanes;
+    }
+
+    /**
+     * Send one round, at most one row per key, with a single flush
+     *
+     * @return ids of the rows Kafka acknowledged or that reached their dead-letter topic
+     */
+    private Set<Long> publish(List<OutboxEvent> round) {
+        List<ProducerRecord<String, String>> records = new ArrayList<>(round.size());
+        List<CompletableFuture<SendResult<String, String>>> sends = new ArrayList<>(round.size());
+        for (OutboxEvent event : round) {
+            ProducerRecord<String, String> record = toRecord(event);
+            records.add(record);
+            sends.add(producers.send(record));
+        }
+        producers.flush();
+
+        Set<Long> settled = new HashSet<>();
+        List<OutboxEvent> rejected = new ArrayList<>();
+        List<CompletableFuture<SendResult<String, String>>> deadLetters = new ArrayList<>();
+        for (int i = 0; i < round.size(); i++) {
+            OutboxEvent event = round.get(i);
+            try {
+                sends.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                settled.add(event.getId());
+                published.increment();
+            } catch (ExecutionException | TimeoutException e) {
+                failed.increment();
+                if (PublishOutcomeListener.isRetriable(e)) {
+                    logger.warn("Failed to relay outbox event {} to topic {}, will retry", event.getId(), event.getTopic(), e);
+                } else {
+                    logger.error("Kafka rejected outbox event {} for topic {}, dead-lettering", event.getId(), event.getTopic(), e);
+                    rejected.add(event);
+                    deadLetters.add(producers.deadLetter(records.get(i), e));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (!deadLetters.isEmpty()) {
+            producers.flush();
+            settled.addAll(awaitDeadLetters(rejected, deadLetters));
+        }
+        return settled;
+    }
+
+    /**
+     * Wait for dead-letter sends
+     *
+     * @return ids of the rows whose dead-letter copy was acknowledged
+     */
+    private List<Long> awaitDeadLetters(List<OutboxEvent> rejected,
+                                        List<CompletableFuture<SendResult<String, String>>> deadLetters) {
+        List<Long> settled = new ArrayList<>(rejected.size());
+        for (int i = 0; i < rejected.size(); i++) {
+            try {
+                deadLetters.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+                settled.add(rejected.get(i).getId());
+                deadLettered.increment();
+            } catch (ExecutionException | TimeoutException e) {
+                logger.warn("Failed to dead-letter outbox event {}, will retry", rejected.get(i).getId(), e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return settled;
+    }
+
+    private static ProducerRecord<String, String> toRecord(OutboxEvent event) {
+        ProducerRecord<String, String> record = new ProducerRecord<>(event.getTopic(), event.getKey(), event.getPayload());
+        if (event.getPayloadType() != null) {
+            record.headers().add(TYPE_ID_HEADER, event.getPayloadType().getBytes(StandardCharsets.UTF_8));
+        }
+        return record;
+    }
+}
@@ -0,0 +1,104 @@
+package com.micropay.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Keeps a single {@link OutboxRelay} per database publishing.
+ *
+ * A Postgres session-level advisory lock, held on a connection set aside for it. It needs
+ * no table, locks no rows and holds no transaction open, and the server releases it when
+ * the holder's session ends, so another instance takes over after a crash. Databases
+ * without advisory locks never grant it, which keeps the relay idle there.
+ */
+public class OutboxRelayLock {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelayLock.class);
+
+    static final String TRY_LOCK_SQL = "SELECT pg_try_advisory_lock(?)";
+    static final String UNLOCK_SQL = "SELECT pg_advisory_unlock(?)";
+    // Same key in every service: each one relays its own database's outbox_events
+    static final long LOCK_KEY = 0x6f7574626f78L;
+
+    private final DataSource dataSource;
+    private Connection connection;
+
+    public OutboxRelayLock(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    /**
+     * Whether this instance holds the lock, taking it if it is free
+     */
+    public synchronized boolean tryAcquire() {
+        if (connection != null) {
+            if (isValid(connection)) {
+                return true;
+            }
+            logger.warn("Lost the outbox relay lock connection; another instance may take over");
+            closeQuietly();
+        }
+        try {
+            connection = dataSource.getConnection();
+            connection.setAutoCommit(true);
+            if (query(TRY_LOCK_SQL)) {
+                logger.info("Acquired the outbox relay lock; this instance publishes the outbox");
+                return true;
+            }
+        } catch (SQLException e) {
+            logger.debug("Could not take the outbox relay lock", e);
+        }
+        closeQuietly();
+        return false;
+    }
+
+    /**
+     * Give the lock up, e.g. on shutdown; a pooled connection would otherwise keep holding it
+     */
+    public synchronized void release() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            query(UNLOCK_SQL);
+        } catch (SQLException e) {
+            logger.warn("Failed to release the outbox relay lock", e);
+        }
+        closeQuietly();
+    }
+
+    private boolean query(String sql) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() && result.getBoolean(1);
+            }
+        }
+    }
+
+    private static boolean isValid(Connection connection) {
+        try {
+            return connection.isValid(1);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void closeQuietly() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            logger.debug("Failed to close the outbox relay lock connection", e);
+        }
+        connection = null;
+    }
+}
@@ -0,0 +1,69 @@
+package com.micropay.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.kafka.support.JacksonUtils;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Records events in the outbox_events table instead of sending them to Kafka.
+ *
+ * The insert runs on the caller's JDBC connection, so inside a {@code @Transactional}
+ * method the event commits or rolls back together with the business change.
+ * {@link OutboxRelay} publishes committed rows in the background.
+ */
+public class OutboxWriter {
+
+    static final String INSERT_SQL =
+        "INSERT INTO outbox_events (topic, event_key, payload, payload_type, created_at) VALUES (?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate) {
+        // Same mapper the Kafka JsonSerializer uses, so consumers see identical payloads
+        this(jdbcTemplate, JacksonUtils.enhancedObjectMapper());
+    }
+
+    public OutboxWriter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Queue an event for {@code topic}; failures propagate so the caller's transaction rolls back
+     */
+    public void append(String topic, String key, Object event) {
+        jdbcTemplate.update(INSERT_SQL, topic, key, serialize(topic, event), event.getClass().getName(),
+                            Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    /**
+     * Queue many events for {@code topic} with a single JDBC batch insert, preserving list order
+     */
+    public <T> void appendAll(String topic, List<T> events, Function<T, String> keyFunction) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (T event : events) {
+            rows.add(new Object[] {topic, keyFunction.apply(event), serialize(topic, event), event.getClass().getName(), now});
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, rows);
+    }
+
+    private String serialize(String topic, Object event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox event for topic: " + topic, e);
+        }
+    }
+}
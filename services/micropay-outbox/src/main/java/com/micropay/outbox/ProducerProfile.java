@@ -0,0 +1,136 @@
+package com.micropay.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.MicrometerProducerListener;
+import org.springframework.kafka.core.ProducerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Shared producer settings for every MicroPay Kafka producer.
+ *
+ * Defaults come from {@code kafka.producer-profile.*} and favour throughput: acks=all with
+ * idempotence, a short linger so sends to the same partition share a batch, large batches
+ * and lz4 compression. Batching and compression can be overridden per topic under
+ * {@code kafka.producer-profile.topics.<topic>.*}; Kafka applies them per producer, so a
+ * topic with its own settings gets its own producer (see {@link TopicTemplates}).
+ *
+ * Templates built here report every send outcome through {@link PublishOutcomeListener} and
+ * register the client's own metrics (bytes sent, compression ratio, batch size) with Micrometer.
+ */
+public class ProducerProfile {
+
+    private final String bootstrapServers;
+    private final Settings defaults;
+    private final Map<String, Settings> topics;
+    private final int deliveryTimeoutMs;
+    private final String deadLetterSuffix;
+    private final MeterRegistry meterRegistry;
+
+    public ProducerProfile(String bootstrapServers,
+                           Settings defaults,
+                           Map<String, Settings> topics,
+                           int deliveryTimeoutMs,
+                           String deadLetterSuffix,
+                           MeterRegistry meterRegistry) {
+        this.bootstrapServers = bootstrapServers;
+        this.defaults = defaults;
+        this.topics = Map.copyOf(topics);
+        this.deliveryTimeoutMs = deliveryTimeoutMs;
+        this.deadLetterSuffix = deadLetterSuffix;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Batching and compression for {@code topic}: its overrides, falling back to the defaults
+     */
+    public Settings settingsFor(String topic) {
+        Settings override = topic != null ? topics.get(topic) : null;
+        return override != null ? override.orElse(defaults) : defaults;
+    }
+
+    /**
+     * Upper bound on how long the producer takes to report a send's outcome
+     */
+    public int getDeliveryTimeoutMs() {
+        return deliveryTimeoutMs;
+    }
+
+    public String deadLetterTopic(String topic) {
+        return topic + deadLetterSuffix;
+    }
+
+    boolean isDeadLetterTopic(String topic) {
+        return topic.endsWith(deadLetterSuffix);
+    }
+
+    /**
+     * Producer configuration with the default settings, for a producer shared by several topics
+     */
+    public Map<String, Object> producerConfigs(Class<?> valueSerializer) {
+        return producerConfigs(defaults, valueSerializer);
+    }
+
+    /**
+     * Producer configuration for {@code topic}, with String keys and the given value serializer
+     */
+    public Map<String, Object> producerConfigs(String topic, Class<?> valueSerializer) {
+        return producerConfigs(settingsFor(topic), valueSerializer);
+    }
+
+    Map<String, Object> producerConfigs(Settings settings, Class<?> valueSerializer) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, valueSerializer);
+        props.put(ProducerConfig.ACKS_CONFIG, "all");
+        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        // The client retries transient errors itself until the delivery timeout; what is still
+        // failing after that reaches the outcome listener
+        props.put(ProducerConfig.RETRIES_CONFIG, Integer.MAX_VALUE);
+        props.put(ProducerConfig.DELIVERY_TIMEOUT_MS_CONFIG, deliveryTimeoutMs);
+        props.put(ProducerConfig.LINGER_MS_CONFIG, settings.lingerMs());
+        props.put(ProducerConfig.BATCH_SIZE_CONFIG, settings.batchSize());
+        props.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, settings.compressionType());
+        return props;
+    }
+
+    /**
+     * Template for a service-owned producer factory. Failed sends are dead-lettered.
+     */
+    public <V> KafkaTemplate<String, V> kafkaTemplate(ProducerFactory<String, V> producerFactory) {
+        return kafkaTemplate(producerFactory, true);
+    }
+
+    <V> KafkaTemplate<String, V> kafkaTemplate(ProducerFactory<String, V> producerFactory, boolean deadLetter) {
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        KafkaTemplate<String, V> kafkaTemplate = new KafkaTemplate<>(producerFactory);
+        kafkaTemplate.setProducerListener(new PublishOutcomeListener<>(this, kafkaTemplate, meterRegistry, deadLetter));
+        return kafkaTemplate;
+    }
+
+    /**
+     * Per-topic templates sharing this profile, for producers that publish to many topics
+     */
+    public <V> TopicTemplates<V> topicTemplates(Class<?> valueSerializer, boolean deadLetter) {
+        return new TopicTemplates<>(this, valueSerializer, deadLetter);
+    }
+
+    /**
+     * Batching and compression settings. In a per-topic override, unset values are null.
+     */
+    public record Settings(Integer lingerMs, Integer batchSize, String compressionType) {
+
+        Settings orElse(Settings defaults) {
+            return new Settings(
+                lingerMs != null ? lingerMs : defaults.lingerMs(),
+                batchSize != null ? batchSize : defaults.batchSize(),
+                compressionType != null ? compressionType : defaults.compressionType()
+            );
+        }
+    }
+}
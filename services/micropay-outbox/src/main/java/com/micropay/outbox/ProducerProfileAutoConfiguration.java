@@ -0,0 +1,51 @@
+package com.micropay.outbox;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.util.Map;
+
+/**
+ * Provides the shared {@link ProducerProfile} to any service with spring-kafka.
+ *
+ * Per-topic overrides are bound from {@code kafka.producer-profile.topics}; topic names
+ * contain dots, so they are written in brackets, e.g.
+ * {@code kafka.producer-profile.topics.[wallet.balance.updated].compression-type=zstd}.
+ */
+@AutoConfiguration
+@ConditionalOnClass(KafkaTemplate.class)
+public class ProducerProfileAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public ProducerProfile producerProfile(Environment environment,
+                                           ObjectProvider<MeterRegistry> meterRegistry,
+                                           @Value("${spring.kafka.bootstrap-servers:kafka:29092}") String bootstrapServers,
+                                           @Value("${kafka.producer-profile.linger-ms:20}") int lingerMs,
+                                           @Value("${kafka.producer-profile.batch-size:131072}") int batchSize,
+                                           @Value("${kafka.producer-profile.compression-type:lz4}") String compressionType,
+                                           @Value("${kafka.producer-profile.delivery-timeout-ms:120000}") int deliveryTimeoutMs,
+                                           @Value("${kafka.producer-profile.dead-letter-suffix:.DLT}") String deadLetterSuffix) {
+        Map<String, ProducerProfile.Settings> topics = Binder.get(environment)
+            .bind("kafka.producer-profile.topics", Bindable.mapOf(String.class, ProducerProfile.Settings.class))
+            .orElse(Map.of());
+        return new ProducerProfile(
+            bootstrapServers,
+            new ProducerProfile.Settings(lingerMs, batchSize, compressionType),
+            topics,
+            deliveryTimeoutMs,
+            deadLetterSuffix,
+            meterRegistry.getIfAvailable(SimpleMeterRegistry::new)
+        );
+    }
+}
@@ -0,0 +1,159 @@
+package com.micropay.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.errors.RetriableException;
+import org.apache.kafka.common.header.Header;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.ProducerListener;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Completion callback for every send through a profiled template.
+ *
+ * Runs on the producer's I/O thread once the broker has answered, so callers never block
+ * on a send to get metrics: per topic it counts sent and failed records, records the
+ * serialized record size and the time from send to acknowledgement. When dead-lettering
+ * is on, a record the producer gave up on (non-retriable error, or still failing when
+ * {@code delivery.timeout.ms} ran out) is re-published to {@code <topic>.DLT} with the
+ * original topic and the error in the headers.
+ */
+public class PublishOutcomeListener<V> implements ProducerListener<String, V> {
+
+    private static final Logger logger = LoggerFactory.getLogger(PublishOutcomeListener.class);
+
+    private final ProducerProfile profile;
+    private final KafkaOperations<String, V> kafkaOperations;
+    private final MeterRegistry meterRegistry;
+    private final boolean deadLetter;
+    private final Map<String, TopicMeters> meters = new ConcurrentHashMap<>();
+
+    public PublishOutcomeListener(ProducerProfile profile,
+                                  KafkaOperations<String, V> kafkaOperations,
+                                  MeterRegistry meterRegistry,
+                                  boolean deadLetter) {
+        this.profile = profile;
+        this.kafkaOperations = kafkaOperations;
+        this.meterRegistry = meterRegistry;
+        this.deadLetter = deadLetter;
+    }
+
+    @Override
+    public void onSuccess(ProducerRecord<String, V> record, RecordMetadata metadata) {
+        TopicMeters topic = metersFor(record.topic());
+        topic.sent.increment();
+        topic.recordBytes.record(Math.max(0, metadata.serializedKeySize()) + Math.max(0, metadata.serializedValueSize()));
+        if (metadata.hasTimestamp()) {
+            topic.latency.record(Math.max(0, System.currentTimeMillis() - metadata.timestamp()), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public void onError(ProducerRecord<String, V> record, RecordMetadata metadata, Exception exception) {
+        metersFor(record.topic()).failed.increment();
+        if (!deadLetter || profile.isDeadLetterTopic(record.topic())) {
+            logger.error("Failed to publish to topic {} with key {}", record.topic(), record.key(), exception);
+            return;
+        }
+
+        logger.warn("Failed to publish to topic {} with key {}, dead-lettering", record.topic(), record.key(), exception);
+        kafkaOperations.send(deadLetterRecord(profile, record, exception))
+            .whenComplete((result, ex) -> {
+                if (ex == null) {
+                    metersFor(record.topic()).deadLettered.increment();
+                } else {
+                    logger.error("Failed to dead-letter record from topic {} with key {}, record lost",
+                                 record.topic(), record.key(), ex);
+                }
+            });
+    }
+
+    /**
+     * Copy of {@code record} for its dead-letter topic, with the original topic and the error as headers
+     */
+    static <V> ProducerRecord<String, V> deadLetterRecord(ProducerProfile profile, ProducerRecord<String, V> record,
+                                                          Throwable error) {
+        ProducerRecord<String, V> deadLetter =
+            new ProducerRecord<>(profile.deadLetterTopic(record.topic()), record.key(), record.value());
+        for (Header header : record.headers()) {
+            deadLetter.headers().add(header);
+        }
+        Throwable cause = rootCause(error);
+        deadLetter.headers().add(KafkaHeaders.DLT_ORIGINAL_TOPIC, bytes(record.topic()));
+        deadLetter.headers().add(KafkaHeaders.DLT_EXCEPTION_FQCN, bytes(cause.getClass().getName()));
+        deadLetter.headers().add(KafkaHeaders.DLT_EXCEPTION_MESSAGE, bytes(String.valueOf(cause.getMessage())));
+        return deadLetter;
+    }
+
+    /**
+     * Whether a send failure is transient (broker unavailable, timeout) rather than a property of the record
+     */
+    static boolean isRetriable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Throwable rootCause(Throwable error) {
+        Throwable cause = error;
+        while (cause.getCause() != null && cause.getCause() != cause) {
+            cause = cause.getCause();
+        }
+        return cause;
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private TopicMeters metersFor(String topic) {
+        return meters.computeIfAbsent(topic, t -> new TopicMeters(t, meterRegistry));
+    }
+
+    private static final class TopicMeters {
+        private final Counter sent;
+        private final Counter failed;
+        private final Counter deadLettered;
+        private final DistributionSummary recordBytes;
+        private final Timer latency;
+
+        private TopicMeters(String topic, MeterRegistry meterRegistry) {
+            this.sent = Counter.builder("kafka.publish.sends")
+                .description("Records acknowledged or rejected by Kafka")
+                .tags("topic", topic, "outcome", "sent")
+                .register(meterRegistry);
+            this.failed = Counter.builder("kafka.publish.sends")
+                .description("Records acknowledged or rejected by Kafka")
+                .tags("topic", topic, "outcome", "failed")
+                .register(meterRegistry);
+            this.deadLettered = Counter.builder("kafka.publish.dead.lettered")
+                .description("Failed records re-published to the topic's dead-letter topic")
+                .tag("topic", topic)
+                .register(meterRegistry);
+            this.recordBytes = DistributionSummary.builder("kafka.publish.record.size")
+                .description("Serialized key and value size of acknowledged records, before compression")
+                .baseUnit("bytes")
+                .tag("topic", topic)
+                .register(meterRegistry);
+            this.latency = Timer.builder("kafka.publish.latency")
+                .description("Time from send to broker acknowledgement")
+                .tag("topic", topic)
+                .register(meterRegistry);
+        }
+    }
+}
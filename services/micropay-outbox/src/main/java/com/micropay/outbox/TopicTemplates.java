@@ -0,0 +1,60 @@
+package com.micropay.outbox;
+
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * One template per distinct batching/compression setting of a {@link ProducerProfile}.
+ *
+ * Topics without overrides all share the default producer; a topic configured with, say,
+ * zstd and a longer linger gets a producer of its own, created on first send.
+ */
+public class TopicTemplates<V> {
+
+    private final ProducerProfile profile;
+    private final Class<?> valueSerializer;
+    private final boolean deadLetter;
+    private final Map<ProducerProfile.Settings, KafkaTemplate<String, V>> templates = new ConcurrentHashMap<>();
+
+    TopicTemplates(ProducerProfile profile, Class<?> valueSerializer, boolean deadLetter) {
+        this.profile = profile;
+        this.valueSerializer = valueSerializer;
+        this.deadLetter = deadLetter;
+    }
+
+    public KafkaTemplate<String, V> forTopic(String topic) {
+        return templates.computeIfAbsent(profile.settingsFor(topic), settings -> profile.kafkaTemplate(
+            new DefaultKafkaProducerFactory<>(profile.producerConfigs(settings, valueSerializer)), deadLetter));
+    }
+
+    public CompletableFuture<SendResult<String, V>> send(ProducerRecord<String, V> record) {
+        return forTopic(record.topic()).send(record);
+    }
+
+    /**
+     * Publish {@code record} to its dead-letter topic with {@code error} in the headers
+     */
+    public CompletableFuture<SendResult<String, V>> deadLetter(ProducerRecord<String, V> record, Throwable error) {
+        ProducerRecord<String, V> deadLetterRecord = PublishOutcomeListener.deadLetterRecord(profile, record, error);
+        return forTopic(deadLetterRecord.topic()).send(deadLetterRecord);
+    }
+
+    public void flush() {
+        templates.values().forEach(KafkaTemplate::flush);
+    }
+
+    public void destroy() {
+        for (KafkaTemplate<String, V> template : templates.values()) {
+            if (template.getProducerFactory() instanceof DefaultKafkaProducerFactory<String, V> factory) {
+                factory.destroy();
+            }
+        }
+        templates.clear();
+    }
+}
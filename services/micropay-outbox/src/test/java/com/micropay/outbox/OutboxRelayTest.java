@@ -0,0 +1,227 @@
+package com.micropay.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.errors.NetworkException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.kafka.support.SendResult;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Outbox Relay Tests")
+class OutboxRelayTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private TopicTemplates<String> producers;
+
+    @Mock
+    private OutboxRelayLock relayLock;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OutboxRelay relay;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        relay = new OutboxRelay(jdbcTemplate, producers, relayLock, meterRegistry, 10, 100, 1000);
+    }
+
+    @Test
+    @DisplayName("Should publish a batch with one flush and delete acknowledged rows")
+    @SuppressWarnings("unchecked")
+    void relayBatch_PublishesAndDeletes() {
+        // Given
+        when(relayLock.tryAcquire()).thenReturn(true);
+        when(jdbcTemplate.query(eq(OutboxRelay.SELECT_SQL), any(RowMapper.class), eq(10))).thenReturn(List.of(
+            event(1, "payment.initiated", "p-1"),
+            event(2, "payment.completed", "p-1")
+        ));
+        when(producers.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // When
+        int relayed = relay.relayBatch();
+
+        // Then
+        assertEquals(2, relayed);
+        ArgumentCaptor<ProducerRecord<String, String>> records = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(producers, times(2)).send(records.capture());
+        assertEquals("payment.initiated", records.getAllValues().get(0).topic());
+        assertEquals("p-1", records.getAllValues().get(0).key());
+        assertNotNull(records.getAllValues().get(0).headers().lastHeader("__TypeId__"));
+        verify(producers, times(1)).flush();
+
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(OutboxRelay.DELETE_SQL), deleted.capture());
+        assertEquals(2, deleted.getValue().size());
+        assertEquals(2.0, meterRegistry.get("outbox.relay.published").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should keep rows whose send failed transiently for the next cycle")
+    @SuppressWarnings("unchecked")
+    void relayBatch_KeepsFailedRows() {
+        // Given
+        when(relayLock.tryAcquire()).thenReturn(true);
+        when(jdbcTemplate.query(eq(OutboxRelay.SELECT_SQL), any(RowMapper.class), eq(10))).thenReturn(List.of(
+            event(1, "wallet.balance.updated", "u-1"),
+            event(2, "wallet.balance.updated", "u-2")
+        ));
+        when(producers.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+            .thenReturn(CompletableFuture.failedFuture(new NetworkException("broker unavailable")));
+
+        // When
+        int relayed = relay.relayBatch();
+
+        // Then
+        assertEquals(1, relayed);
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(OutboxRelay.DELETE_SQL), deleted.capture());
+        assertEquals(1L, deleted.getValue().get(0)[0]);
+        assertEquals(1.0, meterRegistry.get("outbox.relay.failed").counter().count());
+        verify(producers, never()).deadLetter(any(ProducerRecord.class), any(Throwable.class));
+    }
+
+    @Test
+    @DisplayName("Should send a key's next row only once the previous one is acknowledged")
+    @SuppressWarnings("unchecked")
+    void relayBatch_SendsKeyInRounds() {
+        // Given
+        when(relayLock.tryAcquire()).thenReturn(true);
+        when(jdbcTemplate.query(eq(OutboxRelay.SELECT_SQL), any(RowMapper.class), eq(10))).thenReturn(List.of(
+            event(1, "wallet.balance.updated", "u-1"),
+            event(2, "wallet.balance.updated", "u-2"),
+            event(3, "wallet.balance.updated", "u-1")
+        ));
+        when(producers.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // When
+        int relayed = relay.relayBatch();
+
+        // Then
+        assertEquals(3, relayed);
+        InOrder inOrder = inOrder(producers);
+        inOrder.verify(producers, times(2)).send(any(ProducerRecord.class));
+        inOrder.verify(producers).flush();
+        inOrder.verify(producers).send(any(ProducerRecord.class));
+        inOrder.verify(producers).flush();
+    }
+
+    @Test
+    @DisplayName("Should not send later rows with the key of a failed row")
+    @SuppressWarnings("unchecked")
+    void relayBatch_StopsKeyAfterFailure() {
+        // Given: u-1's first event fails, u-2's goes through
+        when(relayLock.tryAcquire()).thenReturn(true);
+        when(jdbcTemplate.query(eq(OutboxRelay.SELECT_SQL), any(RowMapper.class), eq(10))).thenReturn(List.of(
+            event(1, "wallet.balance.updated", "u-1"),
+            event(2, "wallet.balance.updated", "u-2"),
+            event(3, "wallet.balance.updated", "u-1")
+        ));
+        when(producers.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.failedFuture(new NetworkException("broker unavailable")))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // When
+        int relayed = relay.relayBatch();
+
+        // Then
+        assertEquals(1, relayed);
+        verify(producers, times(2)).send(any(ProducerRecord.class));
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(OutboxRelay.DELETE_SQL), deleted.capture());
+        assertEquals(1, deleted.getValue().size());
+        assertEquals(2L, deleted.getValue().get(0)[0]);
+    }
+
+    @Test
+    @DisplayName("Should leave the outbox alone while another instance holds the relay lock")
+    void relayBatch_NotTheRelay() {
+        // Given
+        when(relayLock.tryAcquire()).thenReturn(false);
+
+        // When
+        int relayed = relay.relayBatch();
+
+        // Then
+        assertEquals(0, relayed);
+        verifyNoInteractions(jdbcTemplate, producers);
+    }
+
+    @Test
+    @DisplayName("Should dead-letter and delete rows Kafka rejects outright")
+    @SuppressWarnings("unchecked")
+    void relayBatch_DeadLettersRejectedRows() {
+        // Given
+        when(relayLock.tryAcquire()).thenReturn(true);
+        when(jdbcTemplate.query(eq(OutboxRelay.SELECT_SQL), any(RowMapper.class), eq(10))).thenReturn(List.of(
+            event(1, "payment.completed", "p-1"),
+            event(2, "payment.completed", "p-2")
+        ));
+        RecordTooLargeException tooLarge = new RecordTooLargeException("record too large");
+        when(producers.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+            .thenReturn(CompletableFuture.failedFuture(tooLarge));
+        when(producers.deadLetter(any(ProducerRecord.class), any(Throwable.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        // When
+        int relayed = relay.relayBatch();
+
+        // Then
+        assertEquals(2, relayed);
+        ArgumentCaptor<ProducerRecord<String, String>> deadLettered = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(producers).deadLetter(deadLettered.capture(), any(Throwable.class));
+        assertEquals("p-2", deadLettered.getValue().key());
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(OutboxRelay.DELETE_SQL), deleted.capture());
+        assertEquals(2, deleted.getValue().size());
+        assertEquals(1.0, meterRegistry.get("outbox.relay.published").counter().count());
+        assertEquals(1.0, meterRegistry.get("outbox.relay.dead.lettered").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when the outbox is empty")
+    @SuppressWarnings("unchecked")
+    void relayBatch_Empty() {
+        // Given
+        when(relayLock.tryAcquire()).thenReturn(true);
+        when(jdbcTemplate.query(eq(OutboxRelay.SELECT_SQL), any(RowMapper.class), eq(10))).thenReturn(List.of());
+
+        // When
+        int relayed = relay.relayBatch();
+
+        // Then
+        assertEquals(0, relayed);
+        verify(producers, never()).flush();
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyList());
+    }
+
+    private static OutboxEvent event(long id, String topic, String key) {
+        return new OutboxEvent(id, topic, key, "{}", "com.micropay.events.dto.Sample", LocalDateTime.now().minusSeconds(1));
+    }
+}
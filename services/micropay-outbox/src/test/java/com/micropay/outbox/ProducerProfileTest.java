@@ -0,0 +1,145 @@
+package com.micropay.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.kafka.core.KafkaOperations;
+import org.springframework.kafka.support.KafkaHeaders;
+import org.springframework.kafka.support.SendResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Producer Profile Tests")
+class ProducerProfileTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProducerProfile profile;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        profile = new ProducerProfile(
+            "localhost:9092",
+            new ProducerProfile.Settings(20, 131072, "lz4"),
+            Map.of("notification.send", new ProducerProfile.Settings(100, null, "zstd")),
+            120000,
+            ".DLT",
+            meterRegistry
+        );
+    }
+
+    @Test
+    @DisplayName("Should apply per-topic batching and compression over the defaults")
+    void producerConfigs_PerTopicOverrides() {
+        // When
+        Map<String, Object> defaults = profile.producerConfigs("wallet.balance.updated", StringSerializer.class);
+        Map<String, Object> overridden = profile.producerConfigs("notification.send", StringSerializer.class);
+
+        // Then
+        assertEquals("lz4", defaults.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(20, defaults.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals("all", defaults.get(ProducerConfig.ACKS_CONFIG));
+        assertEquals(true, defaults.get(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG));
+        assertEquals("zstd", overridden.get(ProducerConfig.COMPRESSION_TYPE_CONFIG));
+        assertEquals(100, overridden.get(ProducerConfig.LINGER_MS_CONFIG));
+        assertEquals(131072, overridden.get(ProducerConfig.BATCH_SIZE_CONFIG));
+        assertEquals(profile.settingsFor("wallet.balance.updated"), profile.settingsFor("payment.completed"));
+    }
+
+    @Test
+    @DisplayName("Should bind per-topic overrides for dotted topic names")
+    void autoConfiguration_BindsTopicOverrides() {
+        new ApplicationContextRunner()
+            .withConfiguration(AutoConfigurations.of(ProducerProfileAutoConfiguration.class))
+            .withPropertyValues(
+                "kafka.producer-profile.compression-type=lz4",
+                "kafka.producer-profile.topics.[notification.send].compression-type=zstd",
+                "kafka.producer-profile.topics.[notification.send].linger-ms=50")
+            .run(context -> {
+                ProducerProfile bound = context.getBean(ProducerProfile.class);
+                assertEquals(new ProducerProfile.Settings(50, 131072, "zstd"), bound.settingsFor("notification.send"));
+                assertEquals(new ProducerProfile.Settings(20, 131072, "lz4"), bound.settingsFor("payment.completed"));
+            });
+    }
+
+    @Test
+    @DisplayName("Should meter acknowledged sends per topic from the completion callback")
+    @SuppressWarnings("unchecked")
+    void onSuccess_RecordsMetrics() {
+        // Given
+        PublishOutcomeListener<String> listener =
+            new PublishOutcomeListener<>(profile, mock(KafkaOperations.class), meterRegistry, true);
+        RecordMetadata metadata = new RecordMetadata(
+            new TopicPartition("user.created", 0), 0, 0, System.currentTimeMillis(), 36, 200);
+
+        // When
+        listener.onSuccess(new ProducerRecord<>("user.created", "u-1", "{}"), metadata);
+
+        // Then
+        assertEquals(1.0, meterRegistry.get("kafka.publish.sends")
+            .tags("topic", "user.created", "outcome", "sent").counter().count());
+        assertEquals(236.0, meterRegistry.get("kafka.publish.record.size").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("kafka.publish.latency").timer().count());
+    }
+
+    @Test
+    @DisplayName("Should dead-letter a record the producer gave up on, with the error in the headers")
+    @SuppressWarnings("unchecked")
+    void onError_DeadLetters() {
+        // Given
+        KafkaOperations<String, String> kafkaOperations = mock(KafkaOperations.class);
+        when(kafkaOperations.send(any(ProducerRecord.class)))
+            .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+        PublishOutcomeListener<String> listener =
+            new PublishOutcomeListener<>(profile, kafkaOperations, meterRegistry, true);
+        ProducerRecord<String, String> record = new ProducerRecord<>("password.reset", "u-1", "{}");
+
+        // When
+        listener.onError(record, null, new RecordTooLargeException("record too large"));
+
+        // Then
+        ArgumentCaptor<ProducerRecord<String, String>> deadLetter = ArgumentCaptor.forClass(ProducerRecord.class);
+        verify(kafkaOperations).send(deadLetter.capture());
+        assertEquals("password.reset.DLT", deadLetter.getValue().topic());
+        assertEquals("u-1", deadLetter.getValue().key());
+        assertEquals("password.reset", new String(
+            deadLetter.getValue().headers().lastHeader(KafkaHeaders.DLT_ORIGINAL_TOPIC).value(), StandardCharsets.UTF_8));
+        assertEquals(RecordTooLargeException.class.getName(), new String(
+            deadLetter.getValue().headers().lastHeader(KafkaHeaders.DLT_EXCEPTION_FQCN).value(), StandardCharsets.UTF_8));
+        assertEquals(1.0, meterRegistry.get("kafka.publish.dead.lettered").counter().count());
+        assertEquals(1.0, meterRegistry.get("kafka.publish.sends").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should not dead-letter a failed dead-letter send")
+    @SuppressWarnings("unchecked")
+    void onError_DeadLetterTopicNotRepublished() {
+        // Given
+        KafkaOperations<String, String> kafkaOperations = mock(KafkaOperations.class);
+        PublishOutcomeListener<String> listener =
+            new PublishOutcomeListener<>(profile, kafkaOperations, meterRegistry, true);
+
+        // When
+        listener.onError(new ProducerRecord<>("password.reset.DLT", "u-1", "{}"), null,
+                         new RecordTooLargeException("record too large"));
+
+        // Then
+        verify(kafkaOperations, never()).send(any(ProducerRecord.class));
+    }
+}
@@ -0,0 +1,134 @@
+package com.micropay.outbox.benchmark;
+
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.record.CompressionType;
+import org.apache.kafka.common.record.MemoryRecords;
+import org.apache.kafka.common.record.MemoryRecordsBuilder;
+import org.apache.kafka.common.record.TimestampType;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events/sec and bytes on the wire for the producer profile's batch size and compression.
+ *
+ * Each thread stands in for one partition's accumulator: it appends wallet.balance.updated
+ * style JSON events to a record batch of {@code batchSize} bytes with {@code compression},
+ * closing and starting a new batch when full, exactly as the producer builds what it sends.
+ * {@code events} and {@code wireBytes} are reported per second; their ratio is the
+ * per-event cost on the wire. Linger only decides how full batches get under a live
+ * producer, so it is not modelled here: a large batch size stands for a linger long
+ * enough to fill it.
+ *
+ * Run with (JMH forks a JVM, so the test classpath is passed explicitly):
+ * mvn -B test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     "-Dexec.args=-cp %classpath com.micropay.outbox.benchmark.ProducerProfileBenchmark"
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class ProducerProfileBenchmark {
+
+    private static final int PAYLOADS = 1024;
+    private static final Header[] NO_HEADERS = new Header[0];
+
+    @Param({"none", "lz4", "zstd"})
+    public String compression;
+
+    @Param({"16384", "131072"})
+    public int batchSize;
+
+    private byte[][] keys;
+    private byte[][] values;
+    private CompressionType compressionType;
+    private ByteBuffer buffer;
+    private MemoryRecordsBuilder batch;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        compressionType = CompressionType.forName(compression);
+        buffer = ByteBuffer.allocate(batchSize);
+        keys = new byte[PAYLOADS][];
+        values = new byte[PAYLOADS][];
+        Random random = new Random(42);
+        for (int i = 0; i < PAYLOADS; i++) {
+            UUID userId = UUID.randomUUID();
+            keys[i] = userId.toString().getBytes(StandardCharsets.UTF_8);
+            values[i] = String.format(
+                "{\"eventId\":\"%s\",\"userId\":\"%s\",\"walletId\":\"%s\",\"previousBalance\":%d.%02d,"
+                    + "\"newBalance\":%d.%02d,\"currency\":\"USD\",\"reason\":\"PAYMENT_COMPLETED\","
+                    + "\"timestamp\":\"2024-01-15T10:%02d:%02d.%03d\"}",
+                UUID.randomUUID(), userId, UUID.randomUUID(),
+                random.nextInt(10000), random.nextInt(100), random.nextInt(10000), random.nextInt(100),
+                random.nextInt(60), random.nextInt(60), random.nextInt(1000)
+            ).getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void newBatch() {
+        batch = newBuilder();
+    }
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Wire {
+        public long events;
+        public long wireBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            events = 0;
+            wireBytes = 0;
+        }
+    }
+
+    @Benchmark
+    public void append(Wire wire) {
+        int i = next++ & (PAYLOADS - 1);
+        long timestamp = System.currentTimeMillis();
+        if (!batch.hasRoomFor(timestamp, keys[i], values[i], NO_HEADERS)) {
+            MemoryRecords closed = batch.build();
+            wire.wireBytes += closed.sizeInBytes();
+            batch = newBuilder();
+        }
+        batch.append(timestamp, keys[i], values[i]);
+        wire.events++;
+    }
+
+    private MemoryRecordsBuilder newBuilder() {
+        buffer.clear();
+        return MemoryRecords.builder(buffer, compressionType, TimestampType.CREATE_TIME, 0L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ProducerProfileBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,61 @@
+package com.micropay.security.identity;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.util.StringUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The caller's userId, as issued in the token's {@code userId} claim.
+ *
+ * The JWT subject is the login email, which services cannot match against the userIds
+ * they store. Filters bind the claim (or the gateway's signed copy of it) to the
+ * authentication's details, so an endpoint can check that a caller only reads their own data.
+ */
+public final class CallerIdentity {
+
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String ADMIN_AUTHORITY = "ROLE_ADMIN";
+
+    private CallerIdentity() {
+    }
+
+    /**
+     * Attach {@code userId} to a verified authentication; tokens issued without the claim leave it unset
+     */
+    public static void bindUserId(AbstractAuthenticationToken authentication, Object userId) {
+        if (userId == null || !StringUtils.hasText(userId.toString())) {
+            return;
+        }
+        try {
+            authentication.setDetails(UUID.fromString(userId.toString()));
+        } catch (IllegalArgumentException e) {
+            // Not one of ours: leave the caller without a userId rather than reject the token
+        }
+    }
+
+    /**
+     * The userId bound to {@code authentication}, if its token carried one
+     */
+    public static Optional<UUID> userId(Authentication authentication) {
+        if (authentication != null && authentication.getDetails() instanceof UUID userId) {
+            return Optional.of(userId);
+        }
+        return Optional.empty();
+    }
+
+    public static boolean isAdmin(Authentication authentication) {
+        if (authentication == null) {
+            return false;
+        }
+        for (GrantedAuthority authority : authentication.getAuthorities()) {
+            if (ADMIN_AUTHORITY.equals(authority.getAuthority())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,55 @@
+package com.micropay.security.identity;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+/**
+ * Gives the reactive gateway an {@link IdentityHeaderSigner} and every servlet service an
+ * {@link IdentityHeaderVerifier}, both keyed with {@code security.identity.secret}.
+ *
+ * The key is required and must differ from {@code jwt.secret}: a service holding the JWT key
+ * must not be able to mint gateway identities, and rotating one key must not touch the other.
+ * A service with {@code security.identity.trust-gateway-headers=false} needs no key.
+ */
+@AutoConfiguration
+public class IdentityHeaderAutoConfiguration {
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    static class SignerConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        IdentityHeaderSigner identityHeaderSigner(Environment environment) {
+            return new IdentityHeaderSigner(identitySecret(environment));
+        }
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnClass(name = "org.springframework.security.authentication.UsernamePasswordAuthenticationToken")
+    static class VerifierConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean
+        IdentityHeaderVerifier identityHeaderVerifier(
+                @Value("${security.identity.trust-gateway-headers:true}") boolean enabled,
+                Environment environment) {
+            return new IdentityHeaderVerifier(enabled, enabled ? identitySecret(environment) : null);
+        }
+    }
+
+    static String identitySecret(Environment environment) {
+        String secret = environment.getRequiredProperty("security.identity.secret");
+        if (secret.isBlank() || secret.equals(environment.getProperty("jwt.secret"))) {
+            throw new IllegalStateException("security.identity.secret must be set to a key distinct from jwt.secret");
+        }
+        return secret;
+    }
+}
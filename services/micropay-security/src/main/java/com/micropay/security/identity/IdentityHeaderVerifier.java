@@ -0,0 +1,78 @@
+package com.micropay.security.identity;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.util.StringUtils;
+
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Cheap verification path for the identity headers signed by the API gateway.
+ *
+ * The gateway has already verified the JWT; here we only check one HMAC over
+ * subject, userId, authorities and expiry instead of decoding and verifying the token again.
+ * Returns null when the headers are absent, disabled, forged or expired, in which case
+ * the caller falls back to the JWT in the Authorization header.
+ */
+public class IdentityHeaderVerifier {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdentityHeaderVerifier.class);
+
+    private final boolean enabled;
+    private final IdentityHeaders identityHeaders;
+
+    public IdentityHeaderVerifier(boolean enabled, String secret) {
+        this.enabled = enabled;
+        this.identityHeaders = enabled ? new IdentityHeaders(secret) : null;
+    }
+
+    public UsernamePasswordAuthenticationToken verify(HttpServletRequest request) {
+        if (!enabled) {
+            return null;
+        }
+        String subject = request.getHeader(IdentityHeaders.SUBJECT_HEADER);
+        String signature = request.getHeader(IdentityHeaders.SIGNATURE_HEADER);
+        if (!StringUtils.hasText(subject) || !StringUtils.hasText(signature)) {
+            return null;
+        }
+        String userId = request.getHeader(IdentityHeaders.USER_ID_HEADER) != null
+            ? request.getHeader(IdentityHeaders.USER_ID_HEADER) : "";
+        String authorities = request.getHeader(IdentityHeaders.AUTHORITIES_HEADER) != null
+            ? request.getHeader(IdentityHeaders.AUTHORITIES_HEADER) : "";
+        String expires = request.getHeader(IdentityHeaders.EXPIRES_HEADER);
+
+        try {
+            long expiresAt = Long.parseLong(expires);
+            if (expiresAt * 1000 <= System.currentTimeMillis()) {
+                logger.debug("Gateway identity for {} has expired", subject);
+                return null;
+            }
+            byte[] expected = identityHeaders.mac(subject, userId, authorities, expires);
+            if (!MessageDigest.isEqual(expected, Base64.getUrlDecoder().decode(signature))) {
+                logger.warn("Rejected gateway identity headers with an invalid signature for {}", subject);
+                return null;
+            }
+        } catch (IllegalArgumentException e) {
+            logger.warn("Rejected malformed gateway identity headers: {}", e.getMessage());
+            return null;
+        }
+
+        List<SimpleGrantedAuthority> grantedAuthorities = new ArrayList<>();
+        for (String authority : StringUtils.commaDelimitedListToStringArray(authorities)) {
+            grantedAuthorities.add(new SimpleGrantedAuthority(authority));
+        }
+        if (grantedAuthorities.isEmpty()) {
+            grantedAuthorities.add(new SimpleGrantedAuthority("ROLE_USER"));
+        }
+        UsernamePasswordAuthenticationToken authentication =
+            new UsernamePasswordAuthenticationToken(subject, null, grantedAuthorities);
+        CallerIdentity.bindUserId(authentication, userId);
+        return authentication;
+    }
+}
@@ -0,0 +1,49 @@
+package com.micropay.security.identity;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.List;
+
+/**
+ * Identity headers the gateway signs and services verify.
+ *
+ * Headers: subject, the caller's userId (the token's {@code userId} claim, empty if absent),
+ * comma-separated authorities, expiry (epoch seconds, the token's exp) and an unpadded
+ * base64url HMAC-SHA256 over {@code subject \n userId \n authorities \n expires}.
+ */
+public final class IdentityHeaders {
+
+    public static final String SUBJECT_HEADER = "X-Identity-Subject";
+    public static final String USER_ID_HEADER = "X-Identity-User-Id";
+    public static final String AUTHORITIES_HEADER = "X-Identity-Authorities";
+    public static final String EXPIRES_HEADER = "X-Identity-Expires";
+    public static final String SIGNATURE_HEADER = "X-Identity-Signature";
+    public static final List<String> HEADERS = List.of(SUBJECT_HEADER, USER_ID_HEADER, AUTHORITIES_HEADER, EXPIRES_HEADER, SIGNATURE_HEADER);
+
+    private final Mac prototype;
+
+    IdentityHeaders(String secret) {
+        try {
+            this.prototype = Mac.getInstance("HmacSHA256");
+            this.prototype.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise identity header MAC", e);
+        }
+    }
+
+    byte[] mac(String subject, String userId, String authorities, String expires) {
+        String payload = subject + '\n' + userId + '\n' + authorities + '\n' + expires;
+        return mac().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Mac mac() {
+        // Mac is not thread-safe; a clone of the initialised prototype is cheaper than a fresh init
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HmacSHA256 provider does not support clone", e);
+        }
+    }
+}
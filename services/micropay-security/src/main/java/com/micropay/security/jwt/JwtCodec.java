@@ -0,0 +1,69 @@
+package com.micropay.security.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Map;
+
+/**
+ * HS256 signing and verification with the key and parser derived once.
+ *
+ * The key and {@link JwtParser} are immutable and thread-safe, so one instance serves
+ * every request; previously each sign or parse re-derived the key and built a parser.
+ * {@link #validateAndExtract(String)} verifies the signature and expiry and returns all
+ * commonly used claims from that single parse.
+ */
+public class JwtCodec {
+
+    private final SecretKey key;
+    private final JwtParser parser;
+
+    public JwtCodec(String secret) {
+        this.key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+        this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+    }
+
+    /**
+     * Sign a token for {@code subject} valid for {@code ttlMillis} from now
+     */
+    public String sign(String subject, Map<String, ?> claims, long ttlMillis) {
+        Date now = new Date();
+        return Jwts.builder()
+                .setClaims(claims)
+                .setSubject(subject)
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + ttlMillis))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Verify signature and expiry and extract the claims, parsing the token once
+     *
+     * @throws JwtException if the token is malformed, forged, expired or has no expiry
+     */
+    public VerifiedToken validateAndExtract(String token) {
+        Claims claims = parseClaims(token);
+        // The parser rejects a past exp but accepts a missing one; such tokens never expire, so refuse them
+        if (claims.getExpiration() == null) {
+            throw new JwtException("JWT has no expiration");
+        }
+        return new VerifiedToken(claims);
+    }
+
+    /**
+     * Verify the signature (and exp, if present) and return the raw claims
+     *
+     * @throws JwtException if the token is malformed, forged or expired
+     */
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+}
@@ -0,0 +1,69 @@
+package com.micropay.security.jwt;
+
+import com.micropay.security.identity.CallerIdentity;
+import io.jsonwebtoken.Claims;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Everything a caller needs from a token whose signature and expiry have been checked,
+ * extracted in the one parse that verified it.
+ */
+public final class VerifiedToken {
+
+    private final Claims claims;
+    private final List<String> authorities;
+
+    VerifiedToken(Claims claims) {
+        this.claims = claims;
+        this.authorities = readAuthorities(claims.get("authorities"));
+    }
+
+    public String getSubject() {
+        return claims.getSubject();
+    }
+
+    /**
+     * Value of the {@code userId} claim, or null for tokens issued without it
+     */
+    public Object getUserId() {
+        return claims.get(CallerIdentity.USER_ID_CLAIM);
+    }
+
+    /**
+     * Values of the {@code authorities} claim; empty if the token carries none
+     */
+    public List<String> getAuthorities() {
+        return authorities;
+    }
+
+    public Date getIssuedAt() {
+        return claims.getIssuedAt();
+    }
+
+    public Date getExpiration() {
+        return claims.getExpiration();
+    }
+
+    /**
+     * The full claim set, for claims without a dedicated accessor
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    private static List<String> readAuthorities(Object value) {
+        if (!(value instanceof Collection<?> values)) {
+            return Collections.emptyList();
+        }
+        List<String> authorities = new ArrayList<>(values.size());
+        for (Object authority : values) {
+            authorities.add(String.valueOf(authority));
+        }
+        return Collections.unmodifiableList(authorities);
+    }
+}
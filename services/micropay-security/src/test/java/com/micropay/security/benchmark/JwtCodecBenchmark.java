@@ -0,0 +1,110 @@
+package com.micropay.security.benchmark;
+
+import com.micropay.security.jwt.JwtCodec;
+import com.micropay.security.jwt.VerifiedToken;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens per second signed and verified.
+ *
+ * The "perCall" benchmarks reproduce the old JwtService/JwtUtil code: key derived and
+ * parser built on every call, and the three reparses auth-service's validateToken
+ * used to do (username, expiry, then the check). The "codec" benchmarks use
+ * {@link JwtCodec} with its prebuilt key and parser and a single parse.
+ *
+ * Run with (JMH forks a JVM, so the test classpath is passed explicitly):
+ * mvn -B test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     "-Dexec.args=-cp %classpath com.micropay.security.benchmark.JwtCodecBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtCodecBenchmark {
+
+    private static final String SECRET = "benchmark-secret-key-long-enough-for-hmac-sha256-signing";
+    private static final Map<String, Object> CLAIMS = Map.of("authorities", List.of("ROLE_USER"));
+    private static final long TTL_MS = TimeUnit.HOURS.toMillis(1);
+
+    private JwtCodec codec;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        codec = new JwtCodec(SECRET);
+        token = codec.sign("benchmark-user@example.com", CLAIMS, TTL_MS);
+    }
+
+    @Benchmark
+    public String signPerCallKey() {
+        Date now = new Date();
+        return Jwts.builder()
+                .setClaims(CLAIMS)
+                .setSubject("benchmark-user@example.com")
+                .setIssuedAt(now)
+                .setExpiration(new Date(now.getTime() + TTL_MS))
+                .signWith(perCallKey(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public String signCodec() {
+        return codec.sign("benchmark-user@example.com", CLAIMS, TTL_MS);
+    }
+
+    @Benchmark
+    public Claims verifyPerCallParser() {
+        return perCallClaims();
+    }
+
+    @Benchmark
+    public boolean validateTripleParse() {
+        String username = perCallClaims().getSubject();
+        Date expiration = perCallClaims().getExpiration();
+        return username.equals(perCallClaims().getSubject()) && expiration.after(new Date());
+    }
+
+    @Benchmark
+    public VerifiedToken verifyCodec() {
+        return codec.validateAndExtract(token);
+    }
+
+    private Claims perCallClaims() {
+        return Jwts.parserBuilder().setSigningKey(perCallKey()).build().parseClaimsJws(token).getBody();
+    }
+
+    private static SecretKey perCallKey() {
+        return Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(JwtCodecBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
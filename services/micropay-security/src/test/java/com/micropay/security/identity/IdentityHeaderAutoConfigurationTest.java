@@ -0,0 +1,28 @@
+package com.micropay.security.identity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Identity Header Auto-Configuration Tests")
+class IdentityHeaderAutoConfigurationTest {
+
+    @Test
+    @DisplayName("Should require an identity secret distinct from the JWT secret")
+    void identitySecret_RequiresDistinctKey() {
+        MockEnvironment environment = new MockEnvironment().withProperty("jwt.secret", "jwt-secret-for-tests");
+
+        // Missing
+        assertThrows(IllegalStateException.class, () -> IdentityHeaderAutoConfiguration.identitySecret(environment));
+
+        // Reusing the JWT key
+        environment.setProperty("security.identity.secret", "jwt-secret-for-tests");
+        assertThrows(IllegalStateException.class, () -> IdentityHeaderAutoConfiguration.identitySecret(environment));
+
+        // Distinct
+        environment.setProperty("security.identity.secret", "identity-secret-for-tests");
+        assertEquals("identity-secret-for-tests", IdentityHeaderAutoConfiguration.identitySecret(environment));
+    }
+}
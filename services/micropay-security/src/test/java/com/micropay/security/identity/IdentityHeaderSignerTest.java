@@ -0,0 +1,77 @@
+package com.micropay.security.identity;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Identity Header Signer Tests")
+class IdentityHeaderSignerTest {
+
+    private final IdentityHeaderSigner signer = new IdentityHeaderSigner("identity-secret-for-tests");
+
+    @Test
+    @DisplayName("Should replace client identity headers with signed verified claims")
+    void apply_OverwritesClientHeaders() {
+        // Given
+        Claims claims = Jwts.claims().setSubject("alice@example.com");
+        claims.put("authorities", List.of("ROLE_USER", "ROLE_ADMIN"));
+        claims.put("userId", "5f0c1c1e-8e8a-4c57-9d55-0b0f3bb2f5a1");
+        claims.setExpiration(new Date(1_900_000_000_000L));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(IdentityHeaders.SUBJECT_HEADER, "mallory@example.com");
+
+        // When
+        signer.apply(claims, headers);
+
+        // Then
+        assertEquals("alice@example.com", headers.getFirst(IdentityHeaders.SUBJECT_HEADER));
+        assertEquals("5f0c1c1e-8e8a-4c57-9d55-0b0f3bb2f5a1", headers.getFirst(IdentityHeaders.USER_ID_HEADER));
+        assertEquals("ROLE_USER,ROLE_ADMIN", headers.getFirst(IdentityHeaders.AUTHORITIES_HEADER));
+        assertEquals("1900000000", headers.getFirst(IdentityHeaders.EXPIRES_HEADER));
+        assertEquals(signer.sign("alice@example.com", "5f0c1c1e-8e8a-4c57-9d55-0b0f3bb2f5a1", "ROLE_USER,ROLE_ADMIN", "1900000000"),
+                     headers.getFirst(IdentityHeaders.SIGNATURE_HEADER));
+        assertEquals(1, headers.get(IdentityHeaders.SUBJECT_HEADER).size());
+    }
+
+    @Test
+    @DisplayName("Should bind the signature to every identity field")
+    void sign_DiffersPerField() {
+        String signature = signer.sign("alice", "u1", "ROLE_USER", "1900000000");
+
+        assertNotEquals(signature, signer.sign("bob", "u1", "ROLE_USER", "1900000000"));
+        assertNotEquals(signature, signer.sign("alice", "u2", "ROLE_USER", "1900000000"));
+        assertNotEquals(signature, signer.sign("alice", "u1", "ROLE_ADMIN", "1900000000"));
+        assertNotEquals(signature, signer.sign("alice", "u1", "ROLE_USER", "1900000001"));
+        assertNotEquals(signature, new IdentityHeaderSigner("another-secret").sign("alice", "u1", "ROLE_USER", "1900000000"));
+    }
+
+    @Test
+    @DisplayName("Should produce headers the service verifier accepts")
+    void apply_VerifiesDownstream() {
+        // Given
+        Claims claims = Jwts.claims().setSubject("alice@example.com");
+        claims.put("authorities", List.of("ROLE_USER"));
+        claims.setExpiration(new Date(System.currentTimeMillis() + 3_600_000));
+        HttpHeaders headers = new HttpHeaders();
+        signer.apply(claims, headers);
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        headers.forEach((name, values) -> values.forEach(value -> request.addHeader(name, value)));
+
+        // When
+        UsernamePasswordAuthenticationToken authentication =
+            new IdentityHeaderVerifier(true, "identity-secret-for-tests").verify(request);
+
+        // Then
+        assertNotNull(authentication);
+        assertEquals("alice@example.com", authentication.getPrincipal());
+    }
+}
@@ -0,0 +1,94 @@
+package com.micropay.security.identity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Identity Header Verifier Tests")
+class IdentityHeaderVerifierTest {
+
+    private static final String SECRET = "identity-secret-for-tests";
+    private static final UUID USER_ID = UUID.fromString("5f0c1c1e-8e8a-4c57-9d55-0b0f3bb2f5a1");
+
+    private final IdentityHeaderVerifier verifier = new IdentityHeaderVerifier(true, SECRET);
+
+    @Test
+    @DisplayName("Should accept headers signed with the shared secret")
+    void verify_ValidSignature() throws Exception {
+        // Given
+        MockHttpServletRequest request = signedRequest(SECRET, "alice@example.com", "ROLE_USER,ROLE_ADMIN", futureExpiry());
+
+        // When
+        UsernamePasswordAuthenticationToken authentication = verifier.verify(request);
+
+        // Then
+        assertNotNull(authentication);
+        assertEquals("alice@example.com", authentication.getPrincipal());
+        assertEquals(2, authentication.getAuthorities().size());
+        assertEquals(Optional.of(USER_ID), CallerIdentity.userId(authentication));
+        assertTrue(CallerIdentity.isAdmin(authentication));
+    }
+
+    @Test
+    @DisplayName("Should reject forged, tampered and expired identities")
+    void verify_Rejects() throws Exception {
+        // Forged with another key
+        assertNull(verifier.verify(signedRequest("attacker-secret", "alice@example.com", "ROLE_USER", futureExpiry())));
+
+        // Authorities escalated after signing
+        MockHttpServletRequest tampered = signedRequest(SECRET, "alice@example.com", "ROLE_USER", futureExpiry());
+        tampered.removeHeader(IdentityHeaders.AUTHORITIES_HEADER);
+        tampered.addHeader(IdentityHeaders.AUTHORITIES_HEADER, "ROLE_ADMIN");
+        assertNull(verifier.verify(tampered));
+
+        // Identity switched to another user after signing
+        MockHttpServletRequest impersonated = signedRequest(SECRET, "alice@example.com", "ROLE_USER", futureExpiry());
+        impersonated.removeHeader(IdentityHeaders.USER_ID_HEADER);
+        impersonated.addHeader(IdentityHeaders.USER_ID_HEADER, UUID.randomUUID().toString());
+        assertNull(verifier.verify(impersonated));
+
+        // Expired
+        String past = Long.toString(System.currentTimeMillis() / 1000 - 60);
+        assertNull(verifier.verify(signedRequest(SECRET, "alice@example.com", "ROLE_USER", past)));
+    }
+
+    @Test
+    @DisplayName("Should ignore identity headers when trust is disabled")
+    void verify_Disabled() throws Exception {
+        IdentityHeaderVerifier disabled = new IdentityHeaderVerifier(false, SECRET);
+
+        assertNull(disabled.verify(signedRequest(SECRET, "alice@example.com", "ROLE_USER", futureExpiry())));
+        assertNull(verifier.verify(new MockHttpServletRequest()));
+    }
+
+    private static String futureExpiry() {
+        return Long.toString(System.currentTimeMillis() / 1000 + 3600);
+    }
+
+    private static MockHttpServletRequest signedRequest(String secret, String subject, String authorities, String expires)
+            throws Exception {
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        String signature = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(mac.doFinal((subject + '\n' + USER_ID + '\n' + authorities + '\n' + expires)
+                .getBytes(StandardCharsets.UTF_8)));
+
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader(IdentityHeaders.SUBJECT_HEADER, subject);
+        request.addHeader(IdentityHeaders.USER_ID_HEADER, USER_ID.toString());
+        request.addHeader(IdentityHeaders.AUTHORITIES_HEADER, authorities);
+        request.addHeader(IdentityHeaders.EXPIRES_HEADER, expires);
+        request.addHeader(IdentityHeaders.SIGNATURE_HEADER, signature);
+        return request;
+    }
+}
@@ -0,0 +1,67 @@
+package com.micropay.security.jwt;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("JWT Codec Tests")
+class JwtCodecTest {
+
+    private static final String SECRET = "test-secret-key-for-testing-only-long-enough-to-be-secure";
+
+    private final JwtCodec codec = new JwtCodec(SECRET);
+
+    @Test
+    @DisplayName("Should extract subject, authorities and dates from a token it signed")
+    void signThenValidateAndExtract() {
+        // Given
+        String token = codec.sign("user@example.com", Map.of("authorities", List.of("ROLE_USER", "ROLE_ADMIN")), 60_000);
+
+        // When
+        VerifiedToken verified = codec.validateAndExtract(token);
+
+        // Then
+        assertEquals("user@example.com", verified.getSubject());
+        assertEquals(List.of("ROLE_USER", "ROLE_ADMIN"), verified.getAuthorities());
+        assertNotNull(verified.getIssuedAt());
+        assertTrue(verified.getExpiration().after(verified.getIssuedAt()));
+    }
+
+    @Test
+    @DisplayName("Should return no authorities when the claim is absent")
+    void validateAndExtract_NoAuthorities() {
+        // Given
+        String token = codec.sign("user@example.com", Map.of(), 60_000);
+
+        // When / Then
+        assertTrue(codec.validateAndExtract(token).getAuthorities().isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should reject expired, forged and exp-less tokens")
+    void validateAndExtract_Rejects() {
+        // Given
+        String expired = codec.sign("user@example.com", Map.of(), -1_000);
+        String forged = new JwtCodec(SECRET + "-other").sign("user@example.com", Map.of(), 60_000);
+        String noExpiry = Jwts.builder()
+                .setSubject("user@example.com")
+                .signWith(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA256"), SignatureAlgorithm.HS256)
+                .compact();
+
+        // When / Then
+        assertThrows(ExpiredJwtException.class, () -> codec.validateAndExtract(expired));
+        assertThrows(SignatureException.class, () -> codec.validateAndExtract(forged));
+        assertThrows(JwtException.class, () -> codec.validateAndExtract(noExpiry));
+    }
+}
@@ -1,10 +1,9 @@
 package com.micropay.notification.config;
 
 import com.micropay.notification.dto.NotificationSendEvent;
+import com.micropay.outbox.ProducerProfile;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -31,27 +30,30 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String consumerGroupId;
 
+    @Value("${notification.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${notification.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
+    @Value("${notification.consumer.fetch-max-wait-ms:100}")
+    private int fetchMaxWaitMs;
+
     /**
-     * Kafka Producer Factory for notification.send events
+     * Kafka Producer Factory for notification.send events, with the shared producer profile
      */
     @Bean
-    public ProducerFactory<String, NotificationSendEvent> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
-        configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
-        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return new DefaultKafkaProducerFactory<>(configProps);
+    public ProducerFactory<String, NotificationSendEvent> producerFactory(ProducerProfile producerProfile) {
+        return new DefaultKafkaProducerFactory<>(
+                producerProfile.producerConfigs("notification.send", JsonSerializer.class));
     }
 
     /**
-     * Kafka Template for producing events
+     * Kafka Template for producing events; send outcomes are metered and failures dead-lettered
      */
     @Bean
-    public KafkaTemplate<String, NotificationSendEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, NotificationSendEvent> kafkaTemplate(ProducerProfile producerProfile) {
+        return producerProfile.kafkaTemplate(producerFactory(producerProfile));
     }
 
     /**
@@ -73,20 +75,38 @@ public class KafkaConfig {
             
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        configProps.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, fetchMaxWaitMs);
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
     /**
      * Kafka Listener Container Factory with manual acknowledgment
+     * One consumer thread per partition up to notification.consumer.concurrency
      */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         return factory;
     }
-}
-
 
+    /**
+     * Batch listener container factory for payment.completed and transaction.recorded
+     * Each poll (up to notification.consumer.max-poll-records) is handed over as one list
+     * and acknowledged once
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+}
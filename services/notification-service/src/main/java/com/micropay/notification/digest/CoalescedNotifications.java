@@ -0,0 +1,76 @@
+package com.micropay.notification.digest;
+
+import com.micropay.notification.model.Notification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Outcome of {@link NotificationCoalescer#coalesce}
+ *
+ * Both lists are persisted; only the immediate ones are dispatched. Held notifications
+ * wait for their window to close, which is at most {@code holdMs} from now, and only
+ * join it once {@link NotificationCoalescer#hold} is called after their insert commits.
+ */
+public final class CoalescedNotifications {
+
+    private final List<Notification> immediate;
+    private final List<DigestCandidate> held;
+    private final long holdMs;
+
+    public CoalescedNotifications(List<Notification> immediate, List<DigestCandidate> held, long holdMs) {
+        this.immediate = immediate;
+        this.held = held;
+        this.holdMs = holdMs;
+    }
+
+    public List<Notification> getImmediate() {
+        return immediate;
+    }
+
+    public List<Notification> getHeld() {
+        return held.stream().map(DigestCandidate::getNotification).toList();
+    }
+
+    List<DigestCandidate> getHeldCandidates() {
+        return held;
+    }
+
+    public long getHoldMs() {
+        return holdMs;
+    }
+
+    public boolean isEmpty() {
+        return immediate.isEmpty() && held.isEmpty();
+    }
+
+    /**
+     * Split by source event, so each part can be written, and held, on its own
+     */
+    public Map<String, CoalescedNotifications> byReference() {
+        Map<String, List<Notification>> immediateParts = new LinkedHashMap<>();
+        Map<String, List<DigestCandidate>> heldParts = new LinkedHashMap<>();
+        for (Notification notification : immediate) {
+            immediateParts.computeIfAbsent(referenceOf(notification), key -> new ArrayList<>()).add(notification);
+        }
+        for (DigestCandidate candidate : held) {
+            heldParts.computeIfAbsent(referenceOf(candidate.getNotification()), key -> new ArrayList<>()).add(candidate);
+        }
+        Set<String> references = new LinkedHashSet<>(immediateParts.keySet());
+        references.addAll(heldParts.keySet());
+        Map<String, CoalescedNotifications> parts = new LinkedHashMap<>();
+        for (String reference : references) {
+            parts.put(reference, new CoalescedNotifications(immediateParts.getOrDefault(reference, List.of()),
+                    heldParts.getOrDefault(reference, List.of()), holdMs));
+        }
+        return parts;
+    }
+
+    private static String referenceOf(Notification notification) {
+        return String.valueOf(notification.getReferenceId());
+    }
+}
@@ -0,0 +1,39 @@
+package com.micropay.notification.digest;
+
+import com.micropay.notification.model.Notification;
+
+import java.math.BigDecimal;
+
+/**
+ * A notification that may be folded into a digest, with the amount it reports
+ */
+public final class DigestCandidate {
+
+    private final Notification notification;
+    private final DigestKind kind;
+    private final BigDecimal amount;
+    private final String currency;
+
+    public DigestCandidate(Notification notification, DigestKind kind, BigDecimal amount, String currency) {
+        this.notification = notification;
+        this.kind = kind;
+        this.amount = amount;
+        this.currency = currency;
+    }
+
+    public Notification getNotification() {
+        return notification;
+    }
+
+    public DigestKind getKind() {
+        return kind;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+}
@@ -0,0 +1,73 @@
+package com.micropay.notification.digest;
+
+import com.micropay.notification.service.NotificationService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically releases closed coalescing windows through {@link NotificationService#release}
+ */
+@Component
+public class DigestFlusher {
+
+    private static final Logger logger = LoggerFactory.getLogger(DigestFlusher.class);
+
+    private final NotificationCoalescer coalescer;
+    private final NotificationService notificationService;
+    private final long flushIntervalMs;
+
+    private ScheduledExecutorService flusher;
+
+    public DigestFlusher(NotificationCoalescer coalescer,
+                         NotificationService notificationService,
+                         @Value("${notification.digest.flush-interval-ms:1000}") long flushIntervalMs) {
+        this.coalescer = coalescer;
+        this.notificationService = notificationService;
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "notification-digest-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushDue, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        release(coalescer.drainAll());
+    }
+
+    private void flushDue() {
+        release(coalescer.drainDue());
+    }
+
+    private void release(DigestRelease release) {
+        if (release.isEmpty()) {
+            return;
+        }
+        try {
+            notificationService.release(release);
+            logger.debug("Released {} digests and {} held notifications",
+                    release.getDigests().size(), release.getReleased().size());
+        } catch (Exception e) {
+            // The held rows stay PENDING and are sent individually once their lease runs out
+            logger.error("Failed to release {} digests and {} held notifications",
+                    release.getDigests().size(), release.getReleased().size(), e);
+        }
+    }
+}
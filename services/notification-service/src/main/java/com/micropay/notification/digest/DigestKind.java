@@ -0,0 +1,29 @@
+package com.micropay.notification.digest;
+
+/**
+ * How a group of similar notifications is summarised in a digest
+ *
+ * Format arguments: count, total amount, currency.
+ */
+public enum DigestKind {
+    PAYMENTS_COMPLETED("Payments Completed", "%d of your payments totalling %s %s have been completed"),
+    PAYMENTS_RECEIVED("Payments Received", "You have received %d payments totalling %s %s"),
+    ACCOUNT_CREDITED("Transactions Recorded", "Your account has been credited %d times with a total of %s %s"),
+    ACCOUNT_DEBITED("Transactions Recorded", "Your account has been debited %d times with a total of %s %s");
+
+    private final String title;
+    private final String messageFormat;
+
+    DigestKind(String title, String messageFormat) {
+        this.title = title;
+        this.messageFormat = messageFormat;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public String message(int count, Object total, String currency) {
+        return String.format(messageFormat, count, total, currency);
+    }
+}
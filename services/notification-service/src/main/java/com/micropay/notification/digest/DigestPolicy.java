@@ -0,0 +1,58 @@
+package com.micropay.notification.digest;
+
+import com.micropay.notification.model.NotificationType;
+import org.springframework.core.env.Environment;
+
+import java.util.Locale;
+
+/**
+ * Coalescing settings for one notification type
+ *
+ * Read from {@code notification.digest.types.<type>.<key>} (type in kebab case, e.g.
+ * {@code payment-completed}). A type without a positive {@code window-ms} is never coalesced.
+ */
+public final class DigestPolicy {
+
+    private final long windowMs;
+    private final int minCount;
+    private final int maxItems;
+
+    public DigestPolicy(long windowMs, int minCount, int maxItems) {
+        this.windowMs = Math.max(0, windowMs);
+        this.minCount = Math.max(2, minCount);
+        this.maxItems = Math.max(this.minCount, maxItems);
+    }
+
+    public static DigestPolicy resolve(Environment environment, NotificationType type) {
+        String prefix = "notification.digest.types." + type.name().toLowerCase(Locale.ROOT).replace('_', '-') + ".";
+        return new DigestPolicy(
+                environment.getProperty(prefix + "window-ms", Long.class, 0L),
+                environment.getProperty(prefix + "min-count", Integer.class, 3),
+                environment.getProperty(prefix + "max-items", Integer.class, 1000));
+    }
+
+    public boolean isEnabled() {
+        return windowMs > 0;
+    }
+
+    /**
+     * How long notifications after the first one are held back
+     */
+    public long getWindowMs() {
+        return windowMs;
+    }
+
+    /**
+     * Fewer held notifications than this are sent individually when the window closes
+     */
+    public int getMinCount() {
+        return minCount;
+    }
+
+    /**
+     * Holding this many notifications closes the window early
+     */
+    public int getMaxItems() {
+        return maxItems;
+    }
+}
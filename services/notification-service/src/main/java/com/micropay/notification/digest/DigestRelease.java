@@ -0,0 +1,35 @@
+package com.micropay.notification.digest;
+
+import com.micropay.notification.model.Notification;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Closed coalescing windows, as drained from {@link NotificationCoalescer}
+ *
+ * Digests are new notifications. Held notifications are already persisted as PENDING:
+ * released ones go out as they are, folded ones are replaced by a digest.
+ */
+public final class DigestRelease {
+
+    private final List<Notification> digests = new ArrayList<>();
+    private final List<Notification> released = new ArrayList<>();
+    private final List<Notification> folded = new ArrayList<>();
+
+    public List<Notification> getDigests() {
+        return digests;
+    }
+
+    public List<Notification> getReleased() {
+        return released;
+    }
+
+    public List<Notification> getFolded() {
+        return folded;
+    }
+
+    public boolean isEmpty() {
+        return digests.isEmpty() && released.isEmpty() && folded.isEmpty();
+    }
+}
@@ -0,0 +1,240 @@
+package com.micropay.notification.digest;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationChannel;
+import com.micropay.notification.model.NotificationType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Collapses bursts of similar notifications for one user into digests.
+ *
+ * Notifications are grouped by user, type, channel, {@link DigestKind} and currency.
+ * The first one in a group goes out immediately and opens a window of the type's
+ * {@code window-ms}; later ones are held until the window closes. At that point
+ * {@code min-count} or more held notifications become a single digest ("You have
+ * received 148 payments totalling X"), fewer are released as they are. A window that
+ * released something stays open for another period, so a steady stream costs one
+ * digest per window, and it is dropped once a period passes quietly.
+ *
+ * Held notifications are persisted as PENDING alongside the immediate ones, but with a
+ * dispatch lease that outlasts their window, so the Kafka poll can be acknowledged while
+ * they wait. They join their window only through {@link #hold} once that insert has
+ * committed, so a failed write never leaves a window folding rows that do not exist. The windows themselves live in memory: after a crash nothing folds the held
+ * rows, and PendingNotificationSweeper sends them individually once their lease runs out.
+ */
+@Component
+public class NotificationCoalescer {
+
+    static final String DIGEST_REFERENCE_TYPE = "DIGEST";
+
+    private final Map<NotificationType, DigestPolicy> policies = new EnumMap<>(NotificationType.class);
+    private final Map<DigestKey, Window> windows = new HashMap<>();
+    private final int maxOpenWindows;
+    private final LongSupplier clock;
+    private final Map<NotificationType, Counter> held = new EnumMap<>(NotificationType.class);
+    private final Map<NotificationType, Counter> digests = new EnumMap<>(NotificationType.class);
+
+    @Autowired
+    public NotificationCoalescer(Environment environment, MeterRegistry meterRegistry) {
+        this(environment, meterRegistry, System::currentTimeMillis);
+    }
+
+    NotificationCoalescer(Environment environment, MeterRegistry meterRegistry, LongSupplier clock) {
+        this.maxOpenWindows = environment.getProperty("notification.digest.max-open-windows", Integer.class, 100_000);
+        this.clock = clock;
+        for (NotificationType type : NotificationType.values()) {
+            DigestPolicy policy = DigestPolicy.resolve(environment, type);
+            policies.put(type, policy);
+            if (policy.isEnabled()) {
+                String tag = type.name().toLowerCase(Locale.ROOT);
+                held.put(type, Counter.builder("notification.digest.held")
+                        .description("Notifications held back for coalescing")
+                        .tag("type", tag).register(meterRegistry));
+                digests.put(type, Counter.builder("notification.digest.emitted")
+                        .description("Digest notifications emitted in place of held ones")
+                        .tag("type", tag).register(meterRegistry));
+            }
+        }
+        Gauge.builder("notification.digest.windows", this, NotificationCoalescer::openWindows)
+                .description("Users with an open coalescing window")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Decide what can be held back; nothing joins a window until {@link #hold}
+     *
+     * A window opened for a leading notification whose insert then fails only delays the
+     * next ones in its period; having nothing to fold, it closes quietly.
+     *
+     * @return notifications to persist and send now, and held ones to persist only
+     */
+    public synchronized CoalescedNotifications coalesce(List<DigestCandidate> candidates) {
+        List<Notification> immediate = new ArrayList<>(candidates.size());
+        List<DigestCandidate> heldBack = new ArrayList<>();
+        long holdMs = 0;
+        long now = clock.getAsLong();
+        for (DigestCandidate candidate : candidates) {
+            Notification notification = candidate.getNotification();
+            DigestPolicy policy = policies.get(notification.getNotificationType());
+            if (!policy.isEnabled() || candidate.getKind() == null) {
+                immediate.add(notification);
+                continue;
+            }
+            DigestKey key = new DigestKey(notification, candidate);
+            Window window = windows.get(key);
+            if (window == null) {
+                // Leading edge: the first notification is never delayed
+                if (windows.size() < maxOpenWindows) {
+                    windows.put(key, new Window(now + policy.getWindowMs()));
+                }
+                immediate.add(notification);
+                continue;
+            }
+            heldBack.add(candidate);
+            // A window never closes later than one period from now
+            holdMs = Math.max(holdMs, policy.getWindowMs());
+        }
+        return new CoalescedNotifications(immediate, heldBack, holdMs);
+    }
+
+    /**
+     * Add held notifications to their windows once their rows are committed
+     */
+    public synchronized void hold(CoalescedNotifications coalesced) {
+        long now = clock.getAsLong();
+        for (DigestCandidate candidate : coalesced.getHeldCandidates()) {
+            Notification notification = candidate.getNotification();
+            DigestPolicy policy = policies.get(notification.getNotificationType());
+            // Drained while the insert ran: release on the next pass rather than outlive the lease
+            Window window = windows.computeIfAbsent(new DigestKey(notification, candidate), key -> new Window(now));
+            window.items.add(candidate);
+            held.get(notification.getNotificationType()).increment();
+            if (window.items.size() >= policy.getMaxItems()) {
+                window.closesAt = now;
+            }
+        }
+    }
+
+    /**
+     * Release windows that have closed
+     *
+     * @return digests to persist and send, held notifications to send or retire
+     */
+    public synchronized DigestRelease drainDue() {
+        long now = clock.getAsLong();
+        DigestRelease released = new DigestRelease();
+        Iterator<Map.Entry<DigestKey, Window>> iterator = windows.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<DigestKey, Window> entry = iterator.next();
+            Window window = entry.getValue();
+            if (window.closesAt > now) {
+                continue;
+            }
+            if (window.items.isEmpty()) {
+                iterator.remove();
+                continue;
+            }
+            release(entry.getKey(), window, released);
+            window.closesAt = now + policies.get(entry.getKey().type).getWindowMs();
+        }
+        return released;
+    }
+
+    /**
+     * Release everything held, e.g. on shutdown
+     */
+    public synchronized DigestRelease drainAll() {
+        DigestRelease released = new DigestRelease();
+        windows.forEach((key, window) -> {
+            if (!window.items.isEmpty()) {
+                release(key, window, released);
+            }
+        });
+        windows.clear();
+        return released;
+    }
+
+    synchronized int openWindows() {
+        return windows.size();
+    }
+
+    private void release(DigestKey key, Window window, DigestRelease out) {
+        List<DigestCandidate> items = window.items;
+        if (items.size() < policies.get(key.type).getMinCount()) {
+            items.forEach(item -> out.getReleased().add(item.getNotification()));
+        } else {
+            BigDecimal total = BigDecimal.ZERO;
+            for (DigestCandidate item : items) {
+                if (item.getAmount() != null) {
+                    total = total.add(item.getAmount());
+                }
+                out.getFolded().add(item.getNotification());
+            }
+            Notification digest = new Notification(key.userId, key.type, key.channel,
+                    key.kind.getTitle(), key.kind.message(items.size(), total.toPlainString(), key.currency));
+            digest.setReferenceType(DIGEST_REFERENCE_TYPE);
+            out.getDigests().add(digest);
+            digests.get(key.type).increment();
+        }
+        window.items = new ArrayList<>();
+    }
+
+    private static final class Window {
+        private long closesAt;
+        private List<DigestCandidate> items = new ArrayList<>();
+
+        private Window(long closesAt) {
+            this.closesAt = closesAt;
+        }
+    }
+
+    private static final class DigestKey {
+        private final UUID userId;
+        private final NotificationType type;
+        private final NotificationChannel channel;
+        private final DigestKind kind;
+        private final String currency;
+
+        private DigestKey(Notification notification, DigestCandidate candidate) {
+            this.userId = notification.getUserId();
+            this.type = notification.getNotificationType();
+            this.channel = notification.getChannel();
+            this.kind = candidate.getKind();
+            this.currency = candidate.getCurrency();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof DigestKey other)) {
+                return false;
+            }
+            return Objects.equals(userId, other.userId) && type == other.type && channel == other.channel
+                    && kind == other.kind && Objects.equals(currency, other.currency);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(userId, type, channel, kind, currency);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.model.NotificationChannel;
+import org.springframework.core.env.Environment;
+
+import java.util.Locale;
+
+/**
+ * Delivery limits for one channel
+ *
+ * Each setting is read from {@code notification.channels.<channel>.<key>} (channel in
+ * kebab case, e.g. {@code in-app}) and falls back to {@code notification.dispatch.<key>}.
+ */
+public final class ChannelPolicy {
+
+    private final int concurrency;
+    private final int queueCapacity;
+    private final double ratePerSecond;
+    private final int burst;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    public ChannelPolicy(int concurrency, int queueCapacity,
+                         double ratePerSecond, int burst,
+                         int maxAttempts, long initialBackoffMs, long maxBackoffMs) {
+        this.concurrency = Math.max(1, concurrency);
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.ratePerSecond = Math.max(0, ratePerSecond);
+        this.burst = Math.max(1, burst);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.initialBackoffMs = Math.max(0, initialBackoffMs);
+        this.maxBackoffMs = Math.max(this.initialBackoffMs, maxBackoffMs);
+    }
+
+    public static ChannelPolicy resolve(Environment environment, NotificationChannel channel) {
+        String prefix = "notification.channels." + propertyName(channel) + ".";
+        return new ChannelPolicy(
+                setting(environment, prefix, "concurrency", Integer.class, 8),
+                setting(environment, prefix, "queue-capacity", Integer.class, 1000),
+                setting(environment, prefix, "rate-per-second", Double.class, 0d),
+                setting(environment, prefix, "burst", Integer.class, 1),
+                setting(environment, prefix, "max-attempts", Integer.class, 3),
+                setting(environment, prefix, "initial-backoff-ms", Long.class, 200L),
+                setting(environment, prefix, "max-backoff-ms", Long.class, 5000L));
+    }
+
+    static String propertyName(NotificationChannel channel) {
+        return channel.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    private static <T> T setting(Environment environment, String prefix, String key, Class<T> type, T defaultValue) {
+        T fallback = environment.getProperty("notification.dispatch." + key, type, defaultValue);
+        return environment.getProperty(prefix + key, type, fallback);
+    }
+
+    /**
+     * Delay before the given retry: exponential from {@code initialBackoffMs}, capped at
+     * {@code maxBackoffMs}, with jitter in the upper half so retries of one outage spread out
+     *
+     * @param retry 1 for the first retry
+     * @param random value in [0, 1)
+     */
+    long backoffMs(int retry, double random) {
+        long exponential = initialBackoffMs << Math.min(retry - 1, 20);
+        long capped = Math.min(maxBackoffMs, exponential);
+        return capped / 2 + (long) (capped / 2.0 * random);
+    }
+
+    public int getConcurrency() {
+        return concurrency;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    /**
+     * Sustained sends per second; 0 means unlimited
+     */
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getInitialBackoffMs() {
+        return initialBackoffMs;
+    }
+
+    public long getMaxBackoffMs() {
+        return maxBackoffMs;
+    }
+}
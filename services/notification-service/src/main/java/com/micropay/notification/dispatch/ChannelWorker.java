@@ -0,0 +1,181 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationChannel;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Delivery bulkhead for one channel.
+ *
+ * Owns a fixed pool of {@code concurrency} threads behind a queue of {@code queueCapacity}
+ * deliveries, an optional token bucket capping sends per second, and a retry policy with
+ * exponential backoff. Submitting to a full queue never waits: the notification stays
+ * PENDING and {@link PendingNotificationSweeper} hands it back once its lease runs out, so
+ * a stalled provider blocks neither the Kafka listener nor the retry thread shared by all
+ * channels. Retries are parked on that scheduler rather than on a delivery thread.
+ *
+ * Metrics are tagged with {@code channel}: {@code notification.delivery.sent},
+ * {@code .failed}, {@code .retried}, {@code .rejected}, {@code .duration},
+ * {@code .throttled}, {@code .queue.depth} and {@code .active}.
+ */
+class ChannelWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChannelWorker.class);
+
+    private final NotificationChannel channel;
+    private final ChannelPolicy policy;
+    private final NotificationSender sender;
+    private final NotificationStatusWriter statusWriter;
+    private final ScheduledExecutorService retryScheduler;
+    private final TokenBucket rateLimiter;
+    private final ThreadPoolExecutor executor;
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter retried;
+    private final Counter rejected;
+    private final Timer duration;
+    private final Timer throttled;
+
+    ChannelWorker(NotificationChannel channel,
+                  ChannelPolicy policy,
+                  NotificationSender sender,
+                  NotificationStatusWriter statusWriter,
+                  ScheduledExecutorService retryScheduler,
+                  MeterRegistry meterRegistry) {
+        this.channel = channel;
+        this.policy = policy;
+        this.sender = sender;
+        this.statusWriter = statusWriter;
+        this.retryScheduler = retryScheduler;
+        this.rateLimiter = policy.getRatePerSecond() > 0
+                ? new TokenBucket(policy.getRatePerSecond(), policy.getBurst())
+                : null;
+
+        String name = ChannelPolicy.propertyName(channel);
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                policy.getConcurrency(), policy.getConcurrency(), 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(policy.getQueueCapacity()),
+                r -> {
+                    Thread thread = new Thread(r, "notify-" + name + "-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+
+        Tags tags = Tags.of("channel", name);
+        this.sent = Counter.builder("notification.delivery.sent")
+                .description("Notifications delivered by the provider")
+                .tags(tags).register(meterRegistry);
+        this.failed = Counter.builder("notification.delivery.failed")
+                .description("Notifications marked FAILED after exhausting retries")
+                .tags(tags).register(meterRegistry);
+        this.retried = Counter.builder("notification.delivery.retried")
+                .description("Delivery attempts scheduled for retry")
+                .tags(tags).register(meterRegistry);
+        this.rejected = Counter.builder("notification.delivery.rejected")
+                .description("Deliveries refused because the channel queue was full, left PENDING for recovery")
+                .tags(tags).register(meterRegistry);
+        this.duration = Timer.builder("notification.delivery.duration")
+                .description("Time spent in the provider per attempt")
+                .tags(tags).register(meterRegistry);
+        this.throttled = Timer.builder("notification.delivery.throttled")
+                .description("Time deliveries waited on the channel rate limit")
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("notification.delivery.queue.depth", executor, e -> e.getQueue().size())
+                .description("Deliveries waiting for a channel thread")
+                .tags(tags).register(meterRegistry);
+        Gauge.builder("notification.delivery.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Deliveries in progress")
+                .tags(tags).register(meterRegistry);
+    }
+
+    void submit(Notification notification) {
+        submit(notification, 1);
+    }
+
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        if (executor.awaitTermination(timeout, unit)) {
+            return true;
+        }
+        executor.shutdownNow();
+        return false;
+    }
+
+    private void submit(Notification notification, int attempt) {
+        try {
+            executor.execute(() -> attempt(notification, attempt));
+        } catch (RejectedExecutionException e) {
+            // Still PENDING in the database: the recovery sweep re-dispatches it once its lease runs out
+            rejected.increment();
+            logger.warn("Deferred {} notification {} (attempt {}): channel queue full", channel, notification.getId(), attempt);
+        }
+    }
+
+    void attempt(Notification notification, int attempt) {
+        try {
+            if (rateLimiter != null) {
+                long waitStart = System.nanoTime();
+                rateLimiter.acquire();
+                throttled.record(System.nanoTime() - waitStart, TimeUnit.NANOSECONDS);
+            }
+            long sendStart = System.nanoTime();
+            try {
+                sender.send(notification);
+            } finally {
+                duration.record(System.nanoTime() - sendStart, TimeUnit.NANOSECONDS);
+            }
+            sent.increment();
+            statusWriter.markSent(notification, LocalDateTime.now());
+            logger.info("Notification sent successfully: {} to user: {}", notification.getId(), notification.getUserId());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail(notification, attempt, e);
+        } catch (Exception e) {
+            if (attempt < policy.getMaxAttempts() && !executor.isShutdown()) {
+                scheduleRetry(notification, attempt, e);
+            } else {
+                fail(notification, attempt, e);
+            }
+        }
+    }
+
+    private void scheduleRetry(Notification notification, int attempt, Exception cause) {
+        long delayMs = policy.backoffMs(attempt, ThreadLocalRandom.current().nextDouble());
+        logger.warn("Attempt {} for {} notification {} failed, retrying in {} ms: {}",
+                attempt, channel, notification.getId(), delayMs, cause.getMessage());
+        try {
+            retryScheduler.schedule(() -> submit(notification, attempt + 1), delayMs, TimeUnit.MILLISECONDS);
+            retried.increment();
+        } catch (RejectedExecutionException e) {
+            fail(notification, attempt, cause);
+        }
+    }
+
+    private void fail(Notification notification, int attempt, Exception cause) {
+        failed.increment();
+        logger.error("Failed to send notification: {} after {} attempt(s)", notification.getId(), attempt, cause);
+        statusWriter.markFailed(notification, LocalDateTime.now(), "Failed to send: " + cause.getMessage());
+    }
+}
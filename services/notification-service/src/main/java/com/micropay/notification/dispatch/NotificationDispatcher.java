@@ -0,0 +1,88 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationChannel;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hands persisted PENDING notifications to the {@link ChannelWorker} of their channel.
+ *
+ * Delivery latency stays off the Kafka listener thread, and each channel has its own
+ * concurrency limit, queue, rate limit and retry policy ({@link ChannelPolicy}), so a
+ * slow email provider cannot hold up in-app notifications. Outcomes go to
+ * {@link NotificationStatusWriter}, which applies them in batches.
+ */
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    private final NotificationSender sender;
+    private final NotificationStatusWriter statusWriter;
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final Map<NotificationChannel, ChannelWorker> workers = new EnumMap<>(NotificationChannel.class);
+
+    private ScheduledExecutorService retryScheduler;
+
+    public NotificationDispatcher(NotificationSender sender,
+                                  NotificationStatusWriter statusWriter,
+                                  Environment environment,
+                                  MeterRegistry meterRegistry) {
+        this.sender = sender;
+        this.statusWriter = statusWriter;
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    void start() {
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "notify-retry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            ChannelPolicy policy = ChannelPolicy.resolve(environment, channel);
+            workers.put(channel, new ChannelWorker(channel, policy, sender, statusWriter, retryScheduler, meterRegistry));
+            logger.info("{} delivery: concurrency {}, queue {}, rate {}/s, max attempts {}", channel,
+                    policy.getConcurrency(), policy.getQueueCapacity(), policy.getRatePerSecond(), policy.getMaxAttempts());
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Pending retries are dropped; those notifications stay PENDING and
+        // PendingNotificationSweeper re-dispatches them once their lease runs out
+        int dropped = retryScheduler.shutdownNow().size();
+        if (dropped > 0) {
+            logger.warn("Dropped {} scheduled notification retries on shutdown", dropped);
+        }
+        workers.values().forEach(ChannelWorker::shutdown);
+        for (ChannelWorker worker : workers.values()) {
+            worker.awaitTermination(10, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Queue delivery of notifications that are already committed as PENDING
+     */
+    public void dispatch(List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            workers.get(notification.getChannel()).submit(notification);
+        }
+    }
+}
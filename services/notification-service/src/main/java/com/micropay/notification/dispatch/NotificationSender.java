@@ -0,0 +1,14 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.model.Notification;
+
+/**
+ * Delivers one notification over its channel
+ *
+ * Called from the channel's dispatch executor, never from a Kafka listener thread;
+ * throwing marks the notification FAILED with the exception message as the reason.
+ */
+public interface NotificationSender {
+
+    void send(Notification notification) throws Exception;
+}
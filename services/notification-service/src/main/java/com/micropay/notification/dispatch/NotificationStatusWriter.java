@@ -0,0 +1,173 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.dto.NotificationSendEvent;
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationStatus;
+import com.micropay.outbox.OutboxWriter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies delivery outcomes to {@code notifications} in batches.
+ *
+ * Dispatch workers only enqueue; a background flusher drains up to
+ * {@code notification.status.batch-size} outcomes every
+ * {@code notification.status.flush-interval-ms} and writes them in one transaction:
+ * one JDBC batch UPDATE for the status columns plus one outbox batch of
+ * notification.send events for the ones that were sent. A failed flush is re-queued.
+ */
+@Component
+public class NotificationStatusWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationStatusWriter.class);
+
+    static final String NOTIFICATION_SEND_TOPIC = "notification.send";
+
+    private static final String UPDATE_SQL =
+            "UPDATE notifications SET status = ?, sent_at = ?, failed_at = ?, failure_reason = ?, version = version + 1 " +
+            "WHERE id = ?";
+    private static final int MAX_FAILURE_REASON = 500;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final LinkedBlockingQueue<Notification> pending = new LinkedBlockingQueue<>();
+
+    private ScheduledExecutorService flusher;
+
+    public NotificationStatusWriter(JdbcTemplate jdbcTemplate,
+                                    OutboxWriter outboxWriter,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${notification.status.batch-size:500}") int batchSize,
+                                    @Value("${notification.status.flush-interval-ms:200}") long flushIntervalMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = flushIntervalMs;
+    }
+
+    @PostConstruct
+    void start() {
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "notification-status-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        // Outcomes of deliveries that already happened must not be lost on shutdown
+        try {
+            while (flush() > 0) {
+                // keep draining
+            }
+        } catch (Exception e) {
+            logger.error("Dropping {} notification status updates on shutdown", pending.size(), e);
+        }
+    }
+
+    public void markSent(Notification notification, LocalDateTime sentAt) {
+        notification.setStatus(NotificationStatus.SENT);
+        notification.setSentAt(sentAt);
+        pending.add(notification);
+    }
+
+    public void markFailed(Notification notification, LocalDateTime failedAt, String reason) {
+        notification.setStatus(NotificationStatus.FAILED);
+        notification.setFailedAt(failedAt);
+        notification.setFailureReason(reason != null && reason.length() > MAX_FAILURE_REASON
+                ? reason.substring(0, MAX_FAILURE_REASON) : reason);
+        pending.add(notification);
+    }
+
+    /**
+     * Write one batch of queued outcomes
+     *
+     * @return number of notifications updated
+     */
+    public int flush() {
+        List<Notification> batch = new ArrayList<>(Math.min(batchSize, pending.size()));
+        pending.drainTo(batch, batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batch, batch.size(), (ps, notification) -> {
+                    ps.setString(1, notification.getStatus().name());
+                    ps.setTimestamp(2, toTimestamp(notification.getSentAt()));
+                    ps.setTimestamp(3, toTimestamp(notification.getFailedAt()));
+                    ps.setString(4, notification.getFailureReason());
+                    ps.setObject(5, notification.getId());
+                });
+                List<NotificationSendEvent> sent = batch.stream()
+                        .filter(notification -> notification.getStatus() == NotificationStatus.SENT)
+                        .map(NotificationStatusWriter::toSendEvent)
+                        .toList();
+                if (!sent.isEmpty()) {
+                    outboxWriter.appendAll(NOTIFICATION_SEND_TOPIC, sent, event -> event.getUserId().toString());
+                }
+            });
+        } catch (RuntimeException e) {
+            pending.addAll(batch);
+            throw e;
+        }
+        logger.debug("Applied {} notification status updates", batch.size());
+        return batch.size();
+    }
+
+    int pendingCount() {
+        return pending.size();
+    }
+
+    private void flushQuietly() {
+        try {
+            // Drain everything queued since the last tick, one batch per transaction
+            while (flush() == batchSize) {
+                // full batch: more may be waiting
+            }
+        } catch (Exception e) {
+            logger.error("Failed to apply notification status updates, will retry", e);
+        }
+    }
+
+    private static NotificationSendEvent toSendEvent(Notification notification) {
+        return new NotificationSendEvent(
+            notification.getId(),
+            notification.getUserId(),
+            notification.getNotificationType().name(),
+            notification.getChannel().name(),
+            notification.getStatus().name(),
+            notification.getReferenceId(),
+            notification.getReferenceType()
+        );
+    }
+
+    private static Timestamp toTimestamp(LocalDateTime dateTime) {
+        return dateTime == null ? null : Timestamp.valueOf(dateTime);
+    }
+}
@@ -0,0 +1,143 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationChannel;
+import com.micropay.notification.model.NotificationType;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Re-dispatches PENDING notifications whose in-process delivery was lost.
+ *
+ * {@link NotificationDispatcher} keeps queued deliveries and scheduled retries in memory,
+ * so a crash or shutdown leaves their rows PENDING with nothing working on them. Every row
+ * carries a lease ({@code dispatch_after}); at startup and then every
+ * {@code notification.recovery.interval-ms} the sweeper claims up to
+ * {@code notification.recovery.batch-size} rows whose lease has run out
+ * ({@code FOR UPDATE SKIP LOCKED}, so instances never claim the same row), extends their
+ * lease by {@code notification.recovery.lease-ms} and hands them to the dispatcher again.
+ * The lease must outlast the longest retry chain, or a row still being retried is sent twice.
+ */
+@Component
+public class PendingNotificationSweeper {
+
+    private static final Logger logger = LoggerFactory.getLogger(PendingNotificationSweeper.class);
+
+    static final String CLAIM_SQL =
+            "SELECT id, user_id, notification_type, channel, title, message, reference_id, reference_type, " +
+            "created_at, version FROM notifications WHERE status = 'PENDING' AND dispatch_after <= ? " +
+            "ORDER BY dispatch_after LIMIT ? FOR UPDATE SKIP LOCKED";
+    static final String LEASE_SQL = "UPDATE notifications SET dispatch_after = ? WHERE id = ?";
+
+    private static final RowMapper<Notification> ROW_MAPPER = (rs, rowNum) -> {
+        Notification notification = new Notification(
+            rs.getObject("user_id", UUID.class),
+            NotificationType.valueOf(rs.getString("notification_type")),
+            NotificationChannel.valueOf(rs.getString("channel")),
+            rs.getString("title"),
+            rs.getString("message")
+        );
+        notification.setId(rs.getObject("id", UUID.class));
+        notification.setReferenceId(rs.getObject("reference_id", UUID.class));
+        notification.setReferenceType(rs.getString("reference_type"));
+        notification.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
+        notification.setVersion(rs.getLong("version"));
+        return notification;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NotificationDispatcher dispatcher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long intervalMs;
+    private final long leaseMs;
+
+    private ScheduledExecutorService sweeper;
+
+    public PendingNotificationSweeper(JdbcTemplate jdbcTemplate,
+                                      NotificationDispatcher dispatcher,
+                                      PlatformTransactionManager transactionManager,
+                                      @Value("${notification.recovery.batch-size:500}") int batchSize,
+                                      @Value("${notification.recovery.interval-ms:60000}") long intervalMs,
+                                      @Value("${notification.recovery.lease-ms:300000}") long leaseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.dispatcher = dispatcher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.intervalMs = intervalMs;
+        this.leaseMs = leaseMs;
+    }
+
+    @PostConstruct
+    void start() {
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "notification-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // First sweep right away picks up what the previous run left behind
+        sweeper.scheduleWithFixedDelay(this::sweepQuietly, 0, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Claim and re-dispatch one batch of PENDING notifications whose lease has run out
+     *
+     * @return number of notifications re-dispatched
+     */
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp leaseUntil = Timestamp.valueOf(now.plus(leaseMs, ChronoUnit.MILLIS));
+        List<Notification> claimed = transactionTemplate.execute(status -> {
+            List<Notification> rows = jdbcTemplate.query(CLAIM_SQL, ROW_MAPPER, Timestamp.valueOf(now), batchSize);
+            if (!rows.isEmpty()) {
+                jdbcTemplate.batchUpdate(LEASE_SQL, rows, rows.size(),
+                        (ps, notification) -> {
+                            ps.setTimestamp(1, leaseUntil);
+                            ps.setObject(2, notification.getId());
+                        });
+            }
+            return rows;
+        });
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+        // Dispatch only after the lease is committed, so no other instance claims these rows meanwhile
+        dispatcher.dispatch(claimed);
+        logger.info("Re-dispatched {} stale PENDING notifications", claimed.size());
+        return claimed.size();
+    }
+
+    private void sweepQuietly() {
+        try {
+            while (sweep() == batchSize) {
+                // full batch: more may be waiting
+            }
+        } catch (Exception e) {
+            logger.error("Failed to re-dispatch stale PENDING notifications, will retry", e);
+        }
+    }
+}
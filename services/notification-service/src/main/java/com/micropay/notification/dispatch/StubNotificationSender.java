@@ -0,0 +1,81 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationChannel;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Local stand-in for the external providers, used for development and load tests
+ *
+ * Per channel it sleeps {@code latency-ms} plus up to {@code jitter-ms} and then fails
+ * with probability {@code failure-rate}, read from {@code notification.stub.<channel>.*}
+ * with {@code notification.stub.*} as the default. Active unless
+ * {@code notification.provider} names another sender.
+ *
+ * In production, this would integrate with email/SMS/push notification services
+ */
+@Component
+@ConditionalOnProperty(name = "notification.provider", havingValue = "stub", matchIfMissing = true)
+public class StubNotificationSender implements NotificationSender {
+
+    private static final Logger logger = LoggerFactory.getLogger(StubNotificationSender.class);
+
+    private final Map<NotificationChannel, Behaviour> behaviours = new EnumMap<>(NotificationChannel.class);
+
+    public StubNotificationSender(Environment environment) {
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            String prefix = "notification.stub." + ChannelPolicy.propertyName(channel) + ".";
+            behaviours.put(channel, new Behaviour(
+                    environment.getProperty(prefix + "latency-ms", Long.class,
+                            environment.getProperty("notification.stub.latency-ms", Long.class, 50L)),
+                    environment.getProperty(prefix + "jitter-ms", Long.class,
+                            environment.getProperty("notification.stub.jitter-ms", Long.class, 0L)),
+                    environment.getProperty(prefix + "failure-rate", Double.class,
+                            environment.getProperty("notification.stub.failure-rate", Double.class, 0d))));
+        }
+    }
+
+    @Override
+    public void send(Notification notification) throws InterruptedException {
+        Behaviour behaviour = behaviours.get(notification.getChannel());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        // Simulate network delay
+        long delay = behaviour.latencyMs + (behaviour.jitterMs > 0 ? random.nextLong(behaviour.jitterMs + 1) : 0);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+        if (behaviour.failureRate > 0 && random.nextDouble() < behaviour.failureRate) {
+            throw new IllegalStateException("Stub " + notification.getChannel() + " provider failure");
+        }
+
+        logger.debug("Sending notification via {} to user {}: {}",
+                    notification.getChannel(), notification.getUserId(), notification.getTitle());
+
+        // In production, this would:
+        // - For EMAIL: Call email service (SendGrid, AWS SES, etc.)
+        // - For SMS: Call SMS service (Twilio, AWS SNS, etc.)
+        // - For PUSH: Call push notification service (FCM, APNS, etc.)
+        // - For IN_APP: Store in user's notification inbox
+    }
+
+    private static final class Behaviour {
+        private final long latencyMs;
+        private final long jitterMs;
+        private final double failureRate;
+
+        private Behaviour(long latencyMs, long jitterMs, double failureRate) {
+            this.latencyMs = Math.max(0, latencyMs);
+            this.jitterMs = Math.max(0, jitterMs);
+            this.failureRate = failureRate;
+        }
+    }
+}
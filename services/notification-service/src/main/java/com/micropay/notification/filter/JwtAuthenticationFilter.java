@@ -1,7 +1,9 @@
 package com.micropay.notification.filter;
 
+import com.micropay.events.revocation.RevokedTokenIndex;
 import com.micropay.notification.util.JwtUtil;
-import io.jsonwebtoken.Claims;
+import com.micropay.security.identity.IdentityHeaderVerifier;
+import com.micropay.security.jwt.VerifiedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -21,9 +23,14 @@ import java.util.stream.Collectors;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
+    private final IdentityHeaderVerifier identityHeaderVerifier;
+    private final RevokedTokenIndex revokedTokenIndex;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, IdentityHeaderVerifier identityHeaderVerifier,
+                                   RevokedTokenIndex revokedTokenIndex) {
         this.jwtUtil = jwtUtil;
+        this.identityHeaderVerifier = identityHeaderVerifier;
+        this.revokedTokenIndex = revokedTokenIndex;
     }
 
     @Override
@@ -33,17 +40,25 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             throws ServletException, IOException {
 
         try {
+            // Identity signed by the gateway after it verified the JWT: one HMAC check instead of a full parse
+            UsernamePasswordAuthenticationToken gatewayIdentity = identityHeaderVerifier.verify(request);
             String token = getToken(request);
 
-            if (token != null && !jwtUtil.isInvalid(token)) {
+            if (token != null && revokedTokenIndex.isRevoked(token)) {
+                // Logged out: learned from token.revoked, so neither path may authenticate it
+                logger.warn("Rejected revoked JWT");
+            } else if (gatewayIdentity != null) {
+                SecurityContextHolder.getContext().setAuthentication(gatewayIdentity);
+            } else if (token != null) {
 
-                Claims claims = jwtUtil.getAllClaimsFromToken(token);
+                // One parse: signature, expiry, subject and authorities together
+                VerifiedToken verified = jwtUtil.verify(token);
 
-                String username = claims.getSubject();
+                String username = verified.getSubject();
 
-                List<String> roles = claims.get("authorities", List.class);
+                List<String> roles = verified.getAuthorities();
 
-                if (roles == null) {
+                if (roles.isEmpty()) {
                     roles = List.of("ROLE_USER");
                 }
 
@@ -6,11 +6,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Kafka consumer for payment.completed events
  * Sends notifications when payments are completed
@@ -27,44 +28,35 @@ public class PaymentCompletedEventConsumer {
     }
 
     /**
-     * Consume payment.completed events from Kafka
-     * Sends notifications to payer and payee
+     * Consume payment.completed events from Kafka, one poll at a time
+     * All notifications for the batch are inserted together and the batch is acknowledged once
      */
-    @KafkaListener(topics = "payment.completed", groupId = "notification-service-consumer-group")
-    public void consumePaymentCompletedEvent(
-            @Payload PaymentCompletedEvent event,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        
+    @KafkaListener(topics = "payment.completed", groupId = "notification-service-consumer-group",
+                   containerFactory = "batchListenerContainerFactory",
+                   concurrency = "${notification.consumer.payment-completed.concurrency:${notification.consumer.concurrency:3}}")
+    public void consumePaymentCompletedEvents(@Payload List<PaymentCompletedEvent> events, Acknowledgment acknowledgment) {
         try {
-            logger.info("Received payment.completed event for payment: {}", event.getPaymentId());
-            
-            if (event.getPaymentId() == null) {
-                logger.error("Payment ID is null in payment.completed event. Event ID: {}", event.getEventId());
-                acknowledgment.acknowledge();
-                return;
+            logger.info("Received {} payment.completed events", events.size());
+
+            List<PaymentCompletedEvent> valid = new ArrayList<>(events.size());
+            for (PaymentCompletedEvent event : events) {
+                if (event.getPaymentId() == null) {
+                    logger.error("Payment ID is null in payment.completed event. Event ID: {}", event.getEventId());
+                    continue;
+                }
+                valid.add(event);
             }
 
-            // Send notifications for payment completion
-            notificationService.sendPaymentCompletedNotification(event);
-            logger.debug("Processed payment.completed event for payment: {}", event.getPaymentId());
-
-            // Acknowledge the message
-            acknowledgment.acknowledge();
-            
+            if (!valid.isEmpty()) {
+                notificationService.sendPaymentCompletedNotifications(valid);
+            }
+            logger.debug("Processed {} payment.completed events", valid.size());
         } catch (Exception e) {
-            logger.error("Error processing payment.completed event for payment: {}. Event ID: {}", 
-                        event.getPaymentId(), event.getEventId(), e);
+            logger.error("Error processing batch of {} payment.completed events", events.size(), e);
             // In production, implement retry logic or send to dead letter queue
             // For now, acknowledge to prevent infinite retries
+        } finally {
             acknowledgment.acknowledge();
         }
     }
 }
-
-
-
-
-
-
-
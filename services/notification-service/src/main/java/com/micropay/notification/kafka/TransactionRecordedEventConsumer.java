@@ -6,11 +6,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Kafka consumer for transaction.recorded events
  * Sends notifications when transactions are recorded
@@ -27,44 +28,35 @@ public class TransactionRecordedEventConsumer {
     }
 
     /**
-     * Consume transaction.recorded events from Kafka
-     * Sends notifications to all users involved in the transaction
+     * Consume transaction.recorded events from Kafka, one poll at a time
+     * All notifications for the batch are inserted together and the batch is acknowledged once
      */
-    @KafkaListener(topics = "transaction.recorded", groupId = "notification-service-consumer-group")
-    public void consumeTransactionRecordedEvent(
-            @Payload TransactionRecordedEvent event,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        
+    @KafkaListener(topics = "transaction.recorded", groupId = "notification-service-consumer-group",
+                   containerFactory = "batchListenerContainerFactory",
+                   concurrency = "${notification.consumer.transaction-recorded.concurrency:${notification.consumer.concurrency:3}}")
+    public void consumeTransactionRecordedEvents(@Payload List<TransactionRecordedEvent> events, Acknowledgment acknowledgment) {
         try {
-            logger.info("Received transaction.recorded event for transaction: {}", event.getTransactionId());
-            
-            if (event.getTransactionId() == null) {
-                logger.error("Transaction ID is null in transaction.recorded event. Event ID: {}", event.getEventId());
-                acknowledgment.acknowledge();
-                return;
+            logger.info("Received {} transaction.recorded events", events.size());
+
+            List<TransactionRecordedEvent> valid = new ArrayList<>(events.size());
+            for (TransactionRecordedEvent event : events) {
+                if (event.getTransactionId() == null) {
+                    logger.error("Transaction ID is null in transaction.recorded event. Event ID: {}", event.getEventId());
+                    continue;
+                }
+                valid.add(event);
             }
 
-            // Send notifications for transaction recording
-            notificationService.sendTransactionRecordedNotification(event);
-            logger.debug("Processed transaction.recorded event for transaction: {}", event.getTransactionId());
-
-            // Acknowledge the message
-            acknowledgment.acknowledge();
-            
+            if (!valid.isEmpty()) {
+                notificationService.sendTransactionRecordedNotifications(valid);
+            }
+            logger.debug("Processed {} transaction.recorded events", valid.size());
         } catch (Exception e) {
-            logger.error("Error processing transaction.recorded event for transaction: {}. Event ID: {}", 
-                        event.getTransactionId(), event.getEventId(), e);
+            logger.error("Error processing batch of {} transaction.recorded events", events.size(), e);
             // In production, implement retry logic or send to dead letter queue
             // For now, acknowledge to prevent infinite retries
+        } finally {
             acknowledgment.acknowledge();
         }
     }
 }
-
-
-
-
-
-
-
@@ -58,12 +58,18 @@ public class Notification {
     @Column(name = "failure_reason", length = 500)
     private String failureReason;
 
+    @Column(name = "dispatch_after", nullable = false)
+    private LocalDateTime dispatchAfter; // re-dispatched by the sweep if still PENDING after this
+
     @Version
     private Long version;
 
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
+        if (dispatchAfter == null) {
+            dispatchAfter = createdAt;
+        }
         if (status == null) {
             status = NotificationStatus.PENDING;
         }
@@ -188,6 +194,14 @@ public class Notification {
         this.failureReason = failureReason;
     }
 
+    public LocalDateTime getDispatchAfter() {
+        return dispatchAfter;
+    }
+
+    public void setDispatchAfter(LocalDateTime dispatchAfter) {
+        this.dispatchAfter = dispatchAfter;
+    }
+
     public Long getVersion() {
         return version;
     }
@@ -6,7 +6,8 @@ package com.micropay.notification.model;
 public enum NotificationStatus {
     PENDING,
     SENT,
-    FAILED
+    FAILED,
+    COALESCED // held for a digest and replaced by it
 }
 
 
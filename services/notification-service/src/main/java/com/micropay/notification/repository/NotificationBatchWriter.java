@@ -0,0 +1,101 @@
+package com.micropay.notification.repository;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationStatus;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Bulk insert of new notifications with JDBC batching
+ *
+ * Ids, creation time and PENDING status are assigned here rather than by Hibernate,
+ * so a whole Kafka poll becomes a few multi-row batches instead of one persist per row.
+ * Rows get a dispatch lease of {@code notification.recovery.lease-ms}: if one is still
+ * PENDING when it runs out, the in-process delivery was lost and the sweep sends it again.
+ * Must be called inside the caller's transaction.
+ */
+@Repository
+public class NotificationBatchWriter {
+
+    private static final String COALESCED_SQL =
+            "UPDATE notifications SET status = 'COALESCED', version = version + 1 WHERE id = ? AND status = 'PENDING'";
+    private static final String INSERT_SQL =
+            "INSERT INTO notifications (id, user_id, notification_type, channel, status, title, message, " +
+            "reference_id, reference_type, created_at, dispatch_after, version) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long leaseMs;
+
+    public NotificationBatchWriter(JdbcTemplate jdbcTemplate,
+                                   @Value("${notification.consumer.insert-batch-size:500}") int batchSize,
+                                   @Value("${notification.recovery.lease-ms:300000}") long leaseMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = Math.max(1, batchSize);
+        this.leaseMs = leaseMs;
+    }
+
+    /**
+     * Insert notifications as PENDING
+     *
+     * @return the same notifications with id, createdAt, status and version populated
+     */
+    public List<Notification> insertAll(List<Notification> notifications) {
+        return insertAll(notifications, LocalDateTime.now());
+    }
+
+    /**
+     * Insert notifications whose dispatch lease starts at {@code notBefore}, e.g. ones held
+     * back for a digest until then
+     *
+     * @return the same notifications with id, createdAt, status and version populated
+     */
+    public List<Notification> insertAll(List<Notification> notifications, LocalDateTime notBefore) {
+        if (notifications.isEmpty()) {
+            return notifications;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dispatchAfter = notBefore.plus(leaseMs, ChronoUnit.MILLIS);
+        for (Notification notification : notifications) {
+            notification.setId(UUID.randomUUID());
+            notification.setCreatedAt(now);
+            notification.setDispatchAfter(dispatchAfter);
+            notification.setStatus(NotificationStatus.PENDING);
+            notification.setVersion(0L);
+        }
+        Timestamp createdAt = Timestamp.valueOf(now);
+        Timestamp dispatchDeadline = Timestamp.valueOf(dispatchAfter);
+        jdbcTemplate.batchUpdate(INSERT_SQL, notifications, batchSize, (ps, notification) -> {
+            ps.setObject(1, notification.getId());
+            ps.setObject(2, notification.getUserId());
+            ps.setString(3, notification.getNotificationType().name());
+            ps.setString(4, notification.getChannel().name());
+            ps.setString(5, notification.getStatus().name());
+            ps.setString(6, notification.getTitle());
+            ps.setString(7, notification.getMessage());
+            ps.setObject(8, notification.getReferenceId());
+            ps.setString(9, notification.getReferenceType());
+            ps.setTimestamp(10, createdAt);
+            ps.setTimestamp(11, dispatchDeadline);
+        });
+        return notifications;
+    }
+
+    /**
+     * Retire held PENDING notifications that a digest replaces
+     */
+    public void markCoalesced(List<Notification> notifications) {
+        if (notifications.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(COALESCED_SQL, notifications, batchSize,
+                (ps, notification) -> ps.setObject(1, notification.getId()));
+    }
+}
@@ -1,6 +1,12 @@
 package com.micropay.notification.service;
 
-import com.micropay.notification.dto.NotificationSendEvent;
+import com.micropay.notification.digest.CoalescedNotifications;
+import com.micropay.notification.digest.DigestCandidate;
+import com.micropay.notification.digest.DigestFlusher;
+import com.micropay.notification.digest.DigestKind;
+import com.micropay.notification.digest.DigestRelease;
+import com.micropay.notification.digest.NotificationCoalescer;
+import com.micropay.notification.dispatch.NotificationDispatcher;
 import com.micropay.notification.dto.NotificationResponse;
 import com.micropay.notification.dto.PaymentCompletedEvent;
 import com.micropay.notification.dto.TransactionRecordedEvent;
@@ -8,50 +14,66 @@ import com.micropay.events.dto.PasswordResetEvent;
 import org.springframework.kafka.annotation.KafkaListener;
 import com.micropay.notification.model.Notification;
 import com.micropay.notification.model.NotificationChannel;
-import com.micropay.notification.model.NotificationStatus;
 import com.micropay.notification.model.NotificationType;
+import com.micropay.notification.repository.NotificationBatchWriter;
 import com.micropay.notification.repository.NotificationRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 /**
  * Service layer for notification operations
+ *
+ * Event handlers only insert PENDING notifications, in one short JDBC-batched transaction
+ * per event or per Kafka poll, and hand them to {@link NotificationDispatcher}. Payment and
+ * transaction notifications pass through {@link NotificationCoalescer} first, which may
+ * hold them back and fold them into a digest; held ones are inserted in the same
+ * transaction but not dispatched until {@link DigestFlusher} releases them, so nothing the
+ * Kafka poll acknowledged lives only in memory. Delivery and status updates happen off
+ * the Kafka listener thread, so consumption is not paced by channel latency.
  */
 @Service
 public class NotificationService {
 
     private static final Logger logger = LoggerFactory.getLogger(NotificationService.class);
-    
-    private static final String NOTIFICATION_SEND_TOPIC = "notification.send";
 
     private final NotificationRepository notificationRepository;
-    private final KafkaTemplate<String, NotificationSendEvent> kafkaTemplate;
-
-    public NotificationService(NotificationRepository notificationRepository, 
-                              KafkaTemplate<String, NotificationSendEvent> kafkaTemplate) {
+    private final NotificationBatchWriter notificationBatchWriter;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationCoalescer notificationCoalescer;
+    private final TransactionTemplate transactionTemplate;
+
+    public NotificationService(NotificationRepository notificationRepository,
+                              NotificationBatchWriter notificationBatchWriter,
+                              NotificationDispatcher notificationDispatcher,
+                              NotificationCoalescer notificationCoalescer,
+                              PlatformTransactionManager transactionManager) {
         this.notificationRepository = notificationRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.notificationBatchWriter = notificationBatchWriter;
+        this.notificationDispatcher = notificationDispatcher;
+        this.notificationCoalescer = notificationCoalescer;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     /**
      * Send notification for password reset event
      */
-    @Transactional
     @KafkaListener(topics = "password.reset", groupId = "notification-service-consumer-group")
     public void sendPasswordResetNotification(PasswordResetEvent event) {
         try {
-            sendNotification(
+            enqueue(List.of(newNotification(
                 event.getUserId(),
                 NotificationType.PASSWORD_RESET,
                 NotificationChannel.EMAIL,
@@ -59,11 +81,11 @@ public class NotificationService {
                 String.format("To reset your password, use the following token: %s", event.getToken()),
                 event.getUserId(),
                 "USER"
-            );
+            )));
 
-            logger.info("Sent password reset notification for user: {}", event.getUserId());
+            logger.info("Queued password reset notification for user: {}", event.getUserId());
         } catch (Exception e) {
-            logger.error("Failed to send password reset notification for user: {}", 
+            logger.error("Failed to queue password reset notification for user: {}",
                         event.getUserId(), e);
         }
     }
@@ -71,46 +93,36 @@ public class NotificationService {
     /**
      * Send notification for payment completed event
      */
-    @Transactional
     public void sendPaymentCompletedNotification(PaymentCompletedEvent event) {
         try {
-            // Send notification to payer
-            sendNotification(
-                event.getPayerUserId(),
-                NotificationType.PAYMENT_COMPLETED,
-                NotificationChannel.IN_APP,
-                "Payment Completed",
-                String.format("Your payment of %s %s has been completed successfully. Payment ID: %s", 
-                            event.getAmount(), event.getCurrency(), event.getPaymentId()),
-                event.getPaymentId(),
-                "PAYMENT"
-            );
-
-            // Send notification to payee if exists
-            if (event.getPayeeUserId() != null) {
-                sendNotification(
-                    event.getPayeeUserId(),
-                    NotificationType.PAYMENT_COMPLETED,
-                    NotificationChannel.IN_APP,
-                    "Payment Received",
-                    String.format("You have received %s %s. Payment ID: %s", 
-                                event.getAmount(), event.getCurrency(), event.getPaymentId()),
-                    event.getPaymentId(),
-                    "PAYMENT"
-                );
-            }
-
-            logger.info("Sent payment completed notifications for payment: {}", event.getPaymentId());
+            enqueue(notificationCoalescer.coalesce(paymentCompletedNotifications(event)));
+            logger.info("Queued payment completed notifications for payment: {}", event.getPaymentId());
         } catch (Exception e) {
-            logger.error("Failed to send payment completed notification for payment: {}", 
+            logger.error("Failed to queue payment completed notification for payment: {}",
                         event.getPaymentId(), e);
         }
     }
 
+    /**
+     * Send notifications for a poll's worth of payment completed events in one insert batch
+     */
+    public void sendPaymentCompletedNotifications(List<PaymentCompletedEvent> events) {
+        List<DigestCandidate> candidates = new ArrayList<>(events.size() * 2);
+        for (PaymentCompletedEvent event : events) {
+            try {
+                candidates.addAll(paymentCompletedNotifications(event));
+            } catch (Exception e) {
+                logger.error("Failed to build payment completed notification for payment: {}",
+                            event.getPaymentId(), e);
+            }
+        }
+        coalesceAndEnqueue(candidates);
+        logger.info("Processed payment completed notifications for {} payments", events.size());
+    }
+
     /**
      * Send notification for transaction recorded event
      */
-    @Transactional
     public void sendTransactionRecordedNotification(TransactionRecordedEvent event) {
         try {
             if (event.getEntries() == null || event.getEntries().isEmpty()) {
@@ -118,91 +130,163 @@ public class NotificationService {
                 return;
             }
 
-            // Send notification to all users involved in the transaction
-            for (TransactionRecordedEvent.TransactionEntryDto entry : event.getEntries()) {
-                String entryTypeLabel = "DEBIT".equals(entry.getEntryType()) ? "debited" : "credited";
-                sendNotification(
-                    entry.getUserId(),
-                    NotificationType.TRANSACTION_RECORDED,
-                    NotificationChannel.IN_APP,
-                    "Transaction Recorded",
-                    String.format("Your account has been %s with %s %s. Transaction ID: %s", 
-                                entryTypeLabel, entry.getAmount(), entry.getCurrency(), 
-                                event.getTransactionId()),
-                    event.getTransactionId(),
-                    "TRANSACTION"
-                );
-            }
-
-            logger.info("Sent transaction recorded notifications for transaction: {}", event.getTransactionId());
+            enqueue(notificationCoalescer.coalesce(transactionRecordedNotifications(event)));
+            logger.info("Queued transaction recorded notifications for transaction: {}", event.getTransactionId());
         } catch (Exception e) {
-            logger.error("Failed to send transaction recorded notification for transaction: {}", 
+            logger.error("Failed to queue transaction recorded notification for transaction: {}",
                         event.getTransactionId(), e);
         }
     }
 
     /**
-     * Send notification (placeholder implementation)
+     * Send notifications for a poll's worth of transaction recorded events in one insert batch
      */
-    @Transactional
-    public Notification sendNotification(UUID userId, NotificationType notificationType, 
-                                        NotificationChannel channel, String title, String message,
-                                        UUID referenceId, String referenceType) {
-        // Create notification record
-        Notification notification = new Notification(userId, notificationType, channel, title, message);
-        notification.setReferenceId(referenceId);
-        notification.setReferenceType(referenceType);
-        notification = notificationRepository.save(notification);
-
-        // Placeholder: Simulate sending notification
-        // In production, this would integrate with email/SMS/push notification services
-        try {
-            // Simulate notification sending (placeholder logic)
-            simulateNotificationSending(notification);
-            
-            // Mark as sent
-            notification.setStatus(NotificationStatus.SENT);
-            notification.setSentAt(java.time.LocalDateTime.now());
-            notification = notificationRepository.save(notification);
+    public void sendTransactionRecordedNotifications(List<TransactionRecordedEvent> events) {
+        List<DigestCandidate> candidates = new ArrayList<>();
+        for (TransactionRecordedEvent event : events) {
+            if (event.getEntries() == null || event.getEntries().isEmpty()) {
+                logger.warn("Transaction recorded event has no entries: {}", event.getTransactionId());
+                continue;
+            }
+            try {
+                candidates.addAll(transactionRecordedNotifications(event));
+            } catch (Exception e) {
+                logger.error("Failed to build transaction recorded notification for transaction: {}",
+                            event.getTransactionId(), e);
+            }
+        }
+        coalesceAndEnqueue(candidates);
+        logger.info("Processed transaction recorded notifications for {} transactions", events.size());
+    }
 
-            logger.info("Notification sent successfully: {} to user: {}", notification.getId(), userId);
+    /**
+     * Persist notifications as PENDING in one transaction, then queue them for delivery
+     */
+    public List<Notification> enqueue(List<Notification> notifications) {
+        return enqueue(new CoalescedNotifications(notifications, List.of(), 0));
+    }
 
-            // Publish notification.send event
-            publishNotificationSendEvent(notification);
+    /**
+     * Insert the digests of closed windows and retire the held notifications they replace
+     * in one transaction, then queue the digests and the held notifications released as they are
+     */
+    public void release(DigestRelease release) {
+        transactionTemplate.executeWithoutResult(status -> {
+            notificationBatchWriter.insertAll(release.getDigests());
+            notificationBatchWriter.markCoalesced(release.getFolded());
+        });
+        List<Notification> outgoing = new ArrayList<>(release.getDigests().size() + release.getReleased().size());
+        outgoing.addAll(release.getDigests());
+        outgoing.addAll(release.getReleased());
+        notificationDispatcher.dispatch(outgoing);
+    }
 
-        } catch (Exception e) {
-            logger.error("Failed to send notification: {}", notification.getId(), e);
-            notification.setStatus(NotificationStatus.FAILED);
-            notification.setFailedAt(java.time.LocalDateTime.now());
-            notification.setFailureReason("Failed to send: " + e.getMessage());
-            notification = notificationRepository.save(notification);
+    /**
+     * Persist immediate and held notifications in one transaction, then hand the held ones
+     * to their digest windows and queue the immediate ones
+     *
+     * Held rows get their dispatch lease from the end of the hold, so the recovery sweep
+     * leaves them to the digest window unless this instance dies first.
+     */
+    private List<Notification> enqueue(CoalescedNotifications coalesced) {
+        if (coalesced.isEmpty()) {
+            return coalesced.getImmediate();
         }
-
-        return notification;
+        List<Notification> saved = transactionTemplate.execute(status -> {
+            List<Notification> held = coalesced.getHeld();
+            if (!held.isEmpty()) {
+                notificationBatchWriter.insertAll(held, LocalDateTime.now().plus(coalesced.getHoldMs(), ChronoUnit.MILLIS));
+            }
+            return notificationBatchWriter.insertAll(coalesced.getImmediate());
+        });
+        // Only committed rows may be folded, and status updates must never race the insert
+        notificationCoalescer.hold(coalesced);
+        notificationDispatcher.dispatch(saved);
+        return saved;
     }
 
     /**
-     * Placeholder method to simulate notification sending
-     * In production, this would integrate with actual notification services
+     * Coalesce a batch and insert it, dispatching what must go out now
+     *
+     * If the batch cannot be written, it is retried per source event so a single bad
+     * event does not cost the whole poll.
      */
-    private void simulateNotificationSending(Notification notification) {
-        // Placeholder logic - simulate sending delay
+    private void coalesceAndEnqueue(List<DigestCandidate> candidates) {
+        CoalescedNotifications coalesced = notificationCoalescer.coalesce(candidates);
         try {
-            Thread.sleep(50); // Simulate network delay
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new RuntimeException("Notification sending interrupted", e);
+            enqueue(coalesced);
+        } catch (Exception e) {
+            logger.warn("Batch of {} notifications failed, retrying per event",
+                coalesced.getImmediate().size() + coalesced.getHeld().size(), e);
+            coalesced.byReference().forEach((referenceId, part) -> {
+                try {
+                    enqueue(part);
+                } catch (Exception retryFailure) {
+                    logger.error("Failed to queue notifications for reference: {}", referenceId, retryFailure);
+                }
+            });
+        }
+    }
+
+    private List<DigestCandidate> paymentCompletedNotifications(PaymentCompletedEvent event) {
+        List<DigestCandidate> notifications = new ArrayList<>(2);
+
+        // Notify payer
+        notifications.add(new DigestCandidate(newNotification(
+            event.getPayerUserId(),
+            NotificationType.PAYMENT_COMPLETED,
+            NotificationChannel.IN_APP,
+            "Payment Completed",
+            String.format("Your payment of %s %s has been completed successfully. Payment ID: %s",
+                        event.getAmount(), event.getCurrency(), event.getPaymentId()),
+            event.getPaymentId(),
+            "PAYMENT"
+        ), DigestKind.PAYMENTS_COMPLETED, event.getAmount(), event.getCurrency()));
+
+        // Notify payee if exists
+        if (event.getPayeeUserId() != null) {
+            notifications.add(new DigestCandidate(newNotification(
+                event.getPayeeUserId(),
+                NotificationType.PAYMENT_COMPLETED,
+                NotificationChannel.IN_APP,
+                "Payment Received",
+                String.format("You have received %s %s. Payment ID: %s",
+                            event.getAmount(), event.getCurrency(), event.getPaymentId()),
+                event.getPaymentId(),
+                "PAYMENT"
+            ), DigestKind.PAYMENTS_RECEIVED, event.getAmount(), event.getCurrency()));
         }
+        return notifications;
+    }
 
-        // Placeholder: Log notification details
-        logger.debug("Sending notification via {} to user {}: {}", 
-                    notification.getChannel(), notification.getUserId(), notification.getTitle());
-        
-        // In production, this would:
-        // - For EMAIL: Call email service (SendGrid, AWS SES, etc.)
-        // - For SMS: Call SMS service (Twilio, AWS SNS, etc.)
-        // - For PUSH: Call push notification service (FCM, APNS, etc.)
-        // - For IN_APP: Store in user's notification inbox
+    private List<DigestCandidate> transactionRecordedNotifications(TransactionRecordedEvent event) {
+        // Notify all users involved in the transaction
+        List<DigestCandidate> notifications = new ArrayList<>(event.getEntries().size());
+        for (TransactionRecordedEvent.TransactionEntryDto entry : event.getEntries()) {
+            boolean debit = "DEBIT".equals(entry.getEntryType());
+            String entryTypeLabel = debit ? "debited" : "credited";
+            notifications.add(new DigestCandidate(newNotification(
+                entry.getUserId(),
+                NotificationType.TRANSACTION_RECORDED,
+                NotificationChannel.IN_APP,
+                "Transaction Recorded",
+                String.format("Your account has been %s with %s %s. Transaction ID: %s",
+                            entryTypeLabel, entry.getAmount(), entry.getCurrency(),
+                            event.getTransactionId()),
+                event.getTransactionId(),
+                "TRANSACTION"
+            ), debit ? DigestKind.ACCOUNT_DEBITED : DigestKind.ACCOUNT_CREDITED, entry.getAmount(), entry.getCurrency()));
+        }
+        return notifications;
+    }
+
+    private Notification newNotification(UUID userId, NotificationType notificationType,
+                                         NotificationChannel channel, String title, String message,
+                                         UUID referenceId, String referenceType) {
+        Notification notification = new Notification(userId, notificationType, channel, title, message);
+        notification.setReferenceId(referenceId);
+        notification.setReferenceType(referenceType);
+        return notification;
     }
 
     /**
@@ -216,30 +300,6 @@ public class NotificationService {
             .collect(Collectors.toList());
     }
 
-    /**
-     * Publish notification.send event to Kafka
-     */
-    private void publishNotificationSendEvent(Notification notification) {
-        try {
-            NotificationSendEvent event = new NotificationSendEvent(
-                notification.getId(),
-                notification.getUserId(),
-                notification.getNotificationType().name(),
-                notification.getChannel().name(),
-                notification.getStatus().name(),
-                notification.getReferenceId(),
-                notification.getReferenceType()
-            );
-
-            kafkaTemplate.send(NOTIFICATION_SEND_TOPIC, notification.getUserId().toString(), event);
-            logger.debug("Published notification.send event for notification: {}", notification.getId());
-        } catch (Exception e) {
-            logger.error("Failed to publish notification.send event for notification: {}", 
-                        notification.getId(), e);
-            // Note: In production, consider implementing retry mechanism or dead letter queue
-        }
-    }
-
     /**
      * Map Notification entity to NotificationResponse DTO
      */
@@ -261,10 +321,3 @@ public class NotificationService {
         return response;
     }
 }
-
-
-
-
-
-
-
@@ -1,31 +1,31 @@
 package com.micropay.notification.util;
 
+import com.micropay.security.jwt.JwtCodec;
+import com.micropay.security.jwt.VerifiedToken;
 import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
-
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    // Key and parser are derived once by the shared codec rather than on every request
+    private final JwtCodec codec;
 
-    public Claims getAllClaimsFromToken(String token) {
-        SecretKey key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
+        this.codec = new JwtCodec(secret);
     }
 
-    private boolean isTokenExpired(String token) {
-        return this.getAllClaimsFromToken(token).getExpiration().before(new Date());
+    public Claims getAllClaimsFromToken(String token) {
+        return codec.parseClaims(token);
     }
 
-    public boolean isInvalid(String token) {
-        return this.isTokenExpired(token);
+    /**
+     * Verify signature and expiry and extract subject and authorities in one parse
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is invalid or expired
+     */
+    public VerifiedToken verify(String token) {
+        return codec.validateAndExtract(token);
     }
 }
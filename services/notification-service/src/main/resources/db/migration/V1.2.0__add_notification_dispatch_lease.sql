@@ -0,0 +1,10 @@
+-- Lease on in-process delivery: a PENDING row whose dispatch_after has passed was lost
+-- (crash, dropped retry) and is claimed again by PendingNotificationSweeper
+ALTER TABLE notifications ADD COLUMN IF NOT EXISTS dispatch_after TIMESTAMP;
+UPDATE notifications SET dispatch_after = created_at WHERE dispatch_after IS NULL;
+ALTER TABLE notifications ALTER COLUMN dispatch_after SET NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_notification_pending_dispatch ON notifications(dispatch_after)
+    WHERE status = 'PENDING';
+
+COMMENT ON COLUMN notifications.dispatch_after IS 'When a still PENDING notification is re-dispatched';
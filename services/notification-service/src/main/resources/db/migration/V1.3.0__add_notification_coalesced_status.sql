@@ -0,0 +1,7 @@
+-- Notifications held back for a digest are persisted as PENDING; the ones a digest
+-- replaces are retired as COALESCED
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS chk_notification_status;
+ALTER TABLE notifications ADD CONSTRAINT chk_notification_status
+    CHECK (status IN ('PENDING', 'SENT', 'FAILED', 'COALESCED'));
+
+COMMENT ON COLUMN notifications.status IS 'Notification status: PENDING, SENT, FAILED, COALESCED';
@@ -0,0 +1,165 @@
+package com.micropay.notification.digest;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationChannel;
+import com.micropay.notification.model.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Notification Coalescer Tests")
+class NotificationCoalescerTest {
+
+    private final AtomicLong clock = new AtomicLong(1_000);
+    private NotificationCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("notification.digest.types.payment-completed.window-ms", "5000")
+                .withProperty("notification.digest.types.payment-completed.min-count", "3")
+                .withProperty("notification.digest.types.payment-completed.max-items", "200");
+        coalescer = new NotificationCoalescer(environment, new SimpleMeterRegistry(), clock::get);
+    }
+
+    private static DigestCandidate received(UUID userId, String amount) {
+        Notification notification = new Notification(userId, NotificationType.PAYMENT_COMPLETED,
+                NotificationChannel.IN_APP, "Payment Received", "You have received " + amount + " USD");
+        notification.setReferenceId(UUID.randomUUID());
+        return new DigestCandidate(notification, DigestKind.PAYMENTS_RECEIVED, new BigDecimal(amount), "USD");
+    }
+
+    private CoalescedNotifications coalesceAndHold(List<DigestCandidate> candidates) {
+        CoalescedNotifications coalesced = coalescer.coalesce(candidates);
+        coalescer.hold(coalesced);
+        return coalesced;
+    }
+
+    private static List<DigestCandidate> received(UUID userId, int count) {
+        List<DigestCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            candidates.add(received(userId, "10.00"));
+        }
+        return candidates;
+    }
+
+    @Test
+    @DisplayName("Should send the first notification immediately and fold the burst into one digest")
+    void coalesce_BurstBecomesDigest() {
+        // Given
+        UUID merchant = UUID.randomUUID();
+
+        // When
+        CoalescedNotifications coalesced = coalesceAndHold(received(merchant, 149));
+        DigestRelease beforeWindow = coalescer.drainDue();
+        clock.addAndGet(5_000);
+        DigestRelease released = coalescer.drainDue();
+
+        // Then
+        assertThat(coalesced.getImmediate()).hasSize(1);
+        assertThat(coalesced.getHeld()).hasSize(148);
+        assertThat(coalesced.getHoldMs()).isEqualTo(5_000);
+        assertThat(beforeWindow.isEmpty()).isTrue();
+        assertThat(released.getReleased()).isEmpty();
+        assertThat(released.getFolded()).containsExactlyElementsOf(coalesced.getHeld());
+        assertThat(released.getDigests()).singleElement().satisfies(digest -> {
+            assertThat(digest.getUserId()).isEqualTo(merchant);
+            assertThat(digest.getTitle()).isEqualTo("Payments Received");
+            assertThat(digest.getMessage()).isEqualTo("You have received 148 payments totalling 1480.00 USD");
+            assertThat(digest.getReferenceType()).isEqualTo(NotificationCoalescer.DIGEST_REFERENCE_TYPE);
+        });
+    }
+
+    @Test
+    @DisplayName("Should release held notifications individually below the threshold and close quiet windows")
+    void drainDue_BelowThreshold() {
+        // Given
+        UUID user = UUID.randomUUID();
+        coalesceAndHold(received(user, 3));
+
+        // When
+        clock.addAndGet(5_000);
+        DigestRelease released = coalescer.drainDue();
+        clock.addAndGet(5_000);
+        coalescer.drainDue();
+
+        // Then
+        assertThat(released.getDigests()).isEmpty();
+        assertThat(released.getFolded()).isEmpty();
+        assertThat(released.getReleased()).hasSize(2).allSatisfy(n -> assertThat(n.getTitle()).isEqualTo("Payment Received"));
+        assertThat(coalescer.openWindows()).isZero();
+        assertThat(coalescer.coalesce(received(user, 1)).getImmediate()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should pass through types without a digest window")
+    void coalesce_DisabledType() {
+        // Given
+        UUID user = UUID.randomUUID();
+        List<DigestCandidate> candidates = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Notification notification = new Notification(user, NotificationType.TRANSACTION_RECORDED,
+                    NotificationChannel.IN_APP, "Transaction Recorded", "credited");
+            candidates.add(new DigestCandidate(notification, DigestKind.ACCOUNT_CREDITED, BigDecimal.ONE, "USD"));
+        }
+
+        // When
+        CoalescedNotifications coalesced = coalescer.coalesce(candidates);
+
+        // Then
+        assertThat(coalesced.getImmediate()).hasSize(5);
+        assertThat(coalesced.getHeld()).isEmpty();
+        assertThat(coalescer.openWindows()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should close a window early at max items and release everything on shutdown")
+    void maxItemsAndDrainAll() {
+        // Given
+        UUID busy = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        coalesceAndHold(received(busy, 201));
+        coalesceAndHold(received(other, 4));
+
+        // When
+        DigestRelease early = coalescer.drainDue();
+        DigestRelease remaining = coalescer.drainAll();
+
+        // Then
+        assertThat(early.getDigests()).singleElement().extracting(Notification::getUserId).isEqualTo(busy);
+        assertThat(remaining.getDigests()).singleElement().extracting(Notification::getUserId).isEqualTo(other);
+        assertThat(coalescer.openWindows()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should fold only held notifications whose rows were committed")
+    void hold_OnlyAfterCommit() {
+        // Given: the first batch's insert fails, so it is never held
+        UUID merchant = UUID.randomUUID();
+        CoalescedNotifications failed = coalescer.coalesce(received(merchant, 5));
+        CoalescedNotifications committed = coalescer.coalesce(received(merchant, 3));
+
+        // When
+        DigestRelease drainedBeforeHold = coalescer.drainAll();
+        coalescer.hold(committed);
+        clock.addAndGet(5_000);
+        DigestRelease released = coalescer.drainDue();
+
+        // Then
+        assertThat(failed.getHeld()).hasSize(4);
+        assertThat(drainedBeforeHold.isEmpty()).isTrue();
+        assertThat(released.getFolded()).containsExactlyElementsOf(committed.getHeld());
+        assertThat(released.getDigests()).singleElement().extracting(Notification::getMessage)
+                .isEqualTo("You have received 3 payments totalling 30.00 USD");
+    }
+}
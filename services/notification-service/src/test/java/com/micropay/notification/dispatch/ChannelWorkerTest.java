@@ -0,0 +1,184 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationChannel;
+import com.micropay.notification.model.NotificationType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Channel Worker Tests")
+class ChannelWorkerTest {
+
+    @Mock
+    private NotificationStatusWriter statusWriter;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ScheduledExecutorService retryScheduler;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        retryScheduler = Executors.newSingleThreadScheduledExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        retryScheduler.shutdownNow();
+    }
+
+    private static Notification pending(NotificationChannel channel) {
+        Notification notification = new Notification(UUID.randomUUID(), NotificationType.PAYMENT_COMPLETED,
+                channel, "Payment Completed", "message");
+        notification.setId(UUID.randomUUID());
+        return notification;
+    }
+
+    private ChannelWorker worker(ChannelPolicy policy, NotificationSender sender) {
+        return new ChannelWorker(NotificationChannel.EMAIL, policy, sender, statusWriter, retryScheduler, meterRegistry);
+    }
+
+    private double count(String name) {
+        return meterRegistry.get(name).tag("channel", "email").counter().count();
+    }
+
+    @Test
+    @DisplayName("Should mark notification sent when the provider accepts it")
+    void attempt_Success() {
+        // Given
+        ChannelWorker worker = worker(new ChannelPolicy(1, 1, 0, 1, 3, 0, 0), notification -> { });
+        Notification notification = pending(NotificationChannel.EMAIL);
+
+        // When
+        worker.attempt(notification, 1);
+
+        // Then
+        verify(statusWriter).markSent(eq(notification), any(LocalDateTime.class));
+        assertThat(count("notification.delivery.sent")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should retry with backoff and mark failed after max attempts")
+    void submit_RetriesThenFails() {
+        // Given
+        AtomicInteger calls = new AtomicInteger();
+        ChannelWorker worker = worker(new ChannelPolicy(1, 10, 0, 1, 3, 1, 5), notification -> {
+            calls.incrementAndGet();
+            throw new IllegalStateException("provider unavailable");
+        });
+        Notification notification = pending(NotificationChannel.EMAIL);
+
+        // When
+        worker.submit(notification);
+
+        // Then
+        verify(statusWriter, timeout(2000)).markFailed(eq(notification), any(LocalDateTime.class),
+                eq("Failed to send: provider unavailable"));
+        assertThat(calls.get()).isEqualTo(3);
+        assertThat(count("notification.delivery.retried")).isEqualTo(2);
+        assertThat(count("notification.delivery.failed")).isEqualTo(1);
+        verify(statusWriter, never()).markSent(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should leave deliveries PENDING without waiting once the channel queue is full")
+    void submit_QueueFull() throws InterruptedException {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        ChannelWorker worker = worker(new ChannelPolicy(1, 1, 0, 1, 1, 0, 0), notification -> release.await());
+        Notification running = pending(NotificationChannel.EMAIL);
+        Notification queued = pending(NotificationChannel.EMAIL);
+        Notification overflow = pending(NotificationChannel.EMAIL);
+
+        // When
+        worker.submit(running);
+        worker.submit(queued);
+        worker.submit(overflow);
+        release.countDown();
+
+        // Then
+        verify(statusWriter, timeout(2000).times(2)).markSent(any(), any(LocalDateTime.class));
+        verify(statusWriter, never()).markSent(eq(overflow), any());
+        verify(statusWriter, never()).markFailed(any(), any(), any());
+        assertThat(count("notification.delivery.rejected")).isEqualTo(1);
+        worker.shutdown();
+        assertThat(worker.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should allow a burst and then pace tokens at the configured rate")
+    void tokenBucket_PacesAfterBurst() {
+        // Given
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(10, 2, clock::get);
+
+        // When / Then
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isZero();
+        assertThat(bucket.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        assertThat(bucket.reserve()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should cap backoff and keep jitter in the upper half")
+    void backoff_ExponentialWithCap() {
+        // Given
+        ChannelPolicy policy = new ChannelPolicy(1, 1, 0, 1, 5, 100, 1000);
+
+        // When / Then
+        assertThat(policy.backoffMs(1, 0)).isEqualTo(50);
+        assertThat(policy.backoffMs(2, 0.999)).isBetween(100L, 200L);
+        assertThat(policy.backoffMs(10, 0)).isEqualTo(500);
+        assertThat(policy.backoffMs(10, 0.999)).isLessThanOrEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should keep delivering in-app notifications while email is stalled")
+    void dispatcher_IsolatesChannels() throws InterruptedException {
+        // Given
+        CountDownLatch emailStalled = new CountDownLatch(1);
+        NotificationSender sender = notification -> {
+            if (notification.getChannel() == NotificationChannel.EMAIL) {
+                emailStalled.await();
+            }
+        };
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("notification.dispatch.concurrency", "1");
+        NotificationDispatcher dispatcher = new NotificationDispatcher(sender, statusWriter, environment, meterRegistry);
+        dispatcher.start();
+        Notification email = pending(NotificationChannel.EMAIL);
+        Notification inApp = pending(NotificationChannel.IN_APP);
+
+        // When
+        dispatcher.dispatch(List.of(email, inApp));
+
+        // Then
+        verify(statusWriter, timeout(2000)).markSent(eq(inApp), any(LocalDateTime.class));
+        verify(statusWriter, never()).markSent(eq(email), any());
+        emailStalled.countDown();
+        dispatcher.stop();
+    }
+}
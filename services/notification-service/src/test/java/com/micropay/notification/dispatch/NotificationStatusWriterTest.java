@@ -0,0 +1,98 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationChannel;
+import com.micropay.notification.model.NotificationType;
+import com.micropay.outbox.OutboxWriter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Notification Status Writer Tests")
+class NotificationStatusWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationStatusWriter statusWriter;
+
+    @BeforeEach
+    void setUp() {
+        statusWriter = new NotificationStatusWriter(jdbcTemplate, outboxWriter, transactionManager, 2, 200);
+    }
+
+    private static Notification pending() {
+        Notification notification = new Notification(UUID.randomUUID(), NotificationType.PAYMENT_COMPLETED,
+                NotificationChannel.IN_APP, "Payment Completed", "message");
+        notification.setId(UUID.randomUUID());
+        return notification;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should flush outcomes in batches and publish only sent notifications")
+    void flush_WritesBatch() {
+        // Given
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        statusWriter.markSent(pending(), LocalDateTime.now());
+        statusWriter.markFailed(pending(), LocalDateTime.now(), "x".repeat(600));
+        statusWriter.markSent(pending(), LocalDateTime.now());
+
+        // When
+        int first = statusWriter.flush();
+
+        // Then
+        assertThat(first).isEqualTo(2);
+        assertThat(statusWriter.pendingCount()).isEqualTo(1);
+        ArgumentCaptor<List<Notification>> batch = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), batch.capture(), eq(2), any(ParameterizedPreparedStatementSetter.class));
+        assertThat(batch.getValue().get(1).getFailureReason()).hasSize(500);
+        ArgumentCaptor<List<Object>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxWriter).appendAll(eq(NotificationStatusWriter.NOTIFICATION_SEND_TOPIC), events.capture(), any());
+        assertThat(events.getValue()).hasSize(1);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should re-queue a batch whose flush failed")
+    void flush_RequeuesOnFailure() {
+        // Given
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(jdbcTemplate.batchUpdate(anyString(), anyList(), anyInt(), any(ParameterizedPreparedStatementSetter.class)))
+                .thenThrow(new IllegalStateException("db down"));
+        statusWriter.markSent(pending(), LocalDateTime.now());
+
+        // When / Then
+        assertThatThrownBy(() -> statusWriter.flush()).isInstanceOf(IllegalStateException.class);
+        assertThat(statusWriter.pendingCount()).isEqualTo(1);
+        verify(outboxWriter, never()).appendAll(anyString(), anyList(), any());
+    }
+}
@@ -0,0 +1,94 @@
+package com.micropay.notification.dispatch;
+
+import com.micropay.notification.model.Notification;
+import com.micropay.notification.model.NotificationChannel;
+import com.micropay.notification.model.NotificationType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Pending Notification Sweeper Tests")
+class PendingNotificationSweeperTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private NotificationDispatcher dispatcher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private PendingNotificationSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        sweeper = new PendingNotificationSweeper(jdbcTemplate, dispatcher, transactionManager, 2, 60000, 300000);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    private static Notification pending() {
+        Notification notification = new Notification(UUID.randomUUID(), NotificationType.PAYMENT_COMPLETED,
+                NotificationChannel.EMAIL, "Payment Completed", "message");
+        notification.setId(UUID.randomUUID());
+        return notification;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should extend the lease of stale rows and re-dispatch them after commit")
+    void sweep_ClaimsAndRedispatches() {
+        // Given
+        List<Notification> stale = List.of(pending(), pending());
+        when(jdbcTemplate.query(eq(PendingNotificationSweeper.CLAIM_SQL), any(RowMapper.class), any(), eq(2)))
+                .thenReturn(stale);
+
+        // When
+        int swept = sweeper.sweep();
+
+        // Then
+        assertThat(swept).isEqualTo(2);
+        InOrder inOrder = inOrder(jdbcTemplate, transactionManager, dispatcher);
+        inOrder.verify(jdbcTemplate).batchUpdate(eq(PendingNotificationSweeper.LEASE_SQL), eq(stale), eq(2),
+                any(ParameterizedPreparedStatementSetter.class));
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(dispatcher).dispatch(stale);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should do nothing when no PENDING row has an expired lease")
+    void sweep_NothingStale() {
+        // Given
+        when(jdbcTemplate.query(eq(PendingNotificationSweeper.CLAIM_SQL), any(RowMapper.class), any(), eq(2)))
+                .thenReturn(List.of());
+
+        // When
+        int swept = sweeper.sweep();
+
+        // Then
+        assertThat(swept).isZero();
+        verify(jdbcTemplate, never()).batchUpdate(any(String.class), anyList(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        verifyNoInteractions(dispatcher);
+    }
+}
@@ -1,26 +1,39 @@
 package com.micropay.notification.service;
 
 import com.micropay.events.dto.PasswordResetEvent;
+import com.micropay.notification.digest.DigestRelease;
+import com.micropay.notification.digest.NotificationCoalescer;
+import com.micropay.notification.dispatch.NotificationDispatcher;
 import com.micropay.notification.dto.PaymentCompletedEvent;
 import com.micropay.notification.dto.TransactionRecordedEvent;
 import com.micropay.notification.model.Notification;
 import com.micropay.notification.model.NotificationStatus;
 import com.micropay.notification.model.NotificationType;
 import com.micropay.notification.model.NotificationChannel;
+import com.micropay.notification.repository.NotificationBatchWriter;
 import com.micropay.notification.repository.NotificationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -31,39 +44,55 @@ class NotificationServiceBasicTest {
     private NotificationRepository notificationRepository;
 
     @Mock
-    private org.springframework.kafka.core.KafkaTemplate<String, Object> kafkaTemplate;
+    private NotificationBatchWriter notificationBatchWriter;
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     private NotificationService notificationService;
 
+    @BeforeEach
+    void setUp() {
+        notificationService = new NotificationService(notificationRepository, notificationBatchWriter, notificationDispatcher,
+            new NotificationCoalescer(new MockEnvironment(), new SimpleMeterRegistry()), transactionManager);
+    }
+
+    @SuppressWarnings("unchecked")
+    private ArgumentCaptor<List<Notification>> stubInsertAll() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        ArgumentCaptor<List<Notification>> captor = ArgumentCaptor.forClass(List.class);
+        when(notificationBatchWriter.insertAll(captor.capture())).thenAnswer(invocation -> invocation.getArgument(0));
+        return captor;
+    }
+
     @Test
-    @DisplayName("Should send password reset notification")
+    @DisplayName("Should queue password reset notification")
     void sendPasswordResetNotification_Success() {
         // Given
         PasswordResetEvent event = new PasswordResetEvent();
         event.setUserId(UUID.randomUUID());
         event.setEmail("test@example.com");
         event.setToken("reset-token-123");
-
-        Notification notification = new Notification();
-        notification.setId(UUID.randomUUID());
-        notification.setUserId(event.getUserId());
-        notification.setNotificationType(NotificationType.PASSWORD_RESET);
-        notification.setChannel(NotificationChannel.EMAIL);
-        notification.setStatus(NotificationStatus.PENDING);
-        notification.setCreatedAt(LocalDateTime.now());
-
-        when(notificationRepository.save(any(Notification.class))).thenReturn(notification);
+        ArgumentCaptor<List<Notification>> saved = stubInsertAll();
 
         // When
         notificationService.sendPasswordResetNotification(event);
 
         // Then
-        verify(notificationRepository, atLeastOnce()).save(any(Notification.class));
+        assertThat(saved.getValue()).singleElement().satisfies(notification -> {
+            assertThat(notification.getNotificationType()).isEqualTo(NotificationType.PASSWORD_RESET);
+            assertThat(notification.getChannel()).isEqualTo(NotificationChannel.EMAIL);
+            assertThat(notification.getStatus()).isEqualTo(NotificationStatus.PENDING);
+        });
+        verify(notificationDispatcher).dispatch(saved.getValue());
+        verify(transactionManager).commit(any());
     }
 
     @Test
-    @DisplayName("Should send payment completed notification")
+    @DisplayName("Should queue payment completed notifications for payer and payee")
     void sendPaymentCompletedNotification_Success() {
         // Given
         PaymentCompletedEvent event = new PaymentCompletedEvent();
@@ -72,48 +101,37 @@ class NotificationServiceBasicTest {
         event.setPayeeUserId(UUID.randomUUID());
         event.setAmount(new BigDecimal("100.00"));
         event.setCurrency("USD");
-
-        Notification notification = new Notification();
-        notification.setId(UUID.randomUUID());
-        notification.setUserId(event.getPayerUserId());
-        notification.setNotificationType(NotificationType.PAYMENT_COMPLETED);
-        notification.setChannel(NotificationChannel.EMAIL);
-        notification.setStatus(NotificationStatus.PENDING);
-        notification.setCreatedAt(LocalDateTime.now());
-
-        when(notificationRepository.save(any(Notification.class))).thenReturn(notification);
+        ArgumentCaptor<List<Notification>> saved = stubInsertAll();
 
         // When
         notificationService.sendPaymentCompletedNotification(event);
 
         // Then
-        verify(notificationRepository, atLeastOnce()).save(any(Notification.class));
+        assertThat(saved.getValue()).extracting(Notification::getUserId)
+            .containsExactly(event.getPayerUserId(), event.getPayeeUserId());
+        verify(notificationRepository, never()).save(any());
+        verify(notificationDispatcher).dispatch(saved.getValue());
     }
 
     @Test
-    @DisplayName("Should send transaction recorded notification")
+    @DisplayName("Should queue transaction recorded notification")
     void sendTransactionRecordedNotification_Success() {
         // Given
+        TransactionRecordedEvent.TransactionEntryDto entry = new TransactionRecordedEvent.TransactionEntryDto();
+        entry.setUserId(UUID.randomUUID());
         TransactionRecordedEvent event = new TransactionRecordedEvent();
         event.setTransactionId(UUID.randomUUID());
         event.setPaymentId(UUID.randomUUID());
-        event.setEntries(List.of(new TransactionRecordedEvent.TransactionEntryDto()));
-
-        Notification notification = new Notification();
-        notification.setId(UUID.randomUUID());
-        notification.setUserId(UUID.randomUUID());
-        notification.setNotificationType(NotificationType.TRANSACTION_RECORDED);
-        notification.setChannel(NotificationChannel.EMAIL);
-        notification.setStatus(NotificationStatus.PENDING);
-        notification.setCreatedAt(LocalDateTime.now());
-
-        when(notificationRepository.save(any(Notification.class))).thenReturn(notification);
+        event.setEntries(List.of(entry));
+        ArgumentCaptor<List<Notification>> saved = stubInsertAll();
 
         // When
         notificationService.sendTransactionRecordedNotification(event);
 
         // Then
-        verify(notificationRepository, atLeastOnce()).save(any(Notification.class));
+        assertThat(saved.getValue()).singleElement()
+            .extracting(Notification::getReferenceId).isEqualTo(event.getTransactionId());
+        verify(notificationDispatcher).dispatch(saved.getValue());
     }
 
     @Test
@@ -126,22 +144,14 @@ class NotificationServiceBasicTest {
         event.setPayeeUserId(null); // No payee
         event.setAmount(new BigDecimal("100.00"));
         event.setCurrency("USD");
-
-        Notification notification = new Notification();
-        notification.setId(UUID.randomUUID());
-        notification.setUserId(event.getPayerUserId());
-        notification.setNotificationType(NotificationType.PAYMENT_COMPLETED);
-        notification.setChannel(NotificationChannel.EMAIL);
-        notification.setStatus(NotificationStatus.PENDING);
-        notification.setCreatedAt(LocalDateTime.now());
-
-        when(notificationRepository.save(any(Notification.class))).thenReturn(notification);
+        ArgumentCaptor<List<Notification>> saved = stubInsertAll();
 
         // When
         notificationService.sendPaymentCompletedNotification(event);
 
         // Then
-        verify(notificationRepository, atLeastOnce()).save(any(Notification.class));
+        assertThat(saved.getValue()).hasSize(1);
+        verify(notificationDispatcher).dispatch(saved.getValue());
     }
 
     @Test
@@ -157,6 +167,167 @@ class NotificationServiceBasicTest {
         notificationService.sendTransactionRecordedNotification(event);
 
         // Then
-        verify(notificationRepository, never()).save(any());
+        verify(notificationBatchWriter, never()).insertAll(anyList());
+        verify(notificationDispatcher, never()).dispatch(anyList());
+    }
+
+    @Test
+    @DisplayName("Should not dispatch when persisting fails")
+    void sendPaymentCompletedNotification_SaveFails() {
+        // Given
+        PaymentCompletedEvent event = new PaymentCompletedEvent();
+        event.setPaymentId(UUID.randomUUID());
+        event.setPayerUserId(UUID.randomUUID());
+        event.setAmount(new BigDecimal("100.00"));
+        event.setCurrency("USD");
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(notificationBatchWriter.insertAll(anyList())).thenThrow(new RuntimeException("db down"));
+
+        // When
+        notificationService.sendPaymentCompletedNotification(event);
+
+        // Then
+        verify(transactionManager).rollback(any());
+        verify(notificationDispatcher, never()).dispatch(anyList());
+    }
+
+    @Test
+    @DisplayName("Should insert a whole poll of payment events in one batch")
+    void sendPaymentCompletedNotifications_Batch() {
+        // Given
+        PaymentCompletedEvent withPayee = new PaymentCompletedEvent();
+        withPayee.setPaymentId(UUID.randomUUID());
+        withPayee.setPayerUserId(UUID.randomUUID());
+        withPayee.setPayeeUserId(UUID.randomUUID());
+        PaymentCompletedEvent withoutPayee = new PaymentCompletedEvent();
+        withoutPayee.setPaymentId(UUID.randomUUID());
+        withoutPayee.setPayerUserId(UUID.randomUUID());
+        ArgumentCaptor<List<Notification>> saved = stubInsertAll();
+
+        // When
+        notificationService.sendPaymentCompletedNotifications(List.of(withPayee, withoutPayee));
+
+        // Then
+        verify(notificationBatchWriter, times(1)).insertAll(anyList());
+        assertThat(saved.getValue()).hasSize(3);
+        verify(transactionManager, times(1)).commit(any());
+        verify(notificationDispatcher).dispatch(saved.getValue());
+    }
+
+    @Test
+    @DisplayName("Should fall back to per-event inserts when the batch fails")
+    void sendTransactionRecordedNotifications_BatchFails() {
+        // Given
+        TransactionRecordedEvent.TransactionEntryDto entry = new TransactionRecordedEvent.TransactionEntryDto();
+        entry.setUserId(UUID.randomUUID());
+        TransactionRecordedEvent first = new TransactionRecordedEvent();
+        first.setTransactionId(UUID.randomUUID());
+        first.setEntries(List.of(entry));
+        TransactionRecordedEvent second = new TransactionRecordedEvent();
+        second.setTransactionId(UUID.randomUUID());
+        second.setEntries(List.of(entry));
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(notificationBatchWriter.insertAll(anyList()))
+            .thenThrow(new RuntimeException("db down"))
+            .thenThrow(new RuntimeException("bad event"))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        notificationService.sendTransactionRecordedNotifications(List.of(first, second));
+
+        // Then
+        verify(notificationBatchWriter, times(3)).insertAll(anyList());
+        verify(notificationDispatcher, times(1)).dispatch(anyList());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    @DisplayName("Should persist notifications held for a digest without dispatching them")
+    void sendPaymentCompletedNotifications_PersistsHeld() {
+        // Given
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("notification.digest.types.payment-completed.window-ms", "60000");
+        notificationService = new NotificationService(notificationRepository, notificationBatchWriter, notificationDispatcher,
+            new NotificationCoalescer(environment, new SimpleMeterRegistry()), transactionManager);
+        UUID merchant = UUID.randomUUID();
+        List<PaymentCompletedEvent> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PaymentCompletedEvent event = new PaymentCompletedEvent();
+            event.setPaymentId(UUID.randomUUID());
+            event.setPayerUserId(UUID.randomUUID());
+            event.setPayeeUserId(merchant);
+            event.setAmount(BigDecimal.TEN);
+            event.setCurrency("USD");
+            events.add(event);
+        }
+        ArgumentCaptor<List<Notification>> saved = stubInsertAll();
+        ArgumentCaptor<List<Notification>> held = ArgumentCaptor.forClass(List.class);
+        when(notificationBatchWriter.insertAll(held.capture(), any(LocalDateTime.class)))
+            .thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        notificationService.sendPaymentCompletedNotifications(events);
+
+        // Then
+        verify(notificationBatchWriter).insertAll(anyList(), any(LocalDateTime.class));
+        assertThat(held.getValue()).hasSize(2).extracting(Notification::getUserId).containsOnly(merchant);
+        assertThat(saved.getValue()).hasSize(4).doesNotContainAnyElementsOf(held.getValue());
+        verify(transactionManager, times(1)).commit(any());
+        verify(notificationDispatcher).dispatch(saved.getValue());
+    }
+
+    @Test
+    @DisplayName("Should not hand held notifications to the digest window when their insert fails")
+    void sendPaymentCompletedNotifications_HeldInsertFails() {
+        // Given
+        MockEnvironment environment = new MockEnvironment()
+            .withProperty("notification.digest.types.payment-completed.window-ms", "60000")
+            .withProperty("notification.digest.types.payment-completed.min-count", "2");
+        NotificationCoalescer coalescer = new NotificationCoalescer(environment, new SimpleMeterRegistry());
+        notificationService = new NotificationService(notificationRepository, notificationBatchWriter, notificationDispatcher,
+            coalescer, transactionManager);
+        UUID merchant = UUID.randomUUID();
+        List<PaymentCompletedEvent> events = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            PaymentCompletedEvent event = new PaymentCompletedEvent();
+            event.setPaymentId(UUID.randomUUID());
+            event.setPayerUserId(UUID.randomUUID());
+            event.setPayeeUserId(merchant);
+            event.setAmount(BigDecimal.TEN);
+            event.setCurrency("USD");
+            events.add(event);
+        }
+        stubInsertAll();
+        when(notificationBatchWriter.insertAll(anyList(), any(LocalDateTime.class)))
+            .thenThrow(new RuntimeException("db down"));
+
+        // When
+        notificationService.sendPaymentCompletedNotifications(events);
+
+        // Then: only the first payment, with nothing held, was written
+        verify(notificationDispatcher, times(1)).dispatch(anyList());
+        assertThat(coalescer.drainAll().isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should insert digests and retire the notifications they replace before dispatching")
+    void release_DigestsAndFolded() {
+        // Given
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        DigestRelease release = new DigestRelease();
+        release.getDigests().add(new Notification(UUID.randomUUID(), NotificationType.PAYMENT_COMPLETED,
+            NotificationChannel.IN_APP, "Payments Received", "You have received 3 payments totalling 30 USD"));
+        release.getFolded().add(new Notification());
+        release.getReleased().add(new Notification());
+
+        // When
+        notificationService.release(release);
+
+        // Then
+        InOrder inOrder = inOrder(notificationBatchWriter, transactionManager, notificationDispatcher);
+        inOrder.verify(notificationBatchWriter).insertAll(release.getDigests());
+        inOrder.verify(notificationBatchWriter).markCoalesced(release.getFolded());
+        inOrder.verify(transactionManager).commit(any());
+        inOrder.verify(notificationDispatcher).dispatch(List.of(release.getDigests().get(0), release.getReleased().get(0)));
     }
 }
@@ -0,0 +1,229 @@
+package com.micropay.payment.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.micropay.payment.dto.PaymentResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded, time-expiring cache of the first response issued for each idempotency key.
+ *
+ * Duplicate retries are answered from this cache without inserting again. Entries
+ * live in a local insertion-ordered map capped at {@code payment.idempotency.max-entries}
+ * and expire after {@code payment.idempotency.ttl-seconds}. With
+ * {@code payment.idempotency.store=redis} the local map is a near cache in front of
+ * Redis, so retries landing on another instance are answered too; an entry read from
+ * Redis keeps the expiry it has there. Redis errors are treated as misses: the UNIQUE
+ * constraint on idempotency_key remains the final arbiter.
+ *
+ * The cached status is only as fresh as the last {@link #refresh}; callers replaying an
+ * unsettled payment re-read it.
+ */
+@Component
+public class IdempotencyCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyCache.class);
+    private static final String REDIS_KEY_PREFIX = "payment:idempotency:";
+
+    private final int maxEntries;
+    private final Duration ttl;
+    private final Clock clock;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    private final Counter localHits;
+    private final Counter redisHits;
+    private final Counter misses;
+
+    @Autowired
+    public IdempotencyCache(@Value("${payment.idempotency.store:memory}") String store,
+                            @Value("${payment.idempotency.max-entries:100000}") int maxEntries,
+                            @Value("${payment.idempotency.ttl-seconds:86400}") long ttlSeconds,
+                            ObjectProvider<StringRedisTemplate> redisTemplateProvider,
+                            ObjectMapper objectMapper,
+                            MeterRegistry meterRegistry) {
+        this(maxEntries, Duration.ofSeconds(ttlSeconds), Clock.systemUTC(),
+             "redis".equalsIgnoreCase(store) ? redisTemplateProvider.getIfAvailable() : null,
+             objectMapper, meterRegistry);
+        if ("redis".equalsIgnoreCase(store) && redisTemplate == null) {
+            logger.warn("Idempotency store is redis but no Redis connection is configured, using local cache only");
+        }
+    }
+
+    IdempotencyCache(int maxEntries,
+                     Duration ttl,
+                     Clock clock,
+                     StringRedisTemplate redisTemplate,
+                     ObjectMapper objectMapper,
+                     MeterRegistry meterRegistry) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttl = ttl;
+        this.clock = clock;
+        this.redisTemplate = redisTemplate;
+        this.objectMapper = objectMapper;
+        this.localHits = Counter.builder("payment.idempotency.hits")
+            .tag("tier", "local")
+            .description("Duplicate payment requests answered from the idempotency cache")
+            .register(meterRegistry);
+        this.redisHits = Counter.builder("payment.idempotency.hits")
+            .tag("tier", "redis")
+            .description("Duplicate payment requests answered from the idempotency cache")
+            .register(meterRegistry);
+        this.misses = Counter.builder("payment.idempotency.misses")
+            .description("Payment requests whose idempotency key was not cached")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Look up the response originally issued for {@code idempotencyKey}
+     */
+    public Optional<PaymentResponse> get(String idempotencyKey) {
+        long now = clock.millis();
+        synchronized (entries) {
+            Entry entry = entries.get(idempotencyKey);
+            if (entry != null && entry.expiresAt > now) {
+                localHits.increment();
+                return Optional.of(entry.response);
+            }
+        }
+
+        Optional<PaymentResponse> remote = getFromRedis(idempotencyKey);
+        if (remote.isPresent()) {
+            redisHits.increment();
+            // Expire locally when Redis does, not a full TTL after this read
+            Duration remaining = remainingRedisTtl(idempotencyKey);
+            if (remaining != null) {
+                putLocal(idempotencyKey, remote.get(), now, remaining);
+            }
+            return remote;
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Record the response issued for {@code idempotencyKey}; the first write wins in Redis
+     */
+    public void put(String idempotencyKey, PaymentResponse response) {
+        putLocal(idempotencyKey, response, clock.millis(), ttl);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().setIfAbsent(REDIS_KEY_PREFIX + idempotencyKey,
+                                                    objectMapper.writeValueAsString(response), ttl);
+        } catch (JsonProcessingException e) {
+            logger.warn("Cannot serialize payment response for idempotency key {}", idempotencyKey, e);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to store idempotency key {} in Redis", idempotencyKey, e);
+        }
+    }
+
+    /**
+     * Replace the response cached for {@code idempotencyKey} with its current state,
+     * keeping the entry's expiry; does nothing for a key that is not cached
+     */
+    public void refresh(String idempotencyKey, PaymentResponse response) {
+        synchronized (entries) {
+            entries.computeIfPresent(idempotencyKey, (key, entry) -> new Entry(response, entry.expiresAt));
+        }
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            Duration remaining = remainingRedisTtl(idempotencyKey);
+            if (remaining != null) {
+                redisTemplate.opsForValue().setIfPresent(REDIS_KEY_PREFIX + idempotencyKey,
+                                                         objectMapper.writeValueAsString(response), remaining);
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Cannot serialize payment response for idempotency key {}", idempotencyKey, e);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to refresh idempotency key {} in Redis", idempotencyKey, e);
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private Optional<PaymentResponse> getFromRedis(String idempotencyKey) {
+        if (redisTemplate == null) {
+            return Optional.empty();
+        }
+        try {
+            String json = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + idempotencyKey);
+            return json != null ? Optional.of(objectMapper.readValue(json, PaymentResponse.class)) : Optional.empty();
+        } catch (JsonProcessingException e) {
+            logger.warn("Discarding unreadable idempotency entry for key {}", idempotencyKey, e);
+            return Optional.empty();
+        } catch (RuntimeException e) {
+            logger.warn("Failed to read idempotency key {} from Redis", idempotencyKey, e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Time left before Redis expires the key, or null if it is gone or cannot be read
+     */
+    private Duration remainingRedisTtl(String idempotencyKey) {
+        try {
+            Long remainingMs = redisTemplate.getExpire(REDIS_KEY_PREFIX + idempotencyKey, TimeUnit.MILLISECONDS);
+            // -2: the key is gone; 0: it is expiring now
+            if (remainingMs == null || remainingMs == -2 || remainingMs == 0) {
+                return null;
+            }
+            // -1: stored without an expiry, so fall back to the configured TTL
+            return remainingMs == -1 ? ttl : Duration.ofMillis(remainingMs);
+        } catch (RuntimeException e) {
+            logger.warn("Failed to read the expiry of idempotency key {} from Redis", idempotencyKey, e);
+            return null;
+        }
+    }
+
+    private void putLocal(String idempotencyKey, PaymentResponse response, long now, Duration lifetime) {
+        synchronized (entries) {
+            // Re-insert so the key moves to the tail; insertion order is expiry order except for
+            // entries read from Redis with less time left, which get() still expires on time
+            entries.remove(idempotencyKey);
+            entries.put(idempotencyKey, new Entry(response, now + lifetime.toMillis()));
+
+            Iterator<Map.Entry<String, Entry>> oldest = entries.entrySet().iterator();
+            while (oldest.hasNext()) {
+                Map.Entry<String, Entry> candidate = oldest.next();
+                if (entries.size() <= maxEntries && candidate.getValue().expiresAt > now) {
+                    break;
+                }
+                oldest.remove();
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final PaymentResponse response;
+        private final long expiresAt;
+
+        private Entry(PaymentResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
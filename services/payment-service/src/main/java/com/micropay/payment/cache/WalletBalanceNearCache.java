@@ -0,0 +1,173 @@
+package com.micropay.payment.cache;
+
+import com.micropay.payment.dto.WalletBalanceUpdatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Local copy of available wallet balances fed from wallet.balance.updated, so funds checks
+ * can be answered without calling wallet-service. Funds held for pending transfers are not
+ * available; wallet-service publishes an event whenever a hold is reserved, released or
+ * expires, so the cached figure follows them.
+ *
+ * Off by default ({@code payment.balance-cache.enabled}). Only wallets that changed since
+ * this instance started are known; anything else, and entries older than
+ * {@code payment.balance-cache.max-age-seconds}, is a miss and falls back to the HTTP
+ * lookup. Only balances that cover the amount are answered locally: a balance that looks
+ * too low may just be behind a top-up still in flight, so that check goes to wallet-service.
+ * Either way the answer is a pre-check; wallet-service still rejects a debit the balance
+ * cannot cover. Events for a wallet arrive in order (keyed by userId), and an event older
+ * than the cached one is ignored anyway.
+ *
+ * Metrics: {@code payment.balance-cache.requests} tagged {@code result=hit|miss},
+ * {@code payment.balance-cache.hit.ratio}, {@code payment.balance-cache.size},
+ * {@code payment.balance-cache.lag} (ms from the wallet update to this instance) and
+ * {@code payment.balance-cache.age} (ms since the served entry arrived).
+ */
+@Component
+public class WalletBalanceNearCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long maxAgeMillis;
+    private final Clock clock;
+    private final LinkedHashMap<UUID, Entry> entries;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final DistributionSummary lag;
+    private final DistributionSummary age;
+
+    @Autowired
+    public WalletBalanceNearCache(@Value("${payment.balance-cache.enabled:false}") boolean enabled,
+                                  @Value("${payment.balance-cache.max-entries:100000}") int maxEntries,
+                                  @Value("${payment.balance-cache.max-age-seconds:300}") long maxAgeSeconds,
+                                  MeterRegistry meterRegistry) {
+        this(enabled, maxEntries, Duration.ofSeconds(maxAgeSeconds), Clock.systemDefaultZone(), meterRegistry);
+    }
+
+    WalletBalanceNearCache(boolean enabled, int maxEntries, Duration maxAge, Clock clock, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.maxAgeMillis = maxAge.toMillis();
+        this.clock = clock;
+        // Access order: the least recently checked wallet goes first
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                return size() > WalletBalanceNearCache.this.maxEntries;
+            }
+        };
+
+        this.hits = Counter.builder("payment.balance-cache.requests")
+            .tag("result", "hit")
+            .description("Funds checks answered from the wallet balance near cache")
+            .register(meterRegistry);
+        this.misses = Counter.builder("payment.balance-cache.requests")
+            .tag("result", "miss")
+            .description("Funds checks answered from the wallet balance near cache")
+            .register(meterRegistry);
+        this.lag = DistributionSummary.builder("payment.balance-cache.lag")
+            .baseUnit("milliseconds")
+            .description("Delay between a wallet balance change and its arrival in the near cache")
+            .register(meterRegistry);
+        this.age = DistributionSummary.builder("payment.balance-cache.age")
+            .baseUnit("milliseconds")
+            .description("Age of near cache entries when served")
+            .register(meterRegistry);
+        Gauge.builder("payment.balance-cache.size", this, WalletBalanceNearCache::size)
+            .description("Wallet balances held in the near cache")
+            .register(meterRegistry);
+        Gauge.builder("payment.balance-cache.hit.ratio", this, WalletBalanceNearCache::hitRatio)
+            .description("Share of funds checks answered from the near cache")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Last known available balance for {@code userId} in {@code currency}, if it covers {@code amount}
+     */
+    public Optional<BigDecimal> findCoveringBalance(UUID userId, BigDecimal amount, String currency) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long now = clock.millis();
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null && now - entry.receivedAt < maxAgeMillis
+                    && (currency == null || currency.equalsIgnoreCase(entry.currency))
+                    && entry.balance.compareTo(amount) >= 0) {
+                hits.increment();
+                age.record(now - entry.receivedAt);
+                return Optional.of(entry.balance);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Record the available balance carried by a wallet.balance.updated event
+     */
+    public void apply(WalletBalanceUpdatedEvent event) {
+        if (!enabled || event.getUserId() == null || event.getAvailableBalance() == null) {
+            return;
+        }
+        long now = clock.millis();
+        LocalDateTime changedAt = event.getUpdatedAt() != null ? event.getUpdatedAt() : event.getTimestamp();
+        if (changedAt != null) {
+            lag.record(Math.max(0, now - changedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+        synchronized (entries) {
+            Entry current = entries.get(event.getUserId());
+            if (current != null && current.changedAt != null && changedAt != null
+                    && changedAt.isBefore(current.changedAt)) {
+                return;
+            }
+            entries.put(event.getUserId(), new Entry(event.getAvailableBalance(), event.getCurrency(), changedAt, now));
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static final class Entry {
+        private final BigDecimal balance;
+        private final String currency;
+        private final LocalDateTime changedAt;
+        private final long receivedAt;
+
+        private Entry(BigDecimal balance, String currency, LocalDateTime changedAt, long receivedAt) {
+            this.balance = balance;
+            this.currency = currency;
+            this.changedAt = changedAt;
+            this.receivedAt = receivedAt;
+        }
+    }
+}
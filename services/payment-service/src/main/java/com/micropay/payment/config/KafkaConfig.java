@@ -1,14 +1,18 @@
 package com.micropay.payment.config;
 
+import com.micropay.events.consumer.KeyOrderedExecutor;
+import com.micropay.payment.dto.WalletBalanceUpdatedEvent;
+import com.micropay.outbox.ProducerProfile;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.core.KafkaAdmin.NewTopics;
 import org.springframework.kafka.listener.ContainerProperties;
 
 // --- CORRECTED IMPORTS BELOW (support.serializer) ---
@@ -30,27 +34,40 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String consumerGroupId;
 
+    @Value("${payment.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${payment.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
     /**
-     * Kafka Producer Factory for payment events
+     * Topics this service produces, keyed by paymentId; raising the partition count later remaps keys
      */
     @Bean
-    public ProducerFactory<String, Object> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
-        configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
-        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return new DefaultKafkaProducerFactory<>(configProps);
+    public NewTopics paymentTopics(@Value("${payment.topics.partitions:3}") int partitions,
+                                   @Value("${payment.topics.replicas:1}") int replicas) {
+        return new NewTopics(
+                TopicBuilder.name("payment.initiated").partitions(partitions).replicas(replicas).build(),
+                TopicBuilder.name("payment.authorized").partitions(partitions).replicas(replicas).build(),
+                TopicBuilder.name("payment.completed").partitions(partitions).replicas(replicas).build(),
+                TopicBuilder.name("payment.failed").partitions(partitions).replicas(replicas).build(),
+                TopicBuilder.name("payment.refunded").partitions(partitions).replicas(replicas).build());
+    }
+
+    /**
+     * Kafka Producer Factory for payment events, with the shared producer profile
+     */
+    @Bean
+    public ProducerFactory<String, Object> producerFactory(ProducerProfile producerProfile) {
+        return new DefaultKafkaProducerFactory<>(producerProfile.producerConfigs(JsonSerializer.class));
     }
 
     /**
-     * Kafka Template for producing events
+     * Kafka Template for producing events; send outcomes are metered and failures dead-lettered
      */
     @Bean
-    public KafkaTemplate<String, Object> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, Object> kafkaTemplate(ProducerProfile producerProfile) {
+        return producerProfile.kafkaTemplate(producerFactory(producerProfile));
     }
 
     /**
@@ -70,20 +87,66 @@ public class KafkaConfig {
         configProps.put(JsonDeserializer.USE_TYPE_INFO_HEADERS, false);
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
     /**
      * Kafka Listener Container Factory with manual acknowledgment
+     * One consumer thread per partition up to payment.consumer.concurrency
      */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         return factory;
     }
-}
 
+    /**
+     * Batch listener container factory: each poll is handed over as one list and
+     * acknowledged once, after all of it has been processed
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * Lanes that process a polled batch in parallel, in order per user
+     */
+    @Bean
+    public KeyOrderedExecutor keyOrderedExecutor(@Value("${payment.consumer.lanes:4}") int lanes) {
+        return new KeyOrderedExecutor("payment-consumer", lanes);
+    }
 
+    /**
+     * Consumer for the wallet balance near cache: starts at the end of the topic, since
+     * only changes made while this instance runs are cached
+     */
+    @Bean
+    public ConsumerFactory<String, WalletBalanceUpdatedEvent> walletBalanceCacheConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        return new DefaultKafkaConsumerFactory<>(props, new StringDeserializer(),
+                new JsonDeserializer<>(WalletBalanceUpdatedEvent.class, false));
+    }
+
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, WalletBalanceUpdatedEvent> walletBalanceCacheListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, WalletBalanceUpdatedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(walletBalanceCacheConsumerFactory());
+        return factory;
+    }
+}
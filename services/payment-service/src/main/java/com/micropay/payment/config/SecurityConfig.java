@@ -1,6 +1,7 @@
 package com.micropay.payment.config;
 
 import com.micropay.payment.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -36,6 +37,8 @@ public class SecurityConfig {
             )
 
             .authorizeHttpRequests(auth -> auth
+                // Async completions (reactive funds checks) were authorized on the original dispatch
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers(
                     "/actuator/**",
                     "/swagger-ui/**",
@@ -1,20 +1,54 @@
 package com.micropay.payment.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+
+/**
+ * Non-blocking client for wallet-service, with a bounded pool and connect/response timeouts
+ */
 @Configuration
 public class WebClientConfig {
-    
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider walletConnectionProvider(
+            @Value("${payment.wallet-client.max-connections:100}") int maxConnections,
+            @Value("${payment.wallet-client.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${payment.wallet-client.pending-acquire-timeout-ms:500}") long pendingAcquireTimeoutMs,
+            @Value("${payment.wallet-client.max-idle-time-ms:30000}") long maxIdleTimeMs) {
+        return ConnectionProvider.builder("wallet-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(
+            ConnectionProvider walletConnectionProvider,
+            @Value("${payment.wallet-client.base-url:http://wallet-service:8083}") String baseUrl,
+            @Value("${payment.wallet-client.connect-timeout-ms:500}") int connectTimeoutMs,
+            @Value("${payment.wallet-client.response-timeout-ms:1500}") long responseTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(walletConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
         return WebClient.builder()
-                .baseUrl("http://wallet-service:8083")
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .filter((request, next) -> {
                     return ReactiveSecurityContextHolder.getContext()
                             .map(SecurityContext::getAuthentication)
@@ -12,6 +12,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
 
 import jakarta.validation.constraints.NotBlank;
 import java.math.BigDecimal;
@@ -37,10 +38,10 @@ public class PaymentController {
      * Verify if user has sufficient funds
      */
     @PostMapping("/verify-funds")
-    public ResponseEntity<VerifyFundsResponse> verifyFunds(@Valid @RequestBody VerifyFundsRequest request) {
+    public Mono<ResponseEntity<VerifyFundsResponse>> verifyFunds(@Valid @RequestBody VerifyFundsRequest request) {
         logger.info("Verifying funds for user: {} with amount: {}", request.getUserId(), request.getAmount());
-        VerifyFundsResponse response = paymentService.verifyFunds(request.getUserId(), request.getAmount(), request.getCurrency());
-        return ResponseEntity.ok(response);
+        return paymentService.verifyFunds(request.getUserId(), request.getAmount(), request.getCurrency())
+            .map(ResponseEntity::ok);
     }
 
     /**
@@ -16,9 +16,10 @@ public class WalletBalanceUpdatedEvent {
     private UUID userId;
     private BigDecimal previousBalance;
     private BigDecimal newBalance;
+    private BigDecimal availableBalance; // newBalance minus funds held for pending transfers
     private BigDecimal changeAmount;
     private String currency;
-    private String transactionType; // CREDIT or DEBIT
+    private String transactionType; // CREDIT, DEBIT, HOLD_RESERVED, HOLD_RELEASED or HOLD_EXPIRED
     private String transactionId;
     private LocalDateTime updatedAt;
 
@@ -83,6 +84,14 @@ public class WalletBalanceUpdatedEvent {
         this.newBalance = newBalance;
     }
 
+    public BigDecimal getAvailableBalance() {
+        return availableBalance;
+    }
+
+    public void setAvailableBalance(BigDecimal availableBalance) {
+        this.availableBalance = availableBalance;
+    }
+
     public BigDecimal getChangeAmount() {
         return changeAmount;
     }
@@ -0,0 +1,73 @@
+package com.micropay.payment.kafka;
+
+import com.micropay.payment.cache.WalletBalanceNearCache;
+import com.micropay.payment.dto.WalletBalanceUpdatedEvent;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.common.PartitionInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.TopicPartition;
+import org.springframework.kafka.core.ConsumerFactory;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Kafka consumer for wallet.balance.updated events
+ * Feeds the balance near cache funds checks read before calling wallet-service
+ *
+ * Every instance needs every wallet's balance, so instead of joining a consumer group it
+ * assigns every partition the topic has when the listener is registered. With no group nothing
+ * is committed; each start reads from the end of the topic, and no group is left per restart.
+ * Partitions added to the topic later are picked up on the next restart.
+ */
+@Component
+public class WalletBalanceCacheConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletBalanceCacheConsumer.class);
+    private static final String TOPIC = "wallet.balance.updated";
+    private static final Duration DISCOVERY_TIMEOUT = Duration.ofSeconds(30);
+
+    private final WalletBalanceNearCache balanceNearCache;
+    private final ConsumerFactory<String, WalletBalanceUpdatedEvent> consumerFactory;
+    private final boolean enabled;
+
+    public WalletBalanceCacheConsumer(WalletBalanceNearCache balanceNearCache,
+                                      @Qualifier("walletBalanceCacheConsumerFactory")
+                                      ConsumerFactory<String, WalletBalanceUpdatedEvent> consumerFactory,
+                                      @Value("${payment.balance-cache.enabled:false}") boolean enabled) {
+        this.balanceNearCache = balanceNearCache;
+        this.consumerFactory = consumerFactory;
+        this.enabled = enabled;
+    }
+
+    @KafkaListener(topicPartitions = @TopicPartition(topic = TOPIC, partitions = "#{__listener.partitions()}"),
+            containerFactory = "walletBalanceCacheListenerContainerFactory",
+            autoStartup = "${payment.balance-cache.enabled:false}")
+    public void consumeWalletBalanceUpdatedEvent(@Payload WalletBalanceUpdatedEvent event) {
+        balanceNearCache.apply(event);
+    }
+
+    /**
+     * Partitions of wallet.balance.updated, asked of the brokers once at startup
+     */
+    public List<Integer> partitions() {
+        if (!enabled) {
+            // The listener never starts, so do not reach out to Kafka for it
+            return List.of(0);
+        }
+        try (Consumer<String, WalletBalanceUpdatedEvent> consumer = consumerFactory.createConsumer()) {
+            List<PartitionInfo> partitions = consumer.partitionsFor(TOPIC, DISCOVERY_TIMEOUT);
+            if (partitions == null || partitions.isEmpty()) {
+                throw new IllegalStateException("Topic " + TOPIC + " has no partitions to assign");
+            }
+            logger.info("Balance near cache assigning all {} partitions of {}", partitions.size(), TOPIC);
+            return partitions.stream().map(PartitionInfo::partition).sorted().toList();
+        }
+    }
+}
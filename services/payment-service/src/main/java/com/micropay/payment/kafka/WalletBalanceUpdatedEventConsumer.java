@@ -1,16 +1,18 @@
 package com.micropay.payment.kafka;
 
+import com.micropay.events.consumer.KeyOrderedExecutor;
 import com.micropay.payment.dto.WalletBalanceUpdatedEvent;
 import com.micropay.payment.service.PaymentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Kafka consumer for wallet.balance.updated events
  * Processes pending payments when wallet balance is updated
@@ -21,51 +23,49 @@ public class WalletBalanceUpdatedEventConsumer {
     private static final Logger logger = LoggerFactory.getLogger(WalletBalanceUpdatedEventConsumer.class);
 
     private final PaymentService paymentService;
+    private final KeyOrderedExecutor keyOrderedExecutor;
 
-    public WalletBalanceUpdatedEventConsumer(PaymentService paymentService) {
+    public WalletBalanceUpdatedEventConsumer(PaymentService paymentService, KeyOrderedExecutor keyOrderedExecutor) {
         this.paymentService = paymentService;
+        this.keyOrderedExecutor = keyOrderedExecutor;
     }
 
     /**
-     * Consume wallet.balance.updated events from Kafka
-     * Checks for sufficient balance and triggers payment processing
+     * Consume wallet.balance.updated events from Kafka, one poll at a time
+     * Pending payments of different users are processed in parallel on the executor's lanes,
+     * balance updates of one user in the order they were read; the poll is acknowledged
+     * once all are done
      */
-    @KafkaListener(topics = "wallet.balance.updated", groupId = "payment-service-consumer-group")
-    public void consumeWalletBalanceUpdatedEvent(
-            @Payload WalletBalanceUpdatedEvent event,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        
+    @KafkaListener(topics = "wallet.balance.updated", groupId = "payment-service-consumer-group",
+                   containerFactory = "batchListenerContainerFactory",
+                   concurrency = "${payment.consumer.wallet-balance-updated.concurrency:${payment.consumer.concurrency:3}}")
+    public void consumeWalletBalanceUpdatedEvents(@Payload List<WalletBalanceUpdatedEvent> events, Acknowledgment acknowledgment) {
         try {
-            logger.info("Received wallet.balance.updated event for user: {}, new balance: {}", 
-                      event.getUserId(), event.getNewBalance());
-            
-            if (event.getUserId() == null) {
-                logger.error("User ID is null in wallet.balance.updated event. Event ID: {}", event.getEventId());
-                acknowledgment.acknowledge();
-                return;
+            logger.info("Received {} wallet.balance.updated events", events.size());
+
+            List<WalletBalanceUpdatedEvent> valid = new ArrayList<>(events.size());
+            for (WalletBalanceUpdatedEvent event : events) {
+                if (event.getUserId() == null) {
+                    logger.error("User ID is null in wallet.balance.updated event. Event ID: {}", event.getEventId());
+                    continue;
+                }
+                valid.add(event);
             }
 
-            // Process pending payments for this user
-            paymentService.processPaymentOnBalanceUpdate(event);
-            logger.debug("Processed payments for user: {} after balance update", event.getUserId());
+            List<KeyOrderedExecutor.Failure<WalletBalanceUpdatedEvent>> failures = keyOrderedExecutor.processAll(
+                valid, WalletBalanceUpdatedEvent::getUserId, paymentService::processPaymentOnBalanceUpdate);
 
-            // Acknowledge the message
-            acknowledgment.acknowledge();
-            
+            for (KeyOrderedExecutor.Failure<WalletBalanceUpdatedEvent> failure : failures) {
+                logger.error("Error processing wallet.balance.updated event for user: {}. Event ID: {}",
+                            failure.getRecord().getUserId(), failure.getRecord().getEventId(), failure.getError());
+            }
+            logger.debug("Processed payments after {} of {} balance updates", valid.size() - failures.size(), events.size());
         } catch (Exception e) {
-            logger.error("Error processing wallet.balance.updated event for user: {}. Event ID: {}", 
-                        event.getUserId(), event.getEventId(), e);
+            logger.error("Error processing batch of {} wallet.balance.updated events", events.size(), e);
+        } finally {
             // In production, implement retry logic or send to dead letter queue
             // For now, acknowledge to prevent infinite retries
             acknowledgment.acknowledge();
         }
     }
 }
-
-
-
-
-
-
-
@@ -10,9 +10,8 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "payments", indexes = {
-    @Index(name = "idx_payment_payer_id", columnList = "payer_user_id"),
     @Index(name = "idx_payment_status", columnList = "status"),
-    @Index(name = "idx_payment_idempotency", columnList = "idempotency_key", unique = true)
+    @Index(name = "idx_payment_payer_status_created", columnList = "payer_user_id, status, created_at, id")
 })
 public class Payment {
 
@@ -10,7 +10,14 @@ public enum PaymentStatus {
     COMPLETED,
     FAILED,
     CANCELLED,
-    REVERSED
+    REVERSED;
+
+    /**
+     * Whether the payment has settled and its status will not change again
+     */
+    public boolean isFinal() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED || this == REVERSED;
+    }
 }
 
 
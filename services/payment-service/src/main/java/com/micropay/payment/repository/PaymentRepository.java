@@ -42,9 +42,10 @@ public interface PaymentRepository extends JpaRepository<Payment, UUID> {
     List<Payment> findByStatus(PaymentStatus status);
 
     /**
-     * Find pending payments for a user (waiting for balance update)
+     * Find pending payments for a user (waiting for balance update), oldest first.
+     * Served by idx_payment_payer_status_created, so this is a range scan rather than a filter.
      */
-    @Query("SELECT p FROM Payment p WHERE p.payerUserId = :userId AND p.status = :status")
+    @Query("SELECT p FROM Payment p WHERE p.payerUserId = :userId AND p.status = :status ORDER BY p.createdAt, p.id")
     List<Payment> findPendingPaymentsByUserId(UUID userId, PaymentStatus status);
 }
 
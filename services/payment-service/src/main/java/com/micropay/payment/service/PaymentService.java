@@ -1,5 +1,7 @@
 package com.micropay.payment.service;
 
+import com.micropay.payment.cache.IdempotencyCache;
+import com.micropay.payment.cache.WalletBalanceNearCache;
 import com.micropay.payment.dto.*;
 import com.micropay.events.dto.PaymentRefundedEvent;
 import com.micropay.payment.exception.DuplicatePaymentException;
@@ -8,16 +10,27 @@ import com.micropay.payment.model.Payment;
 import com.micropay.payment.model.PaymentStatus;
 import com.micropay.payment.model.PaymentType;
 import com.micropay.payment.repository.PaymentRepository;
+import com.micropay.outbox.OutboxWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 import java.time.LocalDateTime; 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,10 +39,13 @@ import java.util.stream.Collectors;
  */
 class WalletResponse {
     private BigDecimal balance;
+    private BigDecimal availableBalance; // balance minus funds held for pending transfers
     private String currency;
     
     public BigDecimal getBalance() { return balance; }
     public void setBalance(BigDecimal balance) { this.balance = balance; }
+    public BigDecimal getAvailableBalance() { return availableBalance; }
+    public void setAvailableBalance(BigDecimal availableBalance) { this.availableBalance = availableBalance; }
     public String getCurrency() { return currency; }
     public void setCurrency(String currency) { this.currency = currency; }
 }
@@ -48,33 +64,49 @@ public class PaymentService {
     private static final String PAYMENT_FAILED_TOPIC = "payment.failed";
 
     private final PaymentRepository paymentRepository;
-    private final KafkaTemplate<String, Object> kafkaTemplate;
+    private final OutboxWriter outboxWriter;
     private final WebClient webClient;
+    private final IdempotencyCache idempotencyCache;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration walletTimeout;
+    private final WalletBalanceNearCache balanceNearCache;
 
     public PaymentService(PaymentRepository paymentRepository, 
-                        KafkaTemplate<String, Object> kafkaTemplate,
-                        WebClient webClient) {
+                        OutboxWriter outboxWriter,
+                        WebClient webClient,
+                        IdempotencyCache idempotencyCache,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${payment.wallet-client.timeout-ms:2000}") long walletTimeoutMs,
+                        WalletBalanceNearCache balanceNearCache) {
         this.paymentRepository = paymentRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.outboxWriter = outboxWriter;
         this.webClient = webClient;
+        this.idempotencyCache = idempotencyCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.walletTimeout = Duration.ofMillis(walletTimeoutMs);
+        this.balanceNearCache = balanceNearCache;
+    }
+
+    /**
+     * Kafka key for every payment.* event: the payer's userId, so all events of one payer land
+     * on one partition and consumers see that payer's payments in the order they happened
+     */
+    private static String payerKey(Payment payment) {
+        return payment.getPayerUserId().toString();
     }
 
     private void publishPaymentRefundedEvent(Payment payment) {
-        try {
-            PaymentRefundedEvent event = new PaymentRefundedEvent(
-                payment.getPaymentId(),
-                UUID.fromString(payment.getDescription().substring(20)),
-                payment.getPayerUserId(),
-                payment.getPayeeUserId(),
-                payment.getAmount(),
-                payment.getCurrency()
-            );
+        PaymentRefundedEvent event = new PaymentRefundedEvent(
+            payment.getPaymentId(),
+            UUID.fromString(payment.getDescription().substring(20)),
+            payment.getPayerUserId(),
+            payment.getPayeeUserId(),
+            payment.getAmount(),
+            payment.getCurrency()
+        );
 
-            kafkaTemplate.send("payment.refunded", payment.getPaymentId().toString(), event);
-            logger.debug("Published payment.refunded event for payment: {}", payment.getPaymentId());
-        } catch (Exception e) {
-            logger.error("Failed to publish payment.refunded event for payment: {}", payment.getPaymentId(), e);
-        }
+        outboxWriter.append("payment.refunded", payerKey(payment), event);
+        logger.debug("Queued payment.refunded event for payment: {}", payment.getPaymentId());
     }
 
     @Transactional
@@ -102,18 +134,37 @@ public class PaymentService {
     }
 
     /**
-     * Initiate a payment with idempotency check
+     * Initiate a payment with idempotency check.
+     * A retried request is answered with the original payment, from the idempotency cache
+     * when possible, carrying its current status. Otherwise the UNIQUE constraint on idempotency_key decides the race and
+     * the losing request reads back the winner.
      */
-    @Transactional
     public PaymentResponse initiatePayment(PaymentRequest request) {
-        // Check for duplicate payment using idempotency key
-        paymentRepository.findByIdempotencyKey(request.getIdempotencyKey())
-            .ifPresent(existingPayment -> {
-                throw new DuplicatePaymentException(
-                    "Payment with idempotency key already exists: " + request.getIdempotencyKey()
-                );
-            });
+        String idempotencyKey = request.getIdempotencyKey();
+        PaymentResponse cached = idempotencyCache.get(idempotencyKey).orElse(null);
+        if (cached != null) {
+            logger.info("Returning original payment {} for idempotency key {}", cached.getPaymentId(), idempotencyKey);
+            requireSamePayment(cached, request);
+            return currentState(idempotencyKey, cached);
+        }
 
+        PaymentResponse response;
+        try {
+            response = transactionTemplate.execute(status -> createPayment(request));
+        } catch (DataIntegrityViolationException e) {
+            // Lost the race (or the cache entry expired): the stored payment is the original
+            response = paymentRepository.findByIdempotencyKey(idempotencyKey)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> e);
+            logger.info("Returning original payment {} for idempotency key {}", response.getPaymentId(), idempotencyKey);
+            requireSamePayment(response, request);
+        }
+
+        idempotencyCache.put(idempotencyKey, response);
+        return response;
+    }
+
+    private PaymentResponse createPayment(PaymentRequest request) {
         // Create payment entity
         Payment payment = new Payment();
         payment.setPaymentId(UUID.randomUUID());
@@ -128,7 +179,8 @@ public class PaymentService {
         payment.setDescription(request.getDescription());
         payment.setReference(request.getReference());
 
-        payment = paymentRepository.save(payment);
+        // Flush now so a duplicate key fails here rather than at commit
+        payment = paymentRepository.saveAndFlush(payment);
         logger.info("Initiated payment: {} for payer: {}", payment.getPaymentId(), payment.getPayerUserId());
 
         // Publish payment.initiated event
@@ -137,6 +189,38 @@ public class PaymentService {
         return mapToResponse(payment);
     }
 
+    /**
+     * The cached response with the payment's current status. A settled payment no longer
+     * changes, so only an unsettled one is re-read, and the cache is refreshed if it moved on.
+     */
+    private PaymentResponse currentState(String idempotencyKey, PaymentResponse cached) {
+        if (cached.getStatus() != null && PaymentStatus.valueOf(cached.getStatus()).isFinal()) {
+            return cached;
+        }
+        PaymentResponse current = paymentRepository.findByPaymentId(cached.getPaymentId())
+            .map(this::mapToResponse)
+            .orElse(cached);
+        if (!Objects.equals(current.getStatus(), cached.getStatus())) {
+            idempotencyCache.refresh(idempotencyKey, current);
+        }
+        return current;
+    }
+
+    /**
+     * Reject reuse of an idempotency key for a different payment
+     */
+    private PaymentResponse requireSamePayment(PaymentResponse original, PaymentRequest request) {
+        boolean same = Objects.equals(original.getPayerUserId(), request.getPayerUserId())
+            && Objects.equals(original.getPayeeUserId(), request.getPayeeUserId())
+            && original.getAmount().compareTo(request.getAmount()) == 0;
+        if (!same) {
+            throw new DuplicatePaymentException(
+                "Idempotency key already used for a different payment: " + request.getIdempotencyKey()
+            );
+        }
+        return original;
+    }
+
     /**
      * Get payment by paymentId
      */
@@ -149,39 +233,67 @@ public class PaymentService {
 
     /**
      * Process payment when wallet balance is updated
-     * This is called by the Kafka consumer when wallet.balance.updated event is received
+     * This is called by the Kafka consumer when wallet.balance.updated event is received.
+     * The payer's INITIATED queue is read once (oldest first) and every transition is
+     * flushed as one JDBC batch, with the resulting events appended to the outbox per topic.
      */
     @Transactional
     public void processPaymentOnBalanceUpdate(WalletBalanceUpdatedEvent event) {
+        // Holds only move funds between available and reserved; they settle no payment
+        if (isHoldChange(event)) {
+            logger.debug("Ignoring {} balance update for user {}", event.getTransactionType(), event.getUserId());
+            return;
+        }
+
         // Find pending payments for this user
         List<Payment> pendingPayments = paymentRepository.findPendingPaymentsByUserId(
             event.getUserId(), 
             PaymentStatus.INITIATED
         );
+        if (pendingPayments.isEmpty()) {
+            return;
+        }
 
+        BigDecimal available = spendableBalance(event.getAvailableBalance(), event.getNewBalance());
+        List<Payment> completed = new ArrayList<>();
+        List<Payment> failed = new ArrayList<>();
         for (Payment payment : pendingPayments) {
             try {
                 // Check if balance is sufficient
-                if (event.getNewBalance().compareTo(payment.getAmount()) >= 0) {
-                    // Authorize payment
-                    authorizePayment(payment);
-                    
-                    // Complete payment
-                    completePayment(payment, event.getTransactionId());
-                    
+                if (available.compareTo(payment.getAmount()) >= 0) {
+                    markAuthorized(payment);
+                    markCompleted(payment, event.getTransactionId());
+                    completed.add(payment);
                     logger.info("Payment {} processed successfully after balance update", payment.getPaymentId());
                 } else {
                     // Insufficient balance
-                    failPayment(payment, "INSUFFICIENT_FUNDS", "INSUFFICIENT_FUNDS", 
+                    markFailed(payment, "INSUFFICIENT_FUNDS", "INSUFFICIENT_FUNDS", 
                               "Insufficient balance for payment");
+                    failed.add(payment);
                     logger.warn("Payment {} failed due to insufficient balance", payment.getPaymentId());
                 }
             } catch (Exception e) {
                 logger.error("Error processing payment {} after balance update", payment.getPaymentId(), e);
-                failPayment(payment, "PROCESSING_ERROR", "PROCESSING_ERROR", 
+                markFailed(payment, "PROCESSING_ERROR", "PROCESSING_ERROR", 
                           "Error processing payment: " + e.getMessage());
+                failed.add(payment);
             }
         }
+
+        paymentRepository.saveAll(pendingPayments);
+
+        outboxWriter.appendAll(PAYMENT_AUTHORIZED_TOPIC,
+            completed.stream().map(this::toAuthorizedEvent).collect(Collectors.toList()),
+            e -> e.getPayerUserId().toString());
+        outboxWriter.appendAll(PAYMENT_COMPLETED_TOPIC,
+            completed.stream().map(this::toCompletedEvent).collect(Collectors.toList()),
+            e -> e.getPayerUserId().toString());
+        outboxWriter.appendAll(PAYMENT_FAILED_TOPIC,
+            failed.stream().map(this::toFailedEvent).collect(Collectors.toList()),
+            e -> e.getPayerUserId().toString());
+
+        logger.info("Processed {} pending payments for user {}: {} completed, {} failed",
+                   pendingPayments.size(), event.getUserId(), completed.size(), failed.size());
     }
 
     /**
@@ -194,8 +306,7 @@ public class PaymentService {
             return;
         }
 
-        payment.setStatus(PaymentStatus.AUTHORIZED);
-        payment.setAuthorizedAt(java.time.LocalDateTime.now());
+        markAuthorized(payment);
         payment = paymentRepository.save(payment);
 
         logger.info("Authorized payment: {}", payment.getPaymentId());
@@ -214,18 +325,7 @@ public class PaymentService {
             return;
         }
 
-        payment.setStatus(PaymentStatus.COMPLETED);
-        payment.setCompletedAt(java.time.LocalDateTime.now());
-        if (transactionId != null && !transactionId.isEmpty()) {
-            try {
-                payment.setTransactionId(UUID.fromString(transactionId));
-            } catch (IllegalArgumentException e) {
-                logger.warn("Invalid transaction ID format: {}, generating new UUID", transactionId);
-                payment.setTransactionId(UUID.randomUUID());
-            }
-        } else {
-            payment.setTransactionId(UUID.randomUUID());
-        }
+        markCompleted(payment, transactionId);
         payment = paymentRepository.save(payment);
 
         logger.info("Completed payment: {} with transaction: {}", payment.getPaymentId(), transactionId);
@@ -239,11 +339,7 @@ public class PaymentService {
      */
     @Transactional
     public void failPayment(Payment payment, String failureReason, String errorCode, String errorMessage) {
-        payment.setStatus(PaymentStatus.FAILED);
-        payment.setFailureReason(failureReason);
-        payment.setErrorCode(errorCode);
-        payment.setErrorMessage(errorMessage);
-        payment.setFailedAt(java.time.LocalDateTime.now());
+        markFailed(payment, failureReason, errorCode, errorMessage);
         payment = paymentRepository.save(payment);
 
         logger.info("Failed payment: {} with reason: {}", payment.getPaymentId(), failureReason);
@@ -252,93 +348,111 @@ public class PaymentService {
         publishPaymentFailedEvent(payment);
     }
 
+    private void markAuthorized(Payment payment) {
+        payment.setStatus(PaymentStatus.AUTHORIZED);
+        payment.setAuthorizedAt(LocalDateTime.now());
+    }
+
+    private void markCompleted(Payment payment, String transactionId) {
+        payment.setStatus(PaymentStatus.COMPLETED);
+        payment.setCompletedAt(LocalDateTime.now());
+        if (transactionId != null && !transactionId.isEmpty()) {
+            try {
+                payment.setTransactionId(UUID.fromString(transactionId));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Invalid transaction ID format: {}, generating new UUID", transactionId);
+                payment.setTransactionId(UUID.randomUUID());
+            }
+        } else {
+            payment.setTransactionId(UUID.randomUUID());
+        }
+    }
+
+    private void markFailed(Payment payment, String failureReason, String errorCode, String errorMessage) {
+        payment.setStatus(PaymentStatus.FAILED);
+        payment.setFailureReason(failureReason);
+        payment.setErrorCode(errorCode);
+        payment.setErrorMessage(errorMessage);
+        payment.setFailedAt(LocalDateTime.now());
+    }
+
     /**
      * Publish payment.initiated event
      */
     private void publishPaymentInitiatedEvent(Payment payment, UUID initiatedBy) {
-        try {
-            PaymentInitiatedEvent event = new PaymentInitiatedEvent(
-                payment.getPaymentId(),
-                payment.getIdempotencyKey(),
-                payment.getPayerUserId(),
-                payment.getPayeeUserId(),
-                payment.getAmount(),
-                payment.getCurrency(),
-                payment.getPaymentType().name(),
-                payment.getDescription(),
-                payment.getReference(),
-                initiatedBy
-            );
+        PaymentInitiatedEvent event = new PaymentInitiatedEvent(
+            payment.getPaymentId(),
+            payment.getIdempotencyKey(),
+            payment.getPayerUserId(),
+            payment.getPayeeUserId(),
+            payment.getAmount(),
+            payment.getCurrency(),
+            payment.getPaymentType().name(),
+            payment.getDescription(),
+            payment.getReference(),
+            initiatedBy
+        );
 
-            kafkaTemplate.send(PAYMENT_INITIATED_TOPIC, payment.getPaymentId().toString(), event);
-            logger.debug("Published payment.initiated event for payment: {}", payment.getPaymentId());
-        } catch (Exception e) {
-            logger.error("Failed to publish payment.initiated event for payment: {}", payment.getPaymentId(), e);
-        }
+        outboxWriter.append(PAYMENT_INITIATED_TOPIC, payerKey(payment), event);
+        logger.debug("Queued payment.initiated event for payment: {}", payment.getPaymentId());
     }
 
     /**
      * Publish payment.authorized event
      */
     private void publishPaymentAuthorizedEvent(Payment payment) {
-        try {
-            PaymentAuthorizedEvent event = new PaymentAuthorizedEvent(
-                payment.getPaymentId(),
-                payment.getPayerUserId(),
-                payment.getPayeeUserId(),
-                payment.getAmount(),
-                payment.getCurrency()
-            );
-
-            kafkaTemplate.send(PAYMENT_AUTHORIZED_TOPIC, payment.getPaymentId().toString(), event);
-            logger.debug("Published payment.authorized event for payment: {}", payment.getPaymentId());
-        } catch (Exception e) {
-            logger.error("Failed to publish payment.authorized event for payment: {}", payment.getPaymentId(), e);
-        }
+        outboxWriter.append(PAYMENT_AUTHORIZED_TOPIC, payerKey(payment), toAuthorizedEvent(payment));
+        logger.debug("Queued payment.authorized event for payment: {}", payment.getPaymentId());
     }
 
     /**
      * Publish payment.completed event
      */
     private void publishPaymentCompletedEvent(Payment payment) {
-        try {
-            PaymentCompletedEvent event = new PaymentCompletedEvent(
-                payment.getPaymentId(),
-                payment.getPayerUserId(),
-                payment.getPayeeUserId(),
-                payment.getAmount(),
-                payment.getCurrency(),
-                payment.getTransactionId()
-            );
-
-            kafkaTemplate.send(PAYMENT_COMPLETED_TOPIC, payment.getPaymentId().toString(), event);
-            logger.debug("Published payment.completed event for payment: {}", payment.getPaymentId());
-        } catch (Exception e) {
-            logger.error("Failed to publish payment.completed event for payment: {}", payment.getPaymentId(), e);
-        }
+        outboxWriter.append(PAYMENT_COMPLETED_TOPIC, payerKey(payment), toCompletedEvent(payment));
+        logger.debug("Queued payment.completed event for payment: {}", payment.getPaymentId());
     }
 
     /**
      * Publish payment.failed event
      */
     private void publishPaymentFailedEvent(Payment payment) {
-        try {
-            PaymentFailedEvent event = new PaymentFailedEvent(
-                payment.getPaymentId(),
-                payment.getPayerUserId(),
-                payment.getPayeeUserId(),
-                payment.getAmount(),
-                payment.getCurrency(),
-                payment.getFailureReason(),
-                payment.getErrorCode(),
-                payment.getErrorMessage()
-            );
+        outboxWriter.append(PAYMENT_FAILED_TOPIC, payerKey(payment), toFailedEvent(payment));
+        logger.debug("Queued payment.failed event for payment: {}", payment.getPaymentId());
+    }
 
-            kafkaTemplate.send(PAYMENT_FAILED_TOPIC, payment.getPaymentId().toString(), event);
-            logger.debug("Published payment.failed event for payment: {}", payment.getPaymentId());
-        } catch (Exception e) {
-            logger.error("Failed to publish payment.failed event for payment: {}", payment.getPaymentId(), e);
-        }
+    private PaymentAuthorizedEvent toAuthorizedEvent(Payment payment) {
+        return new PaymentAuthorizedEvent(
+            payment.getPaymentId(),
+            payment.getPayerUserId(),
+            payment.getPayeeUserId(),
+            payment.getAmount(),
+            payment.getCurrency()
+        );
+    }
+
+    private PaymentCompletedEvent toCompletedEvent(Payment payment) {
+        return new PaymentCompletedEvent(
+            payment.getPaymentId(),
+            payment.getPayerUserId(),
+            payment.getPayeeUserId(),
+            payment.getAmount(),
+            payment.getCurrency(),
+            payment.getTransactionId()
+        );
+    }
+
+    private PaymentFailedEvent toFailedEvent(Payment payment) {
+        return new PaymentFailedEvent(
+            payment.getPaymentId(),
+            payment.getPayerUserId(),
+            payment.getPayeeUserId(),
+            payment.getAmount(),
+            payment.getCurrency(),
+            payment.getFailureReason(),
+            payment.getErrorCode(),
+            payment.getErrorMessage()
+        );
     }
 
     /**
@@ -370,43 +484,60 @@ public class PaymentService {
     
     /**
      * Verify if user has sufficient funds for a transaction
+     * Non-blocking: the wallet lookup is bounded by wallet-timeout and any failure
+     * answers "insufficient", so callers never wait on a stuck wallet-service
      */
-    public VerifyFundsResponse verifyFunds(UUID userId, BigDecimal amount, String currency) {
+    public Mono<VerifyFundsResponse> verifyFunds(UUID userId, BigDecimal amount, String currency) {
         logger.info("Verifying funds for user: {} amount: {} currency: {}", userId, amount, currency);
-        
-        try {
-            // Call wallet-service to get balance
-            Mono<WalletBalanceResponse> balanceMono = webClient.get()
-                    .uri("/wallet/{userId}", userId)
-                    .retrieve()
-                    .bodyToMono(WalletResponse.class)
-                    .map(walletResponse -> new WalletBalanceResponse(
-                        walletResponse.getBalance().compareTo(amount) >= 0,
-                        walletResponse.getBalance(),
-                        amount,
-                        walletResponse.getCurrency()
-                    ));
-            
-            WalletBalanceResponse balanceResponse = balanceMono.block();
-            
-            if (balanceResponse == null) {
-                logger.warn("No balance found for user: {}", userId);
-                return new VerifyFundsResponse(false, BigDecimal.ZERO, amount, currency);
-            }
-            
-            boolean sufficient = balanceResponse.isSufficient();
-            logger.info("Fund verification for user {}: sufficient={}, available={}, requested={}", 
-                       userId, sufficient, balanceResponse.getAvailableBalance(), balanceResponse.getRequestedAmount());
-            
-            return new VerifyFundsResponse(sufficient, balanceResponse.getAvailableBalance(), amount, currency);
-            
-        } catch (Exception e) {
-            logger.error("Error verifying funds for user: {}", userId, e);
-            // Default to insufficient funds on error
-            return new VerifyFundsResponse(false, BigDecimal.ZERO, amount, currency);
+
+        Optional<BigDecimal> cachedBalance = balanceNearCache.findCoveringBalance(userId, amount, currency);
+        if (cachedBalance.isPresent()) {
+            logger.debug("Funds for user {} verified from the balance near cache", userId);
+            return Mono.just(new VerifyFundsResponse(true, cachedBalance.get(), amount, currency));
         }
+
+        // Call wallet-service to get balance, forwarding the caller's token
+        Mono<WalletResponse> walletMono = webClient.get()
+                .uri("/wallet/{userId}", userId)
+                .retrieve()
+                .bodyToMono(WalletResponse.class)
+                .timeout(walletTimeout);
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) {
+            walletMono = walletMono.contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+        }
+
+        return walletMono
+                .map(walletResponse -> {
+                    BigDecimal available = spendableBalance(walletResponse.getAvailableBalance(), walletResponse.getBalance());
+                    boolean sufficient = available.compareTo(amount) >= 0;
+                    logger.info("Fund verification for user {}: sufficient={}, available={}, requested={}",
+                               userId, sufficient, available, amount);
+                    return new VerifyFundsResponse(sufficient, available, amount, currency);
+                })
+                .switchIfEmpty(Mono.fromSupplier(() -> {
+                    logger.warn("No balance found for user: {}", userId);
+                    return new VerifyFundsResponse(false, BigDecimal.ZERO, amount, currency);
+                }))
+                .onErrorResume(e -> {
+                    logger.error("Error verifying funds for user: {}", userId, e);
+                    // Default to insufficient funds on error
+                    return Mono.just(new VerifyFundsResponse(false, BigDecimal.ZERO, amount, currency));
+                });
     }
-    
+
+    /**
+     * Balance a payment may draw on. Held funds are already promised to another transfer;
+     * wallet responses and events from before holds carry only the balance.
+     */
+    static BigDecimal spendableBalance(BigDecimal availableBalance, BigDecimal balance) {
+        return availableBalance != null ? availableBalance : balance;
+    }
+
+    private static boolean isHoldChange(WalletBalanceUpdatedEvent event) {
+        return event.getTransactionType() != null && event.getTransactionType().startsWith("HOLD_");
+    }
+
     /**
      * DTO for wallet balance response
      */
@@ -1,55 +1,26 @@
 package com.micropay.payment.util;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import com.micropay.security.jwt.JwtCodec;
+import com.micropay.security.jwt.VerifiedToken;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-import java.util.Date;
-
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
-
-    private SecretKey getSigningKey() {
-        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
-    }
-
-    public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    // ✅ ADD THIS
-    public String extractUsername(String token) {
-        return getAllClaimsFromToken(token).getSubject();
-    }
-
-    // ✅ ADD THIS
-    public boolean isTokenExpired(String token) {
-        Date expiration = getAllClaimsFromToken(token).getExpiration();
-        return expiration != null && expiration.before(new Date());
-    }
+    // Key and parser are derived once by the shared codec rather than on every request
+    private final JwtCodec codec;
 
-    // ✅ ADD THIS
-    public boolean isValid(String token) {
-        try {
-            return !isTokenExpired(token);
-        } catch (Exception e) {
-            return false;
-        }
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
+        this.codec = new JwtCodec(secret);
     }
 
-    // ✅ THIS IS YOUR MAIN FIX
-    public boolean isInvalid(String token) {
-        return !isValid(token);
+    /**
+     * Verify signature and expiry and extract subject and authorities in one parse
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is invalid, expired or has no expiry
+     */
+    public VerifiedToken verify(String token) {
+        return codec.validateAndExtract(token);
     }
-}
\ No newline at end of file
+}
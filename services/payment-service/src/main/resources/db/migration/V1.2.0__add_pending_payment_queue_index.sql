@@ -0,0 +1,6 @@
+-- Per-payer pending queue: balance updates read one payer's payments in a given status
+-- ordered by (created_at, id), which this index serves without a sort
+CREATE INDEX IF NOT EXISTS idx_payment_payer_status_created ON payments(payer_user_id, status, created_at, id);
+
+-- payer_user_id lookups are served by the leading column of the index above
+DROP INDEX IF EXISTS idx_payment_payer_id;
@@ -0,0 +1,3 @@
+-- idempotency_key is already covered by the index behind its UNIQUE constraint;
+-- the extra index only doubled the write cost of every payment insert
+DROP INDEX IF EXISTS idx_payment_idempotency;
@@ -0,0 +1,195 @@
+package com.micropay.payment.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.micropay.payment.dto.PaymentResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.RedisConnectionFailureException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Idempotency Cache Tests")
+class IdempotencyCacheTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private ObjectMapper objectMapper;
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+    }
+
+    @Test
+    @DisplayName("Should return the cached response until it expires")
+    void get_ExpiresAfterTtl() {
+        // Given
+        IdempotencyCache cache = localCache(10, Duration.ofSeconds(60));
+        PaymentResponse response = response();
+        cache.put("key-1", response);
+
+        // When & Then
+        assertSame(response, cache.get("key-1").orElseThrow());
+        clock.advance(Duration.ofSeconds(61));
+        assertTrue(cache.get("key-1").isEmpty());
+        assertEquals(1.0, meterRegistry.get("payment.idempotency.hits").tag("tier", "local").counter().count());
+        assertEquals(1.0, meterRegistry.get("payment.idempotency.misses").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should evict the oldest keys beyond max entries")
+    void put_BoundedSize() {
+        // Given
+        IdempotencyCache cache = localCache(2, Duration.ofHours(1));
+
+        // When
+        cache.put("key-1", response());
+        cache.put("key-2", response());
+        cache.put("key-3", response());
+
+        // Then
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("key-1").isEmpty());
+        assertTrue(cache.get("key-3").isPresent());
+    }
+
+    @Test
+    @DisplayName("Should fill the local cache from Redis on a local miss")
+    void get_ReadsThroughRedis() throws Exception {
+        // Given
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofHours(1), clock, redisTemplate, objectMapper, meterRegistry);
+        PaymentResponse original = response();
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("payment:idempotency:key-1")).thenReturn(objectMapper.writeValueAsString(original));
+        when(redisTemplate.getExpire("payment:idempotency:key-1", TimeUnit.MILLISECONDS)).thenReturn(3_600_000L);
+
+        // When
+        PaymentResponse first = cache.get("key-1").orElseThrow();
+        PaymentResponse second = cache.get("key-1").orElseThrow();
+
+        // Then
+        assertEquals(original.getPaymentId(), first.getPaymentId());
+        assertSame(first, second);
+        verify(valueOperations, times(1)).get(anyString());
+    }
+
+    @Test
+    @DisplayName("Should expire an entry read from Redis when Redis does")
+    void get_KeepsRemainingRedisTtl() throws Exception {
+        // Given
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofHours(1), clock, redisTemplate, objectMapper, meterRegistry);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get("payment:idempotency:key-1")).thenReturn(objectMapper.writeValueAsString(response()));
+        when(redisTemplate.getExpire("payment:idempotency:key-1", TimeUnit.MILLISECONDS)).thenReturn(5_000L);
+        cache.get("key-1");
+
+        // When
+        clock.advance(Duration.ofSeconds(6));
+        when(valueOperations.get("payment:idempotency:key-1")).thenReturn(null);
+
+        // Then
+        assertTrue(cache.get("key-1").isEmpty());
+        verify(valueOperations, times(2)).get(anyString());
+    }
+
+    @Test
+    @DisplayName("Should replace a cached response in place, keeping its expiry")
+    void refresh_KeepsExpiry() throws Exception {
+        // Given
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofSeconds(60), clock, redisTemplate, objectMapper, meterRegistry);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        cache.put("key-1", response());
+        clock.advance(Duration.ofSeconds(30));
+        PaymentResponse completed = response();
+        completed.setStatus("COMPLETED");
+        when(redisTemplate.getExpire("payment:idempotency:key-1", TimeUnit.MILLISECONDS)).thenReturn(30_000L);
+
+        // When
+        cache.refresh("key-1", completed);
+
+        // Then
+        assertSame(completed, cache.get("key-1").orElseThrow());
+        verify(valueOperations).setIfPresent("payment:idempotency:key-1",
+            objectMapper.writeValueAsString(completed), Duration.ofSeconds(30));
+        clock.advance(Duration.ofSeconds(31));
+        when(valueOperations.get(anyString())).thenReturn(null);
+        assertTrue(cache.get("key-1").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should treat Redis failures as a miss")
+    void get_RedisDown() {
+        // Given
+        IdempotencyCache cache = new IdempotencyCache(10, Duration.ofHours(1), clock, redisTemplate, objectMapper, meterRegistry);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+            .thenThrow(new RedisConnectionFailureException("down"));
+
+        // When & Then
+        assertTrue(cache.get("key-1").isEmpty());
+        assertDoesNotThrow(() -> cache.put("key-1", response()));
+        verify(valueOperations).setIfAbsent(eq("payment:idempotency:key-1"), anyString(), eq(Duration.ofHours(1)));
+    }
+
+    private IdempotencyCache localCache(int maxEntries, Duration ttl) {
+        return new IdempotencyCache(maxEntries, ttl, clock, null, objectMapper, meterRegistry);
+    }
+
+    private static PaymentResponse response() {
+        PaymentResponse response = new PaymentResponse();
+        response.setPaymentId(UUID.randomUUID());
+        response.setStatus("INITIATED");
+        return response;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
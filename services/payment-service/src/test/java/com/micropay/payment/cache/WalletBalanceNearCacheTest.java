@@ -0,0 +1,122 @@
+package com.micropay.payment.cache;
+
+import com.micropay.payment.dto.WalletBalanceUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Wallet Balance Near Cache Tests")
+class WalletBalanceNearCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private WalletBalanceNearCache cache;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        cache = new WalletBalanceNearCache(true, 100, Duration.ofMinutes(5), clock, meterRegistry);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should answer only balances that cover the amount in the same currency")
+    void testCoveringBalance() {
+        // Given
+        cache.apply(event("100.00", 0));
+
+        // When & Then
+        assertEquals(new BigDecimal("100.00"), cache.findCoveringBalance(userId, new BigDecimal("60.00"), "USD").orElseThrow());
+        assertTrue(cache.findCoveringBalance(userId, new BigDecimal("150.00"), "USD").isEmpty());
+        assertTrue(cache.findCoveringBalance(userId, new BigDecimal("60.00"), "EUR").isEmpty());
+        assertTrue(cache.findCoveringBalance(UUID.randomUUID(), BigDecimal.ONE, "USD").isEmpty());
+        assertEquals(1.0, meterRegistry.counter("payment.balance-cache.requests", "result", "hit").count());
+        assertEquals(3.0, meterRegistry.counter("payment.balance-cache.requests", "result", "miss").count());
+    }
+
+    @Test
+    @DisplayName("Should ignore an event older than the cached balance")
+    void testOutOfOrderEventIgnored() {
+        // Given
+        cache.apply(event("20.00", 2));
+
+        // When
+        cache.apply(event("500.00", 1));
+
+        // Then
+        assertTrue(cache.findCoveringBalance(userId, new BigDecimal("100.00"), "USD").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should stop answering once an entry is older than max-age")
+    void testMaxAge() {
+        // Given
+        cache.apply(event("100.00", 0));
+
+        // When
+        clock.advance(Duration.ofMinutes(6));
+
+        // Then
+        assertTrue(cache.findCoveringBalance(userId, BigDecimal.ONE, "USD").isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should not count funds on hold as covering an amount")
+    void testHeldFunds() {
+        // Given: 150.00 of a 200.00 balance is reserved
+        WalletBalanceUpdatedEvent reserved = event("50.00", 0);
+        reserved.setNewBalance(new BigDecimal("200.00"));
+        reserved.setTransactionType("HOLD_RESERVED");
+        cache.apply(reserved);
+
+        // When & Then
+        assertTrue(cache.findCoveringBalance(userId, new BigDecimal("100.00"), "USD").isEmpty());
+        assertEquals(new BigDecimal("50.00"), cache.findCoveringBalance(userId, new BigDecimal("50.00"), "USD").orElseThrow());
+    }
+
+    private WalletBalanceUpdatedEvent event(String availableBalance, int minute) {
+        WalletBalanceUpdatedEvent event = new WalletBalanceUpdatedEvent();
+        event.setUserId(userId);
+        event.setNewBalance(new BigDecimal(availableBalance));
+        event.setAvailableBalance(new BigDecimal(availableBalance));
+        event.setCurrency("USD");
+        event.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, minute));
+        return event;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
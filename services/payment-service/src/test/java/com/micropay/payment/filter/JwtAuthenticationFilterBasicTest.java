@@ -1,7 +1,11 @@
 package com.micropay.payment.filter;
 
+import com.micropay.events.revocation.RevokedTokenIndex;
 import com.micropay.payment.util.JwtUtil;
-import io.jsonwebtoken.Claims;
+import com.micropay.security.identity.IdentityHeaderVerifier;
+import com.micropay.security.jwt.JwtCodec;
+import com.micropay.security.jwt.VerifiedToken;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,10 +18,12 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,9 +33,17 @@ import static org.mockito.Mockito.*;
 @DisplayName("JWT Authentication Filter Basic Tests")
 class JwtAuthenticationFilterBasicTest {
 
+    private static final String SECRET = "test-secret-key-that-is-at-least-32-bytes-long";
+
     @Mock
     private JwtUtil jwtUtil;
 
+    @Mock
+    private IdentityHeaderVerifier identityHeaderVerifier;
+
+    @Mock
+    private RevokedTokenIndex revokedTokenIndex;
+
     @Mock
     private HttpServletRequest request;
 
@@ -57,20 +71,17 @@ class JwtAuthenticationFilterBasicTest {
 
         when(request.getHeader("Authorization")).thenReturn(authHeader);
 
-        Claims claims = mock(Claims.class);
-        when(claims.getSubject()).thenReturn(username);
-        when(claims.get("authorities")).thenReturn(List.of("ROLE_USER"));
-
-        when(jwtUtil.getAllClaimsFromToken(token)).thenReturn(claims);
-        when(jwtUtil.isInvalid(token)).thenReturn(false);
+        JwtCodec codec = new JwtCodec(SECRET);
+        VerifiedToken verified = codec.validateAndExtract(
+            codec.sign(username, Map.of("authorities", List.of("ROLE_USER")), 60_000));
+        when(jwtUtil.verify(token)).thenReturn(verified);
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil).getAllClaimsFromToken(token);
-        verify(jwtUtil).isInvalid(token);
+        verify(jwtUtil).verify(token);
 
         UsernamePasswordAuthenticationToken authentication = 
             (UsernamePasswordAuthenticationToken) SecurityContextHolder.getContext().getAuthentication();
@@ -89,14 +100,14 @@ class JwtAuthenticationFilterBasicTest {
         String authHeader = "Bearer " + token;
 
         when(request.getHeader("Authorization")).thenReturn(authHeader);
-        when(jwtUtil.isInvalid(token)).thenReturn(true);
+        when(jwtUtil.verify(token)).thenThrow(new JwtException("JWT has no expiration"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil).isInvalid(token);
+        verify(jwtUtil).verify(token);
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -112,8 +123,7 @@ class JwtAuthenticationFilterBasicTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).getAllClaimsFromToken(any());
-        verify(jwtUtil, never()).isInvalid(any());
+        verify(jwtUtil, never()).verify(any());
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -130,8 +140,7 @@ class JwtAuthenticationFilterBasicTest {
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil, never()).getAllClaimsFromToken(any());
-        verify(jwtUtil, never()).isInvalid(any());
+        verify(jwtUtil, never()).verify(any());
 
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
@@ -144,15 +153,49 @@ class JwtAuthenticationFilterBasicTest {
         String authHeader = "Bearer " + token;
 
         when(request.getHeader("Authorization")).thenReturn(authHeader);
-        when(jwtUtil.getAllClaimsFromToken(token)).thenThrow(new RuntimeException("JWT processing failed"));
+        when(jwtUtil.verify(token)).thenThrow(new RuntimeException("JWT processing failed"));
 
         // When
         jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
 
         // Then
         verify(filterChain).doFilter(request, response);
-        verify(jwtUtil).getAllClaimsFromToken(token);
+        verify(jwtUtil).verify(token);
+
+        assertNull(SecurityContextHolder.getContext().getAuthentication());
+    }
 
+    @Test
+    @DisplayName("Should trust signed gateway identity without parsing the JWT")
+    void doFilterInternal_GatewayIdentity() throws ServletException, IOException {
+        // Given
+        UsernamePasswordAuthenticationToken gatewayIdentity = new UsernamePasswordAuthenticationToken(
+            "test@example.com", null, List.of(new SimpleGrantedAuthority("ROLE_USER")));
+        when(identityHeaderVerifier.verify(request)).thenReturn(gatewayIdentity);
+
+        // When
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(jwtUtil);
+        assertSame(gatewayIdentity, SecurityContextHolder.getContext().getAuthentication());
+    }
+
+    @Test
+    @DisplayName("Should not authenticate a revoked token, even with a signed gateway identity")
+    void doFilterInternal_RevokedToken() throws ServletException, IOException {
+        // Given
+        String token = "revoked-jwt-token";
+        when(request.getHeader("Authorization")).thenReturn("Bearer " + token);
+        when(revokedTokenIndex.isRevoked(token)).thenReturn(true);
+
+        // When
+        jwtAuthenticationFilter.doFilterInternal(request, response, filterChain);
+
+        // Then
+        verify(filterChain).doFilter(request, response);
+        verifyNoInteractions(jwtUtil);
         assertNull(SecurityContextHolder.getContext().getAuthentication());
     }
 }
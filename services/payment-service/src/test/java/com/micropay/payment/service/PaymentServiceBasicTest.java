@@ -1,24 +1,37 @@
 package com.micropay.payment.service;
 
+import com.micropay.payment.cache.IdempotencyCache;
+import com.micropay.payment.cache.WalletBalanceNearCache;
 import com.micropay.payment.dto.PaymentRequest;
 import com.micropay.payment.dto.PaymentResponse;
+import com.micropay.payment.dto.VerifyFundsResponse;
+import com.micropay.payment.dto.WalletBalanceUpdatedEvent;
 import com.micropay.payment.exception.DuplicatePaymentException;
 import com.micropay.payment.exception.PaymentNotFoundException;
 import com.micropay.payment.model.Payment;
 import com.micropay.payment.model.PaymentStatus;
 import com.micropay.payment.model.PaymentType;
 import com.micropay.payment.repository.PaymentRepository;
+import com.micropay.outbox.OutboxWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -34,11 +47,20 @@ class PaymentServiceBasicTest {
     private PaymentRepository paymentRepository;
 
     @Mock
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private IdempotencyCache idempotencyCache;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
-    @InjectMocks
     private PaymentService paymentService;
 
+    private WalletBalanceNearCache balanceNearCache;
+
+    private Mono<ClientResponse> walletResponse = Mono.empty();
+
     private UUID paymentId;
     private UUID payerId;
     private UUID payeeId;
@@ -47,6 +69,12 @@ class PaymentServiceBasicTest {
 
     @BeforeEach
     void setUp() {
+        WebClient webClient = WebClient.builder().exchangeFunction(request -> walletResponse).build();
+        balanceNearCache = new WalletBalanceNearCache(true, 100, 60, new SimpleMeterRegistry());
+        // Long enough for the first response decode on a cold JVM, short enough for the timeout test
+        paymentService = new PaymentService(paymentRepository, outboxWriter, webClient,
+            idempotencyCache, transactionManager, 2000, balanceNearCache);
+
         paymentId = UUID.randomUUID();
         payerId = UUID.randomUUID();
         payeeId = UUID.randomUUID();
@@ -79,9 +107,7 @@ class PaymentServiceBasicTest {
     @DisplayName("Should initiate payment successfully")
     void initiatePayment_Success() {
         // Given
-        when(paymentRepository.findByIdempotencyKey(paymentRequest.getIdempotencyKey()))
-                .thenReturn(Optional.empty());
-        when(paymentRepository.save(any(Payment.class))).thenReturn(payment);
+        when(paymentRepository.saveAndFlush(any(Payment.class))).thenReturn(payment);
 
         // When
         PaymentResponse response = paymentService.initiatePayment(paymentRequest);
@@ -94,24 +120,78 @@ class PaymentServiceBasicTest {
         assertEquals(new BigDecimal("100.00"), response.getAmount());
         assertEquals(PaymentStatus.INITIATED.name(), response.getStatus());
 
-        verify(paymentRepository).findByIdempotencyKey(paymentRequest.getIdempotencyKey());
-        verify(paymentRepository).save(any(Payment.class));
-        verify(kafkaTemplate).send(eq("payment.initiated"), eq(paymentId.toString()), any());
+        verify(paymentRepository, never()).findByIdempotencyKey(any());
+        verify(paymentRepository).saveAndFlush(any(Payment.class));
+        verify(outboxWriter).append(eq("payment.initiated"), eq(payerId.toString()), any());
+        verify(idempotencyCache).put(paymentRequest.getIdempotencyKey(), response);
+    }
+
+    @Test
+    @DisplayName("Should answer a cached retry of a settled payment without touching the database")
+    void initiatePayment_CachedRetry() {
+        // Given
+        PaymentResponse original = cachedResponse(PaymentStatus.COMPLETED);
+        when(idempotencyCache.get(paymentRequest.getIdempotencyKey())).thenReturn(Optional.of(original));
+
+        // When
+        PaymentResponse response = paymentService.initiatePayment(paymentRequest);
+
+        // Then
+        assertSame(original, response);
+        verifyNoInteractions(paymentRepository, outboxWriter, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should replay the current status of a payment cached before it settled")
+    void initiatePayment_CachedRetryOfUnsettledPayment() {
+        // Given
+        when(idempotencyCache.get(paymentRequest.getIdempotencyKey()))
+                .thenReturn(Optional.of(cachedResponse(PaymentStatus.INITIATED)));
+        payment.setStatus(PaymentStatus.COMPLETED);
+        when(paymentRepository.findByPaymentId(paymentId)).thenReturn(Optional.of(payment));
+
+        // When
+        PaymentResponse response = paymentService.initiatePayment(paymentRequest);
+
+        // Then
+        assertEquals(PaymentStatus.COMPLETED.name(), response.getStatus());
+        verify(idempotencyCache).refresh(paymentRequest.getIdempotencyKey(), response);
+        verify(paymentRepository, never()).saveAndFlush(any());
+        verifyNoInteractions(outboxWriter, transactionManager);
     }
 
     @Test
-    @DisplayName("Should throw DuplicatePaymentException when idempotency key exists")
+    @DisplayName("Should return the stored payment when the unique constraint rejects a duplicate key")
     void initiatePayment_DuplicateIdempotencyKey() {
         // Given
+        when(paymentRepository.saveAndFlush(any(Payment.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(paymentRepository.findByIdempotencyKey(paymentRequest.getIdempotencyKey()))
+                .thenReturn(Optional.of(payment));
+
+        // When
+        PaymentResponse response = paymentService.initiatePayment(paymentRequest);
+
+        // Then
+        assertEquals(paymentId, response.getPaymentId());
+        verify(transactionManager).rollback(any());
+        verify(idempotencyCache).put(paymentRequest.getIdempotencyKey(), response);
+    }
+
+    @Test
+    @DisplayName("Should throw DuplicatePaymentException when idempotency key is reused for a different payment")
+    void initiatePayment_KeyReusedForDifferentPayment() {
+        // Given
+        payment.setAmount(new BigDecimal("5.00"));
+        when(paymentRepository.saveAndFlush(any(Payment.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
         when(paymentRepository.findByIdempotencyKey(paymentRequest.getIdempotencyKey()))
                 .thenReturn(Optional.of(payment));
 
         // When & Then
         assertThrows(DuplicatePaymentException.class, () -> paymentService.initiatePayment(paymentRequest));
 
-        verify(paymentRepository).findByIdempotencyKey(paymentRequest.getIdempotencyKey());
-        verify(paymentRepository, never()).save(any());
-        verify(kafkaTemplate, never()).send(any(), any(), any());
+        verify(idempotencyCache, never()).put(any(), any());
     }
 
     @Test
@@ -157,7 +237,7 @@ class PaymentServiceBasicTest {
         assertNotNull(payment.getAuthorizedAt());
 
         verify(paymentRepository).save(payment);
-        verify(kafkaTemplate).send(eq("payment.authorized"), eq(paymentId.toString()), any());
+        verify(outboxWriter).append(eq("payment.authorized"), eq(payerId.toString()), any());
     }
 
     @Test
@@ -174,7 +254,7 @@ class PaymentServiceBasicTest {
         assertNull(payment.getAuthorizedAt());
 
         verify(paymentRepository, never()).save(any());
-        verify(kafkaTemplate, never()).send(any(), any(), any());
+        verify(outboxWriter, never()).append(any(), any(), any());
     }
 
     @Test
@@ -194,7 +274,7 @@ class PaymentServiceBasicTest {
         assertNotNull(payment.getTransactionId());
 
         verify(paymentRepository).save(payment);
-        verify(kafkaTemplate).send(eq("payment.completed"), eq(paymentId.toString()), any());
+        verify(outboxWriter).append(eq("payment.completed"), eq(payerId.toString()), any());
     }
 
     @Test
@@ -211,7 +291,7 @@ class PaymentServiceBasicTest {
         assertNull(payment.getCompletedAt());
 
         verify(paymentRepository, never()).save(any());
-        verify(kafkaTemplate, never()).send(any(), any(), any());
+        verify(outboxWriter, never()).append(any(), any(), any());
     }
 
     @Test
@@ -231,6 +311,188 @@ class PaymentServiceBasicTest {
         assertNotNull(payment.getFailedAt());
 
         verify(paymentRepository).save(payment);
-        verify(kafkaTemplate).send(eq("payment.failed"), eq(paymentId.toString()), any());
+        verify(outboxWriter).append(eq("payment.failed"), eq(payerId.toString()), any());
+    }
+
+    @Test
+    @DisplayName("Should transition the pending queue with one query and one batched save")
+    void processPaymentOnBalanceUpdate_BatchedTransition() {
+        // Given
+        Payment affordable = pendingPayment(new BigDecimal("40.00"));
+        Payment tooLarge = pendingPayment(new BigDecimal("500.00"));
+        WalletBalanceUpdatedEvent event = new WalletBalanceUpdatedEvent();
+        event.setUserId(payerId);
+        event.setNewBalance(new BigDecimal("100.00"));
+        event.setTransactionId(UUID.randomUUID().toString());
+        when(paymentRepository.findPendingPaymentsByUserId(payerId, PaymentStatus.INITIATED))
+                .thenReturn(List.of(affordable, tooLarge));
+
+        // When
+        paymentService.processPaymentOnBalanceUpdate(event);
+
+        // Then
+        assertEquals(PaymentStatus.COMPLETED, affordable.getStatus());
+        assertNotNull(affordable.getAuthorizedAt());
+        assertEquals(UUID.fromString(event.getTransactionId()), affordable.getTransactionId());
+        assertEquals(PaymentStatus.FAILED, tooLarge.getStatus());
+        assertEquals("INSUFFICIENT_FUNDS", tooLarge.getFailureReason());
+
+        verify(paymentRepository, times(1)).findPendingPaymentsByUserId(payerId, PaymentStatus.INITIATED);
+        verify(paymentRepository, times(1)).saveAll(List.of(affordable, tooLarge));
+        verify(paymentRepository, never()).save(any());
+        verify(outboxWriter).appendAll(eq("payment.authorized"), argThat(events -> events.size() == 1), any());
+        verify(outboxWriter).appendAll(eq("payment.completed"), argThat(events -> events.size() == 1), any());
+        verify(outboxWriter).appendAll(eq("payment.failed"), argThat(events -> events.size() == 1), any());
+        verify(outboxWriter, never()).append(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should do nothing when the payer has no pending payments")
+    void processPaymentOnBalanceUpdate_NoPending() {
+        // Given
+        WalletBalanceUpdatedEvent event = new WalletBalanceUpdatedEvent();
+        event.setUserId(payerId);
+        event.setNewBalance(new BigDecimal("100.00"));
+        when(paymentRepository.findPendingPaymentsByUserId(payerId, PaymentStatus.INITIATED))
+                .thenReturn(List.of());
+
+        // When
+        paymentService.processPaymentOnBalanceUpdate(event);
+
+        // Then
+        verify(paymentRepository, never()).saveAll(any());
+        verifyNoInteractions(outboxWriter);
+    }
+
+    @Test
+    @DisplayName("Should not settle pending payments on hold balance updates")
+    void processPaymentOnBalanceUpdate_IgnoresHolds() {
+        // Given
+        WalletBalanceUpdatedEvent event = new WalletBalanceUpdatedEvent();
+        event.setUserId(payerId);
+        event.setNewBalance(new BigDecimal("100.00"));
+        event.setAvailableBalance(new BigDecimal("60.00"));
+        event.setTransactionType("HOLD_RESERVED");
+        event.setTransactionId(UUID.randomUUID().toString());
+
+        // When
+        paymentService.processPaymentOnBalanceUpdate(event);
+
+        // Then
+        verifyNoInteractions(paymentRepository, outboxWriter);
+    }
+
+    private Payment pendingPayment(BigDecimal amount) {
+        Payment pending = new Payment();
+        pending.setPaymentId(UUID.randomUUID());
+        pending.setPayerUserId(payerId);
+        pending.setPayeeUserId(payeeId);
+        pending.setAmount(amount);
+        pending.setCurrency("USD");
+        pending.setPaymentType(PaymentType.PAYMENT);
+        pending.setStatus(PaymentStatus.INITIATED);
+        pending.setCreatedAt(LocalDateTime.now());
+        return pending;
+    }
+
+    @Test
+    @DisplayName("Should compare the available wallet balance with the requested amount")
+    void verifyFunds_Sufficient() {
+        // Given
+        walletResponse = Mono.just(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body("{\"balance\":150.00,\"availableBalance\":120.00,\"currency\":\"USD\"}")
+            .build());
+
+        // When
+        VerifyFundsResponse response = paymentService.verifyFunds(payerId, new BigDecimal("100.00"), "USD").block();
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.isSufficient());
+        assertEquals(new BigDecimal("120.00"), response.getAvailableBalance());
+    }
+
+    @Test
+    @DisplayName("Should not count held funds towards the requested amount")
+    void verifyFunds_HeldFundsInsufficient() {
+        // Given: 70.00 of the 150.00 balance is reserved by a hold
+        walletResponse = Mono.just(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body("{\"balance\":150.00,\"availableBalance\":80.00,\"currency\":\"USD\"}")
+            .build());
+
+        // When
+        VerifyFundsResponse response = paymentService.verifyFunds(payerId, new BigDecimal("100.00"), "USD").block();
+
+        // Then
+        assertNotNull(response);
+        assertFalse(response.isSufficient());
+        assertEquals(new BigDecimal("80.00"), response.getAvailableBalance());
+    }
+
+    @Test
+    @DisplayName("Should fall back to the balance when wallet-service reports no available balance")
+    void verifyFunds_BalanceOnlyResponse() {
+        // Given
+        walletResponse = Mono.just(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body("{\"balance\":150.00,\"currency\":\"USD\"}")
+            .build());
+
+        // When
+        VerifyFundsResponse response = paymentService.verifyFunds(payerId, new BigDecimal("100.00"), "USD").block();
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.isSufficient());
+        assertEquals(new BigDecimal("150.00"), response.getAvailableBalance());
+    }
+
+    @Test
+    @DisplayName("Should answer insufficient when wallet-service does not respond in time")
+    void verifyFunds_WalletTimeout() {
+        // Given
+        walletResponse = Mono.never();
+
+        // When
+        VerifyFundsResponse response = paymentService.verifyFunds(payerId, new BigDecimal("100.00"), "USD").block();
+
+        // Then
+        assertNotNull(response);
+        assertFalse(response.isSufficient());
+        assertEquals(BigDecimal.ZERO, response.getAvailableBalance());
+    }
+
+    @Test
+    @DisplayName("Should verify funds from the balance near cache without calling wallet-service")
+    void verifyFunds_NearCacheHit() {
+        // Given
+        WalletBalanceUpdatedEvent event = new WalletBalanceUpdatedEvent();
+        event.setUserId(payerId);
+        event.setNewBalance(new BigDecimal("300.00"));
+        event.setAvailableBalance(new BigDecimal("300.00"));
+        event.setCurrency("USD");
+        event.setUpdatedAt(LocalDateTime.now());
+        balanceNearCache.apply(event);
+        walletResponse = Mono.error(new IllegalStateException("wallet-service should not be called"));
+
+        // When
+        VerifyFundsResponse response = paymentService.verifyFunds(payerId, new BigDecimal("100.00"), "USD").block();
+
+        // Then
+        assertNotNull(response);
+        assertTrue(response.isSufficient());
+        assertEquals(new BigDecimal("300.00"), response.getAvailableBalance());
+    }
+
+    private PaymentResponse cachedResponse(PaymentStatus status) {
+        PaymentResponse response = new PaymentResponse();
+        response.setPaymentId(paymentId);
+        response.setPayerUserId(payerId);
+        response.setPayeeUserId(payeeId);
+        response.setAmount(new BigDecimal("100.00"));
+        response.setStatus(status.name());
+        return response;
     }
 }
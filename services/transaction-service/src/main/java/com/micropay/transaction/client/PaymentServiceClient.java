@@ -0,0 +1,148 @@
+package com.micropay.transaction.client;
+
+import com.micropay.transaction.dto.VerifyFundsRequest;
+import com.micropay.transaction.dto.VerifyFundsResponse;
+import com.micropay.transaction.exception.FundsVerificationUnavailableException;
+import com.micropay.transaction.exception.TransactionProcessingException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Non-blocking funds check against payment-service
+ *
+ * Each call is bounded by {@code timeout-ms}, optionally hedged (a second identical
+ * request after {@code hedge-delay-ms}, first answer wins, the loser is cancelled), and
+ * guarded by a circuit breaker that fails fast while payment-service is failing or slow.
+ * The check is a read, so hedging it is safe.
+ *
+ * Metrics: {@code resilience4j.circuitbreaker.*} with {@code name=payment-service} and
+ * {@code transaction.payment-client.hedged}.
+ */
+@Component
+public class PaymentServiceClient {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentServiceClient.class);
+
+    static final String CIRCUIT_BREAKER_NAME = "payment-service";
+
+    private final WebClient webClient;
+    private final Duration timeout;
+    private final Duration hedgeDelay;
+    private final CircuitBreaker circuitBreaker;
+    private final Counter hedged;
+
+    public PaymentServiceClient(WebClient webClient,
+                                MeterRegistry meterRegistry,
+                                @Value("${transaction.payment-client.timeout-ms:3000}") long timeoutMs,
+                                @Value("${transaction.payment-client.hedge-delay-ms:0}") long hedgeDelayMs,
+                                @Value("${transaction.payment-client.circuit-breaker.failure-rate-threshold:50}") float failureRateThreshold,
+                                @Value("${transaction.payment-client.circuit-breaker.slow-call-duration-ms:1000}") long slowCallDurationMs,
+                                @Value("${transaction.payment-client.circuit-breaker.slow-call-rate-threshold:80}") float slowCallRateThreshold,
+                                @Value("${transaction.payment-client.circuit-breaker.sliding-window-size:50}") int slidingWindowSize,
+                                @Value("${transaction.payment-client.circuit-breaker.minimum-calls:20}") int minimumCalls,
+                                @Value("${transaction.payment-client.circuit-breaker.open-duration-ms:5000}") long openDurationMs,
+                                @Value("${transaction.payment-client.circuit-breaker.half-open-calls:5}") int halfOpenCalls) {
+        this.webClient = webClient;
+        this.timeout = Duration.ofMillis(timeoutMs);
+        this.hedgeDelay = hedgeDelayMs > 0 ? Duration.ofMillis(hedgeDelayMs) : null;
+
+        CircuitBreakerConfig config = CircuitBreakerConfig.custom()
+                .failureRateThreshold(failureRateThreshold)
+                .slowCallDurationThreshold(Duration.ofMillis(slowCallDurationMs))
+                .slowCallRateThreshold(slowCallRateThreshold)
+                .slidingWindowSize(slidingWindowSize)
+                .minimumNumberOfCalls(minimumCalls)
+                .waitDurationInOpenState(Duration.ofMillis(openDurationMs))
+                .permittedNumberOfCallsInHalfOpenState(halfOpenCalls)
+                .build();
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.of(config);
+        this.circuitBreaker = registry.circuitBreaker(CIRCUIT_BREAKER_NAME);
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+                logger.warn("payment-service circuit breaker: {}", event.getStateTransition()));
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+
+        this.hedged = Counter.builder("transaction.payment-client.hedged")
+                .description("Funds checks that sent a hedge request")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Ask payment-service whether the user can cover the amount
+     *
+     * @return the answer; {@link FundsVerificationUnavailableException} when payment-service
+     *         did not answer in time, failed, or the circuit is open, and
+     *         {@link TransactionProcessingException} when it rejected the request
+     */
+    public Mono<VerifyFundsResponse> verifyFunds(UUID userId, BigDecimal amount, String currency) {
+        VerifyFundsRequest body = new VerifyFundsRequest(userId, amount, currency);
+        Mono<Answer> call = webClient.post()
+                .uri("/payment/verify-funds")
+                .bodyValue(body)
+                .retrieve()
+                .bodyToMono(VerifyFundsResponse.class)
+                .map(Answer::accepted)
+                // A rejection is an answer, not a failure: it must win the hedge race (firstWithValue
+                // would otherwise wait for the other request and hide it) and says nothing about
+                // payment-service health, so the circuit breaker sees it as a success
+                .onErrorResume(WebClientResponseException.class, e -> e.getStatusCode().is4xxClientError()
+                        ? Mono.just(Answer.rejected(e))
+                        : Mono.error(e));
+
+        Mono<Answer> attempt = hedgeDelay == null
+                ? call
+                : Mono.firstWithValue(call, Mono.delay(hedgeDelay).doOnNext(tick -> hedged.increment()).then(call));
+
+        return attempt
+                .timeout(timeout)
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .onErrorMap(e -> {
+                    logger.warn("Funds check for user {} failed: {}", userId, e.toString());
+                    return new FundsVerificationUnavailableException("Payment service unavailable for funds check", e);
+                })
+                .flatMap(answer -> answer.rejection == null
+                        ? Mono.just(answer.response)
+                        : Mono.error(new TransactionProcessingException(
+                                "Funds check rejected: " + answer.rejection.getStatusCode(), answer.rejection)));
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * What payment-service said: a funds answer, or the 4xx it rejected the request with
+     */
+    private static final class Answer {
+        private final VerifyFundsResponse response;
+        private final WebClientResponseException rejection;
+
+        private Answer(VerifyFundsResponse response, WebClientResponseException rejection) {
+            this.response = response;
+            this.rejection = rejection;
+        }
+
+        static Answer accepted(VerifyFundsResponse response) {
+            return new Answer(response, null);
+        }
+
+        static Answer rejected(WebClientResponseException rejection) {
+            return new Answer(null, rejection);
+        }
+    }
+}
@@ -11,11 +11,11 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 // 3. Kafka & Spring Kafka Imports
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.JsonDeserializer;
@@ -23,6 +23,8 @@ import org.springframework.kafka.support.serializer.JsonSerializer;
 
 // 4. Project DTO Imports (Ensure this matches your actual file structure)
 import com.micropay.transaction.dto.TransactionRecordedEvent;
+import com.micropay.events.consumer.KeyOrderedExecutor;
+import com.micropay.outbox.ProducerProfile;
 
 /**
  * Kafka configuration for transaction service
@@ -36,44 +38,49 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id}")
     private String consumerGroupId;
 
+    @Value("${transaction.consumer.concurrency:3}")
+    private int concurrency;
+
+    @Value("${transaction.consumer.max-poll-records:500}")
+    private int maxPollRecords;
+
     /**
-     * Kafka Producer Factory for transaction.recorded events
+     * transaction.recorded, keyed by transactionId; raising the partition count later remaps keys
      */
     @Bean
-    public ProducerFactory<String, TransactionRecordedEvent> producerFactory() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
-        configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
-        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        return new DefaultKafkaProducerFactory<>(configProps);
+    public NewTopic transactionRecordedTopic(@Value("${transaction.topics.partitions:3}") int partitions,
+                                             @Value("${transaction.topics.replicas:1}") int replicas) {
+        return TopicBuilder.name("transaction.recorded")
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
     }
 
     /**
-     * Kafka Template for producing events
+     * Kafka Producer Factory for transaction.recorded events, with the shared producer profile
+     */
+    @Bean
+    public ProducerFactory<String, TransactionRecordedEvent> producerFactory(ProducerProfile producerProfile) {
+        return new DefaultKafkaProducerFactory<>(
+                producerProfile.producerConfigs("transaction.recorded", JsonSerializer.class));
+    }
+
+    /**
+     * Kafka Template for producing events; send outcomes are metered and failures dead-lettered
      */
     @Bean("transactionRecordedKafkaTemplate")
-    public KafkaTemplate<String, TransactionRecordedEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, TransactionRecordedEvent> kafkaTemplate(ProducerProfile producerProfile) {
+        return producerProfile.kafkaTemplate(producerFactory(producerProfile));
     }
     
     /**
      * Generic Kafka Template for producing any event type
      */
     @Bean("genericKafkaTemplate")
-    public KafkaTemplate<String, Object> genericKafkaTemplate() {
-        Map<String, Object> configProps = new HashMap<>();
-        configProps.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        configProps.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        configProps.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-        configProps.put(ProducerConfig.ACKS_CONFIG, "all");
-        configProps.put(ProducerConfig.RETRIES_CONFIG, 3);
-        configProps.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
-        
-        ProducerFactory<String, Object> producerFactory = new DefaultKafkaProducerFactory<>(configProps);
-        return new KafkaTemplate<>(producerFactory);
+    public KafkaTemplate<String, Object> genericKafkaTemplate(ProducerProfile producerProfile) {
+        ProducerFactory<String, Object> producerFactory =
+                new DefaultKafkaProducerFactory<>(producerProfile.producerConfigs(JsonSerializer.class));
+        return producerProfile.kafkaTemplate(producerFactory);
     }
 
     /**
@@ -90,20 +97,44 @@ public class KafkaConfig {
         configProps.put(JsonDeserializer.TYPE_MAPPINGS, "payment.completed:com.micropay.transaction.dto.PaymentCompletedEvent");
         configProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         configProps.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        configProps.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
         return new DefaultKafkaConsumerFactory<>(configProps);
     }
 
     /**
      * Kafka Listener Container Factory with manual acknowledgment
+     * One consumer thread per partition up to transaction.consumer.concurrency
      */
     @Bean
     public ConcurrentKafkaListenerContainerFactory<String, Object> kafkaListenerContainerFactory() {
         ConcurrentKafkaListenerContainerFactory<String, Object> factory = 
             new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
         return factory;
     }
-}
 
+    /**
+     * Batch listener container factory: each poll is handed over as one list and
+     * acknowledged once, after all of it has been processed
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, Object> batchListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, Object> factory =
+            new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
 
+    /**
+     * Lanes that process a polled batch in parallel, in order per user
+     */
+    @Bean
+    public KeyOrderedExecutor keyOrderedExecutor(@Value("${transaction.consumer.lanes:4}") int lanes) {
+        return new KeyOrderedExecutor("transaction-consumer", lanes);
+    }
+}
@@ -0,0 +1,24 @@
+package com.micropay.transaction.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Threads for the blocking part of the reactive transfer flow
+ *
+ * Transfers wait on payment-service without holding any thread; only the short JPA
+ * write runs here. Size it to the JDBC pool: more threads would just queue on Hikari.
+ */
+@Configuration
+public class TransferConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public Scheduler transferScheduler(
+            @Value("${transaction.transfer.db-threads:10}") int threads,
+            @Value("${transaction.transfer.db-queue:1000}") int queuedTasks) {
+        return Schedulers.newBoundedElastic(threads, queuedTasks, "transfer-db");
+    }
+}
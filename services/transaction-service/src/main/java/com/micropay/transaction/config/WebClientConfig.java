@@ -1,20 +1,57 @@
 package com.micropay.transaction.config;
 
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.security.core.context.ReactiveSecurityContextHolder;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.web.reactive.function.client.ClientRequest;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+
+/**
+ * Non-blocking client for payment-service
+ *
+ * The connection pool is bounded and callers waiting for a connection are capped and
+ * time out, so a slow payment-service sheds load instead of queueing transfers forever.
+ */
 @Configuration
 public class WebClientConfig {
-    
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider paymentConnectionProvider(
+            @Value("${transaction.payment-client.max-connections:100}") int maxConnections,
+            @Value("${transaction.payment-client.pending-acquire-max-count:1000}") int pendingAcquireMaxCount,
+            @Value("${transaction.payment-client.pending-acquire-timeout-ms:500}") long pendingAcquireTimeoutMs,
+            @Value("${transaction.payment-client.max-idle-time-ms:30000}") long maxIdleTimeMs) {
+        return ConnectionProvider.builder("payment-service")
+                .maxConnections(maxConnections)
+                .pendingAcquireMaxCount(pendingAcquireMaxCount)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeoutMs))
+                .maxIdleTime(Duration.ofMillis(maxIdleTimeMs))
+                .metrics(true)
+                .build();
+    }
+
     @Bean
-    public WebClient webClient() {
+    public WebClient webClient(
+            ConnectionProvider paymentConnectionProvider,
+            @Value("${transaction.payment-client.base-url:http://payment-service:8084}") String baseUrl,
+            @Value("${transaction.payment-client.connect-timeout-ms:500}") int connectTimeoutMs,
+            @Value("${transaction.payment-client.response-timeout-ms:2000}") long responseTimeoutMs) {
+        HttpClient httpClient = HttpClient.create(paymentConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMs)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+
         return WebClient.builder()
-                .baseUrl("http://payment-service:8084")
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .filter((request, next) -> {
                     return ReactiveSecurityContextHolder.getContext()
                             .map(SecurityContext::getAuthentication)
@@ -1,16 +1,31 @@
 package com.micropay.transaction.controller;
 
+import com.micropay.transaction.dto.TransactionHistoryResponse;
 import com.micropay.transaction.dto.TransactionResponse;
+import com.micropay.transaction.dto.TransactionSummaryResponse;
 import com.micropay.transaction.dto.TransferRequest;
+import com.micropay.transaction.dto.TurnoverTotals;
+import com.micropay.transaction.export.ExportFormat;
+import com.micropay.transaction.export.TransactionExporter;
 import com.micropay.transaction.service.TransactionService;
+import com.micropay.transaction.service.TurnoverService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Mono;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -23,26 +38,34 @@ public class TransactionController {
     private static final Logger logger = LoggerFactory.getLogger(TransactionController.class);
 
     private final TransactionService transactionService;
+    private final TransactionExporter transactionExporter;
+    private final TurnoverService turnoverService;
 
-    public TransactionController(TransactionService transactionService) {
+    public TransactionController(TransactionService transactionService,
+                                 TransactionExporter transactionExporter,
+                                 TurnoverService turnoverService) {
         this.transactionService = transactionService;
+        this.transactionExporter = transactionExporter;
+        this.turnoverService = turnoverService;
     }
 
     /**
      * POST /transactions/transfer
      * Initiate a money transfer
+     * Completes asynchronously: the servlet thread is released while payment-service verifies funds
      */
     @PostMapping("/transactions/transfer")
-    public ResponseEntity<TransactionResponse> initiateTransfer(@Valid @RequestBody TransferRequest request) {
+    public Mono<ResponseEntity<TransactionResponse>> initiateTransfer(@Valid @RequestBody TransferRequest request) {
         logger.info("Initiating transfer from {} to {} for amount: {}", 
                    request.getFromUserId(), request.getToUserId(), request.getAmount());
-        TransactionResponse transaction = transactionService.initiateTransfer(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(transaction);
+        return transactionService.initiateTransfer(request)
+                .map(transaction -> ResponseEntity.status(HttpStatus.CREATED).body(transaction));
     }
 
     /**
      * GET /transactions/{userId}
      * Fetch all transactions for a user
+     * Unbounded; prefer /transactions/{userId}/history for users with long histories
      */
     @GetMapping("/transactions/{userId}")
     public ResponseEntity<List<TransactionResponse>> getTransactionsByUserId(@PathVariable UUID userId) {
@@ -51,6 +74,111 @@ public class TransactionController {
         return ResponseEntity.ok(transactions);
     }
 
+    /**
+     * GET /transactions/export?userId=...&from=...&to=...&format=ndjson|csv
+     * Stream ledger entries for a user and/or a [from, to) date range, oldest first
+     * Rows are written as they are read from the database, so the response size is unbounded
+     * Callers export their own entries; only admins may name another user or omit userId
+     */
+    @GetMapping("/transactions/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(
+            @RequestParam(required = false) UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "ndjson") String format) {
+        ExportFormat exportFormat = ExportFormat.fromParameter(format);
+        // Fail fast while an error status can still be sent
+        UUID owner = transactionExporter.authorize(userId, SecurityContextHolder.getContext().getAuthentication());
+        transactionExporter.validate(owner, from, to);
+        transactionExporter.acquireSlot();
+        logger.info("Exporting transactions as {} for user: {} from {} to {}", exportFormat, owner, from, to);
+
+        StreamingResponseBody body = out -> {
+            try {
+                transactionExporter.export(owner, from, to, exportFormat, out);
+            } finally {
+                transactionExporter.releaseSlot();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"transactions." + exportFormat.getFileExtension() + "\"")
+                .body(body);
+    }
+
+    /**
+     * GET /transactions/{userId}/history?limit=50&cursor=...
+     * Fetch one page of a user's transactions, newest first
+     */
+    @GetMapping("/transactions/{userId}/history")
+    public ResponseEntity<TransactionHistoryResponse<TransactionResponse>> getTransactionHistory(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Fetching transaction history for user: {} (limit {}, cursor {})", userId, limit, cursor != null);
+        TransactionHistoryResponse<TransactionResponse> history =
+                transactionService.getTransactionHistory(userId, cursor, limit);
+        return ResponseEntity.ok(history);
+    }
+
+    /**
+     * GET /transactions/{userId}/history/summary?limit=50&cursor=...
+     * Same pages as /history, as the user's own entries without the counterparty entries
+     */
+    @GetMapping("/transactions/{userId}/history/summary")
+    public ResponseEntity<TransactionHistoryResponse<TransactionSummaryResponse>> getTransactionHistorySummary(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        logger.info("Fetching transaction summaries for user: {} (limit {}, cursor {})", userId, limit, cursor != null);
+        TransactionHistoryResponse<TransactionSummaryResponse> history =
+                transactionService.getTransactionHistorySummary(userId, cursor, limit);
+        return ResponseEntity.ok(history);
+    }
+
+    /**
+     * GET /transactions/{userId}/turnover?from=2024-01-01&to=2024-01-31
+     * Debit and credit totals per currency over an inclusive date range, default the current month
+     */
+    @GetMapping("/transactions/{userId}/turnover")
+    public ResponseEntity<List<TurnoverTotals>> getTurnover(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.withDayOfMonth(1);
+        logger.info("Fetching turnover for user: {} from {} to {}", userId, start, end);
+        return ResponseEntity.ok(turnoverService.getTurnover(userId, start, end));
+    }
+
+    /**
+     * GET /transactions/{userId}/turnover/daily?from=2024-01-01&to=2024-01-31
+     * Per-day totals over an inclusive date range, default the current month; days without entries are omitted
+     */
+    @GetMapping("/transactions/{userId}/turnover/daily")
+    public ResponseEntity<List<TurnoverTotals>> getDailyTurnover(
+            @PathVariable UUID userId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.withDayOfMonth(1);
+        logger.info("Fetching daily turnover for user: {} from {} to {}", userId, start, end);
+        return ResponseEntity.ok(turnoverService.getDailyTurnover(userId, start, end));
+    }
+
+    /**
+     * POST /transactions/turnover/rebuild?userId=...
+     * Recompute the turnover projection from the ledger, for one user or, without userId, everyone.
+     * Requires ROLE_ADMIN (see SecurityConfig): the rebuild blocks turnover updates while it runs.
+     */
+    @PostMapping("/transactions/turnover/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildTurnover(@RequestParam(required = false) UUID userId) {
+        logger.info("Rebuilding turnover projection for {}", userId != null ? userId : "all users");
+        int rows = turnoverService.rebuild(userId);
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+
     /**
      * GET /transaction/{transactionId}
      * Fetch transaction details
@@ -0,0 +1,41 @@
+package com.micropay.transaction.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One page of a user's transaction history, as full transactions or as summaries
+ * nextCursor is null on the last page; otherwise pass it back to fetch the next one
+ */
+public class TransactionHistoryResponse<T> {
+
+    private List<T> transactions;
+    private String nextCursor;
+
+    // Constructors
+    public TransactionHistoryResponse() {
+        this.transactions = new ArrayList<>();
+    }
+
+    public TransactionHistoryResponse(List<T> transactions, String nextCursor) {
+        this.transactions = transactions;
+        this.nextCursor = nextCursor;
+    }
+
+    // Getters and Setters
+    public List<T> getTransactions() {
+        return transactions;
+    }
+
+    public void setTransactions(List<T> transactions) {
+        this.transactions = transactions;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,116 @@
+package com.micropay.transaction.dto;
+
+import com.micropay.transaction.model.TransactionEntryType;
+import com.micropay.transaction.model.TransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Compact history row: a transaction seen from one user's side
+ * Built directly by a JPQL constructor query, without loading entities or entry collections
+ */
+public class TransactionSummaryResponse {
+
+    private UUID id;
+    private UUID transactionId;
+    private UUID paymentId;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime recordedAt;
+    private String entryType;
+    private BigDecimal amount;
+    private String currency;
+
+    // Constructors
+    public TransactionSummaryResponse() {
+    }
+
+    public TransactionSummaryResponse(UUID id, UUID transactionId, UUID paymentId, TransactionStatus status,
+                                      LocalDateTime createdAt, LocalDateTime recordedAt,
+                                      TransactionEntryType entryType, BigDecimal amount, String currency) {
+        this.id = id;
+        this.transactionId = transactionId;
+        this.paymentId = paymentId;
+        this.status = status != null ? status.name() : null;
+        this.createdAt = createdAt;
+        this.recordedAt = recordedAt;
+        this.entryType = entryType != null ? entryType.name() : null;
+        this.amount = amount;
+        this.currency = currency;
+    }
+
+    // Getters and Setters
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public UUID getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(UUID transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(UUID paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getRecordedAt() {
+        return recordedAt;
+    }
+
+    public void setRecordedAt(LocalDateTime recordedAt) {
+        this.recordedAt = recordedAt;
+    }
+
+    public String getEntryType() {
+        return entryType;
+    }
+
+    public void setEntryType(String entryType) {
+        this.entryType = entryType;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+}
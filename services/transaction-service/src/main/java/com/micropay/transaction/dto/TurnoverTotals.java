@@ -0,0 +1,94 @@
+package com.micropay.transaction.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Debit and credit totals of a user in one currency, for a single day or a date range
+ * entryDate is null for range totals
+ */
+public class TurnoverTotals {
+
+    private String currency;
+    private LocalDate entryDate;
+    private BigDecimal debitTotal;
+    private BigDecimal creditTotal;
+    private long debitCount;
+    private long creditCount;
+
+    // Constructors
+    public TurnoverTotals() {
+    }
+
+    public TurnoverTotals(String currency, BigDecimal debitTotal, BigDecimal creditTotal,
+                          Long debitCount, Long creditCount) {
+        this(currency, null, debitTotal, creditTotal,
+            debitCount != null ? debitCount : 0, creditCount != null ? creditCount : 0);
+    }
+
+    public TurnoverTotals(String currency, LocalDate entryDate, BigDecimal debitTotal, BigDecimal creditTotal,
+                          long debitCount, long creditCount) {
+        this.currency = currency;
+        this.entryDate = entryDate;
+        this.debitTotal = debitTotal != null ? debitTotal : BigDecimal.ZERO;
+        this.creditTotal = creditTotal != null ? creditTotal : BigDecimal.ZERO;
+        this.debitCount = debitCount;
+        this.creditCount = creditCount;
+    }
+
+    /**
+     * Credits minus debits
+     */
+    public BigDecimal getNet() {
+        return creditTotal.subtract(debitTotal);
+    }
+
+    // Getters and Setters
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    public void setEntryDate(LocalDate entryDate) {
+        this.entryDate = entryDate;
+    }
+
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+
+    public void setDebitTotal(BigDecimal debitTotal) {
+        this.debitTotal = debitTotal;
+    }
+
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+
+    public void setCreditTotal(BigDecimal creditTotal) {
+        this.creditTotal = creditTotal;
+    }
+
+    public long getDebitCount() {
+        return debitCount;
+    }
+
+    public void setDebitCount(long debitCount) {
+        this.debitCount = debitCount;
+    }
+
+    public long getCreditCount() {
+        return creditCount;
+    }
+
+    public void setCreditCount(long creditCount) {
+        this.creditCount = creditCount;
+    }
+}
@@ -0,0 +1,28 @@
+package com.micropay.transaction.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Request body of payment-service's POST /payment/verify-funds
+ */
+public class VerifyFundsRequest {
+    private UUID userId;
+    private BigDecimal amount;
+    private String currency;
+
+    public VerifyFundsRequest() {}
+
+    public VerifyFundsRequest(UUID userId, BigDecimal amount, String currency) {
+        this.userId = userId;
+        this.amount = amount;
+        this.currency = currency;
+    }
+
+    public UUID getUserId() { return userId; }
+    public void setUserId(UUID userId) { this.userId = userId; }
+    public BigDecimal getAmount() { return amount; }
+    public void setAmount(BigDecimal amount) { this.amount = amount; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+}
@@ -0,0 +1,22 @@
+package com.micropay.transaction.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Response body of payment-service's POST /payment/verify-funds
+ */
+public class VerifyFundsResponse {
+    private boolean sufficient;
+    private BigDecimal availableBalance;
+    private BigDecimal requestedAmount;
+    private String currency;
+
+    public boolean isSufficient() { return sufficient; }
+    public void setSufficient(boolean sufficient) { this.sufficient = sufficient; }
+    public BigDecimal getAvailableBalance() { return availableBalance; }
+    public void setAvailableBalance(BigDecimal availableBalance) { this.availableBalance = availableBalance; }
+    public BigDecimal getRequestedAmount() { return requestedAmount; }
+    public void setRequestedAmount(BigDecimal requestedAmount) { this.requestedAmount = requestedAmount; }
+    public String getCurrency() { return currency; }
+    public void setCurrency(String currency) { this.currency = currency; }
+}
@@ -0,0 +1,11 @@
+package com.micropay.transaction.exception;
+
+/**
+ * Exception thrown when every export slot is taken; the client should retry later
+ */
+public class ExportCapacityException extends RuntimeException {
+
+    public ExportCapacityException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.micropay.transaction.exception;
+
+/**
+ * Exception thrown when a caller asks to export ledger entries that are not theirs
+ */
+public class ExportNotAllowedException extends RuntimeException {
+
+    public ExportNotAllowedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package com.micropay.transaction.exception;
+
+/**
+ * Exception thrown when payment-service cannot answer a funds check in time
+ * or its circuit breaker is open
+ */
+public class FundsVerificationUnavailableException extends RuntimeException {
+
+    public FundsVerificationUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
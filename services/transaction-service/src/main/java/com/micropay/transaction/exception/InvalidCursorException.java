@@ -0,0 +1,15 @@
+package com.micropay.transaction.exception;
+
+/**
+ * Exception thrown when a history continuation token cannot be decoded
+ */
+public class InvalidCursorException extends RuntimeException {
+
+    public InvalidCursorException(String message) {
+        super(message);
+    }
+
+    public InvalidCursorException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package com.micropay.transaction.exception;
+
+/**
+ * Exception thrown when an export request has no filter or an unsupported format
+ */
+public class InvalidExportRequestException extends RuntimeException {
+
+    public InvalidExportRequestException(String message) {
+        super(message);
+    }
+}
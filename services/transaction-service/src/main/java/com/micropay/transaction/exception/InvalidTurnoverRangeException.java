@@ -0,0 +1,11 @@
+package com.micropay.transaction.exception;
+
+/**
+ * Exception thrown when a turnover query has an inverted or oversized date range
+ */
+public class InvalidTurnoverRangeException extends RuntimeException {
+
+    public InvalidTurnoverRangeException(String message) {
+        super(message);
+    }
+}
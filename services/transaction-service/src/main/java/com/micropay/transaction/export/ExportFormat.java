@@ -0,0 +1,149 @@
+package com.micropay.transaction.export;
+
+import com.micropay.transaction.exception.InvalidExportRequestException;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Wire formats of the transaction export, one line per ledger entry
+ */
+public enum ExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson") {
+        @Override
+        void writeHeader(Writer out) {
+            // NDJSON is self-describing
+        }
+
+        @Override
+        void writeRow(ExportRow row, Writer out) throws IOException {
+            out.write("{\"transactionId\":");
+            jsonValue(row.getTransactionId(), out);
+            out.write(",\"paymentId\":");
+            jsonValue(row.getPaymentId(), out);
+            out.write(",\"status\":");
+            jsonValue(row.getStatus(), out);
+            out.write(",\"createdAt\":");
+            jsonValue(row.getCreatedAt(), out);
+            out.write(",\"recordedAt\":");
+            jsonValue(row.getRecordedAt(), out);
+            out.write(",\"entryId\":");
+            jsonValue(row.getEntryId(), out);
+            out.write(",\"userId\":");
+            jsonValue(row.getUserId(), out);
+            out.write(",\"entryType\":");
+            jsonValue(row.getEntryType(), out);
+            out.write(",\"amount\":");
+            out.write(row.getAmount() != null ? row.getAmount().toPlainString() : "null");
+            out.write(",\"currency\":");
+            jsonValue(row.getCurrency(), out);
+            out.write("}\n");
+        }
+    },
+
+    CSV("text/csv", "csv") {
+        @Override
+        void writeHeader(Writer out) throws IOException {
+            out.write("transaction_id,payment_id,status,created_at,recorded_at,entry_id,user_id,entry_type,amount,currency\r\n");
+        }
+
+        @Override
+        void writeRow(ExportRow row, Writer out) throws IOException {
+            csvValue(row.getTransactionId(), out);
+            out.write(',');
+            csvValue(row.getPaymentId(), out);
+            out.write(',');
+            csvValue(row.getStatus(), out);
+            out.write(',');
+            csvValue(row.getCreatedAt(), out);
+            out.write(',');
+            csvValue(row.getRecordedAt(), out);
+            out.write(',');
+            csvValue(row.getEntryId(), out);
+            out.write(',');
+            csvValue(row.getUserId(), out);
+            out.write(',');
+            csvValue(row.getEntryType(), out);
+            out.write(',');
+            if (row.getAmount() != null) {
+                out.write(row.getAmount().toPlainString());
+            }
+            out.write(',');
+            csvValue(row.getCurrency(), out);
+            out.write("\r\n");
+        }
+    };
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    abstract void writeHeader(Writer out) throws IOException;
+
+    abstract void writeRow(ExportRow row, Writer out) throws IOException;
+
+    /**
+     * Parse a {@code format} request parameter, case-insensitively
+     */
+    public static ExportFormat fromParameter(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidExportRequestException("Unsupported export format: " + value);
+        }
+    }
+
+    private static void jsonValue(Object value, Writer out) throws IOException {
+        if (value == null) {
+            out.write("null");
+            return;
+        }
+        String text = value.toString();
+        out.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    private static void csvValue(Object value, Writer out) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\r' || c == '\n';
+        }
+        if (!quote) {
+            out.write(text);
+            return;
+        }
+        out.write('"');
+        out.write(text.replace("\"", "\"\""));
+        out.write('"');
+    }
+}
@@ -0,0 +1,100 @@
+package com.micropay.transaction.export;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only read of ledger entries for export
+ *
+ * Rows are pulled through a read-only, forward-only cursor {@code fetch-size} rows at a
+ * time and handed to the caller one by one, never collected. The PostgreSQL driver only
+ * honours the fetch size with autocommit off, so this must run inside a transaction.
+ */
+@Repository
+public class TransactionExportRepository {
+
+    private static final String SELECT_SQL =
+            "SELECT t.transaction_id, t.payment_id, t.status, t.created_at, t.recorded_at, " +
+            "e.id, e.user_id, e.entry_type, e.amount, e.currency " +
+            "FROM transaction_entries e JOIN transactions t ON t.id = e.transaction_id";
+
+    private static final String ORDER_SQL = " ORDER BY e.created_at, e.transaction_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int fetchSize;
+
+    public TransactionExportRepository(JdbcTemplate jdbcTemplate,
+                                       @Value("${transaction.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.fetchSize = Math.max(1, fetchSize);
+    }
+
+    /**
+     * Stream entries matching the filters, oldest first
+     *
+     * A user filter is served by idx_entry_user_history; a date range alone scans
+     * transaction_entries.
+     *
+     * @param userId only this user's entries, or null for all users
+     * @param from inclusive lower bound on created_at, or null
+     * @param to exclusive upper bound on created_at, or null
+     * @param consumer receives the same {@link ExportRow} instance, refilled for every row
+     */
+    public void stream(UUID userId, LocalDateTime from, LocalDateTime to, Consumer<ExportRow> consumer) {
+        StringBuilder sql = new StringBuilder(SELECT_SQL);
+        List<Object> args = new ArrayList<>(3);
+        String separator = " WHERE ";
+        if (userId != null) {
+            sql.append(separator).append("e.user_id = ?");
+            args.add(userId);
+            separator = " AND ";
+        }
+        if (from != null) {
+            sql.append(separator).append("e.created_at >= ?");
+            args.add(Timestamp.valueOf(from));
+            separator = " AND ";
+        }
+        if (to != null) {
+            sql.append(separator).append("e.created_at < ?");
+            args.add(Timestamp.valueOf(to));
+        }
+        sql.append(ORDER_SQL);
+
+        ExportRow row = new ExportRow();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (ResultSet rs) -> {
+            row.setTransactionId(rs.getObject(1, UUID.class));
+            row.setPaymentId(rs.getObject(2, UUID.class));
+            row.setStatus(rs.getString(3));
+            row.setCreatedAt(toLocalDateTime(rs.getTimestamp(4)));
+            row.setRecordedAt(toLocalDateTime(rs.getTimestamp(5)));
+            row.setEntryId(rs.getObject(6, UUID.class));
+            row.setUserId(rs.getObject(7, UUID.class));
+            row.setEntryType(rs.getString(8));
+            row.setAmount(rs.getBigDecimal(9));
+            row.setCurrency(rs.getString(10));
+            consumer.accept(row);
+        });
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -0,0 +1,128 @@
+package com.micropay.transaction.export;
+
+import com.micropay.security.identity.CallerIdentity;
+import com.micropay.transaction.exception.ExportCapacityException;
+import com.micropay.transaction.exception.ExportNotAllowedException;
+import com.micropay.transaction.exception.InvalidExportRequestException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Streams ledger entries straight from a database cursor into an output stream
+ *
+ * Each row is formatted into a fixed-size write buffer as soon as it is read, so memory
+ * use is bounded by the JDBC fetch size and the buffer, whatever the number of rows.
+ * An export holds a pooled connection for as long as the client reads, so at most
+ * {@code transaction.export.max-concurrent} run at once; further requests are refused.
+ */
+@Service
+public class TransactionExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionExporter.class);
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final TransactionExportRepository exportRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final Semaphore slots;
+
+    public TransactionExporter(TransactionExportRepository exportRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${transaction.export.max-concurrent:2}") int maxConcurrent) {
+        this.exportRepository = exportRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.slots = new Semaphore(Math.max(1, maxConcurrent));
+    }
+
+    /**
+     * The user whose entries {@code caller} may export: admins get what they asked for,
+     * anyone else only their own entries, whether or not they passed a userId
+     */
+    public UUID authorize(UUID userId, Authentication caller) {
+        if (CallerIdentity.isAdmin(caller)) {
+            return userId;
+        }
+        UUID callerId = CallerIdentity.userId(caller)
+            .orElseThrow(() -> new ExportNotAllowedException("Export needs a token that identifies the user"));
+        if (userId != null && !userId.equals(callerId)) {
+            throw new ExportNotAllowedException("Only your own transactions can be exported");
+        }
+        return callerId;
+    }
+
+    /**
+     * Claim an export slot; pair with {@link #releaseSlot()} once the export has ended
+     */
+    public void acquireSlot() {
+        if (!slots.tryAcquire()) {
+            throw new ExportCapacityException("Too many exports in progress, retry later");
+        }
+    }
+
+    public void releaseSlot() {
+        slots.release();
+    }
+
+    /**
+     * Reject exports that would dump the whole ledger or have an inverted range
+     */
+    public void validate(UUID userId, LocalDateTime from, LocalDateTime to) {
+        if (userId == null && (from == null || to == null)) {
+            throw new InvalidExportRequestException("Export needs a userId or both from and to");
+        }
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new InvalidExportRequestException("Export range is empty: from must be before to");
+        }
+    }
+
+    /**
+     * Write matching entries to {@code out}; the stream is flushed but not closed
+     *
+     * @return number of entries written
+     */
+    public long export(UUID userId, LocalDateTime from, LocalDateTime to,
+                       ExportFormat format, OutputStream out) throws IOException {
+        validate(userId, from, to);
+        long start = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+        format.writeHeader(writer);
+
+        long[] rows = new long[1];
+        try {
+            readOnlyTransaction.executeWithoutResult(status ->
+                exportRepository.stream(userId, from, to, row -> {
+                    try {
+                        format.writeRow(row, writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    rows[0]++;
+                }));
+        } catch (UncheckedIOException e) {
+            // Usually the client went away; the cursor is already closed with the transaction
+            throw e.getCause();
+        }
+        writer.flush();
+
+        logger.info("Exported {} entries as {} (user {}, from {}, to {}) in {} ms",
+                rows[0], format, userId, from, to, (System.nanoTime() - start) / 1_000_000);
+        return rows[0];
+    }
+}
@@ -1,5 +1,6 @@
 package com.micropay.transaction.kafka;
 
+import com.micropay.events.consumer.KeyOrderedExecutor;
 import com.micropay.transaction.dto.PaymentCompletedEvent;
 import com.micropay.transaction.dto.TransactionRecordedEvent;
 import com.micropay.transaction.service.TransactionService;
@@ -9,11 +10,12 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.kafka.annotation.KafkaListener;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.support.Acknowledgment;
-import org.springframework.kafka.support.KafkaHeaders;
-import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.messaging.handler.annotation.Payload;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Kafka consumer for payment.completed events
  * Records transactions when payments are completed
@@ -25,52 +27,52 @@ public class PaymentCompletedEventConsumer {
 
     private final KafkaTemplate<String, TransactionRecordedEvent> kafkaTemplate;
     private final TransactionService transactionService;
+    private final KeyOrderedExecutor keyOrderedExecutor;
 
     public PaymentCompletedEventConsumer(@Qualifier("transactionRecordedKafkaTemplate") KafkaTemplate<String, TransactionRecordedEvent> kafkaTemplate,
-                                        TransactionService transactionService) {
+                                        TransactionService transactionService,
+                                        KeyOrderedExecutor keyOrderedExecutor) {
         this.kafkaTemplate = kafkaTemplate;
         this.transactionService = transactionService;
+        this.keyOrderedExecutor = keyOrderedExecutor;
     }
 
     /**
-     * Consume payment.completed events from Kafka
-     * Records a transaction for the completed payment
+     * Consume payment.completed events from Kafka, one poll at a time
+     * Events of different payers are recorded in parallel on the executor's lanes, events
+     * of one payer in the order they were read; the poll is acknowledged once all are done
      */
-    @KafkaListener(topics = "payment.completed", groupId = "transaction-service-consumer-group")
-    public void consumePaymentCompletedEvent(
-            @Payload PaymentCompletedEvent event,
-            @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        
+    @KafkaListener(topics = "payment.completed", groupId = "transaction-service-consumer-group",
+                   containerFactory = "batchListenerContainerFactory",
+                   concurrency = "${transaction.consumer.payment-completed.concurrency:${transaction.consumer.concurrency:3}}")
+    public void consumePaymentCompletedEvents(@Payload List<PaymentCompletedEvent> events, Acknowledgment acknowledgment) {
         try {
-            logger.info("Received payment.completed event for payment: {}", event.getPaymentId());
-            
-            if (event.getPaymentId() == null) {
-                logger.error("Payment ID is null in payment.completed event. Event ID: {}", event.getEventId());
-                acknowledgment.acknowledge();
-                return;
+            logger.info("Received {} payment.completed events", events.size());
+
+            List<PaymentCompletedEvent> valid = new ArrayList<>(events.size());
+            for (PaymentCompletedEvent event : events) {
+                if (event.getPaymentId() == null) {
+                    logger.error("Payment ID is null in payment.completed event. Event ID: {}", event.getEventId());
+                    continue;
+                }
+                valid.add(event);
             }
 
-            // Record transaction for the completed payment
-            transactionService.recordTransactionFromPayment(event);
-            logger.info("Successfully recorded transaction for payment: {}", event.getPaymentId());
+            List<KeyOrderedExecutor.Failure<PaymentCompletedEvent>> failures = keyOrderedExecutor.processAll(
+                valid, PaymentCompletedEvent::getPayerUserId, transactionService::recordTransactionFromPayment);
 
-            // Acknowledge the message
-            acknowledgment.acknowledge();
-            
+            for (KeyOrderedExecutor.Failure<PaymentCompletedEvent> failure : failures) {
+                logger.error("Error processing payment.completed event for payment: {}. Event ID: {}",
+                            failure.getRecord().getPaymentId(), failure.getRecord().getEventId(), failure.getError());
+            }
+            logger.debug("Recorded transactions for {} of {} payment.completed events",
+                        valid.size() - failures.size(), events.size());
         } catch (Exception e) {
-            logger.error("Error processing payment.completed event for payment: {}. Event ID: {}", 
-                        event.getPaymentId(), event.getEventId(), e);
+            logger.error("Error processing batch of {} payment.completed events", events.size(), e);
+        } finally {
             // In production, implement retry logic or send to dead letter queue
             // For now, acknowledge to prevent infinite retries
             acknowledgment.acknowledge();
         }
     }
 }
-
-
-
-
-
-
-
@@ -1,6 +1,8 @@
 package com.micropay.transaction.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
@@ -30,7 +32,10 @@ public class Transaction {
     @Enumerated(EnumType.STRING)
     private TransactionStatus status;
 
-    @OneToMany(mappedBy = "transaction", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    // Lazy: reads that need entries fetch them explicitly (entity graph or fetch join);
+    // anything else touching the collection loads it for up to 50 transactions at once
+    @OneToMany(mappedBy = "transaction", cascade = CascadeType.ALL, orphanRemoval = true)
+    @BatchSize(size = 50)
     private List<TransactionEntry> entries = new ArrayList<>();
 
     @Column(name = "created_at", nullable = false, updatable = false)
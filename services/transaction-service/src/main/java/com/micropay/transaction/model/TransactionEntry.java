@@ -2,6 +2,7 @@ package com.micropay.transaction.model;
 
 import jakarta.persistence.*;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -10,7 +11,7 @@ import java.util.UUID;
 @Entity
 @Table(name = "transaction_entries", indexes = {
     @Index(name = "idx_entry_transaction_id", columnList = "transaction_id"),
-    @Index(name = "idx_entry_user_id", columnList = "user_id")
+    @Index(name = "idx_entry_user_history", columnList = "user_id, created_at DESC, transaction_id DESC")
 })
 public class TransactionEntry {
 
@@ -35,6 +36,19 @@ public class TransactionEntry {
     @Column(name = "currency", nullable = false, length = 3)
     private String currency;
 
+    // Copy of the parent's createdAt so per-user history is served from idx_entry_user_history alone
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = transaction != null && transaction.getCreatedAt() != null
+                ? transaction.getCreatedAt()
+                : LocalDateTime.now();
+        }
+    }
+
     // Constructors
     public TransactionEntry() {
     }
@@ -94,6 +108,14 @@ public class TransactionEntry {
     public void setCurrency(String currency) {
         this.currency = currency;
     }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
 }
 
 
@@ -0,0 +1,64 @@
+package com.micropay.transaction.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+
+/**
+ * Per user, currency and day totals of recorded ledger entries
+ *
+ * Maintained incrementally by recordTransactionFromPayment and rebuilt from
+ * transaction_entries on demand; never written through JPA.
+ */
+@Entity
+@Table(name = "user_daily_turnover")
+public class UserDailyTurnover {
+
+    @EmbeddedId
+    private UserDailyTurnoverId id;
+
+    @Column(name = "debit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitTotal;
+
+    @Column(name = "credit_total", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditTotal;
+
+    @Column(name = "debit_count", nullable = false)
+    private long debitCount;
+
+    @Column(name = "credit_count", nullable = false)
+    private long creditCount;
+
+    // Constructors
+    public UserDailyTurnover() {
+    }
+
+    public UserDailyTurnover(UserDailyTurnoverId id, BigDecimal debitTotal, BigDecimal creditTotal,
+                             long debitCount, long creditCount) {
+        this.id = id;
+        this.debitTotal = debitTotal;
+        this.creditTotal = creditTotal;
+        this.debitCount = debitCount;
+        this.creditCount = creditCount;
+    }
+
+    // Getters
+    public UserDailyTurnoverId getId() {
+        return id;
+    }
+
+    public BigDecimal getDebitTotal() {
+        return debitTotal;
+    }
+
+    public BigDecimal getCreditTotal() {
+        return creditTotal;
+    }
+
+    public long getDebitCount() {
+        return debitCount;
+    }
+
+    public long getCreditCount() {
+        return creditCount;
+    }
+}
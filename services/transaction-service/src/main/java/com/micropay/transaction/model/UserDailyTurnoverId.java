@@ -0,0 +1,67 @@
+package com.micropay.transaction.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Key of a turnover row: one user, one currency, one day
+ */
+@Embeddable
+public class UserDailyTurnoverId implements Serializable {
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "entry_date", nullable = false)
+    private LocalDate entryDate;
+
+    // Constructors
+    public UserDailyTurnoverId() {
+    }
+
+    public UserDailyTurnoverId(UUID userId, String currency, LocalDate entryDate) {
+        this.userId = userId;
+        this.currency = currency;
+        this.entryDate = entryDate;
+    }
+
+    // Getters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public LocalDate getEntryDate() {
+        return entryDate;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof UserDailyTurnoverId)) {
+            return false;
+        }
+        UserDailyTurnoverId other = (UserDailyTurnoverId) o;
+        return Objects.equals(userId, other.userId)
+            && Objects.equals(currency, other.currency)
+            && Objects.equals(entryDate, other.entryDate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(userId, currency, entryDate);
+    }
+}
@@ -1,39 +1,88 @@
 package com.micropay.transaction.repository;
 
+import com.micropay.transaction.dto.TransactionSummaryResponse;
 import com.micropay.transaction.model.Transaction;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Repository interface for Transaction entity
+ *
+ * Transaction.entries is lazy; methods that return transactions for display load their
+ * entries in the same query through the "entries" entity graph.
  */
 @Repository
 public interface TransactionRepository extends JpaRepository<Transaction, UUID> {
 
     /**
-     * Find transaction by transactionId
+     * Find transaction by transactionId, with its entries
      */
+    @EntityGraph(attributePaths = "entries")
     Optional<Transaction> findByTransactionId(UUID transactionId);
 
     /**
-     * Find transactions by paymentId
+     * Find transactions by paymentId, without entries
      */
     Optional<Transaction> findByPaymentId(UUID paymentId);
 
     /**
-     * Find all transactions for a user (payer or payee)
+     * Find all transactions for a user (payer or payee), with their entries
+     * Filtering in a subquery keeps the fetched entries from being multiplied by the filter join
      */
-    @Query("SELECT DISTINCT t FROM Transaction t " +
-           "JOIN t.entries e " +
-           "WHERE e.userId = :userId " +
+    @EntityGraph(attributePaths = "entries")
+    @Query("SELECT t FROM Transaction t " +
+           "WHERE EXISTS (SELECT 1 FROM TransactionEntry e WHERE e.transaction = t AND e.userId = :userId) " +
            "ORDER BY t.createdAt DESC")
     List<Transaction> findByUserId(UUID userId);
 
+    /**
+     * First page of a user's transaction ids, newest first
+     * Served from idx_entry_user_history; pass a limit of page size plus one to detect a next page
+     */
+    @Query("SELECT e.transaction.id FROM TransactionEntry e " +
+           "WHERE e.userId = :userId " +
+           "GROUP BY e.createdAt, e.transaction.id " +
+           "ORDER BY e.createdAt DESC, e.transaction.id DESC")
+    List<UUID> findHistoryPage(UUID userId, Limit limit);
+
+    /**
+     * Next page of a user's transaction ids, strictly older than the (createdAt, id) cursor
+     * The createdAt bound is spelled out so the index range starts at the cursor
+     */
+    @Query("SELECT e.transaction.id FROM TransactionEntry e " +
+           "WHERE e.userId = :userId " +
+           "AND e.createdAt <= :createdAt " +
+           "AND (e.createdAt < :createdAt OR e.transaction.id < :transactionId) " +
+           "GROUP BY e.createdAt, e.transaction.id " +
+           "ORDER BY e.createdAt DESC, e.transaction.id DESC")
+    List<UUID> findHistoryPageAfter(UUID userId, LocalDateTime createdAt, UUID transactionId, Limit limit);
+
+    /**
+     * Load a page of transactions with their entries in one query
+     */
+    @EntityGraph(attributePaths = "entries")
+    @Query("SELECT t FROM Transaction t WHERE t.id IN :ids")
+    List<Transaction> findWithEntriesByIdIn(Collection<UUID> ids);
+
+    /**
+     * Summaries of a page of transactions from one user's side, one row per entry of that user
+     */
+    @Query("SELECT new com.micropay.transaction.dto.TransactionSummaryResponse(" +
+           "t.id, t.transactionId, t.paymentId, t.status, t.createdAt, t.recordedAt, " +
+           "e.entryType, e.amount, e.currency) " +
+           "FROM TransactionEntry e JOIN e.transaction t " +
+           "WHERE e.userId = :userId AND t.id IN :ids")
+    List<TransactionSummaryResponse> findSummariesByUserIdAndIdIn(UUID userId, Collection<UUID> ids);
+
     /**
      * Find transactions by status
      */
@@ -0,0 +1,92 @@
+package com.micropay.transaction.repository;
+
+import com.micropay.transaction.dto.TurnoverTotals;
+import com.micropay.transaction.model.UserDailyTurnover;
+import com.micropay.transaction.model.UserDailyTurnoverId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for the user_daily_turnover projection
+ */
+@Repository
+public interface UserDailyTurnoverRepository extends JpaRepository<UserDailyTurnover, UserDailyTurnoverId> {
+
+    String REBUILD_SELECT =
+        "SELECT e.user_id, e.currency, CAST(e.created_at AS DATE), " +
+        "COALESCE(SUM(CASE WHEN e.entry_type = 'DEBIT' THEN e.amount END), 0), " +
+        "COALESCE(SUM(CASE WHEN e.entry_type = 'CREDIT' THEN e.amount END), 0), " +
+        "COUNT(CASE WHEN e.entry_type = 'DEBIT' THEN 1 END), " +
+        "COUNT(CASE WHEN e.entry_type = 'CREDIT' THEN 1 END) " +
+        "FROM transaction_entries e JOIN transactions t ON t.id = e.transaction_id " +
+        "WHERE t.status = 'RECORDED' ";
+
+    String REBUILD_GROUP_BY = "GROUP BY e.user_id, e.currency, CAST(e.created_at AS DATE)";
+
+    String INSERT_COLUMNS =
+        "INSERT INTO user_daily_turnover " +
+        "(user_id, currency, entry_date, debit_total, credit_total, debit_count, credit_count) ";
+
+    /**
+     * Add a delta to one day's totals, creating the row on first use
+     * Single statement, so concurrent recorders serialise on the row instead of losing updates
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = INSERT_COLUMNS +
+        "VALUES (:userId, :currency, :entryDate, :debitTotal, :creditTotal, :debitCount, :creditCount) " +
+        "ON CONFLICT (user_id, currency, entry_date) DO UPDATE SET " +
+        "debit_total = user_daily_turnover.debit_total + EXCLUDED.debit_total, " +
+        "credit_total = user_daily_turnover.credit_total + EXCLUDED.credit_total, " +
+        "debit_count = user_daily_turnover.debit_count + EXCLUDED.debit_count, " +
+        "credit_count = user_daily_turnover.credit_count + EXCLUDED.credit_count")
+    int accumulate(UUID userId, String currency, LocalDate entryDate,
+                   BigDecimal debitTotal, BigDecimal creditTotal, long debitCount, long creditCount);
+
+    /**
+     * Block incremental updates until the calling (rebuild) transaction ends
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "LOCK TABLE user_daily_turnover IN SHARE ROW EXCLUSIVE MODE")
+    void lockForRebuild();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM user_daily_turnover")
+    int deleteAllRows();
+
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM user_daily_turnover WHERE user_id = :userId")
+    int deleteRowsByUserId(UUID userId);
+
+    @Modifying
+    @Query(nativeQuery = true, value = INSERT_COLUMNS + REBUILD_SELECT + REBUILD_GROUP_BY)
+    int insertFromEntries();
+
+    @Modifying
+    @Query(nativeQuery = true, value = INSERT_COLUMNS + REBUILD_SELECT + "AND e.user_id = :userId " + REBUILD_GROUP_BY)
+    int insertFromEntriesByUserId(UUID userId);
+
+    /**
+     * Daily rows of a user in [from, to], oldest first
+     */
+    @Query("SELECT t FROM UserDailyTurnover t " +
+           "WHERE t.id.userId = :userId AND t.id.entryDate BETWEEN :from AND :to " +
+           "ORDER BY t.id.entryDate, t.id.currency")
+    List<UserDailyTurnover> findDaily(UUID userId, LocalDate from, LocalDate to);
+
+    /**
+     * Totals of a user per currency over [from, to]
+     */
+    @Query("SELECT new com.micropay.transaction.dto.TurnoverTotals(" +
+           "t.id.currency, SUM(t.debitTotal), SUM(t.creditTotal), SUM(t.debitCount), SUM(t.creditCount)) " +
+           "FROM UserDailyTurnover t " +
+           "WHERE t.id.userId = :userId AND t.id.entryDate BETWEEN :from AND :to " +
+           "GROUP BY t.id.currency ORDER BY t.id.currency")
+    List<TurnoverTotals> summarize(UUID userId, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,54 @@
+package com.micropay.transaction.service;
+
+import com.micropay.transaction.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque continuation token for transaction history: the (createdAt, id) of the last
+ * transaction on the previous page, base64url encoded
+ */
+final class HistoryCursor {
+
+    private static final char SEPARATOR = '|';
+
+    private final LocalDateTime createdAt;
+    private final UUID transactionId;
+
+    HistoryCursor(LocalDateTime createdAt, UUID transactionId) {
+        this.createdAt = createdAt;
+        this.transactionId = transactionId;
+    }
+
+    static HistoryCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int split = raw.indexOf(SEPARATOR);
+            if (split < 0) {
+                throw new InvalidCursorException("Malformed history cursor");
+            }
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, split)),
+                                     UUID.fromString(raw.substring(split + 1)));
+        } catch (InvalidCursorException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Malformed history cursor", e);
+        }
+    }
+
+    String encode() {
+        String raw = createdAt.toString() + SEPARATOR + transactionId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    UUID getTransactionId() {
+        return transactionId;
+    }
+}
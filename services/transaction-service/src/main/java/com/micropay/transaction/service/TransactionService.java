@@ -1,10 +1,15 @@
 package com.micropay.transaction.service;
 
 import com.micropay.transaction.dto.PaymentCompletedEvent;
+import com.micropay.transaction.dto.TransactionHistoryResponse;
 import com.micropay.transaction.dto.TransactionRecordedEvent;
 import com.micropay.transaction.dto.TransactionResponse;
+import com.micropay.transaction.dto.TransactionSummaryResponse;
 import com.micropay.transaction.dto.TransferRequest;
+import com.micropay.transaction.dto.VerifyFundsResponse;
 import com.micropay.transaction.dto.TransactionInitiatedEvent;
+import com.micropay.transaction.client.PaymentServiceClient;
+import com.micropay.transaction.exception.FundsVerificationUnavailableException;
 import com.micropay.transaction.exception.TransactionNotFoundException;
 import com.micropay.transaction.exception.TransactionProcessingException;
 import com.micropay.transaction.model.Transaction;
@@ -12,19 +17,26 @@ import com.micropay.transaction.model.TransactionEntry;
 import com.micropay.transaction.model.TransactionEntryType;
 import com.micropay.transaction.model.TransactionStatus;
 import com.micropay.transaction.repository.TransactionRepository;
+import com.micropay.outbox.OutboxWriter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.transaction.support.TransactionTemplate;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -37,17 +49,27 @@ public class TransactionService {
     
     private static final String TRANSACTION_RECORDED_TOPIC = "transaction.recorded";
     private static final String TRANSACTION_INITIATED_TOPIC = "transaction.initiated";
+    private static final int MAX_HISTORY_PAGE_SIZE = 200;
 
     private final TransactionRepository transactionRepository;
-    private final KafkaTemplate<String, Object> genericKafkaTemplate;
-    private final WebClient webClient;
+    private final TurnoverService turnoverService;
+    private final OutboxWriter outboxWriter;
+    private final PaymentServiceClient paymentServiceClient;
+    private final TransactionTemplate transactionTemplate;
+    private final Scheduler transferScheduler;
 
     public TransactionService(TransactionRepository transactionRepository, 
-                            @Qualifier("genericKafkaTemplate") KafkaTemplate<String, Object> genericKafkaTemplate,
-                            WebClient webClient) {
+                            TurnoverService turnoverService,
+                            OutboxWriter outboxWriter,
+                            PaymentServiceClient paymentServiceClient,
+                            PlatformTransactionManager transactionManager,
+                            Scheduler transferScheduler) {
         this.transactionRepository = transactionRepository;
-        this.genericKafkaTemplate = genericKafkaTemplate;
-        this.webClient = webClient;
+        this.turnoverService = turnoverService;
+        this.outboxWriter = outboxWriter;
+        this.paymentServiceClient = paymentServiceClient;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transferScheduler = transferScheduler;
     }
 
     /**
@@ -96,6 +118,9 @@ public class TransactionService {
             transaction.setRecordedAt(java.time.LocalDateTime.now());
             transaction = transactionRepository.save(transaction);
 
+            // Keep the per-day turnover projection in step with the ledger
+            turnoverService.apply(transaction);
+
             logger.info("Recorded transaction: {} for payment: {}", transaction.getTransactionId(), event.getPaymentId());
 
             // Publish transaction.recorded event
@@ -110,8 +135,9 @@ public class TransactionService {
     }
 
     /**
-     * Get transaction by transactionId
+     * Get transaction by transactionId, with its entries
      */
+    @Transactional(readOnly = true)
     public TransactionResponse getTransaction(UUID transactionId) {
         Transaction transaction = transactionRepository.findByTransactionId(transactionId)
             .orElseThrow(() -> new TransactionNotFoundException("Transaction not found: " + transactionId));
@@ -122,6 +148,7 @@ public class TransactionService {
     /**
      * Get all transactions for a user
      */
+    @Transactional(readOnly = true)
     public List<TransactionResponse> getTransactionsByUserId(UUID userId) {
         List<Transaction> transactions = transactionRepository.findByUserId(userId);
         return transactions.stream()
@@ -129,33 +156,104 @@ public class TransactionService {
             .collect(Collectors.toList());
     }
 
+    /**
+     * One page of a user's transaction history, newest first
+     *
+     * Ids come from a keyset range scan on idx_entry_user_history and the page is loaded
+     * with its entries in one query, so cost depends on the page size, not the history length.
+     *
+     * @param cursor nextCursor from the previous page, or null for the first page
+     */
+    @Transactional(readOnly = true)
+    public TransactionHistoryResponse<TransactionResponse> getTransactionHistory(UUID userId, String cursor, int limit) {
+        HistoryPage page = findHistoryPage(userId, cursor, limit);
+        if (page.ids.isEmpty()) {
+            return new TransactionHistoryResponse<>(List.of(), null);
+        }
+
+        Map<UUID, Transaction> byId = transactionRepository.findWithEntriesByIdIn(page.ids).stream()
+            .collect(Collectors.toMap(Transaction::getId, Function.identity()));
+        List<Transaction> transactions = page.ids.stream()
+            .map(byId::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (page.hasMore && !transactions.isEmpty()) {
+            Transaction last = transactions.get(transactions.size() - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new TransactionHistoryResponse<>(
+            transactions.stream().map(this::mapToResponse).collect(Collectors.toList()), nextCursor);
+    }
+
+    /**
+     * Same page as {@link #getTransactionHistory}, as the user's own entries only
+     *
+     * The rows are projected straight from one query, so neither transactions nor entry
+     * collections are loaded. Cursors are interchangeable between the two views.
+     */
+    @Transactional(readOnly = true)
+    public TransactionHistoryResponse<TransactionSummaryResponse> getTransactionHistorySummary(
+            UUID userId, String cursor, int limit) {
+        HistoryPage page = findHistoryPage(userId, cursor, limit);
+        if (page.ids.isEmpty()) {
+            return new TransactionHistoryResponse<>(List.of(), null);
+        }
+
+        Map<UUID, List<TransactionSummaryResponse>> byId =
+            transactionRepository.findSummariesByUserIdAndIdIn(userId, page.ids).stream()
+                .collect(Collectors.groupingBy(TransactionSummaryResponse::getId));
+        List<TransactionSummaryResponse> summaries = page.ids.stream()
+            .flatMap(id -> byId.getOrDefault(id, List.of()).stream())
+            .collect(Collectors.toList());
+
+        String nextCursor = null;
+        if (page.hasMore && !summaries.isEmpty()) {
+            TransactionSummaryResponse last = summaries.get(summaries.size() - 1);
+            nextCursor = new HistoryCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new TransactionHistoryResponse<>(summaries, nextCursor);
+    }
+
+    /**
+     * Keyset lookup of one page of transaction ids, reading one extra to detect a next page
+     */
+    private HistoryPage findHistoryPage(UUID userId, String cursor, int limit) {
+        int pageSize = Math.max(1, Math.min(limit, MAX_HISTORY_PAGE_SIZE));
+        List<UUID> ids;
+        if (cursor == null || cursor.isBlank()) {
+            ids = transactionRepository.findHistoryPage(userId, Limit.of(pageSize + 1));
+        } else {
+            HistoryCursor after = HistoryCursor.decode(cursor);
+            ids = transactionRepository.findHistoryPageAfter(
+                userId, after.getCreatedAt(), after.getTransactionId(), Limit.of(pageSize + 1));
+        }
+        boolean hasMore = ids.size() > pageSize;
+        return new HistoryPage(hasMore ? ids.subList(0, pageSize) : ids, hasMore);
+    }
+
     /**
      * Publish transaction.recorded event to Kafka
      */
     private void publishTransactionRecordedEvent(Transaction transaction) {
-        try {
-            List<TransactionRecordedEvent.TransactionEntryDto> entryDtos = transaction.getEntries().stream()
-                .map(entry -> new TransactionRecordedEvent.TransactionEntryDto(
-                    entry.getUserId(),
-                    entry.getEntryType().name(),
-                    entry.getAmount(),
-                    entry.getCurrency()
-                ))
-                .collect(Collectors.toList());
-
-            TransactionRecordedEvent event = new TransactionRecordedEvent(
-                transaction.getTransactionId(),
-                transaction.getPaymentId(),
-                entryDtos
-            );
+        List<TransactionRecordedEvent.TransactionEntryDto> entryDtos = transaction.getEntries().stream()
+            .map(entry -> new TransactionRecordedEvent.TransactionEntryDto(
+                entry.getUserId(),
+                entry.getEntryType().name(),
+                entry.getAmount(),
+                entry.getCurrency()
+            ))
+            .collect(Collectors.toList());
 
-            genericKafkaTemplate.send(TRANSACTION_RECORDED_TOPIC, transaction.getTransactionId().toString(), event);
-            logger.debug("Published transaction.recorded event for transaction: {}", transaction.getTransactionId());
-        } catch (Exception e) {
-            logger.error("Failed to publish transaction.recorded event for transaction: {}", 
-                        transaction.getTransactionId(), e);
-            // Note: In production, consider implementing retry mechanism or dead letter queue
-        }
+        TransactionRecordedEvent event = new TransactionRecordedEvent(
+            transaction.getTransactionId(),
+            transaction.getPaymentId(),
+            entryDtos
+        );
+
+        outboxWriter.append(TRANSACTION_RECORDED_TOPIC, transaction.getTransactionId().toString(), event);
+        logger.debug("Queued transaction.recorded event for transaction: {}", transaction.getTransactionId());
     }
 
     /**
@@ -192,62 +290,57 @@ public class TransactionService {
     }
     
     /**
-     * Initiate a money transfer
+     * Initiate a money transfer without holding a thread while payment-service answers
+     *
+     * The funds check is a non-blocking call through {@link PaymentServiceClient}; only the
+     * database write runs, in its own transaction, on the bounded transfer scheduler.
      */
-    @Transactional
-    public TransactionResponse initiateTransfer(TransferRequest request) {
+    public Mono<TransactionResponse> initiateTransfer(TransferRequest request) {
         logger.info("Initiating transfer from {} to {} for amount: {}", 
                    request.getFromUserId(), request.getToUserId(), request.getAmount());
-        
-        try {
-            // Step 1: Verify funds with payment-service
-            VerifyFundsResponse fundsResponse = verifyFunds(request.getFromUserId(), request.getAmount(), request.getCurrency());
-            
-            if (!fundsResponse.isSufficient()) {
-                throw new TransactionProcessingException("Insufficient funds for transfer");
-            }
-            
-            // Step 2: Create transaction record
-            Transaction transaction = new Transaction();
-            transaction.setTransactionId(UUID.randomUUID());
-            transaction.setPaymentId(UUID.randomUUID()); // Generate a payment ID for tracking
-            transaction.setStatus(TransactionStatus.PENDING);
-            transaction.setFailureReason(request.getDescription()); // Store description in failureReason for now
-            
-            transaction = transactionRepository.save(transaction);
-            
-            // Step 3: Create transaction entries
-            createTransactionEntries(transaction, request);
-            
-            // Step 4: Publish TransactionInitiatedEvent
-            publishTransactionInitiatedEvent(transaction, request);
-            
-            logger.info("Transfer initiated successfully: {}", transaction.getTransactionId());
-            
-            return mapToResponse(transaction);
-            
-        } catch (Exception e) {
-            logger.error("Error initiating transfer", e);
-            throw new TransactionProcessingException("Failed to initiate transfer: " + e.getMessage(), e);
+
+        // Step 1: Verify funds with payment-service, carrying the caller's identity along
+        Mono<VerifyFundsResponse> funds = paymentServiceClient.verifyFunds(
+            request.getFromUserId(), request.getAmount(), request.getCurrency());
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null) {
+            funds = funds.contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
         }
+
+        return funds
+            .flatMap(fundsResponse -> {
+                if (!fundsResponse.isSufficient()) {
+                    return Mono.error(new TransactionProcessingException("Insufficient funds for transfer"));
+                }
+                return Mono.fromCallable(() -> transactionTemplate.execute(status -> recordTransfer(request)))
+                    .subscribeOn(transferScheduler);
+            })
+            .doOnNext(response -> logger.info("Transfer initiated successfully: {}", response.getTransactionId()))
+            .doOnError(e -> logger.error("Error initiating transfer", e))
+            .onErrorMap(e -> !(e instanceof TransactionProcessingException || e instanceof FundsVerificationUnavailableException),
+                e -> new TransactionProcessingException("Failed to initiate transfer: " + e.getMessage(), e));
     }
-    
+
     /**
-     * Verify funds with payment-service
+     * Steps 2-4 of a transfer; runs inside the transfer transaction
      */
-    private VerifyFundsResponse verifyFunds(UUID userId, BigDecimal amount, String currency) {
-        try {
-            Mono<VerifyFundsResponse> responseMono = webClient.post()
-                    .uri("/payment/verify-funds")
-                    .bodyValue(new VerifyFundsRequest(userId, amount, currency))
-                    .retrieve()
-                    .bodyToMono(VerifyFundsResponse.class);
-            
-            return responseMono.block();
-        } catch (Exception e) {
-            logger.error("Error verifying funds for user: {}", userId, e);
-            throw new TransactionProcessingException("Failed to verify funds", e);
-        }
+    private TransactionResponse recordTransfer(TransferRequest request) {
+        // Step 2: Create transaction record
+        Transaction transaction = new Transaction();
+        transaction.setTransactionId(UUID.randomUUID());
+        transaction.setPaymentId(UUID.randomUUID()); // Generate a payment ID for tracking
+        transaction.setStatus(TransactionStatus.PENDING);
+        transaction.setFailureReason(request.getDescription()); // Store description in failureReason for now
+
+        transaction = transactionRepository.save(transaction);
+
+        // Step 3: Create transaction entries
+        createTransactionEntries(transaction, request);
+
+        // Step 4: Publish TransactionInitiatedEvent
+        publishTransactionInitiatedEvent(transaction, request);
+
+        return mapToResponse(transaction);
     }
     
     /**
@@ -278,63 +371,27 @@ public class TransactionService {
      * Publish TransactionInitiatedEvent to Kafka
      */
     private void publishTransactionInitiatedEvent(Transaction transaction, TransferRequest request) {
-        try {
-            TransactionInitiatedEvent event = new TransactionInitiatedEvent(
-                transaction.getTransactionId(),
-                request.getFromUserId(),
-                request.getToUserId(),
-                request.getAmount(),
-                request.getCurrency(),
-                request.getDescription(),
-                transaction.getStatus().name()
-            );
-            
-            genericKafkaTemplate.send(TRANSACTION_INITIATED_TOPIC, transaction.getTransactionId().toString(), event);
-            logger.info("Published transaction.initiated event for transaction: {}", transaction.getTransactionId());
-        } catch (Exception e) {
-            logger.error("Failed to publish transaction.initiated event for transaction: {}", 
-                        transaction.getTransactionId(), e);
-        }
-    }
-    
-    /**
-     * DTOs for service communication
-     */
-    public static class VerifyFundsRequest {
-        private UUID userId;
-        private BigDecimal amount;
-        private String currency;
-        
-        public VerifyFundsRequest() {}
-        
-        public VerifyFundsRequest(UUID userId, BigDecimal amount, String currency) {
-            this.userId = userId;
-            this.amount = amount;
-            this.currency = currency;
-        }
+        TransactionInitiatedEvent event = new TransactionInitiatedEvent(
+            transaction.getTransactionId(),
+            request.getFromUserId(),
+            request.getToUserId(),
+            request.getAmount(),
+            request.getCurrency(),
+            request.getDescription(),
+            transaction.getStatus().name()
+        );
         
-        public UUID getUserId() { return userId; }
-        public void setUserId(UUID userId) { this.userId = userId; }
-        public BigDecimal getAmount() { return amount; }
-        public void setAmount(BigDecimal amount) { this.amount = amount; }
-        public String getCurrency() { return currency; }
-        public void setCurrency(String currency) { this.currency = currency; }
+        outboxWriter.append(TRANSACTION_INITIATED_TOPIC, transaction.getTransactionId().toString(), event);
+        logger.info("Queued transaction.initiated event for transaction: {}", transaction.getTransactionId());
     }
     
-    public static class VerifyFundsResponse {
-        private boolean sufficient;
-        private BigDecimal availableBalance;
-        private BigDecimal requestedAmount;
-        private String currency;
-        
-        public boolean isSufficient() { return sufficient; }
-        public void setSufficient(boolean sufficient) { this.sufficient = sufficient; }
-        public BigDecimal getAvailableBalance() { return availableBalance; }
-        public void setAvailableBalance(BigDecimal availableBalance) { this.availableBalance = availableBalance; }
-        public BigDecimal getRequestedAmount() { return requestedAmount; }
-        public void setRequestedAmount(BigDecimal requestedAmount) { this.requestedAmount = requestedAmount; }
-        public String getCurrency() { return currency; }
-        public void setCurrency(String currency) { this.currency = currency; }
+    private static final class HistoryPage {
+        private final List<UUID> ids;
+        private final boolean hasMore;
+
+        private HistoryPage(List<UUID> ids, boolean hasMore) {
+            this.ids = ids;
+            this.hasMore = hasMore;
+        }
     }
 }
-
@@ -0,0 +1,160 @@
+package com.micropay.transaction.service;
+
+import com.micropay.transaction.dto.TurnoverTotals;
+import com.micropay.transaction.exception.InvalidTurnoverRangeException;
+import com.micropay.transaction.model.Transaction;
+import com.micropay.transaction.model.TransactionEntry;
+import com.micropay.transaction.model.TransactionEntryType;
+import com.micropay.transaction.model.UserDailyTurnover;
+import com.micropay.transaction.repository.UserDailyTurnoverRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains and queries the per user, currency and day turnover projection
+ *
+ * Recording a transaction adds its entries to user_daily_turnover in the same database
+ * transaction, so aggregate questions cost one row per day rather than one per entry.
+ * Only RECORDED transactions are counted, matching the rebuild query.
+ */
+@Service
+public class TurnoverService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TurnoverService.class);
+
+    private static final int MAX_RANGE_DAYS = 3660;
+
+    private static final Comparator<TurnoverKey> KEY_ORDER =
+        Comparator.comparing((TurnoverKey key) -> key.userId).thenComparing(key -> key.currency);
+
+    private final UserDailyTurnoverRepository turnoverRepository;
+
+    public TurnoverService(UserDailyTurnoverRepository turnoverRepository) {
+        this.turnoverRepository = turnoverRepository;
+    }
+
+    /**
+     * Add a just-recorded transaction to the projection
+     * Must run inside the transaction that saved it
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void apply(Transaction transaction) {
+        LocalDate entryDate = transaction.getCreatedAt().toLocalDate();
+
+        // One upsert per (user, currency), taken in a fixed order so concurrent recorders
+        // touching the same users cannot deadlock on the projection rows
+        Map<TurnoverKey, Delta> deltas = new TreeMap<>(KEY_ORDER);
+        for (TransactionEntry entry : transaction.getEntries()) {
+            deltas.computeIfAbsent(new TurnoverKey(entry.getUserId(), entry.getCurrency()), key -> new Delta())
+                .add(entry);
+        }
+        deltas.forEach((key, delta) -> turnoverRepository.accumulate(
+            key.userId, key.currency, entryDate,
+            delta.debitTotal, delta.creditTotal, delta.debitCount, delta.creditCount));
+    }
+
+    /**
+     * Totals per currency for a user over [from, to]
+     */
+    @Transactional(readOnly = true)
+    public List<TurnoverTotals> getTurnover(UUID userId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return turnoverRepository.summarize(userId, from, to);
+    }
+
+    /**
+     * Daily totals for a user over [from, to], oldest first
+     */
+    @Transactional(readOnly = true)
+    public List<TurnoverTotals> getDailyTurnover(UUID userId, LocalDate from, LocalDate to) {
+        validateRange(from, to);
+        return turnoverRepository.findDaily(userId, from, to).stream()
+            .map(this::mapToTotals)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Recompute the projection from transaction_entries, for one user or everyone
+     *
+     * Incremental updates wait on the table lock until the rebuild commits, so no
+     * recorded transaction is lost or counted twice.
+     *
+     * @return number of projection rows written
+     */
+    @Transactional
+    public int rebuild(UUID userId) {
+        long start = System.nanoTime();
+        turnoverRepository.lockForRebuild();
+        int rows;
+        if (userId == null) {
+            turnoverRepository.deleteAllRows();
+            rows = turnoverRepository.insertFromEntries();
+        } else {
+            turnoverRepository.deleteRowsByUserId(userId);
+            rows = turnoverRepository.insertFromEntriesByUserId(userId);
+        }
+        logger.info("Rebuilt turnover projection for {}: {} rows in {} ms",
+            userId != null ? "user " + userId : "all users", rows, (System.nanoTime() - start) / 1_000_000);
+        return rows;
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new InvalidTurnoverRangeException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new InvalidTurnoverRangeException("Range must not exceed " + MAX_RANGE_DAYS + " days");
+        }
+    }
+
+    private TurnoverTotals mapToTotals(UserDailyTurnover row) {
+        return new TurnoverTotals(
+            row.getId().getCurrency(),
+            row.getId().getEntryDate(),
+            row.getDebitTotal(),
+            row.getCreditTotal(),
+            row.getDebitCount(),
+            row.getCreditCount()
+        );
+    }
+
+    private static final class TurnoverKey {
+        private final UUID userId;
+        private final String currency;
+
+        private TurnoverKey(UUID userId, String currency) {
+            this.userId = userId;
+            this.currency = currency;
+        }
+    }
+
+    private static final class Delta {
+        private BigDecimal debitTotal = BigDecimal.ZERO;
+        private BigDecimal creditTotal = BigDecimal.ZERO;
+        private long debitCount;
+        private long creditCount;
+
+        private void add(TransactionEntry entry) {
+            if (entry.getEntryType() == TransactionEntryType.DEBIT) {
+                debitTotal = debitTotal.add(entry.getAmount());
+                debitCount++;
+            } else {
+                creditTotal = creditTotal.add(entry.getAmount());
+                creditCount++;
+            }
+        }
+    }
+}
@@ -1,30 +1,26 @@
 package com.micropay.transaction.util;
 
-import io.jsonwebtoken.Claims;
-import io.jsonwebtoken.Jwts;
+import com.micropay.security.jwt.JwtCodec;
+import com.micropay.security.jwt.VerifiedToken;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import javax.crypto.spec.SecretKeySpec;
-import java.nio.charset.StandardCharsets;
-
 @Component
 public class JwtUtil {
 
-    @Value("${jwt.secret}")
-    private String secret;
+    // Key and parser are derived once by the shared codec rather than on every request
+    private final JwtCodec codec;
 
-    private SecretKey getSigningKey() {
-        return new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256");
+    public JwtUtil(@Value("${jwt.secret}") String secret) {
+        this.codec = new JwtCodec(secret);
     }
 
-    // Parses the token and verifies the signature. Throws exceptions if invalid/expired.
-    public Claims getAllClaimsFromToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
+    /**
+     * Verify signature and expiry and extract subject and authorities in one parse
+     *
+     * @throws io.jsonwebtoken.JwtException if the token is invalid, expired or has no expiry
+     */
+    public VerifiedToken verify(String token) {
+        return codec.validateAndExtract(token);
     }
-}
\ No newline at end of file
+}
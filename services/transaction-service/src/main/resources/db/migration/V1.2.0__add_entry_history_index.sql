@@ -0,0 +1,20 @@
+-- Keyset-paginated transaction history
+-- Entries carry their transaction's created_at so a user's page of transaction ids can be
+-- read from one index range scan starting at the (created_at, transaction_id) cursor
+ALTER TABLE transaction_entries ADD COLUMN IF NOT EXISTS created_at TIMESTAMP;
+
+UPDATE transaction_entries e
+SET created_at = t.created_at
+FROM transactions t
+WHERE e.transaction_id = t.id AND e.created_at IS NULL;
+
+ALTER TABLE transaction_entries ALTER COLUMN created_at SET NOT NULL;
+ALTER TABLE transaction_entries ALTER COLUMN created_at SET DEFAULT CURRENT_TIMESTAMP;
+
+CREATE INDEX IF NOT EXISTS idx_entry_user_history
+    ON transaction_entries (user_id, created_at DESC, transaction_id DESC);
+
+-- Covered by the leading column of idx_entry_user_history
+DROP INDEX IF EXISTS idx_entry_user_id;
+
+COMMENT ON COLUMN transaction_entries.created_at IS 'Creation time of the parent transaction, for history pagination';
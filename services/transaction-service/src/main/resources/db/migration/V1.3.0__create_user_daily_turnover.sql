@@ -0,0 +1,29 @@
+-- Per user, currency and day turnover of recorded transactions
+-- Kept up to date by the service as payments are recorded, so aggregate questions
+-- read one row per day instead of scanning transaction_entries
+CREATE TABLE IF NOT EXISTS user_daily_turnover (
+    user_id UUID NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    entry_date DATE NOT NULL,
+    debit_total DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    credit_total DECIMAL(19, 2) NOT NULL DEFAULT 0,
+    debit_count BIGINT NOT NULL DEFAULT 0,
+    credit_count BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_user_daily_turnover PRIMARY KEY (user_id, currency, entry_date)
+);
+
+-- Backfill from the existing ledger; same query as the rebuild command
+INSERT INTO user_daily_turnover (user_id, currency, entry_date, debit_total, credit_total, debit_count, credit_count)
+SELECT e.user_id, e.currency, CAST(e.created_at AS DATE),
+       COALESCE(SUM(CASE WHEN e.entry_type = 'DEBIT' THEN e.amount END), 0),
+       COALESCE(SUM(CASE WHEN e.entry_type = 'CREDIT' THEN e.amount END), 0),
+       COUNT(CASE WHEN e.entry_type = 'DEBIT' THEN 1 END),
+       COUNT(CASE WHEN e.entry_type = 'CREDIT' THEN 1 END)
+FROM transaction_entries e
+JOIN transactions t ON t.id = e.transaction_id
+WHERE t.status = 'RECORDED'
+GROUP BY e.user_id, e.currency, CAST(e.created_at AS DATE)
+ON CONFLICT (user_id, currency, entry_date) DO NOTHING;
+
+COMMENT ON TABLE user_daily_turnover IS 'Daily debit/credit totals per user and currency, derived from transaction_entries';
+COMMENT ON COLUMN user_daily_turnover.entry_date IS 'Day of the transaction creation time';
@@ -13,6 +13,7 @@ import org.springframework.test.context.TestPropertySource;
     "spring.config.location=classpath:application-test.yml",
     "jwt.secret=test-secret-key-for-testing-only-long-enough-to-be-secure",
     "jwt.expiration=86400000",
+    "security.identity.secret=test-identity-secret-distinct-from-the-jwt-secret",
     "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration"
 })
 class TransactionServiceApplicationTests {
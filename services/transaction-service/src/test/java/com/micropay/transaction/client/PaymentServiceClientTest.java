@@ -0,0 +1,121 @@
+package com.micropay.transaction.client;
+
+import com.micropay.transaction.dto.VerifyFundsResponse;
+import com.micropay.transaction.exception.FundsVerificationUnavailableException;
+import com.micropay.transaction.exception.TransactionProcessingException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Payment Service Client Tests")
+class PaymentServiceClientTest {
+
+    private static final String SUFFICIENT = "{\"sufficient\":true,\"availableBalance\":100.00}";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @Test
+    @DisplayName("Should time out a slow payment-service and open the circuit after repeated failures")
+    void testTimeoutOpensCircuit() {
+        // Given
+        PaymentServiceClient client = client(request -> {
+            calls.incrementAndGet();
+            return Mono.never();
+        }, 0);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertThrows(FundsVerificationUnavailableException.class, () -> verify(client));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.OPEN, client.getCircuitBreaker().getState());
+        int callsWhenOpened = calls.get();
+        assertThrows(FundsVerificationUnavailableException.class, () -> verify(client));
+        assertEquals(callsWhenOpened, calls.get(), "an open circuit should not reach payment-service");
+    }
+
+    @Test
+    @DisplayName("Should map a rejected request to a processing error without counting it as a failure")
+    void testClientErrorIsNotRecorded() {
+        // Given
+        PaymentServiceClient client = client(request -> Mono.just(
+            ClientResponse.create(HttpStatus.BAD_REQUEST).build()), 0);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertThrows(TransactionProcessingException.class, () -> verify(client));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+        assertEquals(0, client.getCircuitBreaker().getMetrics().getNumberOfFailedCalls());
+    }
+
+    @Test
+    @DisplayName("Should map a rejected request to a processing error with hedging on, without sending the hedge")
+    void testClientErrorIsNotRecordedWhenHedged() {
+        // Given
+        PaymentServiceClient client = client(request -> {
+            calls.incrementAndGet();
+            return Mono.just(ClientResponse.create(HttpStatus.BAD_REQUEST).build());
+        }, 50);
+
+        // When
+        for (int i = 0; i < 4; i++) {
+            assertThrows(TransactionProcessingException.class, () -> verify(client));
+        }
+
+        // Then
+        assertEquals(CircuitBreaker.State.CLOSED, client.getCircuitBreaker().getState());
+        assertEquals(0, client.getCircuitBreaker().getMetrics().getNumberOfFailedCalls());
+        assertEquals(4, calls.get(), "the rejection should win the race before the hedge fires");
+        assertEquals(0.0, meterRegistry.counter("transaction.payment-client.hedged").count());
+    }
+
+    @Test
+    @DisplayName("Should answer from the hedge request when the first one stalls")
+    void testHedgedRequest() {
+        // Given: the first request hangs, the second answers straight away
+        PaymentServiceClient client = client(request -> calls.incrementAndGet() == 1
+            ? Mono.never()
+            : Mono.just(ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(SUFFICIENT)
+                .build()), 50);
+
+        // When
+        VerifyFundsResponse response = verify(client);
+
+        // Then
+        assertTrue(response.isSufficient());
+        assertEquals(2, calls.get());
+        assertEquals(1.0, meterRegistry.counter("transaction.payment-client.hedged").count());
+    }
+
+    private VerifyFundsResponse verify(PaymentServiceClient client) {
+        return client.verifyFunds(UUID.randomUUID(), new BigDecimal("10.00"), "USD").block(Duration.ofSeconds(5));
+    }
+
+    private PaymentServiceClient client(ExchangeFunction exchange, long hedgeDelayMs) {
+        WebClient webClient = WebClient.builder().exchangeFunction(exchange).build();
+        return new PaymentServiceClient(webClient, meterRegistry, 200, hedgeDelayMs,
+            50, 1000, 80, 4, 4, 60_000, 1);
+    }
+}
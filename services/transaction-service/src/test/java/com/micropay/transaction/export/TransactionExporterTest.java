@@ -0,0 +1,260 @@
+package com.micropay.transaction.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.micropay.security.identity.CallerIdentity;
+import com.micropay.transaction.exception.ExportCapacityException;
+import com.micropay.transaction.exception.ExportNotAllowedException;
+import com.micropay.transaction.exception.InvalidExportRequestException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Transaction Exporter Tests")
+class TransactionExporterTest {
+
+    @Mock
+    private TransactionExportRepository exportRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionExporter exporter;
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        exporter = new TransactionExporter(exportRepository, transactionManager, 1);
+        userId = UUID.randomUUID();
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and one line per entry")
+    void testExportCsv() throws Exception {
+        // Given
+        stubRows(2);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exporter.export(userId, null, null, ExportFormat.CSV, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertEquals(2, rows);
+        assertEquals(3, lines.length);
+        assertTrue(lines[0].startsWith("transaction_id,payment_id,status"));
+        assertTrue(lines[1].endsWith(",DEBIT,10.00,USD"));
+        assertEquals(10, lines[1].split(",", -1).length);
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Should write one JSON document per line")
+    void testExportNdjson() throws Exception {
+        // Given
+        stubRows(3);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long rows = exporter.export(userId, null, null, ExportFormat.NDJSON, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(3, rows);
+        assertEquals(3, lines.length);
+        JsonNode first = new ObjectMapper().readTree(lines[0]);
+        assertEquals(userId.toString(), first.get("userId").asText());
+        assertTrue(first.get("amount").isNumber());
+        assertTrue(lines[0].contains("\"amount\":10.00,"));
+        assertTrue(first.get("recordedAt").isNull());
+    }
+
+    @Test
+    @DisplayName("Should quote CSV fields containing separators")
+    void testCsvQuoting() throws Exception {
+        // Given
+        ExportRow row = new ExportRow();
+        row.setStatus("FAILED, \"retry\"");
+        StringWriter out = new StringWriter();
+
+        // When
+        ExportFormat.CSV.writeRow(row, out);
+
+        // Then
+        assertEquals(",,\"FAILED, \"\"retry\"\"\",,,,,,,\r\n", out.toString());
+    }
+
+    @Test
+    @DisplayName("Should refuse an export without a user or a complete date range")
+    void testExportRequiresFilter() {
+        // When & Then
+        assertThrows(InvalidExportRequestException.class,
+            () -> exporter.export(null, LocalDateTime.now().minusDays(1), null, ExportFormat.CSV, new ByteArrayOutputStream()));
+        assertThrows(InvalidExportRequestException.class,
+            () -> exporter.validate(userId, LocalDateTime.now(), LocalDateTime.now().minusDays(1)));
+        assertThrows(InvalidExportRequestException.class, () -> ExportFormat.fromParameter("xml"));
+        assertEquals(ExportFormat.CSV, ExportFormat.fromParameter("csv"));
+        verifyNoInteractions(exportRepository);
+    }
+
+    @Test
+    @DisplayName("Should limit non-admin callers to their own entries")
+    void testAuthorize() {
+        // Given
+        UsernamePasswordAuthenticationToken user = caller("ROLE_USER");
+        UsernamePasswordAuthenticationToken admin = caller("ROLE_ADMIN");
+        UUID otherUser = UUID.randomUUID();
+
+        // When & Then
+        assertEquals(userId, exporter.authorize(null, user));
+        assertEquals(userId, exporter.authorize(userId, user));
+        assertThrows(ExportNotAllowedException.class, () -> exporter.authorize(otherUser, user));
+        assertThrows(ExportNotAllowedException.class,
+            () -> exporter.authorize(null, new UsernamePasswordAuthenticationToken("alice", null, List.of())));
+        assertEquals(otherUser, exporter.authorize(otherUser, admin));
+        assertNull(exporter.authorize(null, admin));
+    }
+
+    @Test
+    @DisplayName("Should refuse exports beyond the concurrency limit until a slot is released")
+    void testExportSlots() {
+        // When & Then
+        exporter.acquireSlot();
+        assertThrows(ExportCapacityException.class, exporter::acquireSlot);
+        exporter.releaseSlot();
+        exporter.acquireSlot();
+    }
+
+    /**
+     * Run by the constant-heap surefire execution under -Xmx64m against a file-backed H2
+     * ledger: the output alone is more than twice the heap, so any per-row buffering in the
+     * repository or the exporter fails with OutOfMemoryError.
+     */
+    @Test
+    @Tag("constant-heap")
+    @DisplayName("Should stream half a million database rows in constant memory")
+    void testExportLargeLedgerFromDatabase(@TempDir Path dataDir) throws Exception {
+        // Given
+        int total = 500_000;
+        SingleConnectionDataSource dataSource = new SingleConnectionDataSource(
+            "jdbc:h2:file:" + dataDir.resolve("ledger") + ";LAZY_QUERY_EXECUTION=1", "sa", "", true);
+        try {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            seedLedger(jdbcTemplate, total);
+            TransactionExporter databaseExporter = new TransactionExporter(
+                new TransactionExportRepository(jdbcTemplate, 1000), new DataSourceTransactionManager(dataSource), 1);
+            CountingOutputStream out = new CountingOutputStream();
+
+            // When
+            long rows = databaseExporter.export(userId, null, null, ExportFormat.NDJSON, out);
+
+            // Then
+            assertEquals(total, rows);
+            assertEquals(total, out.lines);
+            assertTrue(out.bytes > 128L * 1024 * 1024, "export should dwarf the 64 MB test heap");
+        } finally {
+            dataSource.destroy();
+        }
+    }
+
+    private void seedLedger(JdbcTemplate jdbcTemplate, int entries) {
+        jdbcTemplate.execute("CREATE TABLE transactions (id UUID PRIMARY KEY, transaction_id UUID, payment_id UUID, " +
+            "status VARCHAR(20), created_at TIMESTAMP, recorded_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE TABLE transaction_entries (id UUID PRIMARY KEY, transaction_id UUID, user_id UUID, " +
+            "entry_type VARCHAR(10), amount DECIMAL(19, 2), currency VARCHAR(3), created_at TIMESTAMP)");
+        jdbcTemplate.execute("CREATE INDEX idx_entry_user_history ON transaction_entries (user_id, created_at, transaction_id)");
+
+        UUID transactionId = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO transactions VALUES (?, ?, ?, 'RECORDED', TIMESTAMP '2024-01-01 00:00:00', NULL)",
+            transactionId, transactionId, transactionId);
+        // Chunked so no single transaction has to hold the whole ledger
+        int chunk = 100_000;
+        for (int first = 1; first <= entries; first += chunk) {
+            jdbcTemplate.update("INSERT INTO transaction_entries SELECT RANDOM_UUID(), ?, ?, 'DEBIT', 10.00, 'USD', " +
+                "DATEADD(SECOND, X, TIMESTAMP '2024-01-01 00:00:00') FROM SYSTEM_RANGE(?, ?)",
+                transactionId, userId, first, Math.min(entries, first + chunk - 1));
+        }
+    }
+
+    private UsernamePasswordAuthenticationToken caller(String authority) {
+        UsernamePasswordAuthenticationToken caller =
+            new UsernamePasswordAuthenticationToken("alice", null, List.of(new SimpleGrantedAuthority(authority)));
+        CallerIdentity.bindUserId(caller, userId.toString());
+        return caller;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubRows(int count) {
+        doAnswer(invocation -> {
+            Consumer<ExportRow> consumer = invocation.getArgument(3);
+            ExportRow row = new ExportRow();
+            UUID transactionId = UUID.randomUUID();
+            LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+            for (int i = 0; i < count; i++) {
+                row.setTransactionId(transactionId);
+                row.setPaymentId(transactionId);
+                row.setStatus("RECORDED");
+                row.setCreatedAt(createdAt.plusSeconds(i));
+                row.setEntryId(UUID.randomUUID());
+                row.setUserId(userId);
+                row.setEntryType("DEBIT");
+                row.setAmount(new BigDecimal("10.00"));
+                row.setCurrency("USD");
+                consumer.accept(row);
+            }
+            return null;
+        }).when(exportRepository).stream(eq(userId), isNull(), isNull(), any());
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.micropay.transaction.kafka;
+
+import com.micropay.events.consumer.KeyOrderedExecutor;
+import com.micropay.transaction.dto.PaymentCompletedEvent;
+import com.micropay.transaction.dto.TransactionRecordedEvent;
+import com.micropay.transaction.service.TransactionService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Payment Completed Event Consumer Tests")
+class PaymentCompletedEventConsumerTest {
+
+    @Mock
+    private KafkaTemplate<String, TransactionRecordedEvent> kafkaTemplate;
+
+    @Mock
+    private TransactionService transactionService;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private KeyOrderedExecutor keyOrderedExecutor;
+    private PaymentCompletedEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        keyOrderedExecutor = new KeyOrderedExecutor("test-consumer", 4);
+        consumer = new PaymentCompletedEventConsumer(kafkaTemplate, transactionService, keyOrderedExecutor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        keyOrderedExecutor.close();
+    }
+
+    @Test
+    @DisplayName("Should record a payer's payments in poll order while payers run in parallel")
+    void testPerPayerOrder() {
+        // Given: 8 payers with 25 payments each, interleaved as they would be in a poll
+        List<UUID> payers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            payers.add(UUID.randomUUID());
+        }
+        List<PaymentCompletedEvent> events = new ArrayList<>();
+        for (int seq = 0; seq < 25; seq++) {
+            for (UUID payer : payers) {
+                events.add(event(payer, "payer-" + payer + "-" + seq));
+            }
+        }
+        Map<UUID, List<String>> recorded = new ConcurrentHashMap<>();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        doAnswer(invocation -> {
+            PaymentCompletedEvent event = invocation.getArgument(0);
+            threads.add(Thread.currentThread().getName());
+            recorded.computeIfAbsent(event.getPayerUserId(), ignored -> new ArrayList<>()).add(event.getEventId());
+            return null;
+        }).when(transactionService).recordTransactionFromPayment(any());
+
+        // When
+        consumer.consumePaymentCompletedEvents(events, acknowledgment);
+
+        // Then
+        for (UUID payer : payers) {
+            List<String> expected = new ArrayList<>();
+            for (int seq = 0; seq < 25; seq++) {
+                expected.add("payer-" + payer + "-" + seq);
+            }
+            assertEquals(expected, recorded.get(payer));
+        }
+        assertTrue(threads.size() > 1, "payers should be spread over several lanes");
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    @DisplayName("Should keep going after a failed payment and acknowledge the poll once")
+    void testFailureDoesNotStopBatch() {
+        // Given
+        UUID payer = UUID.randomUUID();
+        PaymentCompletedEvent failing = event(payer, "first");
+        PaymentCompletedEvent next = event(payer, "second");
+        PaymentCompletedEvent missingId = event(payer, "third");
+        missingId.setPaymentId(null);
+        doThrow(new IllegalStateException("boom")).when(transactionService).recordTransactionFromPayment(failing);
+
+        // When
+        consumer.consumePaymentCompletedEvents(List.of(failing, next, missingId), acknowledgment);
+
+        // Then
+        verify(transactionService).recordTransactionFromPayment(next);
+        verify(transactionService, times(2)).recordTransactionFromPayment(any());
+        verify(acknowledgment).acknowledge();
+    }
+
+    private static PaymentCompletedEvent event(UUID payer, String eventId) {
+        PaymentCompletedEvent event = new PaymentCompletedEvent();
+        event.setEventId(eventId);
+        event.setPaymentId(UUID.randomUUID());
+        event.setPayerUserId(payer);
+        event.setPayeeUserId(UUID.randomUUID());
+        return event;
+    }
+}
@@ -0,0 +1,153 @@
+package com.micropay.transaction.service;
+
+import com.micropay.transaction.dto.TransactionHistoryResponse;
+import com.micropay.transaction.dto.TransactionResponse;
+import com.micropay.transaction.model.Transaction;
+import com.micropay.transaction.model.TransactionEntry;
+import com.micropay.transaction.model.TransactionEntryType;
+import com.micropay.transaction.model.TransactionStatus;
+import com.micropay.transaction.repository.TransactionRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Guards against N+1 regressions: the number of SQL statements per read must not
+ * grow with the number of transactions returned.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.config.import=",
+    "spring.config.location=classpath:application-test.yml",
+    "jwt.secret=test-secret-key-for-testing-only-long-enough-to-be-secure",
+    "jwt.expiration=86400000",
+    "security.identity.secret=test-identity-secret-distinct-from-the-jwt-secret",
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+    "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@DisplayName("Transaction Query Count Tests")
+class TransactionQueryCountTest {
+
+    @Autowired
+    private TransactionService transactionService;
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    @DisplayName("Should load a history page in two statements whatever its size")
+    void testHistoryStatementCount() {
+        // Given
+        UUID smallUser = seedUser(2);
+        UUID largeUser = seedUser(60);
+
+        // When
+        long small = countStatements(() -> transactionService.getTransactionHistory(smallUser, null, 50));
+        long large = countStatements(() -> transactionService.getTransactionHistory(largeUser, null, 50));
+
+        // Then
+        assertEquals(2, small);
+        assertEquals(2, large);
+    }
+
+    @Test
+    @DisplayName("Should keep the statement count constant on every page")
+    void testHistoryPagesStatementCount() {
+        // Given
+        UUID userId = seedUser(45);
+        List<UUID> seen = new ArrayList<>();
+        String cursor = null;
+
+        // When & Then
+        do {
+            String pageCursor = cursor;
+            statistics.clear();
+            TransactionHistoryResponse<TransactionResponse> page =
+                transactionService.getTransactionHistory(userId, pageCursor, 20);
+            assertEquals(2, statistics.getPrepareStatementCount());
+            page.getTransactions().forEach(transaction -> {
+                assertEquals(2, transaction.getEntries().size());
+                seen.add(transaction.getId());
+            });
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(45, seen.stream().distinct().count());
+    }
+
+    @Test
+    @DisplayName("Should build history summaries without loading entries")
+    void testSummaryStatementCount() {
+        // Given
+        UUID userId = seedUser(30);
+
+        // When
+        long statements = countStatements(() -> transactionService.getTransactionHistorySummary(userId, null, 50));
+
+        // Then
+        assertEquals(2, statements);
+        assertEquals(0, statistics.getCollectionLoadCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    @DisplayName("Should load detail reads with their entries in one statement")
+    void testDetailStatementCount() {
+        // Given
+        UUID userId = seedUser(25);
+        UUID transactionId = transactionRepository.findByUserId(userId).get(0).getTransactionId();
+
+        // When
+        long all = countStatements(() -> transactionService.getTransactionsByUserId(userId));
+        long single = countStatements(() -> transactionService.getTransaction(transactionId));
+
+        // Then
+        assertEquals(1, all);
+        assertEquals(1, single);
+    }
+
+    private long countStatements(Runnable read) {
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private UUID seedUser(int transactions) {
+        UUID userId = UUID.randomUUID();
+        List<Transaction> batch = new ArrayList<>();
+        for (int i = 0; i < transactions; i++) {
+            Transaction transaction = new Transaction(UUID.randomUUID());
+            transaction.setStatus(TransactionStatus.RECORDED);
+            transaction.addEntry(new TransactionEntry(userId, TransactionEntryType.DEBIT, BigDecimal.TEN, "USD"));
+            transaction.addEntry(new TransactionEntry(UUID.randomUUID(), TransactionEntryType.CREDIT, BigDecimal.TEN, "USD"));
+            batch.add(transaction);
+        }
+        transactionRepository.saveAll(batch);
+        return userId;
+    }
+}
@@ -1,8 +1,14 @@
 package com.micropay.transaction.service;
 
 import com.micropay.transaction.dto.PaymentCompletedEvent;
+import com.micropay.transaction.dto.TransactionHistoryResponse;
 import com.micropay.transaction.dto.TransactionResponse;
+import com.micropay.transaction.dto.TransactionSummaryResponse;
 import com.micropay.transaction.dto.TransferRequest;
+import com.micropay.transaction.client.PaymentServiceClient;
+import com.micropay.transaction.dto.VerifyFundsResponse;
+import com.micropay.transaction.exception.FundsVerificationUnavailableException;
+import com.micropay.transaction.exception.InvalidCursorException;
 import com.micropay.transaction.exception.TransactionNotFoundException;
 import com.micropay.transaction.exception.TransactionProcessingException;
 import com.micropay.transaction.model.Transaction;
@@ -10,18 +16,17 @@ import com.micropay.transaction.model.TransactionEntry;
 import com.micropay.transaction.model.TransactionEntryType;
 import com.micropay.transaction.model.TransactionStatus;
 import com.micropay.transaction.repository.TransactionRepository;
-import com.micropay.transaction.service.TransactionService;
-import com.micropay.transaction.service.TransactionService.VerifyFundsResponse;
+import com.micropay.outbox.OutboxWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -43,24 +48,17 @@ class TransactionServiceBasicTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private TurnoverService turnoverService;
 
     @Mock
-    private WebClient webClient;
+    private OutboxWriter outboxWriter;
 
     @Mock
-    private WebClient.RequestBodyUriSpec requestBodyUriSpec;
+    private PaymentServiceClient paymentServiceClient;
 
     @Mock
-    private WebClient.RequestBodySpec requestBodySpec;
+    private PlatformTransactionManager transactionManager;
 
-    @Mock
-    private WebClient.RequestHeadersSpec requestHeadersSpec;
-
-    @Mock
-    private WebClient.ResponseSpec responseSpec;
-
-    @InjectMocks
     private TransactionService transactionService;
 
     private UUID transactionId;
@@ -71,6 +69,9 @@ class TransactionServiceBasicTest {
 
     @BeforeEach
     void setUp() {
+        transactionService = new TransactionService(transactionRepository, turnoverService, outboxWriter,
+            paymentServiceClient, transactionManager, Schedulers.immediate());
+
         transactionId = UUID.randomUUID();
         paymentId = UUID.randomUUID();
         payerId = UUID.randomUUID();
@@ -103,23 +104,6 @@ class TransactionServiceBasicTest {
 
         transaction.getEntries().add(debitEntry);
         transaction.getEntries().add(creditEntry);
-
-        // Setup WebClient mock chain
-        lenient().when(webClient.post()).thenReturn(requestBodyUriSpec);
-        lenient().when(requestBodyUriSpec.uri(anyString(), any(Object[].class))).thenReturn(requestBodySpec);
-        lenient().when(requestBodyUriSpec.uri(anyString())).thenReturn(requestBodySpec);
-        lenient().when(requestBodySpec.header(anyString(), anyString())).thenReturn(requestBodySpec);
-        lenient().when(requestBodySpec.bodyValue(any())).thenReturn(requestHeadersSpec);
-        lenient().when(requestHeadersSpec.retrieve()).thenReturn(responseSpec);
-        lenient().when(responseSpec.bodyToMono(Void.class)).thenReturn(Mono.empty());
-        lenient().when(responseSpec.bodyToMono(String.class)).thenReturn(Mono.just("success"));
-        
-        // For verifyFunds method, mock successful response
-        VerifyFundsResponse successResponse = new VerifyFundsResponse();
-        successResponse.setSufficient(true);
-        successResponse.setAvailableBalance(new BigDecimal("1000.00"));
-        successResponse.setRequestedAmount(new BigDecimal("100.00"));
-        lenient().when(responseSpec.bodyToMono(VerifyFundsResponse.class)).thenReturn(Mono.just(successResponse));
     }
 
     @Test
@@ -143,7 +127,8 @@ class TransactionServiceBasicTest {
         // Then
         verify(transactionRepository).findByPaymentId(paymentId);
         verify(transactionRepository).save(any(Transaction.class));
-        verify(kafkaTemplate).send(eq("transaction.recorded"), eq(transactionId.toString()), any());
+        verify(turnoverService).apply(transaction);
+        verify(outboxWriter).append(eq("transaction.recorded"), eq(transactionId.toString()), any());
     }
 
     @Test
@@ -161,7 +146,8 @@ class TransactionServiceBasicTest {
         // Then
         verify(transactionRepository).findByPaymentId(paymentId);
         verify(transactionRepository, never()).save(any());
-        verify(kafkaTemplate, never()).send(any(), any(), any());
+        verify(turnoverService, never()).apply(any());
+        verify(outboxWriter, never()).append(any(), any(), any());
     }
 
     @Test
@@ -239,9 +225,19 @@ class TransactionServiceBasicTest {
         request.setCurrency("USD");
         request.setDescription("Test transfer");
 
-        // When & Then - WebClient is not mocked, so this will throw an exception
-        // This validates that the method is called correctly
-        assertThrows(Exception.class, () -> transactionService.initiateTransfer(request));
+        when(paymentServiceClient.verifyFunds(payerId, new BigDecimal("50.00"), "USD"))
+            .thenReturn(Mono.just(fundsResponse(true)));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        TransactionResponse response = transactionService.initiateTransfer(request).block();
+
+        // Then
+        assertNotNull(response);
+        assertEquals(TransactionStatus.PENDING.name(), response.getStatus());
+        assertEquals(2, response.getEntries().size());
+        verify(transactionManager).commit(any());
+        verify(outboxWriter).append(eq("transaction.initiated"), anyString(), any());
     }
 
     @Test
@@ -254,8 +250,33 @@ class TransactionServiceBasicTest {
         request.setAmount(new BigDecimal("150.00"));
         request.setCurrency("USD");
 
-        // When & Then - This test will fail due to WebClient, but we'll test other methods
-        assertThrows(Exception.class, () -> transactionService.initiateTransfer(request));
+        when(paymentServiceClient.verifyFunds(payerId, new BigDecimal("150.00"), "USD"))
+            .thenReturn(Mono.just(fundsResponse(false)));
+
+        // When & Then
+        TransactionProcessingException ex = assertThrows(TransactionProcessingException.class,
+            () -> transactionService.initiateTransfer(request).block());
+        assertEquals("Insufficient funds for transfer", ex.getMessage());
+        verify(transactionRepository, never()).save(any());
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @DisplayName("Should surface payment-service unavailability without recording the transfer")
+    void initiateTransfer_PaymentServiceUnavailable() {
+        // Given
+        TransferRequest request = new TransferRequest();
+        request.setFromUserId(payerId);
+        request.setToUserId(payeeId);
+        request.setAmount(new BigDecimal("50.00"));
+
+        when(paymentServiceClient.verifyFunds(payerId, new BigDecimal("50.00"), "USD"))
+            .thenReturn(Mono.error(new FundsVerificationUnavailableException("Payment service unavailable", null)));
+
+        // When & Then
+        assertThrows(FundsVerificationUnavailableException.class,
+            () -> transactionService.initiateTransfer(request).block());
+        verify(transactionRepository, never()).save(any());
     }
 
     @Test
@@ -278,6 +299,94 @@ class TransactionServiceBasicTest {
 
         // Then
         verify(transactionRepository).save(any(Transaction.class));
-        verify(kafkaTemplate).send(eq("transaction.recorded"), eq(transactionId.toString()), any());
+        verify(outboxWriter).append(eq("transaction.recorded"), eq(transactionId.toString()), any());
+    }
+
+    @Test
+    @DisplayName("Should return a history page with a cursor for the next one")
+    void getTransactionHistory_FirstPage() {
+        // Given
+        Transaction older = new Transaction(UUID.randomUUID());
+        older.setId(UUID.randomUUID());
+        older.setStatus(TransactionStatus.RECORDED);
+        older.setCreatedAt(transaction.getCreatedAt().minusMinutes(1));
+        UUID beyondPage = UUID.randomUUID();
+        when(transactionRepository.findHistoryPage(payerId, Limit.of(3)))
+            .thenReturn(List.of(transaction.getId(), older.getId(), beyondPage));
+        when(transactionRepository.findWithEntriesByIdIn(List.of(transaction.getId(), older.getId())))
+            .thenReturn(List.of(older, transaction));
+
+        // When
+        TransactionHistoryResponse<TransactionResponse> page = transactionService.getTransactionHistory(payerId, null, 2);
+
+        // Then
+        assertEquals(2, page.getTransactions().size());
+        assertEquals(transaction.getId(), page.getTransactions().get(0).getId());
+        assertEquals(older.getId(), page.getTransactions().get(1).getId());
+        assertNotNull(page.getNextCursor());
+        HistoryCursor cursor = HistoryCursor.decode(page.getNextCursor());
+        assertEquals(older.getCreatedAt(), cursor.getCreatedAt());
+        assertEquals(older.getId(), cursor.getTransactionId());
+        verify(transactionRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    @DisplayName("Should continue history from the cursor and end without a next cursor")
+    void getTransactionHistory_LastPage() {
+        // Given
+        LocalDateTime createdAt = LocalDateTime.now().minusDays(1);
+        UUID lastSeen = UUID.randomUUID();
+        String cursor = new HistoryCursor(createdAt, lastSeen).encode();
+        when(transactionRepository.findHistoryPageAfter(payerId, createdAt, lastSeen, Limit.of(51)))
+            .thenReturn(List.of(transaction.getId()));
+        when(transactionRepository.findWithEntriesByIdIn(List.of(transaction.getId())))
+            .thenReturn(List.of(transaction));
+
+        // When
+        TransactionHistoryResponse<TransactionResponse> page = transactionService.getTransactionHistory(payerId, cursor, 50);
+
+        // Then
+        assertEquals(1, page.getTransactions().size());
+        assertEquals(2, page.getTransactions().get(0).getEntries().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("Should reject a malformed history cursor")
+    void getTransactionHistory_InvalidCursor() {
+        // When / Then
+        assertThrows(InvalidCursorException.class,
+            () -> transactionService.getTransactionHistory(payerId, "not-a-cursor", 50));
+        verify(transactionRepository, never()).findHistoryPageAfter(any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should return history summaries in keyset order without loading entries")
+    void getTransactionHistorySummary_FirstPage() {
+        // Given
+        UUID older = UUID.randomUUID();
+        when(transactionRepository.findHistoryPage(payerId, Limit.of(2)))
+            .thenReturn(List.of(transaction.getId(), older));
+        when(transactionRepository.findSummariesByUserIdAndIdIn(payerId, List.of(transaction.getId())))
+            .thenReturn(List.of(new TransactionSummaryResponse(transaction.getId(), transactionId, paymentId,
+                TransactionStatus.RECORDED, transaction.getCreatedAt(), transaction.getRecordedAt(),
+                TransactionEntryType.DEBIT, new BigDecimal("100.00"), "USD")));
+
+        // When
+        TransactionHistoryResponse<TransactionSummaryResponse> page =
+            transactionService.getTransactionHistorySummary(payerId, null, 1);
+
+        // Then
+        assertEquals(1, page.getTransactions().size());
+        assertEquals("DEBIT", page.getTransactions().get(0).getEntryType());
+        assertEquals(transaction.getId(), HistoryCursor.decode(page.getNextCursor()).getTransactionId());
+        verify(transactionRepository, never()).findWithEntriesByIdIn(any());
+    }
+
+    private VerifyFundsResponse fundsResponse(boolean sufficient) {
+        VerifyFundsResponse response = new VerifyFundsResponse();
+        response.setSufficient(sufficient);
+        response.setAvailableBalance(new BigDecimal("100.00"));
+        return response;
     }
 }
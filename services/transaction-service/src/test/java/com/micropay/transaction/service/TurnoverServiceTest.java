@@ -0,0 +1,117 @@
+package com.micropay.transaction.service;
+
+import com.micropay.transaction.dto.TurnoverTotals;
+import com.micropay.transaction.exception.InvalidTurnoverRangeException;
+import com.micropay.transaction.model.Transaction;
+import com.micropay.transaction.model.TransactionEntry;
+import com.micropay.transaction.model.TransactionEntryType;
+import com.micropay.transaction.model.UserDailyTurnover;
+import com.micropay.transaction.model.UserDailyTurnoverId;
+import com.micropay.transaction.repository.UserDailyTurnoverRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Turnover Service Tests")
+class TurnoverServiceTest {
+
+    @Mock
+    private UserDailyTurnoverRepository turnoverRepository;
+
+    @InjectMocks
+    private TurnoverService turnoverService;
+
+    private UUID payerId;
+    private UUID payeeId;
+    private LocalDate today;
+
+    @BeforeEach
+    void setUp() {
+        // Fixed ids so the expected upsert order is known
+        payerId = UUID.fromString("00000000-0000-0000-0000-000000000001");
+        payeeId = UUID.fromString("00000000-0000-0000-0000-000000000002");
+        today = LocalDate.of(2024, 3, 15);
+    }
+
+    @Test
+    @DisplayName("Should add one delta per user and currency in key order")
+    void testApply() {
+        // Given
+        Transaction transaction = new Transaction(UUID.randomUUID());
+        transaction.setCreatedAt(today.atTime(10, 30));
+        transaction.addEntry(new TransactionEntry(payeeId, TransactionEntryType.CREDIT, new BigDecimal("40.00"), "USD"));
+        transaction.addEntry(new TransactionEntry(payerId, TransactionEntryType.DEBIT, new BigDecimal("40.00"), "USD"));
+        transaction.addEntry(new TransactionEntry(payerId, TransactionEntryType.DEBIT, new BigDecimal("2.50"), "USD"));
+
+        // When
+        turnoverService.apply(transaction);
+
+        // Then
+        InOrder inOrder = inOrder(turnoverRepository);
+        inOrder.verify(turnoverRepository).accumulate(payerId, "USD", today,
+            new BigDecimal("42.50"), BigDecimal.ZERO, 2, 0);
+        inOrder.verify(turnoverRepository).accumulate(payeeId, "USD", today,
+            BigDecimal.ZERO, new BigDecimal("40.00"), 0, 1);
+        verifyNoMoreInteractions(turnoverRepository);
+    }
+
+    @Test
+    @DisplayName("Should map daily rows and compute net")
+    void testGetDailyTurnover() {
+        // Given
+        UserDailyTurnover row = new UserDailyTurnover(new UserDailyTurnoverId(payerId, "EUR", today),
+            new BigDecimal("30.00"), new BigDecimal("100.00"), 3, 1);
+        when(turnoverRepository.findDaily(payerId, today.minusDays(7), today)).thenReturn(List.of(row));
+
+        // When
+        List<TurnoverTotals> daily = turnoverService.getDailyTurnover(payerId, today.minusDays(7), today);
+
+        // Then
+        assertEquals(1, daily.size());
+        assertEquals(today, daily.get(0).getEntryDate());
+        assertEquals("EUR", daily.get(0).getCurrency());
+        assertEquals(new BigDecimal("70.00"), daily.get(0).getNet());
+    }
+
+    @Test
+    @DisplayName("Should reject an inverted date range")
+    void testInvalidRange() {
+        // When & Then
+        assertThrows(InvalidTurnoverRangeException.class,
+            () -> turnoverService.getTurnover(payerId, today, today.minusDays(1)));
+        verifyNoInteractions(turnoverRepository);
+    }
+
+    @Test
+    @DisplayName("Should rebuild one user's rows under the table lock")
+    void testRebuildUser() {
+        // Given
+        when(turnoverRepository.insertFromEntriesByUserId(payerId)).thenReturn(12);
+
+        // When
+        int rows = turnoverService.rebuild(payerId);
+
+        // Then
+        assertEquals(12, rows);
+        InOrder inOrder = inOrder(turnoverRepository);
+        inOrder.verify(turnoverRepository).lockForRebuild();
+        inOrder.verify(turnoverRepository).deleteRowsByUserId(payerId);
+        inOrder.verify(turnoverRepository).insertFromEntriesByUserId(payerId);
+        verify(turnoverRepository, never()).deleteAllRows();
+    }
+}
@@ -0,0 +1,212 @@
+package com.micropay.wallet.cache;
+
+import com.micropay.wallet.dto.WalletResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Bounded read-through cache of committed wallet balances.
+ *
+ * Entries are kept in access order and the least recently read wallet is dropped once
+ * {@code wallet.cache.max-entries} is reached. WalletService writes the committed state
+ * in place after every credit and debit and evicts wallets touched by a batch or a
+ * hold, so reads only miss on first access, after eviction, or once an entry is older
+ * than {@code wallet.cache.ttl-seconds}, which bounds staleness from writes this
+ * instance never saw (another instance, a manual fix in the database).
+ *
+ * A read that started before an eviction is not cached: loads carry the eviction
+ * generation they started in and are dropped if it moved on in the meantime.
+ *
+ * Metrics: {@code wallet.cache.requests} tagged {@code result=hit|miss},
+ * {@code wallet.cache.hit.ratio}, {@code wallet.cache.size}, {@code wallet.cache.evictions}
+ * and {@code wallet.cache.entry.age} (ms since the served entry was written).
+ */
+@Component
+public class WalletBalanceCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMillis;
+    private final Clock clock;
+    private final LinkedHashMap<UUID, Entry> entries;
+    private long generation;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final DistributionSummary entryAge;
+
+    @Autowired
+    public WalletBalanceCache(@Value("${wallet.cache.enabled:true}") boolean enabled,
+                              @Value("${wallet.cache.max-entries:100000}") int maxEntries,
+                              @Value("${wallet.cache.ttl-seconds:30}") long ttlSeconds,
+                              MeterRegistry meterRegistry) {
+        this(enabled, maxEntries, Duration.ofSeconds(ttlSeconds), Clock.systemUTC(), meterRegistry);
+    }
+
+    WalletBalanceCache(boolean enabled, int maxEntries, Duration ttl, Clock clock, MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.maxEntries = Math.max(1, maxEntries);
+        this.ttlMillis = ttl.toMillis();
+        this.clock = clock;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() > WalletBalanceCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.hits = Counter.builder("wallet.cache.requests")
+            .tag("result", "hit")
+            .description("Wallet reads answered by the balance cache")
+            .register(meterRegistry);
+        this.misses = Counter.builder("wallet.cache.requests")
+            .tag("result", "miss")
+            .description("Wallet reads answered by the balance cache")
+            .register(meterRegistry);
+        this.evictions = Counter.builder("wallet.cache.evictions")
+            .description("Wallets dropped from the balance cache to stay within max-entries")
+            .register(meterRegistry);
+        this.entryAge = DistributionSummary.builder("wallet.cache.entry.age")
+            .baseUnit("milliseconds")
+            .description("Age of cached wallets when served")
+            .register(meterRegistry);
+        Gauge.builder("wallet.cache.size", this, WalletBalanceCache::size)
+            .description("Wallets held in the balance cache")
+            .register(meterRegistry);
+        Gauge.builder("wallet.cache.hit.ratio", this, WalletBalanceCache::hitRatio)
+            .description("Share of wallet reads answered by the balance cache")
+            .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cached wallet for {@code userId}; the caller gets its own copy
+     */
+    public Optional<WalletResponse> get(UUID userId) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        long now = clock.millis();
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry != null && now - entry.writtenAt < ttlMillis) {
+                hits.increment();
+                entryAge.record(now - entry.writtenAt);
+                return Optional.of(copyOf(entry.wallet));
+            }
+            if (entry != null) {
+                entries.remove(userId);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    /**
+     * Token to pass to {@link #putLoaded} for a wallet about to be read from the database
+     */
+    public long beginLoad() {
+        synchronized (entries) {
+            return generation;
+        }
+    }
+
+    /**
+     * Cache a wallet read from the database, unless a write got there first or a wallet
+     * was evicted while it was being read
+     */
+    public void putLoaded(WalletResponse wallet, long loadGeneration) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (entries) {
+            if (loadGeneration == generation && !entries.containsKey(wallet.getUserId())) {
+                entries.put(wallet.getUserId(), new Entry(copyOf(wallet), clock.millis()));
+            }
+        }
+    }
+
+    /**
+     * Write the committed state of a wallet in place; an older snapshot never replaces a newer one
+     */
+    public void update(WalletResponse wallet) {
+        if (!enabled || wallet == null) {
+            return;
+        }
+        synchronized (entries) {
+            Entry current = entries.get(wallet.getUserId());
+            if (current != null && current.wallet.getUpdatedAt() != null && wallet.getUpdatedAt() != null
+                    && wallet.getUpdatedAt().isBefore(current.wallet.getUpdatedAt())) {
+                return;
+            }
+            entries.put(wallet.getUserId(), new Entry(copyOf(wallet), clock.millis()));
+        }
+    }
+
+    /**
+     * Drop a wallet whose committed state is not at hand
+     */
+    public void evict(UUID userId) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (entries) {
+            generation++;
+            entries.remove(userId);
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private static WalletResponse copyOf(WalletResponse source) {
+        WalletResponse copy = new WalletResponse();
+        copy.setId(source.getId());
+        copy.setUserId(source.getUserId());
+        copy.setBalance(source.getBalance());
+        copy.setAvailableBalance(source.getAvailableBalance());
+        copy.setCurrency(source.getCurrency());
+        copy.setStatus(source.getStatus());
+        copy.setCreatedAt(source.getCreatedAt());
+        copy.setUpdatedAt(source.getUpdatedAt());
+        return copy;
+    }
+
+    private static final class Entry {
+        private final WalletResponse wallet;
+        private final long writtenAt;
+
+        private Entry(WalletResponse wallet, long writtenAt) {
+            this.wallet = wallet;
+            this.writtenAt = writtenAt;
+        }
+    }
+}
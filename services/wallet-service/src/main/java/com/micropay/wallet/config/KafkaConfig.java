@@ -1,15 +1,18 @@
 package com.micropay.wallet.config;
 
+import com.micropay.events.consumer.KeyOrderedExecutor;
+import com.micropay.events.dto.PaymentRefundedEvent;
 import com.micropay.events.dto.UserCreatedEvent;           // ← Updated import from shared library
+import com.micropay.outbox.ProducerProfile;
 import com.micropay.wallet.dto.WalletBalanceUpdatedEvent;
+import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
-import org.apache.kafka.clients.producer.ProducerConfig;
 import org.apache.kafka.common.serialization.StringDeserializer;
-import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.config.TopicBuilder;
 import org.springframework.kafka.core.*;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.support.serializer.ErrorHandlingDeserializer;
@@ -28,28 +31,38 @@ public class KafkaConfig {
     @Value("${spring.kafka.consumer.group-id:wallet-service-group}")
     private String consumerGroupId;
 
+    @Value("${wallet.consumer.concurrency:3}")
+    private int concurrency;
+
     // ──────────────────────────────────────────────────────
-    //  PRODUCER CONFIG (wallet → other services)
+    //  TOPICS (provisioned by the producing service)
     // ──────────────────────────────────────────────────────
+    /**
+     * wallet.balance.updated, keyed by userId; wallet.partitions.count follows this partition
+     * count, and raising it later remaps keys
+     */
     @Bean
-    public ProducerFactory<String, WalletBalanceUpdatedEvent> producerFactory() {
-        Map<String, Object> props = new HashMap<>();
-
-        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
-        props.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
-        props.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, JsonSerializer.class);
-
-        // Reliability settings (good practice)
-        props.put(ProducerConfig.ACKS_CONFIG, "all");
-        props.put(ProducerConfig.RETRIES_CONFIG, 3);
-        props.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+    public NewTopic walletBalanceUpdatedTopic(@Value("${wallet.topics.partitions:3}") int partitions,
+                                              @Value("${wallet.topics.replicas:1}") int replicas) {
+        return TopicBuilder.name("wallet.balance.updated")
+                .partitions(partitions)
+                .replicas(replicas)
+                .build();
+    }
 
-        return new DefaultKafkaProducerFactory<>(props);
+    // ──────────────────────────────────────────────────────
+    //  PRODUCER CONFIG (wallet → other services)
+    // ──────────────────────────────────────────────────────
+    @Bean
+    public ProducerFactory<String, WalletBalanceUpdatedEvent> producerFactory(ProducerProfile producerProfile) {
+        // acks=all + idempotence, batching and compression come from the shared producer profile
+        return new DefaultKafkaProducerFactory<>(
+                producerProfile.producerConfigs("wallet.balance.updated", JsonSerializer.class));
     }
 
     @Bean
-    public KafkaTemplate<String, WalletBalanceUpdatedEvent> kafkaTemplate() {
-        return new KafkaTemplate<>(producerFactory());
+    public KafkaTemplate<String, WalletBalanceUpdatedEvent> kafkaTemplate(ProducerProfile producerProfile) {
+        return producerProfile.kafkaTemplate(producerFactory(producerProfile));
     }
 
     // ──────────────────────────────────────────────────────
@@ -94,6 +107,7 @@ public class KafkaConfig {
                 new ConcurrentKafkaListenerContainerFactory<>();
 
         factory.setConsumerFactory(consumerFactory());
+        factory.setConcurrency(concurrency);
 
         // Manual ack - very good choice for controlled processing
         factory.getContainerProperties()
@@ -101,6 +115,47 @@ public class KafkaConfig {
 
         return factory;
     }
-}
 
+    // ──────────────────────────────────────────────────────
+    //  CONSUMER CONFIG (payment → wallet) - PaymentRefundedEvent
+    // ──────────────────────────────────────────────────────
+    @Bean
+    public ConsumerFactory<String, PaymentRefundedEvent> paymentRefundedConsumerFactory() {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        props.put(ConsumerConfig.GROUP_ID_CONFIG, consumerGroupId);
+        props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+
+        JsonDeserializer<PaymentRefundedEvent> jsonDeserializer =
+                new JsonDeserializer<>(PaymentRefundedEvent.class, false);
+        jsonDeserializer.addTrustedPackages("com.micropay.events.dto");
+
+        return new DefaultKafkaConsumerFactory<>(props,
+                new ErrorHandlingDeserializer<>(new StringDeserializer()),
+                new ErrorHandlingDeserializer<>(jsonDeserializer));
+    }
 
+    /**
+     * Batch listener for payment.refunded: each poll is handed over as one list and
+     * acknowledged once, after all of it has been credited
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, PaymentRefundedEvent> paymentRefundedListenerContainerFactory() {
+        ConcurrentKafkaListenerContainerFactory<String, PaymentRefundedEvent> factory =
+                new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(paymentRefundedConsumerFactory());
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        return factory;
+    }
+
+    /**
+     * Lanes that process a polled batch in parallel, in order per user
+     */
+    @Bean
+    public KeyOrderedExecutor keyOrderedExecutor(@Value("${wallet.consumer.lanes:4}") int lanes) {
+        return new KeyOrderedExecutor("wallet-consumer", lanes);
+    }
+}
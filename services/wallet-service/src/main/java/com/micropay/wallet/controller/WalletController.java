@@ -1,8 +1,13 @@
 package com.micropay.wallet.controller;
 
+import com.micropay.wallet.dto.BatchWalletOperationRequest;
+import com.micropay.wallet.dto.BatchWalletOperationResponse;
 import com.micropay.wallet.dto.CreditRequest;
 import com.micropay.wallet.dto.DebitRequest;
+import com.micropay.wallet.dto.HoldRequest;
+import com.micropay.wallet.dto.HoldResponse;
 import com.micropay.wallet.dto.WalletResponse;
+import com.micropay.wallet.service.WalletHoldService;
 import com.micropay.wallet.service.WalletService;
 import com.micropay.wallet.dto.TopUpRequest;
 import com.micropay.wallet.exception.WalletServiceException;
@@ -25,9 +30,11 @@ public class WalletController {
     private static final Logger logger = LoggerFactory.getLogger(WalletController.class);
 
     private final WalletService walletService;
+    private final WalletHoldService holdService;
 
-    public WalletController(WalletService walletService) {
+    public WalletController(WalletService walletService, WalletHoldService holdService) {
         this.walletService = walletService;
+        this.holdService = holdService;
     }
 
     @PostMapping("/{userId}/topup")
@@ -86,11 +93,62 @@ public class WalletController {
         );
         return ResponseEntity.status(HttpStatus.OK).body(wallet);
     }
-}
-
-
 
+    /**
+     * POST /wallet/batch
+     * Apply many credits and debits in one call; results are returned per item
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<BatchWalletOperationResponse> applyBatch(
+            @Valid @RequestBody BatchWalletOperationRequest request) {
+        logger.info("Applying wallet batch of {} operations", request.getOperations().size());
+        BatchWalletOperationResponse response = walletService.applyBatch(request.getOperations());
+        return ResponseEntity.status(HttpStatus.OK).body(response);
+    }
 
+    /**
+     * POST /wallet/{userId}/holds
+     * Reserve funds until the hold is committed, released or expires
+     */
+    @PostMapping("/{userId}/holds")
+    public ResponseEntity<HoldResponse> reserveFunds(
+            @PathVariable UUID userId,
+            @Valid @RequestBody HoldRequest request) {
+        logger.info("Reserving {} on wallet for user: {}", request.getAmount(), userId);
+        HoldResponse hold = holdService.reserve(
+            userId,
+            request.getAmount(),
+            request.getTtlSeconds(),
+            request.getReference()
+        );
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
 
+    /**
+     * GET /wallet/holds/{holdId}
+     */
+    @GetMapping("/holds/{holdId}")
+    public ResponseEntity<HoldResponse> getHold(@PathVariable UUID holdId) {
+        return ResponseEntity.ok(holdService.getHold(holdId));
+    }
 
+    /**
+     * POST /wallet/holds/{holdId}/commit
+     * Debit the held funds
+     */
+    @PostMapping("/holds/{holdId}/commit")
+    public ResponseEntity<HoldResponse> commitHold(@PathVariable UUID holdId) {
+        logger.info("Committing hold: {}", holdId);
+        return ResponseEntity.ok(holdService.commit(holdId));
+    }
 
+    /**
+     * POST /wallet/holds/{holdId}/release
+     * Return the held funds to the available balance
+     */
+    @PostMapping("/holds/{holdId}/release")
+    public ResponseEntity<HoldResponse> releaseHold(@PathVariable UUID holdId) {
+        logger.info("Releasing hold: {}", holdId);
+        return ResponseEntity.ok(holdService.release(holdId));
+    }
+}
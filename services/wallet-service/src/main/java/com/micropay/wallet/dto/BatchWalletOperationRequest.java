@@ -0,0 +1,33 @@
+package com.micropay.wallet.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+/**
+ * Request DTO for applying many credits and debits in one call
+ */
+public class BatchWalletOperationRequest {
+
+    @NotEmpty(message = "Operations are required")
+    @Size(max = 1000, message = "At most 1000 operations per batch")
+    private List<@Valid WalletOperationRequest> operations;
+
+    // Constructors
+    public BatchWalletOperationRequest() {
+    }
+
+    public BatchWalletOperationRequest(List<WalletOperationRequest> operations) {
+        this.operations = operations;
+    }
+
+    // Getters and Setters
+    public List<WalletOperationRequest> getOperations() {
+        return operations;
+    }
+
+    public void setOperations(List<WalletOperationRequest> operations) {
+        this.operations = operations;
+    }
+}
@@ -0,0 +1,53 @@
+package com.micropay.wallet.dto;
+
+import java.util.List;
+
+/**
+ * Response DTO for a batch of wallet operations
+ */
+public class BatchWalletOperationResponse {
+
+    private int applied;
+    private int rejected;
+    private List<WalletOperationResult> results;
+
+    // Constructors
+    public BatchWalletOperationResponse() {
+    }
+
+    public BatchWalletOperationResponse(List<WalletOperationResult> results) {
+        this.results = results;
+        for (WalletOperationResult result : results) {
+            if (WalletOperationResult.APPLIED.equals(result.getStatus())) {
+                applied++;
+            } else {
+                rejected++;
+            }
+        }
+    }
+
+    // Getters and Setters
+    public int getApplied() {
+        return applied;
+    }
+
+    public void setApplied(int applied) {
+        this.applied = applied;
+    }
+
+    public int getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(int rejected) {
+        this.rejected = rejected;
+    }
+
+    public List<WalletOperationResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<WalletOperationResult> results) {
+        this.results = results;
+    }
+}
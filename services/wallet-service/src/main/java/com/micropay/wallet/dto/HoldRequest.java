@@ -0,0 +1,60 @@
+package com.micropay.wallet.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.math.BigDecimal;
+
+/**
+ * Request DTO for reserving wallet funds
+ */
+public class HoldRequest {
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    // Defaults to wallet.holds.default-ttl-seconds, capped at wallet.holds.max-ttl-seconds
+    @Positive(message = "TTL must be positive")
+    private Long ttlSeconds;
+
+    // Caller's idempotency key, e.g. the transfer ID; a retried reserve returns the same hold
+    @Size(max = 100, message = "Reference must be at most 100 characters")
+    private String reference;
+
+    // Constructors
+    public HoldRequest() {
+    }
+
+    public HoldRequest(BigDecimal amount, Long ttlSeconds, String reference) {
+        this.amount = amount;
+        this.ttlSeconds = ttlSeconds;
+        this.reference = reference;
+    }
+
+    // Getters and Setters
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public Long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    public void setTtlSeconds(Long ttlSeconds) {
+        this.ttlSeconds = ttlSeconds;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+}
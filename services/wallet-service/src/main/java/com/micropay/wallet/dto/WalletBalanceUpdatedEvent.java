@@ -1,5 +1,7 @@
 package com.micropay.wallet.dto;
 
+import com.micropay.wallet.model.Wallet;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -9,6 +11,8 @@ import java.util.UUID;
  */
 public class WalletBalanceUpdatedEvent {
 
+    public static final String TOPIC = "wallet.balance.updated";
+
     private String eventId;
     private String eventType;
     private LocalDateTime timestamp;
@@ -16,9 +20,10 @@ public class WalletBalanceUpdatedEvent {
     private UUID userId;
     private BigDecimal previousBalance;
     private BigDecimal newBalance;
+    private BigDecimal availableBalance; // newBalance minus funds held for pending transfers
     private BigDecimal changeAmount;
     private String currency;
-    private String transactionType; // CREDIT or DEBIT
+    private String transactionType; // CREDIT, DEBIT, HOLD_RESERVED, HOLD_RELEASED or HOLD_EXPIRED
     private String transactionId;
     private LocalDateTime updatedAt;
 
@@ -30,7 +35,7 @@ public class WalletBalanceUpdatedEvent {
                                      BigDecimal newBalance, BigDecimal changeAmount, 
                                      String currency, String transactionType, String transactionId) {
         this.eventId = UUID.randomUUID().toString();
-        this.eventType = "wallet.balance.updated";
+        this.eventType = TOPIC;
         this.timestamp = LocalDateTime.now();
         this.walletId = walletId;
         this.userId = userId;
@@ -43,6 +48,25 @@ public class WalletBalanceUpdatedEvent {
         this.updatedAt = LocalDateTime.now();
     }
 
+    /**
+     * Event for {@code wallet} after a change of {@code changeAmount}; a missing transaction id gets a random one
+     */
+    public static WalletBalanceUpdatedEvent of(Wallet wallet, BigDecimal previousBalance, BigDecimal changeAmount,
+                                               String transactionType, String transactionId) {
+        WalletBalanceUpdatedEvent event = new WalletBalanceUpdatedEvent(
+            wallet.getId(),
+            wallet.getUserId(),
+            previousBalance,
+            wallet.getBalance(),
+            changeAmount,
+            wallet.getCurrency(),
+            transactionType,
+            transactionId != null ? transactionId : UUID.randomUUID().toString()
+        );
+        event.setAvailableBalance(wallet.getAvailableBalance());
+        return event;
+    }
+
     // Getters and Setters
     public String getEventId() {
         return eventId;
@@ -100,6 +124,14 @@ public class WalletBalanceUpdatedEvent {
         this.newBalance = newBalance;
     }
 
+    public BigDecimal getAvailableBalance() {
+        return availableBalance;
+    }
+
+    public void setAvailableBalance(BigDecimal availableBalance) {
+        this.availableBalance = availableBalance;
+    }
+
     public BigDecimal getChangeAmount() {
         return changeAmount;
     }
@@ -0,0 +1,79 @@
+package com.micropay.wallet.dto;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * One credit or debit instruction inside a batch request
+ */
+public class WalletOperationRequest {
+
+    @NotNull(message = "User ID is required")
+    private UUID userId;
+
+    @NotNull(message = "Type is required")
+    @Pattern(regexp = "CREDIT|DEBIT", message = "Type must be CREDIT or DEBIT")
+    private String type;
+
+    @NotNull(message = "Amount is required")
+    @DecimalMin(value = "0.01", message = "Amount must be greater than 0")
+    private BigDecimal amount;
+
+    private String transactionId;
+    private String description;
+
+    // Constructors
+    public WalletOperationRequest() {
+    }
+
+    public WalletOperationRequest(UUID userId, String type, BigDecimal amount, String transactionId) {
+        this.userId = userId;
+        this.type = type;
+        this.amount = amount;
+        this.transactionId = transactionId;
+    }
+
+    // Getters and Setters
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+}
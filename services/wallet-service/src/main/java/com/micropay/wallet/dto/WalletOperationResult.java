@@ -0,0 +1,104 @@
+package com.micropay.wallet.dto;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Outcome of one instruction in a batch, in request order
+ */
+public class WalletOperationResult {
+
+    public static final String APPLIED = "APPLIED";
+    public static final String REJECTED = "REJECTED";
+
+    private int index;
+    private UUID userId;
+    private String type;
+    private String transactionId;
+    private String status;
+    private BigDecimal balance;
+    private String error;
+
+    // Constructors
+    public WalletOperationResult() {
+    }
+
+    public static WalletOperationResult applied(int index, WalletOperationRequest operation, BigDecimal balance) {
+        WalletOperationResult result = of(index, operation, APPLIED);
+        result.setBalance(balance);
+        return result;
+    }
+
+    public static WalletOperationResult rejected(int index, WalletOperationRequest operation, String error) {
+        WalletOperationResult result = of(index, operation, REJECTED);
+        result.setError(error);
+        return result;
+    }
+
+    private static WalletOperationResult of(int index, WalletOperationRequest operation, String status) {
+        WalletOperationResult result = new WalletOperationResult();
+        result.setIndex(index);
+        result.setUserId(operation.getUserId());
+        result.setType(operation.getType());
+        result.setTransactionId(operation.getTransactionId());
+        result.setStatus(status);
+        return result;
+    }
+
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getTransactionId() {
+        return transactionId;
+    }
+
+    public void setTransactionId(String transactionId) {
+        this.transactionId = transactionId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public BigDecimal getBalance() {
+        return balance;
+    }
+
+    public void setBalance(BigDecimal balance) {
+        this.balance = balance;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
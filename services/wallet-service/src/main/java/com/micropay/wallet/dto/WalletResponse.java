@@ -12,6 +12,7 @@ public class WalletResponse {
     private UUID id;
     private UUID userId;
     private BigDecimal balance;
+    private BigDecimal availableBalance;
     private String currency;
     private String status;
     private LocalDateTime createdAt;
@@ -46,6 +47,14 @@ public class WalletResponse {
         this.balance = balance;
     }
 
+    public BigDecimal getAvailableBalance() {
+        return availableBalance;
+    }
+
+    public void setAvailableBalance(BigDecimal availableBalance) {
+        this.availableBalance = availableBalance;
+    }
+
     public String getCurrency() {
         return currency;
     }
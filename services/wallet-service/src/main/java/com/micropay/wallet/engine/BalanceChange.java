@@ -0,0 +1,44 @@
+package com.micropay.wallet.engine;
+
+import com.micropay.wallet.model.Wallet;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Result of a balance mutation applied outside the single-wallet JPA path
+ */
+public class BalanceChange {
+
+    private final Wallet wallet;
+    private final BigDecimal previousBalance;
+
+    public BalanceChange(Wallet wallet, BigDecimal previousBalance) {
+        this.wallet = wallet;
+        this.previousBalance = previousBalance;
+    }
+
+    /**
+     * Capture a managed wallet that later mutations in the same transaction will keep changing
+     */
+    public static BalanceChange snapshotOf(Wallet wallet, BigDecimal previousBalance) {
+        Wallet snapshot = new Wallet(wallet.getUserId(), wallet.getBalance(), wallet.getCurrency());
+        snapshot.setId(wallet.getId());
+        snapshot.setReserved(wallet.getReserved());
+        snapshot.setStatus(wallet.getStatus());
+        snapshot.setCreatedAt(wallet.getCreatedAt());
+        snapshot.setUpdatedAt(LocalDateTime.now());
+        return new BalanceChange(snapshot, previousBalance);
+    }
+
+    /**
+     * Detached snapshot of the wallet carrying the post-mutation balance
+     */
+    public Wallet getWallet() {
+        return wallet;
+    }
+
+    public BigDecimal getPreviousBalance() {
+        return previousBalance;
+    }
+}
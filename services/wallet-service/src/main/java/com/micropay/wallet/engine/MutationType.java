@@ -0,0 +1,9 @@
+package com.micropay.wallet.engine;
+
+/**
+ * Direction of a balance mutation submitted to a batching engine
+ */
+public enum MutationType {
+    CREDIT,
+    DEBIT
+}
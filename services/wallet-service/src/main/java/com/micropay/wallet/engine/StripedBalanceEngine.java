@@ -0,0 +1,512 @@
+package com.micropay.wallet.engine;
+
+import com.micropay.outbox.OutboxWriter;
+import com.micropay.wallet.dto.WalletBalanceUpdatedEvent;
+import com.micropay.wallet.exception.InsufficientBalanceException;
+import com.micropay.wallet.exception.WalletNotFoundException;
+import com.micropay.wallet.model.Wallet;
+import com.micropay.wallet.model.WalletStatus;
+import com.micropay.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Optional in-memory balance engine for hot wallets.
+ *
+ * When {@code wallet.engine.mode=striped}, balances are kept resident in this
+ * instance, partitioned by userId into lock stripes. Credits and debits are checked
+ * against and applied to the resident balance, and every
+ * {@code wallet.engine.flush-interval-ms} the net per-wallet delta is group-committed to
+ * the {@code wallets} table together with the outbox rows of the wallet.balance.updated
+ * events it produced. Callers are answered once that commit is done, not before.
+ *
+ * The database stays the source of truth. Each delta is applied with a guarded update that
+ * never takes the available balance below zero; when a write from outside this instance
+ * (another instance, a hold, the JPA path) makes the guard fail, only that wallet's
+ * mutations are replayed against the locked row, so each caller still gets its own result
+ * and the other wallets in the flush are unaffected. Every flushed wallet is re-read after
+ * the commit, and wallets untouched for {@code wallet.engine.idle-evict-ms}, or beyond
+ * {@code wallet.engine.max-resident}, are evicted and hydrated again on next use.
+ */
+@Component
+public class StripedBalanceEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(StripedBalanceEngine.class);
+    private static final String MODE_STRIPED = "striped";
+    private static final int SCALE = 2;
+
+    private final boolean enabled;
+    private final long flushIntervalMs;
+    private final long idleEvictMs;
+    private final int maxResident;
+    private final Stripe[] stripes;
+    private final WalletRepository walletRepository;
+    private final OutboxWriter outboxWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final Timer flushTimer;
+    private final DistributionSummary flushSize;
+    private final Counter replays;
+
+    private volatile boolean stopped;
+    private ScheduledExecutorService flusher;
+
+    public StripedBalanceEngine(@Value("${wallet.engine.mode:jpa}") String mode,
+                                @Value("${wallet.engine.stripes:64}") int stripeCount,
+                                @Value("${wallet.engine.flush-interval-ms:50}") long flushIntervalMs,
+                                @Value("${wallet.engine.idle-evict-ms:300000}") long idleEvictMs,
+                                @Value("${wallet.engine.max-resident:100000}") int maxResident,
+                                WalletRepository walletRepository,
+                                OutboxWriter outboxWriter,
+                                PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry) {
+        this.enabled = MODE_STRIPED.equalsIgnoreCase(mode);
+        this.flushIntervalMs = flushIntervalMs;
+        this.idleEvictMs = idleEvictMs;
+        this.maxResident = Math.max(1, maxResident);
+        this.stripes = new Stripe[Math.max(1, stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.walletRepository = walletRepository;
+        this.outboxWriter = outboxWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.flushTimer = Timer.builder("wallet.engine.flush.latency")
+            .description("Time to group-commit resident balance deltas")
+            .register(meterRegistry);
+        this.flushSize = DistributionSummary.builder("wallet.engine.flush.wallets")
+            .description("Wallets written per group commit")
+            .register(meterRegistry);
+        this.replays = Counter.builder("wallet.engine.flush.replays")
+            .description("Wallets whose delta failed the balance guard and were replayed against the row")
+            .register(meterRegistry);
+        meterRegistry.gauge("wallet.engine.resident.wallets", this, StripedBalanceEngine::residentCount);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "wallet-engine-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("Striped balance engine enabled with {} stripes, flush interval {} ms", stripes.length, flushIntervalMs);
+    }
+
+    @PreDestroy
+    void stop() {
+        // Mutations applied from here on are refused, so the last flush leaves none waiting
+        stopped = true;
+        if (flusher == null) {
+            return;
+        }
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Credit a resident wallet, blocking until the flush holding it commits
+     */
+    public BalanceChange credit(UUID userId, BigDecimal amount, String transactionId, Supplier<Wallet> loader) {
+        return WalletBatchWriter.await(submit(userId, amount, MutationType.CREDIT, transactionId, loader));
+    }
+
+    /**
+     * Debit a resident wallet, blocking until the flush holding it commits
+     */
+    public BalanceChange debit(UUID userId, BigDecimal amount, String transactionId, Supplier<Wallet> loader) {
+        return WalletBatchWriter.await(submit(userId, amount, MutationType.DEBIT, transactionId, loader));
+    }
+
+    /**
+     * Apply a mutation to the resident wallet, hydrating it through {@code loader} on first
+     * touch; the future completes once the next flush has committed it. A debit the resident
+     * balance cannot cover fails at once, without side effects.
+     */
+    public CompletableFuture<BalanceChange> submit(UUID userId, BigDecimal amount, MutationType type,
+                                                 String transactionId, Supplier<Wallet> loader) {
+        try {
+            long cents = toCents(amount);
+            while (true) {
+                ResidentWallet resident = resident(userId, loader);
+                // Per wallet, so queued events follow the order the balance moved in
+                synchronized (resident) {
+                    if (resident.evicted) {
+                        continue; // evicted between lookup and lock; hydrate again
+                    }
+                    if (stopped) {
+                        throw new IllegalStateException("Striped balance engine is stopped");
+                    }
+                    return resident.apply(type, amount, cents, transactionId);
+                }
+            }
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Current resident balance, if this instance holds the wallet in memory
+     */
+    public Optional<BigDecimal> residentBalance(UUID userId) {
+        ResidentWallet resident = stripeFor(userId).wallets.get(userId);
+        if (resident == null) {
+            return Optional.empty();
+        }
+        synchronized (resident) {
+            return resident.evicted ? Optional.empty() : Optional.of(fromCents(resident.balance));
+        }
+    }
+
+    /**
+     * Write all pending deltas and their events to the database in a single transaction and
+     * answer their callers. If the commit fails, its mutations are failed and taken back out
+     * of the resident balances.
+     */
+    public void flush() {
+        List<PendingDelta> batch = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            for (ResidentWallet resident : stripe.wallets.values()) {
+                PendingDelta pending = resident.drain();
+                if (pending != null) {
+                    batch.add(pending);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            commit(batch);
+        }
+        evict();
+    }
+
+    private void commit(List<PendingDelta> batch) {
+        long start = System.nanoTime();
+        Map<UUID, Wallet> current = new HashMap<>();
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            transactionTemplate.executeWithoutResult(status -> {
+                List<WalletBalanceUpdatedEvent> events = new ArrayList<>();
+                Set<UUID> userIds = new HashSet<>();
+                for (PendingDelta pending : batch) {
+                    UUID userId = pending.wallet.userId;
+                    userIds.add(userId);
+                    BigDecimal delta = fromCents(pending.delta);
+                    if (pending.delta == 0 || walletRepository.applyBalanceDelta(userId, delta, now) == 1) {
+                        pending.mutations.forEach(mutation -> events.add(mutation.event));
+                    } else {
+                        // The row moved under us: settle this wallet's mutations one by one against it
+                        replays.increment();
+                        replay(pending, events);
+                    }
+                }
+                outboxWriter.appendAll(WalletBalanceUpdatedEvent.TOPIC, events, event -> event.getUserId().toString());
+                walletRepository.findAllByUserIdIn(userIds).forEach(wallet -> current.put(wallet.getUserId(), wallet));
+            });
+            flushSize.record(batch.size());
+        } catch (RuntimeException e) {
+            logger.error("Failed to flush {} resident wallets; failing their mutations", batch.size(), e);
+            for (PendingDelta pending : batch) {
+                pending.wallet.undo(pending.delta);
+                pending.mutations.forEach(mutation -> mutation.result.completeExceptionally(e));
+            }
+            return;
+        } finally {
+            flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        for (PendingDelta pending : batch) {
+            if (!pending.wallet.refresh(current.get(pending.wallet.userId))) {
+                stripeFor(pending.wallet.userId).wallets.remove(pending.wallet.userId, pending.wallet);
+            }
+            for (ResidentMutation mutation : pending.mutations) {
+                if (mutation.error != null) {
+                    mutation.result.completeExceptionally(mutation.error);
+                } else {
+                    mutation.result.complete(mutation.change);
+                }
+            }
+        }
+    }
+
+    /**
+     * Re-apply one wallet's mutations in order against its locked row, rejecting the ones
+     * the row cannot cover
+     */
+    private void replay(PendingDelta pending, List<WalletBalanceUpdatedEvent> events) {
+        Wallet wallet = walletRepository.findByUserIdWithLock(pending.wallet.userId).orElse(null);
+        for (ResidentMutation mutation : pending.mutations) {
+            if (wallet == null) {
+                mutation.error = new WalletNotFoundException("Wallet not found for user: " + pending.wallet.userId);
+            } else {
+                try {
+                    mutation.change = WalletBatchWriter.applyTo(wallet, mutation.type, mutation.amount);
+                    mutation.event = mutation.event(mutation.change);
+                    events.add(mutation.event);
+                } catch (IllegalStateException | InsufficientBalanceException e) {
+                    mutation.error = e;
+                }
+            }
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.error("Failed to flush resident wallet balances, will retry", e);
+        }
+    }
+
+    /**
+     * Drop residents idle past {@code idle-evict-ms}, then the least recently used ones
+     * while more than {@code max-resident} are held; wallets with unflushed mutations stay
+     */
+    private void evict() {
+        long cutoff = System.currentTimeMillis() - idleEvictMs;
+        List<ResidentWallet> idle = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            for (ResidentWallet resident : stripe.wallets.values()) {
+                if (resident.lastTouched < cutoff) {
+                    evict(stripe, resident);
+                } else {
+                    idle.add(resident);
+                }
+            }
+        }
+        int excess = residentCount() - maxResident;
+        if (excess <= 0) {
+            return;
+        }
+        idle.sort(Comparator.comparingLong(resident -> resident.lastTouched));
+        for (int i = 0; i < idle.size() && excess > 0; i++) {
+            if (evict(stripeFor(idle.get(i).userId), idle.get(i))) {
+                excess--;
+            }
+        }
+    }
+
+    private boolean evict(Stripe stripe, ResidentWallet resident) {
+        synchronized (resident) {
+            if (!resident.mutations.isEmpty()) {
+                return false;
+            }
+            resident.evicted = true;
+        }
+        return stripe.wallets.remove(resident.userId, resident);
+    }
+
+    private ResidentWallet resident(UUID userId, Supplier<Wallet> loader) {
+        Stripe stripe = stripeFor(userId);
+        ResidentWallet resident = stripe.wallets.get(userId);
+        if (resident == null) {
+            stripe.lock.lock();
+            try {
+                resident = stripe.wallets.get(userId);
+                if (resident == null) {
+                    resident = new ResidentWallet(loader.get());
+                    stripe.wallets.put(userId, resident);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return resident;
+    }
+
+    private Stripe stripeFor(UUID userId) {
+        return stripes[Math.floorMod(userId.hashCode(), stripes.length)];
+    }
+
+    private int residentCount() {
+        int count = 0;
+        for (Stripe stripe : stripes) {
+            count += stripe.wallets.size();
+        }
+        return count;
+    }
+
+    /**
+     * Exact cents of an amount; amounts finer than cents are refused, not rounded
+     */
+    static long toCents(BigDecimal amount) {
+        if (amount.stripTrailingZeros().scale() > SCALE) {
+            throw new IllegalArgumentException("Amount must have at most " + SCALE + " decimal places: " + amount);
+        }
+        return amount.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+
+    private static class Stripe {
+        private final ConcurrentHashMap<UUID, ResidentWallet> wallets = new ConcurrentHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+    }
+
+    private static class ResidentWallet {
+        private final UUID id;
+        private final UUID userId;
+        private final String currency;
+        private final LocalDateTime createdAt;
+        // Guarded by this resident's monitor
+        private WalletStatus status;
+        private long balance;
+        private long reserved;
+        private volatile long lastTouched = System.currentTimeMillis();
+        private boolean evicted;
+        private long pendingDelta;
+        private List<ResidentMutation> mutations = new ArrayList<>();
+
+        ResidentWallet(Wallet wallet) {
+            this.id = wallet.getId();
+            this.userId = wallet.getUserId();
+            this.currency = wallet.getCurrency();
+            this.createdAt = wallet.getCreatedAt();
+            this.status = wallet.getStatus();
+            this.balance = toCents(wallet.getBalance());
+            this.reserved = wallet.getReserved() != null ? toCents(wallet.getReserved()) : 0;
+        }
+
+        /**
+         * Record a balance move for the next flush; caller holds this resident's monitor
+         */
+        CompletableFuture<BalanceChange> apply(MutationType type, BigDecimal amount, long cents, String transactionId) {
+            if (status != WalletStatus.ACTIVE) {
+                throw new IllegalStateException("Wallet is not active. Current status: " + status);
+            }
+            if (type == MutationType.DEBIT && balance - reserved < cents) {
+                throw new InsufficientBalanceException(
+                    String.format("Insufficient balance. Available balance: %s, Requested amount: %s",
+                                 fromCents(balance - reserved), amount));
+            }
+            long previous = balance;
+            balance += type == MutationType.DEBIT ? -cents : cents;
+            pendingDelta += balance - previous;
+            lastTouched = System.currentTimeMillis();
+
+            Wallet snapshot = new Wallet(userId, fromCents(balance), currency);
+            snapshot.setId(id);
+            snapshot.setReserved(fromCents(reserved));
+            snapshot.setStatus(status);
+            snapshot.setCreatedAt(createdAt);
+            snapshot.setUpdatedAt(LocalDateTime.now());
+            ResidentMutation mutation = new ResidentMutation(type, amount, transactionId,
+                new BalanceChange(snapshot, fromCents(previous)));
+            mutations.add(mutation);
+            return mutation.result;
+        }
+
+        synchronized PendingDelta drain() {
+            if (mutations.isEmpty()) {
+                return null;
+            }
+            PendingDelta pending = new PendingDelta(this, pendingDelta, mutations);
+            pendingDelta = 0;
+            mutations = new ArrayList<>();
+            return pending;
+        }
+
+        /**
+         * Take a delta that did not commit back out of the balance
+         */
+        synchronized void undo(long delta) {
+            balance -= delta;
+        }
+
+        /**
+         * Resync with the committed row; mutations applied since the drain stay on top of it.
+         * Returns false, evicting this resident, when the row is gone.
+         */
+        synchronized boolean refresh(Wallet committed) {
+            if (committed == null) {
+                evicted = true;
+                WalletNotFoundException gone = new WalletNotFoundException("Wallet not found for user: " + userId);
+                mutations.forEach(mutation -> mutation.result.completeExceptionally(gone));
+                mutations = new ArrayList<>();
+                return false;
+            }
+            balance = toCents(committed.getBalance()) + pendingDelta;
+            reserved = committed.getReserved() != null ? toCents(committed.getReserved()) : 0;
+            status = committed.getStatus();
+            return true;
+        }
+    }
+
+    private static class ResidentMutation {
+        private final MutationType type;
+        private final BigDecimal amount;
+        private final String transactionId;
+        private final CompletableFuture<BalanceChange> result = new CompletableFuture<>();
+        // Set by apply, replaced by a replay
+        private BalanceChange change;
+        private WalletBalanceUpdatedEvent event;
+        private RuntimeException error;
+
+        ResidentMutation(MutationType type, BigDecimal amount, String transactionId, BalanceChange change) {
+            this.type = type;
+            this.amount = amount;
+            this.transactionId = transactionId;
+            this.change = change;
+            this.event = event(change);
+        }
+
+        WalletBalanceUpdatedEvent event(BalanceChange change) {
+            return WalletMutation.event(type, amount, transactionId, change);
+        }
+    }
+
+    private static class PendingDelta {
+        private final ResidentWallet wallet;
+        private final long delta;
+        private final List<ResidentMutation> mutations;
+
+        PendingDelta(ResidentWallet wallet, long delta, List<ResidentMutation> mutations) {
+            this.wallet = wallet;
+            this.delta = delta;
+            this.mutations = mutations;
+        }
+    }
+}
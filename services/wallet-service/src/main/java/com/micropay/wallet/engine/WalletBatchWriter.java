@@ -0,0 +1,214 @@
+package com.micropay.wallet.engine;
+
+import com.micropay.outbox.OutboxWriter;
+import com.micropay.wallet.dto.WalletBalanceUpdatedEvent;
+import com.micropay.wallet.exception.InsufficientBalanceException;
+import com.micropay.wallet.model.Wallet;
+import com.micropay.wallet.model.WalletStatus;
+import com.micropay.wallet.repository.WalletRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Queueing and batch application shared by {@link WalletMutationJournal} and
+ * {@link WalletPartitionWorkers}.
+ *
+ * Both feed {@link WalletMutation}s to background writers that apply a batch in arrival
+ * order, each caller getting its own result or error, and append the batch's
+ * wallet.balance.updated events to the outbox in the same transaction. They differ in how
+ * mutations reach a writer and how a batch reads its wallets, which stay with the engine.
+ */
+final class WalletBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletBatchWriter.class);
+
+    private final String name;
+    private final WalletRepository walletRepository;
+    private final OutboxWriter outboxWriter;
+
+    private volatile boolean stopped;
+
+    WalletBatchWriter(String name, WalletRepository walletRepository, OutboxWriter outboxWriter) {
+        this.name = name;
+        this.walletRepository = walletRepository;
+        this.outboxWriter = outboxWriter;
+    }
+
+    /**
+     * Queue a mutation; the future fails at once if the writer has stopped
+     */
+    CompletableFuture<BalanceChange> submit(WalletMutation mutation, BlockingQueue<WalletMutation> queue) {
+        CompletableFuture<BalanceChange> result = mutation.getResult();
+        if (stopped) {
+            result.completeExceptionally(stoppedException());
+            return result;
+        }
+        try {
+            // Bounded waits so a full queue cannot block a caller past shutdown
+            while (!queue.offer(mutation, 100, TimeUnit.MILLISECONDS)) {
+                if (stopped) {
+                    result.completeExceptionally(stoppedException());
+                    return result;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.completeExceptionally(e);
+            return result;
+        }
+        // Queued after the queues were drained: no writer will take it, so take it back and fail it
+        if (stopped && queue.remove(mutation)) {
+            result.completeExceptionally(stoppedException());
+        }
+        return result;
+    }
+
+    /**
+     * Refuse new mutations from now on
+     */
+    void stopAccepting() {
+        stopped = true;
+    }
+
+    /**
+     * Fail whatever the writers left queued, once they have stopped
+     */
+    void failAbandoned(Collection<BlockingQueue<WalletMutation>> queues) {
+        List<WalletMutation> abandoned = new ArrayList<>();
+        queues.forEach(queue -> queue.drainTo(abandoned));
+        if (!abandoned.isEmpty()) {
+            logger.warn("{} stopped with {} uncommitted mutations; failing them", name, abandoned.size());
+            abandoned.forEach(mutation -> mutation.getResult().completeExceptionally(stoppedException()));
+        }
+    }
+
+    private IllegalStateException stoppedException() {
+        return new IllegalStateException(name + " is stopped");
+    }
+
+    /**
+     * Apply a batch inside the caller's transaction, auto-creating missing wallets
+     *
+     * @param reader loads the batch's existing wallets, locked or not as the engine needs
+     * @return one outcome per mutation, in batch order
+     */
+    List<Outcome> apply(List<WalletMutation> batch, Function<Collection<UUID>, List<Wallet>> reader) {
+        Set<UUID> userIds = new LinkedHashSet<>();
+        batch.forEach(mutation -> userIds.add(mutation.getUserId()));
+
+        Map<UUID, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : reader.apply(userIds)) {
+            wallets.put(wallet.getUserId(), wallet);
+        }
+        for (UUID userId : userIds) {
+            if (!wallets.containsKey(userId)) {
+                logger.warn("Wallet not found for batched mutation for user: {}. Auto-creating wallet.", userId);
+                wallets.put(userId, walletRepository.saveAndFlush(new Wallet(userId, BigDecimal.ZERO, "USD")));
+            }
+        }
+
+        List<Outcome> outcomes = new ArrayList<>(batch.size());
+        List<WalletBalanceUpdatedEvent> events = new ArrayList<>(batch.size());
+        for (WalletMutation mutation : batch) {
+            try {
+                BalanceChange change = applyTo(wallets.get(mutation.getUserId()), mutation.getType(), mutation.getAmount());
+                events.add(mutation.event(change));
+                outcomes.add(Outcome.applied(change));
+            } catch (IllegalStateException | InsufficientBalanceException e) {
+                outcomes.add(Outcome.failed(e));
+            }
+        }
+        // Events commit with the balances they describe, in mutation order
+        outboxWriter.appendAll(WalletBalanceUpdatedEvent.TOPIC, events, event -> event.getUserId().toString());
+        return outcomes;
+    }
+
+    /**
+     * Apply one mutation to a loaded wallet
+     *
+     * @throws IllegalStateException if the wallet is not active
+     * @throws InsufficientBalanceException if a debit exceeds the available balance
+     */
+    static BalanceChange applyTo(Wallet wallet, MutationType type, BigDecimal amount) {
+        if (wallet.getStatus() != WalletStatus.ACTIVE) {
+            throw new IllegalStateException("Wallet is not active. Current status: " + wallet.getStatus());
+        }
+        // Funds held for a pending transfer cannot be debited
+        if (type == MutationType.DEBIT && wallet.getAvailableBalance().compareTo(amount) < 0) {
+            throw new InsufficientBalanceException(
+                String.format("Insufficient balance. Available balance: %s, Requested amount: %s",
+                             wallet.getAvailableBalance(), amount));
+        }
+        BigDecimal previousBalance = wallet.getBalance();
+        wallet.setBalance(type == MutationType.CREDIT ? previousBalance.add(amount) : previousBalance.subtract(amount));
+        return BalanceChange.snapshotOf(wallet, previousBalance);
+    }
+
+    /**
+     * Answer each caller of a committed batch
+     */
+    static void complete(List<WalletMutation> batch, List<Outcome> outcomes) {
+        for (int i = 0; i < batch.size(); i++) {
+            Outcome outcome = outcomes.get(i);
+            if (outcome.error != null) {
+                batch.get(i).getResult().completeExceptionally(outcome.error);
+            } else {
+                batch.get(i).getResult().complete(outcome.change);
+            }
+        }
+    }
+
+    /**
+     * Fail every caller of a batch that could not be committed
+     */
+    static void fail(List<WalletMutation> batch, Throwable error) {
+        batch.forEach(mutation -> mutation.getResult().completeExceptionally(error));
+    }
+
+    /**
+     * Block for a mutation's result, rethrowing its failure as thrown by the engine
+     */
+    static BalanceChange await(CompletableFuture<BalanceChange> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    static final class Outcome {
+        private final BalanceChange change;
+        private final RuntimeException error;
+
+        private Outcome(BalanceChange change, RuntimeException error) {
+            this.change = change;
+            this.error = error;
+        }
+
+        static Outcome applied(BalanceChange change) {
+            return new Outcome(change, null);
+        }
+
+        static Outcome failed(RuntimeException error) {
+            return new Outcome(null, error);
+        }
+    }
+}
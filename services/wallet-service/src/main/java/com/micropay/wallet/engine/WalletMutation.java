@@ -0,0 +1,55 @@
+package com.micropay.wallet.engine;
+
+import com.micropay.wallet.dto.WalletBalanceUpdatedEvent;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * One queued credit or debit and the future its caller waits on
+ */
+class WalletMutation {
+
+    private final UUID userId;
+    private final BigDecimal amount;
+    private final MutationType type;
+    private final String transactionId;
+    private final CompletableFuture<BalanceChange> result = new CompletableFuture<>();
+
+    WalletMutation(UUID userId, BigDecimal amount, MutationType type, String transactionId) {
+        this.userId = userId;
+        this.amount = amount;
+        this.type = type;
+        this.transactionId = transactionId;
+    }
+
+    /**
+     * wallet.balance.updated event describing a mutation once it has been applied
+     */
+    static WalletBalanceUpdatedEvent event(MutationType type, BigDecimal amount, String transactionId,
+                                           BalanceChange change) {
+        return WalletBalanceUpdatedEvent.of(change.getWallet(), change.getPreviousBalance(),
+            type == MutationType.DEBIT ? amount.negate() : amount, type.name(), transactionId);
+    }
+
+    WalletBalanceUpdatedEvent event(BalanceChange change) {
+        return event(type, amount, transactionId, change);
+    }
+
+    UUID getUserId() {
+        return userId;
+    }
+
+    BigDecimal getAmount() {
+        return amount;
+    }
+
+    MutationType getType() {
+        return type;
+    }
+
+    CompletableFuture<BalanceChange> getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,193 @@
+package com.micropay.wallet.engine;
+
+import com.micropay.outbox.OutboxWriter;
+import com.micropay.wallet.engine.WalletBatchWriter.Outcome;
+import com.micropay.wallet.exception.InsufficientBalanceException;
+import com.micropay.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group-commit journal for wallet balance mutations.
+ *
+ * When {@code wallet.engine.mode=journal}, concurrent credits and debits are queued
+ * and a single writer thread commits up to {@code wallet.journal.batch-size} of them
+ * per database transaction, waiting at most {@code wallet.journal.linger-ms} for a
+ * batch to fill. Every wallet in a batch is row-locked once, in userId order, and
+ * mutations are applied in arrival order, so each caller still gets its own result
+ * or {@link InsufficientBalanceException}. The batch's wallet.balance.updated events are
+ * written to the outbox in the same transaction.
+ *
+ * On shutdown the journal stops accepting mutations, gives the writer a few seconds to
+ * commit what is queued, and fails whatever is left so no caller waits forever.
+ */
+@Component
+public class WalletMutationJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletMutationJournal.class);
+    private static final String MODE_JOURNAL = "journal";
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final BlockingQueue<WalletMutation> queue;
+    private final WalletRepository walletRepository;
+    private final WalletBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchFill;
+    private final Timer commitTimer;
+
+    private volatile boolean running;
+    private Thread writer;
+
+    public WalletMutationJournal(@Value("${wallet.engine.mode:jpa}") String mode,
+                                 @Value("${wallet.journal.batch-size:100}") int batchSize,
+                                 @Value("${wallet.journal.linger-ms:5}") long lingerMs,
+                                 @Value("${wallet.journal.queue-capacity:10000}") int queueCapacity,
+                                 WalletRepository walletRepository,
+                                 OutboxWriter outboxWriter,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.enabled = MODE_JOURNAL.equalsIgnoreCase(mode);
+        this.batchSize = Math.max(1, batchSize);
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        this.walletRepository = walletRepository;
+        this.batchWriter = new WalletBatchWriter("Wallet mutation journal", walletRepository, outboxWriter);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchFill = DistributionSummary.builder("wallet.journal.batch.fill")
+            .description("Mutations committed per journal transaction")
+            .baseUnit("mutations")
+            .register(meterRegistry);
+        this.commitTimer = Timer.builder("wallet.journal.commit.latency")
+            .description("Time to commit one journal batch")
+            .register(meterRegistry);
+        meterRegistry.gauge("wallet.journal.queue.depth", queue, BlockingQueue::size);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writer = new Thread(this::runWriter, "wallet-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+        logger.info("Wallet mutation journal enabled with batch size {}, linger {} ms",
+                   batchSize, TimeUnit.NANOSECONDS.toMillis(lingerNanos));
+    }
+
+    @PreDestroy
+    void stop() {
+        batchWriter.stopAccepting();
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        batchWriter.failAbandoned(List.of(queue));
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Credit through the journal, blocking until the batch holding it commits
+     */
+    public BalanceChange credit(UUID userId, BigDecimal amount, String transactionId) {
+        return WalletBatchWriter.await(submit(userId, amount, MutationType.CREDIT, transactionId));
+    }
+
+    /**
+     * Debit through the journal, blocking until the batch holding it commits
+     */
+    public BalanceChange debit(UUID userId, BigDecimal amount, String transactionId) {
+        return WalletBatchWriter.await(submit(userId, amount, MutationType.DEBIT, transactionId));
+    }
+
+    /**
+     * Queue a mutation; the future completes once its batch has committed, or fails at once
+     * if the journal has stopped
+     */
+    public CompletableFuture<BalanceChange> submit(UUID userId, BigDecimal amount, MutationType type,
+                                                 String transactionId) {
+        return batchWriter.submit(new WalletMutation(userId, amount, type, transactionId), queue);
+    }
+
+    private void runWriter() {
+        List<WalletMutation> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                WalletMutation first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    WalletMutation next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Wallet journal batch of {} mutations failed", batch.size(), e);
+                WalletBatchWriter.fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void commit(List<WalletMutation> batch) {
+        long start = System.nanoTime();
+        List<Outcome> outcomes;
+        try {
+            outcomes = transactionTemplate.execute(status -> apply(batch));
+        } catch (DataIntegrityViolationException e) {
+            // A wallet auto-created in this batch raced with another creator; it exists now
+            logger.warn("Wallet creation race in journal batch, retrying once");
+            outcomes = transactionTemplate.execute(status -> apply(batch));
+        } finally {
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        batchFill.record(batch.size());
+        WalletBatchWriter.complete(batch, outcomes);
+    }
+
+    private List<Outcome> apply(List<WalletMutation> batch) {
+        // Row locks taken in userId order, so concurrent batches cannot deadlock
+        return batchWriter.apply(batch, userIds -> walletRepository.findAllByUserIdInWithLock(new TreeSet<>(userIds)));
+    }
+}
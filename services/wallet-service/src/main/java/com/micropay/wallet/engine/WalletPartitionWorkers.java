@@ -0,0 +1,238 @@
+package com.micropay.wallet.engine;
+
+import com.micropay.outbox.OutboxWriter;
+import com.micropay.wallet.engine.WalletBatchWriter.Outcome;
+import com.micropay.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.kafka.common.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-writer wallet partitions.
+ *
+ * When {@code wallet.engine.mode=partitioned}, every credit and debit (HTTP, batch and the
+ * payment.refunded consumer alike) is routed to one of {@code wallet.partitions.count}
+ * worker threads. The partition of a wallet is the one Kafka's default partitioner picks
+ * for its userId key, and the count defaults to the partition count wallet.balance.updated
+ * is provisioned with ({@code wallet.topics.partitions}), so worker N writes exactly the
+ * wallets whose events land on partition N.
+ *
+ * A worker is the only writer of its wallets in this instance, so it reads them without
+ * {@code SELECT ... FOR UPDATE}, applies its queued mutations in arrival order and commits
+ * whatever queued up while the previous transaction ran in one go, together with the
+ * outbox rows of their wallet.balance.updated events. Writes from outside the
+ * partition (holds, another instance) are caught by the wallet version: the batch is
+ * re-read and re-applied, up to {@code wallet.partitions.max-attempts} times.
+ *
+ * On shutdown new mutations are rejected, the workers get a few seconds to commit their
+ * queues, and anything still queued after that is failed rather than left waiting.
+ */
+@Component
+public class WalletPartitionWorkers {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletPartitionWorkers.class);
+    private static final String MODE_PARTITIONED = "partitioned";
+
+    private final boolean enabled;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Partition[] partitions;
+    private final WalletRepository walletRepository;
+    private final WalletBatchWriter batchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final DistributionSummary batchFill;
+    private final Timer commitTimer;
+    private final Counter conflicts;
+
+    private volatile boolean running;
+
+    public WalletPartitionWorkers(@Value("${wallet.engine.mode:jpa}") String mode,
+                                  @Value("${wallet.partitions.count:${wallet.topics.partitions:3}}") int partitionCount,
+                                  @Value("${wallet.partitions.batch-size:100}") int batchSize,
+                                  @Value("${wallet.partitions.queue-capacity:10000}") int queueCapacity,
+                                  @Value("${wallet.partitions.max-attempts:3}") int maxAttempts,
+                                  WalletRepository walletRepository,
+                                  OutboxWriter outboxWriter,
+                                  PlatformTransactionManager transactionManager,
+                                  MeterRegistry meterRegistry) {
+        this.enabled = MODE_PARTITIONED.equalsIgnoreCase(mode);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.partitions = new Partition[Math.max(1, partitionCount)];
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i] = new Partition(i, queueCapacity);
+            Gauge.builder("wallet.partitions.queue.depth", partitions[i].queue, BlockingQueue::size)
+                .tag("partition", String.valueOf(i))
+                .description("Mutations waiting for a wallet partition worker")
+                .register(meterRegistry);
+        }
+        this.walletRepository = walletRepository;
+        this.batchWriter = new WalletBatchWriter("Wallet partition workers", walletRepository, outboxWriter);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchFill = DistributionSummary.builder("wallet.partitions.batch.fill")
+            .description("Mutations committed per partition worker transaction")
+            .baseUnit("mutations")
+            .register(meterRegistry);
+        this.commitTimer = Timer.builder("wallet.partitions.commit.latency")
+            .description("Time to commit one partition worker batch")
+            .register(meterRegistry);
+        this.conflicts = Counter.builder("wallet.partitions.conflicts")
+            .description("Partition batches re-applied after a write from outside the partition")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        for (Partition partition : partitions) {
+            partition.worker = new Thread(() -> runWorker(partition), "wallet-partition-" + partition.index);
+            partition.worker.setDaemon(true);
+            partition.worker.start();
+        }
+        logger.info("Wallet partition workers enabled: {} partitions, batch size {}", partitions.length, batchSize);
+    }
+
+    @PreDestroy
+    void stop() {
+        batchWriter.stopAccepting();
+        running = false;
+        for (Partition partition : partitions) {
+            if (partition.worker == null) {
+                continue;
+            }
+            try {
+                partition.worker.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        batchWriter.failAbandoned(Arrays.stream(partitions).map(partition -> partition.queue).toList());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Credit through the wallet's partition worker, blocking until it commits
+     */
+    public BalanceChange credit(UUID userId, BigDecimal amount, String transactionId) {
+        return WalletBatchWriter.await(submit(userId, amount, MutationType.CREDIT, transactionId));
+    }
+
+    /**
+     * Debit through the wallet's partition worker, blocking until it commits
+     */
+    public BalanceChange debit(UUID userId, BigDecimal amount, String transactionId) {
+        return WalletBatchWriter.await(submit(userId, amount, MutationType.DEBIT, transactionId));
+    }
+
+    /**
+     * Queue a mutation on the wallet's partition; the future completes once it has committed,
+     * or fails at once if the workers have stopped
+     */
+    public CompletableFuture<BalanceChange> submit(UUID userId, BigDecimal amount, MutationType type,
+                                                 String transactionId) {
+        return batchWriter.submit(new WalletMutation(userId, amount, type, transactionId),
+            partitions[partitionFor(userId, partitions.length)].queue);
+    }
+
+    /**
+     * Partition Kafka's default partitioner assigns to a record keyed by {@code userId}
+     */
+    static int partitionFor(UUID userId, int partitionCount) {
+        byte[] key = userId.toString().getBytes(StandardCharsets.UTF_8);
+        return Utils.toPositive(Utils.murmur2(key)) % partitionCount;
+    }
+
+    private void runWorker(Partition partition) {
+        List<WalletMutation> batch = new ArrayList<>(batchSize);
+        while (running || !partition.queue.isEmpty()) {
+            try {
+                WalletMutation first = partition.queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                // No linger: whatever queued while the last commit ran goes into this one
+                partition.queue.drainTo(batch, batchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                logger.error("Wallet partition {} batch of {} mutations failed", partition.index, batch.size(), e);
+                WalletBatchWriter.fail(batch, e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void commit(List<WalletMutation> batch) {
+        long start = System.nanoTime();
+        List<Outcome> outcomes;
+        try {
+            outcomes = applyWithRetry(batch);
+        } finally {
+            commitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        batchFill.record(batch.size());
+        WalletBatchWriter.complete(batch, outcomes);
+    }
+
+    private List<Outcome> applyWithRetry(List<WalletMutation> batch) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                // Plain reads: this worker is the only writer of these wallets, the version guards the rest
+                return transactionTemplate.execute(status -> batchWriter.apply(batch, walletRepository::findAllByUserIdIn));
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                // A hold, another instance or a concurrent wallet creation wrote one of our wallets
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                conflicts.increment();
+                logger.debug("Wallet partition batch conflicted with an outside write, re-applying (attempt {})", attempt);
+            }
+        }
+    }
+
+    private static final class Partition {
+        private final int index;
+        private final BlockingQueue<WalletMutation> queue;
+        private Thread worker;
+
+        private Partition(int index, int queueCapacity) {
+            this.index = index;
+            this.queue = new LinkedBlockingQueue<>(queueCapacity);
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.micropay.wallet.exception;
+
+/**
+ * Exception thrown when a hold was already settled in a way that conflicts with the request,
+ * e.g. committing a hold that expired
+ */
+public class HoldNotActiveException extends RuntimeException {
+
+    public HoldNotActiveException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,11 @@
+package com.micropay.wallet.exception;
+
+/**
+ * Exception thrown when a wallet hold is not found
+ */
+public class HoldNotFoundException extends RuntimeException {
+
+    public HoldNotFoundException(String message) {
+        super(message);
+    }
+}
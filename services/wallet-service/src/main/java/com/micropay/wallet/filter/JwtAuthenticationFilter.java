@@ -1,8 +1,11 @@
 package com.micropay.wallet.filter;
 
+import com.micropay.events.revocation.RevokedTokenIndex;
+import com.micropay.security.identity.IdentityHeaderVerifier;
+import com.micropay.security.jwt.VerifiedToken;
 import com.micropay.wallet.util.JwtUtil;
-import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.security.SignatureException;
 import jakarta.servlet.FilterChain;
@@ -27,30 +30,43 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private IdentityHeaderVerifier identityHeaderVerifier;
+
+    @Autowired
+    private RevokedTokenIndex revokedTokenIndex;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
             throws ServletException, IOException {
         
         try {
+            // Identity signed by the gateway after it verified the JWT: one HMAC check instead of a full parse
+            UsernamePasswordAuthenticationToken gatewayIdentity = identityHeaderVerifier.verify(request);
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt)) {
-                Claims claims = jwtUtil.getAllClaimsFromToken(jwt);
-                
-                @SuppressWarnings("unchecked")
-                List<String> authorities = (List<String>) claims.get("authorities");
-                
-                if (authorities == null) {
+            if (jwt != null && revokedTokenIndex.isRevoked(jwt)) {
+                // Logged out: learned from token.revoked, so neither path may authenticate it
+                logger.warn("Rejected revoked JWT");
+            } else if (gatewayIdentity != null) {
+                SecurityContextHolder.getContext().setAuthentication(gatewayIdentity);
+            } else if (StringUtils.hasText(jwt)) {
+                // One parse: signature, expiry, subject and authorities together; a token without exp is refused
+                VerifiedToken verified = jwtUtil.verify(jwt);
+
+                List<String> authorities = verified.getAuthorities();
+
+                if (authorities.isEmpty()) {
                     authorities = List.of("ROLE_USER");
                 }
-                
+
                 List<SimpleGrantedAuthority> grantedAuthorities = authorities.stream()
                         .map(SimpleGrantedAuthority::new)
                         .collect(Collectors.toList());
-                
-                UsernamePasswordAuthenticationToken authentication = 
-                    new UsernamePasswordAuthenticationToken(claims.getSubject(), null, grantedAuthorities);
-                
+
+                UsernamePasswordAuthenticationToken authentication =
+                    new UsernamePasswordAuthenticationToken(verified.getSubject(), null, grantedAuthorities);
+
                 SecurityContextHolder.getContext().setAuthentication(authentication);
             }
         } catch (ExpiredJwtException ex) {
@@ -62,6 +78,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         } catch (MalformedJwtException ex) {
             logger.error("Wallet Service: Malformed JWT token - " + ex.getMessage());
             SecurityContextHolder.clearContext();
+        } catch (JwtException ex) {
+            logger.warn("Wallet Service: Rejected JWT - " + ex.getMessage());
+            SecurityContextHolder.clearContext();
         } catch (Exception ex) {
             logger.error("Wallet Service: Unexpected error parsing JWT", ex);
             SecurityContextHolder.clearContext();
@@ -0,0 +1,72 @@
+package com.micropay.wallet.kafka;
+
+import com.micropay.events.consumer.KeyOrderedExecutor;
+import com.micropay.events.dto.PaymentRefundedEvent;
+import com.micropay.wallet.service.WalletService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Kafka consumer for payment.refunded events
+ * Credits the refunded amount back to the user's wallet
+ */
+@Component
+public class PaymentRefundedEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(PaymentRefundedEventConsumer.class);
+
+    private final WalletService walletService;
+    private final KeyOrderedExecutor keyOrderedExecutor;
+
+    public PaymentRefundedEventConsumer(WalletService walletService, KeyOrderedExecutor keyOrderedExecutor) {
+        this.walletService = walletService;
+        this.keyOrderedExecutor = keyOrderedExecutor;
+    }
+
+    /**
+     * Consume payment.refunded events from Kafka, one poll at a time
+     * Refunds to different wallets are credited in parallel on the executor's lanes, refunds
+     * to one wallet in the order they were read; the poll is acknowledged once all are done
+     */
+    @KafkaListener(topics = "payment.refunded", groupId = "wallet-service-consumer-group",
+                   containerFactory = "paymentRefundedListenerContainerFactory",
+                   concurrency = "${wallet.consumer.payment-refunded.concurrency:${wallet.consumer.concurrency:3}}")
+    public void consumePaymentRefundedEvents(@Payload List<PaymentRefundedEvent> events, Acknowledgment acknowledgment) {
+        try {
+            logger.info("Received {} payment.refunded events", events.size());
+
+            List<PaymentRefundedEvent> valid = new ArrayList<>(events.size());
+            for (PaymentRefundedEvent event : events) {
+                // A record that failed to deserialize arrives as null
+                if (event == null || event.getUserId() == null || event.getPaymentId() == null) {
+                    logger.error("User or payment ID is null in payment.refunded event: {}", event);
+                    continue;
+                }
+                valid.add(event);
+            }
+
+            List<KeyOrderedExecutor.Failure<PaymentRefundedEvent>> failures = keyOrderedExecutor.processAll(
+                valid, PaymentRefundedEvent::getUserId,
+                event -> walletService.creditWallet(event.getUserId(), event.getAmount(), event.getPaymentId().toString()));
+
+            for (KeyOrderedExecutor.Failure<PaymentRefundedEvent> failure : failures) {
+                logger.error("Error processing payment.refunded event for payment: {}",
+                            failure.getRecord().getPaymentId(), failure.getError());
+            }
+            logger.debug("Credited {} of {} refunds", valid.size() - failures.size(), events.size());
+        } catch (Exception e) {
+            logger.error("Error processing batch of {} payment.refunded events", events.size(), e);
+        } finally {
+            // In production, implement retry logic or send to dead letter queue
+            // For now, acknowledge to prevent infinite retries
+            acknowledgment.acknowledge();
+        }
+    }
+}
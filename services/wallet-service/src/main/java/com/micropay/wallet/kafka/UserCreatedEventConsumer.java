@@ -32,7 +32,8 @@ public class UserCreatedEventConsumer {
      * Consume user.created events from Kafka
      * Creates a wallet for the new user
      */
-    @KafkaListener(topics = "user.created", groupId = "wallet-service-group", containerFactory = "kafkaListenerContainerFactory")
+    @KafkaListener(topics = "user.created", groupId = "wallet-service-group", containerFactory = "kafkaListenerContainerFactory",
+                   concurrency = "${wallet.consumer.user-created.concurrency:${wallet.consumer.concurrency:3}}")
     public void consumeUserCreatedEvent(
             @Payload UserCreatedEvent event,
             @Header(KafkaHeaders.RECEIVED_KEY) String key,
@@ -0,0 +1,11 @@
+package com.micropay.wallet.model;
+
+/**
+ * Wallet hold lifecycle: ACTIVE until committed, released or expired
+ */
+public enum HoldStatus {
+    ACTIVE,
+    COMMITTED,
+    RELEASED,
+    EXPIRED
+}
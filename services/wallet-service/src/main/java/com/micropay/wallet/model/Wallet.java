@@ -24,6 +24,10 @@ public class Wallet {
     @Column(name = "balance", nullable = false, precision = 19, scale = 2)
     private BigDecimal balance;
 
+    // Part of the balance set aside by active holds; available = balance - reserved
+    @Column(name = "reserved", nullable = false, precision = 19, scale = 2)
+    private BigDecimal reserved = BigDecimal.ZERO;
+
     @Column(name = "currency", nullable = false, length = 3)
     private String currency;
 
@@ -96,6 +100,21 @@ public class Wallet {
         this.balance = balance;
     }
 
+    public BigDecimal getReserved() {
+        return reserved;
+    }
+
+    public void setReserved(BigDecimal reserved) {
+        this.reserved = reserved;
+    }
+
+    /**
+     * Balance not set aside by holds, the most a debit or new hold can take
+     */
+    public BigDecimal getAvailableBalance() {
+        return reserved != null ? balance.subtract(reserved) : balance;
+    }
+
     public String getCurrency() {
         return currency;
     }
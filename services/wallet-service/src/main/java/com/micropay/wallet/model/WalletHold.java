@@ -0,0 +1,140 @@
+package com.micropay.wallet.model;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Funds reserved against a wallet until they are committed (debited), released or expire
+ */
+@Entity
+@Table(name = "wallet_holds", indexes = {
+    @Index(name = "idx_wallet_hold_reference", columnList = "reference", unique = true),
+    @Index(name = "idx_wallet_hold_user_id", columnList = "user_id")
+})
+public class WalletHold {
+
+    @Id
+    @Column(name = "hold_id")
+    private UUID holdId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "amount", nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "currency", nullable = false, length = 3)
+    private String currency;
+
+    @Column(name = "status", nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private HoldStatus status;
+
+    @Column(name = "reference", length = 100)
+    private String reference;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(name = "settled_at")
+    private LocalDateTime settledAt;
+
+    public WalletHold() {
+    }
+
+    public WalletHold(UUID userId, BigDecimal amount, String currency, String reference, LocalDateTime expiresAt) {
+        this.holdId = UUID.randomUUID();
+        this.userId = userId;
+        this.amount = amount;
+        this.currency = currency;
+        this.reference = reference;
+        this.status = HoldStatus.ACTIVE;
+        this.createdAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Move an ACTIVE hold to its final status
+     */
+    public void settle(HoldStatus finalStatus) {
+        this.status = finalStatus;
+        this.settledAt = LocalDateTime.now();
+    }
+
+    public UUID getHoldId() {
+        return holdId;
+    }
+
+    public void setHoldId(UUID holdId) {
+        this.holdId = holdId;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public void setUserId(UUID userId) {
+        this.userId = userId;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public HoldStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(HoldStatus status) {
+        this.status = status;
+    }
+
+    public String getReference() {
+        return reference;
+    }
+
+    public void setReference(String reference) {
+        this.reference = reference;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void setExpiresAt(LocalDateTime expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
+    public LocalDateTime getSettledAt() {
+        return settledAt;
+    }
+
+    public void setSettledAt(LocalDateTime settledAt) {
+        this.settledAt = settledAt;
+    }
+}
@@ -0,0 +1,37 @@
+package com.micropay.wallet.repository;
+
+import com.micropay.wallet.model.HoldStatus;
+import com.micropay.wallet.model.WalletHold;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for WalletHold entity
+ */
+@Repository
+public interface WalletHoldRepository extends JpaRepository<WalletHold, UUID> {
+
+    /**
+     * Lock a hold before settling it, so commit, release and expiry cannot race
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT h FROM WalletHold h WHERE h.holdId = :holdId")
+    Optional<WalletHold> findByIdWithLock(UUID holdId);
+
+    Optional<WalletHold> findByReference(String reference);
+
+    /**
+     * Holds in {@code status} that expire at or before {@code before}, soonest first
+     */
+    @Query("SELECT h FROM WalletHold h WHERE h.status = :status AND h.expiresAt <= :before ORDER BY h.expiresAt")
+    List<WalletHold> findByStatusExpiringBefore(HoldStatus status, LocalDateTime before, Limit limit);
+}
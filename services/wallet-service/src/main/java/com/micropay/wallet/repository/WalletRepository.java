@@ -3,10 +3,15 @@ package com.micropay.wallet.repository;
 import com.micropay.wallet.model.Wallet;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -23,20 +28,53 @@ public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     @Query("SELECT w FROM Wallet w WHERE w.userId = :userId")
     Optional<Wallet> findByUserIdWithLock(UUID userId);
 
+    /**
+     * Lock several wallets at once, in userId order so concurrent batches cannot deadlock
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM Wallet w WHERE w.userId IN :userIds ORDER BY w.userId")
+    List<Wallet> findAllByUserIdInWithLock(Collection<UUID> userIds);
+
     /**
      * Find wallet by user ID
      */
     Optional<Wallet> findByUserId(UUID userId);
 
+    /**
+     * Find several wallets without locking them (single-writer partitions rely on the version instead)
+     */
+    List<Wallet> findAllByUserIdIn(Collection<UUID> userIds);
+
     /**
      * Check if wallet exists for user
      */
     boolean existsByUserId(UUID userId);
-}
-
-
-
-
 
+    /**
+     * Apply a net balance delta in place (used by group commits of resident balances),
+     * only while the wallet is active and the result still covers its reserved funds;
+     * returns 0 when the guard fails
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.balance = w.balance + :delta, w.updatedAt = :updatedAt, " +
+           "w.version = w.version + 1 WHERE w.userId = :userId " +
+           "AND w.status = com.micropay.wallet.model.WalletStatus.ACTIVE AND w.balance + :delta >= w.reserved")
+    int applyBalanceDelta(UUID userId, BigDecimal delta, LocalDateTime updatedAt);
 
+    /**
+     * Set funds aside for a hold if the available balance covers them; 0 rows when it does not
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.reserved = w.reserved + :amount, w.updatedAt = :updatedAt, " +
+           "w.version = w.version + 1 WHERE w.userId = :userId " +
+           "AND w.status = com.micropay.wallet.model.WalletStatus.ACTIVE AND w.balance - w.reserved >= :amount")
+    int reserve(UUID userId, BigDecimal amount, LocalDateTime updatedAt);
 
+    /**
+     * Return funds set aside by a hold to the available balance
+     */
+    @Modifying
+    @Query("UPDATE Wallet w SET w.reserved = w.reserved - :amount, w.updatedAt = :updatedAt, " +
+           "w.version = w.version + 1 WHERE w.userId = :userId")
+    int releaseReserved(UUID userId, BigDecimal amount, LocalDateTime updatedAt);
+}
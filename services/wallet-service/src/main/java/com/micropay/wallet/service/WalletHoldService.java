@@ -0,0 +1,404 @@
+package com.micropay.wallet.service;
+
+import com.micropay.wallet.cache.WalletBalanceCache;
+import com.micropay.wallet.dto.HoldResponse;
+import com.micropay.wallet.engine.StripedBalanceEngine;
+import com.micropay.wallet.exception.HoldNotActiveException;
+import com.micropay.wallet.exception.HoldNotFoundException;
+import com.micropay.wallet.exception.InsufficientBalanceException;
+import com.micropay.wallet.exception.WalletNotFoundException;
+import com.micropay.wallet.model.HoldStatus;
+import com.micropay.wallet.model.Wallet;
+import com.micropay.wallet.model.WalletHold;
+import com.micropay.wallet.model.WalletStatus;
+import com.micropay.wallet.repository.WalletHoldRepository;
+import com.micropay.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Two-phase fund holds: reserve now, then commit (debit) or release.
+ *
+ * A reserve moves the amount from available to reserved with one conditional UPDATE, so
+ * it either fits the available balance or fails without any lock held past the statement.
+ * Debits and new holds only see {@code balance - reserved}, so a committed hold can never
+ * overdraw the wallet. Commit, release and expiry lock the hold row and then the wallet,
+ * each in its own short transaction. Every step publishes wallet.balance.updated from that
+ * transaction, so consumers see the available balance move even when the balance does not.
+ *
+ * Holds carry a TTL. Holds reserved here are kept in an in-memory index ordered by
+ * expiry and released by a sweeper thread as they fall due; a periodic database scan
+ * picks up holds reserved by other instances or before a restart.
+ *
+ * Holds need the row-based engines ({@code wallet.engine.mode=jpa|journal|partitioned}):
+ * striped mode keeps balances in memory, where reservations are not visible.
+ */
+@Service
+public class WalletHoldService {
+
+    private static final Logger logger = LoggerFactory.getLogger(WalletHoldService.class);
+    private static final int RECONCILE_BATCH_SIZE = 500;
+
+    private final WalletRepository walletRepository;
+    private final WalletHoldRepository holdRepository;
+    private final WalletService walletService;
+    private final WalletBalanceCache balanceCache;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean supported;
+    private final Duration defaultTtl;
+    private final Duration maxTtl;
+    private final long sweepIntervalMs;
+    private final long reconcileIntervalMs;
+
+    private final ConcurrentSkipListSet<ExpiryKey> expiryIndex = new ConcurrentSkipListSet<>();
+    private final Map<UUID, ExpiryKey> indexedHolds = new ConcurrentHashMap<>();
+    private final Counter reservedHolds;
+    private final Counter committedHolds;
+    private final Counter releasedHolds;
+    private final Counter expiredHolds;
+
+    private ScheduledExecutorService sweeper;
+    private long lastReconcileAt;
+
+    public WalletHoldService(WalletRepository walletRepository,
+                             WalletHoldRepository holdRepository,
+                             WalletService walletService,
+                             WalletBalanceCache balanceCache,
+                             StripedBalanceEngine balanceEngine,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${wallet.holds.default-ttl-seconds:60}") long defaultTtlSeconds,
+                             @Value("${wallet.holds.max-ttl-seconds:900}") long maxTtlSeconds,
+                             @Value("${wallet.holds.sweep-interval-ms:1000}") long sweepIntervalMs,
+                             @Value("${wallet.holds.reconcile-interval-ms:60000}") long reconcileIntervalMs) {
+        this.walletRepository = walletRepository;
+        this.holdRepository = holdRepository;
+        this.walletService = walletService;
+        this.balanceCache = balanceCache;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.supported = !balanceEngine.isEnabled();
+        this.defaultTtl = Duration.ofSeconds(defaultTtlSeconds);
+        this.maxTtl = Duration.ofSeconds(maxTtlSeconds);
+        this.sweepIntervalMs = sweepIntervalMs;
+        this.reconcileIntervalMs = reconcileIntervalMs;
+
+        this.reservedHolds = holdCounter(meterRegistry, "reserved");
+        this.committedHolds = holdCounter(meterRegistry, "committed");
+        this.releasedHolds = holdCounter(meterRegistry, "released");
+        this.expiredHolds = holdCounter(meterRegistry, "expired");
+        meterRegistry.gauge("wallet.holds.indexed", indexedHolds, Map::size);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!supported) {
+            logger.info("Wallet holds disabled: not available with the striped balance engine");
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "wallet-hold-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweep, sweepIntervalMs, sweepIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Set {@code amount} aside on the user's wallet until committed, released or expired.
+     * A repeated call with the same {@code reference} returns the original hold.
+     */
+    public HoldResponse reserve(UUID userId, BigDecimal amount, Long ttlSeconds, String reference) {
+        requireSupported();
+        if (reference != null) {
+            Optional<WalletHold> existing = holdRepository.findByReference(reference);
+            if (existing.isPresent()) {
+                return mapToResponse(requireSameHold(existing.get(), userId, amount));
+            }
+        }
+
+        Duration ttl = resolveTtl(ttlSeconds);
+        WalletHold hold;
+        try {
+            hold = transactionTemplate.execute(status -> reserveWithinTransaction(userId, amount, reference, ttl));
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent reserve with the same reference won; its hold is the answer
+            if (reference == null) {
+                throw e;
+            }
+            WalletHold existing = holdRepository.findByReference(reference).orElseThrow(() -> e);
+            return mapToResponse(requireSameHold(existing, userId, amount));
+        }
+
+        index(hold);
+        balanceCache.evict(userId);
+        reservedHolds.increment();
+        logger.info("Reserved {} {} for user: {} as hold {} until {}",
+                   amount, hold.getCurrency(), userId, hold.getHoldId(), hold.getExpiresAt());
+        return mapToResponse(hold);
+    }
+
+    /**
+     * Debit the held amount. Committing twice is a no-op; committing a released or
+     * expired hold is refused.
+     */
+    public HoldResponse commit(UUID holdId) {
+        requireSupported();
+        WalletHold hold = transactionTemplate.execute(status -> {
+            WalletHold locked = findWithLock(holdId);
+            if (locked.getStatus() == HoldStatus.COMMITTED) {
+                return locked;
+            }
+            if (locked.getStatus() == HoldStatus.ACTIVE && !locked.getExpiresAt().isAfter(LocalDateTime.now())) {
+                // Due but not yet swept: it expires now rather than being committed late
+                settleWithoutDebit(locked, HoldStatus.EXPIRED);
+                return locked;
+            }
+            if (locked.getStatus() != HoldStatus.ACTIVE) {
+                return locked;
+            }
+
+            Wallet wallet = walletRepository.findByUserIdWithLock(locked.getUserId())
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found for user: " + locked.getUserId()));
+            BigDecimal previousBalance = wallet.getBalance();
+            wallet.setBalance(previousBalance.subtract(locked.getAmount()));
+            wallet.setReserved(wallet.getReserved().subtract(locked.getAmount()));
+            walletRepository.save(wallet);
+            locked.settle(HoldStatus.COMMITTED);
+            committedHolds.increment();
+
+            walletService.publishBalanceUpdatedEvent(wallet, previousBalance, locked.getAmount().negate(), "DEBIT",
+                locked.getReference() != null ? locked.getReference() : holdId.toString());
+            logger.info("Committed hold {} for user: {}. Previous balance: {}, Amount: {}, New balance: {}",
+                       holdId, locked.getUserId(), previousBalance, locked.getAmount(), wallet.getBalance());
+            return locked;
+        });
+
+        settled(hold);
+        if (hold.getStatus() != HoldStatus.COMMITTED) {
+            throw new HoldNotActiveException("Hold " + holdId + " is " + hold.getStatus() + " and cannot be committed");
+        }
+        return mapToResponse(hold);
+    }
+
+    /**
+     * Return the held amount to the available balance. Releasing a released or expired
+     * hold is a no-op; releasing a committed hold is refused.
+     */
+    public HoldResponse release(UUID holdId) {
+        requireSupported();
+        WalletHold hold = transactionTemplate.execute(status -> {
+            WalletHold locked = findWithLock(holdId);
+            if (locked.getStatus() == HoldStatus.ACTIVE) {
+                settleWithoutDebit(locked, HoldStatus.RELEASED);
+                logger.info("Released hold {} for user: {}", holdId, locked.getUserId());
+            }
+            return locked;
+        });
+
+        settled(hold);
+        if (hold.getStatus() == HoldStatus.COMMITTED) {
+            throw new HoldNotActiveException("Hold " + holdId + " is already committed and cannot be released");
+        }
+        return mapToResponse(hold);
+    }
+
+    public HoldResponse getHold(UUID holdId) {
+        return holdRepository.findById(holdId)
+            .map(this::mapToResponse)
+            .orElseThrow(() -> new HoldNotFoundException("Hold not found: " + holdId));
+    }
+
+    /**
+     * Release holds that fell due; runs on the sweeper thread
+     */
+    void sweep() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            ExpiryKey due = expiryIndex.isEmpty() ? null : expiryIndex.first();
+            while (due != null && !due.expiresAt.isAfter(now)) {
+                expiryIndex.remove(due);
+                indexedHolds.remove(due.holdId, due);
+                expire(due.holdId);
+                due = expiryIndex.isEmpty() ? null : expiryIndex.first();
+            }
+
+            long nowMillis = System.currentTimeMillis();
+            if (nowMillis - lastReconcileAt >= reconcileIntervalMs) {
+                lastReconcileAt = nowMillis;
+                for (WalletHold hold : holdRepository.findByStatusExpiringBefore(
+                        HoldStatus.ACTIVE, now, Limit.of(RECONCILE_BATCH_SIZE))) {
+                    expire(hold.getHoldId());
+                }
+            }
+        } catch (RuntimeException e) {
+            // Keep the sweeper scheduled; due holds are picked up again on the next run
+            logger.error("Wallet hold expiry sweep failed", e);
+        }
+    }
+
+    int indexedHoldCount() {
+        return indexedHolds.size();
+    }
+
+    private void expire(UUID holdId) {
+        WalletHold hold = transactionTemplate.execute(status -> {
+            WalletHold locked = holdRepository.findByIdWithLock(holdId).orElse(null);
+            if (locked == null || locked.getStatus() != HoldStatus.ACTIVE
+                    || locked.getExpiresAt().isAfter(LocalDateTime.now())) {
+                return null;
+            }
+            settleWithoutDebit(locked, HoldStatus.EXPIRED);
+            return locked;
+        });
+        if (hold != null) {
+            balanceCache.evict(hold.getUserId());
+            logger.info("Expired hold {} for user: {} ({} {})", holdId, hold.getUserId(), hold.getAmount(), hold.getCurrency());
+        }
+    }
+
+    private WalletHold reserveWithinTransaction(UUID userId, BigDecimal amount, String reference, Duration ttl) {
+        LocalDateTime now = LocalDateTime.now();
+        if (walletRepository.reserve(userId, amount, now) == 0) {
+            Wallet wallet = walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new WalletNotFoundException("Wallet not found for user: " + userId));
+            if (wallet.getStatus() != WalletStatus.ACTIVE) {
+                throw new IllegalStateException("Wallet is not active. Current status: " + wallet.getStatus());
+            }
+            throw new InsufficientBalanceException(
+                String.format("Insufficient balance. Available balance: %s, Requested amount: %s",
+                             wallet.getAvailableBalance(), amount)
+            );
+        }
+
+        Wallet wallet = walletRepository.findByUserId(userId)
+            .orElseThrow(() -> new WalletNotFoundException("Wallet not found for user: " + userId));
+        WalletHold hold = holdRepository.saveAndFlush(
+            new WalletHold(userId, amount, wallet.getCurrency(), reference, now.plus(ttl)));
+        publishAvailableBalance(wallet, "HOLD_RESERVED", hold);
+        return hold;
+    }
+
+    private void settleWithoutDebit(WalletHold hold, HoldStatus finalStatus) {
+        walletRepository.releaseReserved(hold.getUserId(), hold.getAmount(), LocalDateTime.now());
+        hold.settle(finalStatus);
+        (finalStatus == HoldStatus.EXPIRED ? expiredHolds : releasedHolds).increment();
+
+        Wallet wallet = walletRepository.findByUserId(hold.getUserId())
+            .orElseThrow(() -> new WalletNotFoundException("Wallet not found for user: " + hold.getUserId()));
+        publishAvailableBalance(wallet, finalStatus == HoldStatus.EXPIRED ? "HOLD_EXPIRED" : "HOLD_RELEASED", hold);
+    }
+
+    /**
+     * Balance event for a reservation change: the balance stays, the available balance moves
+     */
+    private void publishAvailableBalance(Wallet wallet, String transactionType, WalletHold hold) {
+        walletService.publishBalanceUpdatedEvent(wallet, wallet.getBalance(), BigDecimal.ZERO, transactionType,
+            hold.getReference() != null ? hold.getReference() : hold.getHoldId().toString());
+    }
+
+    private WalletHold findWithLock(UUID holdId) {
+        return holdRepository.findByIdWithLock(holdId)
+            .orElseThrow(() -> new HoldNotFoundException("Hold not found: " + holdId));
+    }
+
+    private WalletHold requireSameHold(WalletHold hold, UUID userId, BigDecimal amount) {
+        if (!hold.getUserId().equals(userId) || hold.getAmount().compareTo(amount) != 0) {
+            throw new IllegalStateException("Reference " + hold.getReference() + " is already used by another hold");
+        }
+        return hold;
+    }
+
+    private Duration resolveTtl(Long ttlSeconds) {
+        if (ttlSeconds == null) {
+            return defaultTtl;
+        }
+        Duration requested = Duration.ofSeconds(ttlSeconds);
+        return requested.compareTo(maxTtl) > 0 ? maxTtl : requested;
+    }
+
+    private void requireSupported() {
+        if (!supported) {
+            throw new IllegalStateException("Wallet holds are not available with wallet.engine.mode=striped");
+        }
+    }
+
+    private void index(WalletHold hold) {
+        ExpiryKey key = new ExpiryKey(hold.getExpiresAt(), hold.getHoldId());
+        indexedHolds.put(hold.getHoldId(), key);
+        expiryIndex.add(key);
+    }
+
+    private void settled(WalletHold hold) {
+        ExpiryKey key = indexedHolds.remove(hold.getHoldId());
+        if (key != null) {
+            expiryIndex.remove(key);
+        }
+        balanceCache.evict(hold.getUserId());
+    }
+
+    private static Counter holdCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("wallet.holds")
+            .tag("outcome", outcome)
+            .description("Wallet holds by lifecycle outcome")
+            .register(meterRegistry);
+    }
+
+    private HoldResponse mapToResponse(WalletHold hold) {
+        HoldResponse response = new HoldResponse();
+        response.setHoldId(hold.getHoldId());
+        response.setUserId(hold.getUserId());
+        response.setAmount(hold.getAmount());
+        response.setCurrency(hold.getCurrency());
+        response.setStatus(hold.getStatus().name());
+        response.setReference(hold.getReference());
+        response.setCreatedAt(hold.getCreatedAt());
+        response.setExpiresAt(hold.getExpiresAt());
+        response.setSettledAt(hold.getSettledAt());
+        return response;
+    }
+
+    private static final class ExpiryKey implements Comparable<ExpiryKey> {
+        private final LocalDateTime expiresAt;
+        private final UUID holdId;
+
+        private ExpiryKey(LocalDateTime expiresAt, UUID holdId) {
+            this.expiresAt = expiresAt;
+            this.holdId = holdId;
+        }
+
+        @Override
+        public int compareTo(ExpiryKey other) {
+            int byExpiry = expiresAt.compareTo(other.expiresAt);
+            return byExpiry != 0 ? byExpiry : holdId.compareTo(other.holdId);
+        }
+    }
+}
@@ -1,23 +1,40 @@
 package com.micropay.wallet.service;
 
+import com.micropay.wallet.cache.WalletBalanceCache;
+import com.micropay.wallet.dto.BatchWalletOperationResponse;
 import com.micropay.wallet.dto.WalletBalanceUpdatedEvent;
+import com.micropay.wallet.dto.WalletOperationRequest;
+import com.micropay.wallet.dto.WalletOperationResult;
 import com.micropay.wallet.dto.WalletResponse;
-import com.micropay.events.dto.PaymentRefundedEvent;
-import org.springframework.kafka.annotation.KafkaListener;
+import com.micropay.wallet.engine.BalanceChange;
+import com.micropay.wallet.engine.StripedBalanceEngine;
+import com.micropay.wallet.engine.MutationType;
+import com.micropay.wallet.engine.WalletMutationJournal;
+import com.micropay.wallet.engine.WalletPartitionWorkers;
 import com.micropay.wallet.exception.InsufficientBalanceException;
 import com.micropay.wallet.exception.WalletNotFoundException;
 import com.micropay.wallet.model.Wallet;
 import com.micropay.wallet.model.WalletStatus;
 import com.micropay.wallet.repository.WalletRepository;
+import com.micropay.outbox.OutboxWriter;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 /**
  * Service layer for wallet operations
@@ -26,40 +43,62 @@ import java.util.UUID;
 public class WalletService {
 
     private static final Logger logger = LoggerFactory.getLogger(WalletService.class);
-    private static final String WALLET_BALANCE_UPDATED_TOPIC = "wallet.balance.updated";
 
     private final WalletRepository walletRepository;
-    private final KafkaTemplate<String, WalletBalanceUpdatedEvent> kafkaTemplate;
+    private final OutboxWriter outboxWriter;
+    private final StripedBalanceEngine balanceEngine;
+    private final WalletMutationJournal mutationJournal;
+    private final TransactionTemplate transactionTemplate;
+    private final WalletBalanceCache balanceCache;
+    private final WalletPartitionWorkers partitionWorkers;
 
     public WalletService(WalletRepository walletRepository, 
-                        KafkaTemplate<String, WalletBalanceUpdatedEvent> kafkaTemplate) {
+                        OutboxWriter outboxWriter,
+                        StripedBalanceEngine balanceEngine,
+                        WalletMutationJournal mutationJournal,
+                        PlatformTransactionManager transactionManager,
+                        WalletBalanceCache balanceCache,
+                        WalletPartitionWorkers partitionWorkers) {
         this.walletRepository = walletRepository;
-        this.kafkaTemplate = kafkaTemplate;
+        this.outboxWriter = outboxWriter;
+        this.balanceEngine = balanceEngine;
+        this.mutationJournal = mutationJournal;
+        this.balanceCache = balanceCache;
+        this.partitionWorkers = partitionWorkers;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public WalletResponse topUpWallet(UUID userId, BigDecimal amount) {
         return creditWallet(userId, amount, "TOP_UP");
     }
 
-    @KafkaListener(topics = "payment.refunded", groupId = "wallet-service-consumer-group")
-    public void consumePaymentRefundedEvent(PaymentRefundedEvent event) {
-        logger.info("Consumed payment.refunded event for payment: {}", event.getPaymentId());
-        creditWallet(event.getUserId(), event.getAmount(), event.getPaymentId().toString());
-    }
-
     /**
      * Get wallet by user ID
      */
     public WalletResponse getWalletByUserId(UUID userId) {
-        Wallet wallet = walletRepository.findByUserId(userId)
-            .orElseGet(() -> {
-                // Fallback for eventual-consistency: wallet may not be created yet by Kafka consumer.
-                logger.warn("Wallet not found for user: {}. Auto-creating wallet.", userId);
-                return createWallet(userId, "USD");
+        WalletResponse response = balanceCache.get(userId).orElse(null);
+        if (response == null) {
+            long loadGeneration = balanceCache.beginLoad();
+            Wallet wallet = walletRepository.findByUserId(userId)
+                .orElseGet(() -> {
+                    // Fallback for eventual-consistency: wallet may not be created yet by Kafka consumer.
+                    logger.warn("Wallet not found for user: {}. Auto-creating wallet.", userId);
+                    return createWallet(userId, "USD");
+                });
+            response = mapToResponse(wallet);
+            balanceCache.putLoaded(response, loadGeneration);
+        }
+
+        // Resident balances are ahead of the table until the next group commit
+        if (balanceEngine.isEnabled()) {
+            // Holds are refused in striped mode, so nothing is reserved
+            WalletResponse resident = response;
+            balanceEngine.residentBalance(userId).ifPresent(balance -> {
+                resident.setBalance(balance);
+                resident.setAvailableBalance(balance);
             });
-        
-        return mapToResponse(wallet);
+        }
+        return response;
     }
 
     /**
@@ -86,10 +125,26 @@ public class WalletService {
     }
 
     /**
-     * Credit wallet balance
+     * Credit wallet balance; the cached wallet is updated once the change is committed.
+     * Not @Transactional: engine, journal and partition callers must not hold a connection while
+     * they wait, so only the row-locked path opens a transaction.
      */
-    @Transactional
     public WalletResponse creditWallet(UUID userId, BigDecimal amount, String transactionId) {
+        if (balanceEngine.isEnabled()) {
+            return cacheAndMap(balanceEngine.credit(userId, amount, transactionId, () -> loadOrCreateWallet(userId)));
+        }
+        if (mutationJournal.isEnabled()) {
+            return cacheAndMap(mutationJournal.credit(userId, amount, transactionId));
+        }
+        if (partitionWorkers.isEnabled()) {
+            return cacheAndMap(partitionWorkers.credit(userId, amount, transactionId));
+        }
+        WalletResponse response = transactionTemplate.execute(status -> creditWalletWithLock(userId, amount, transactionId));
+        balanceCache.update(response);
+        return response;
+    }
+
+    private WalletResponse creditWalletWithLock(UUID userId, BigDecimal amount, String transactionId) {
         Wallet wallet = walletRepository.findByUserIdWithLock(userId)
             .orElseGet(() -> {
                 logger.warn("Wallet not found for credit for user: {}. Auto-creating wallet.", userId);
@@ -117,10 +172,24 @@ public class WalletService {
     }
 
     /**
-     * Debit wallet balance
+     * Debit wallet balance (transaction handling as for credits)
      */
-    @Transactional
     public WalletResponse debitWallet(UUID userId, BigDecimal amount, String transactionId) {
+        if (balanceEngine.isEnabled()) {
+            return cacheAndMap(balanceEngine.debit(userId, amount, transactionId, () -> loadOrCreateWallet(userId)));
+        }
+        if (mutationJournal.isEnabled()) {
+            return cacheAndMap(mutationJournal.debit(userId, amount, transactionId));
+        }
+        if (partitionWorkers.isEnabled()) {
+            return cacheAndMap(partitionWorkers.debit(userId, amount, transactionId));
+        }
+        WalletResponse response = transactionTemplate.execute(status -> debitWalletWithLock(userId, amount, transactionId));
+        balanceCache.update(response);
+        return response;
+    }
+
+    private WalletResponse debitWalletWithLock(UUID userId, BigDecimal amount, String transactionId) {
         Wallet wallet = walletRepository.findByUserIdWithLock(userId)
             .orElseGet(() -> {
                 logger.warn("Wallet not found for debit for user: {}. Auto-creating wallet.", userId);
@@ -134,10 +203,10 @@ public class WalletService {
         }
 
         BigDecimal currentBalance = wallet.getBalance();
-        if (currentBalance.compareTo(amount) < 0) {
+        if (wallet.getAvailableBalance().compareTo(amount) < 0) {
             throw new InsufficientBalanceException(
-                String.format("Insufficient balance. Current balance: %s, Requested amount: %s", 
-                             currentBalance, amount)
+                String.format("Insufficient balance. Available balance: %s, Requested amount: %s", 
+                             wallet.getAvailableBalance(), amount)
             );
         }
 
@@ -156,39 +225,189 @@ public class WalletService {
     }
 
     /**
-     * Publish wallet balance updated event to Kafka
+     * Apply a batch of credits and debits, returning one result per instruction in request order.
+     * On the JPA path all wallets in the batch are row-locked once, in userId order, inside a
+     * single transaction so overlapping batches cannot deadlock. An instruction that fails
+     * (insufficient balance, inactive wallet) is rejected on its own; the rest still apply.
+     */
+    public BatchWalletOperationResponse applyBatch(List<WalletOperationRequest> operations) {
+        List<WalletOperationResult> results;
+        if (balanceEngine.isEnabled()) {
+            results = toResults(operations, submitEach(operations, this::applyThroughEngine));
+        } else if (mutationJournal.isEnabled()) {
+            results = toResults(operations, submitEach(operations, operation -> mutationJournal.submit(
+                operation.getUserId(), operation.getAmount(), mutationType(operation), operation.getTransactionId())));
+        } else if (partitionWorkers.isEnabled()) {
+            results = toResults(operations, submitEach(operations, operation -> partitionWorkers.submit(
+                operation.getUserId(), operation.getAmount(), mutationType(operation), operation.getTransactionId())));
+        } else {
+            results = transactionTemplate.execute(status -> toResults(operations, applyBatchWithLock(operations)));
+        }
+
+        // Results carry balances but not the full wallet, so cached copies are dropped instead
+        operations.forEach(operation -> balanceCache.evict(operation.getUserId()));
+
+        BatchWalletOperationResponse response = new BatchWalletOperationResponse(results);
+        logger.info("Applied wallet batch: {} applied, {} rejected", response.getApplied(), response.getRejected());
+        return response;
+    }
+
+    /**
+     * Hand every operation to the engine, journal or partition workers without waiting, so the
+     * batch shares their commits. Each submit answers with a future, failed or not; one that
+     * throws instead fails only its own operation.
+     */
+    private static List<CompletableFuture<BalanceChange>> submitEach(
+            List<WalletOperationRequest> operations,
+            Function<WalletOperationRequest, CompletableFuture<BalanceChange>> submitter) {
+        List<CompletableFuture<BalanceChange>> outcomes = new ArrayList<>(operations.size());
+        for (WalletOperationRequest operation : operations) {
+            try {
+                outcomes.add(submitter.apply(operation));
+            } catch (RuntimeException e) {
+                outcomes.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        return outcomes;
+    }
+
+    /**
+     * Wait for each outcome and report it against its own operation, whatever it failed with
+     */
+    private List<WalletOperationResult> toResults(List<WalletOperationRequest> operations,
+                                                  List<CompletableFuture<BalanceChange>> outcomes) {
+        List<WalletOperationResult> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            WalletOperationRequest operation = operations.get(i);
+            try {
+                BalanceChange change = outcomes.get(i).join();
+                results.add(WalletOperationResult.applied(i, operation, change.getWallet().getBalance()));
+            } catch (RuntimeException e) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (!(cause instanceof InsufficientBalanceException || cause instanceof IllegalStateException)) {
+                    logger.error("Wallet batch operation {} for user {} failed", i, operation.getUserId(), cause);
+                }
+                results.add(WalletOperationResult.rejected(i, operation, failureReason(cause)));
+            }
+        }
+        return results;
+    }
+
+    private static String failureReason(Throwable cause) {
+        return cause.getMessage() != null ? cause.getMessage() : cause.getClass().getSimpleName();
+    }
+
+    private List<CompletableFuture<BalanceChange>> applyBatchWithLock(List<WalletOperationRequest> operations) {
+        TreeSet<UUID> userIds = new TreeSet<>();
+        operations.forEach(operation -> userIds.add(operation.getUserId()));
+
+        Map<UUID, Wallet> wallets = new HashMap<>();
+        for (Wallet wallet : walletRepository.findAllByUserIdInWithLock(userIds)) {
+            wallets.put(wallet.getUserId(), wallet);
+        }
+        for (UUID userId : userIds) {
+            if (!wallets.containsKey(userId)) {
+                logger.warn("Wallet not found for batch operation for user: {}. Auto-creating wallet.", userId);
+                wallets.put(userId, createWallet(userId, "USD"));
+            }
+        }
+
+        List<CompletableFuture<BalanceChange>> outcomes = new ArrayList<>(operations.size());
+        List<WalletBalanceUpdatedEvent> events = new ArrayList<>(operations.size());
+        for (WalletOperationRequest operation : operations) {
+            Wallet wallet = wallets.get(operation.getUserId());
+            try {
+                BalanceChange change = applyToLockedWallet(wallet, operation);
+                events.add(WalletBalanceUpdatedEvent.of(change.getWallet(), change.getPreviousBalance(),
+                    isDebit(operation) ? operation.getAmount().negate() : operation.getAmount(),
+                    operation.getType(), operation.getTransactionId()));
+                outcomes.add(CompletableFuture.completedFuture(change));
+            } catch (InsufficientBalanceException | IllegalStateException e) {
+                outcomes.add(CompletableFuture.failedFuture(e));
+            }
+        }
+        walletRepository.saveAll(wallets.values());
+        // Events go to the outbox inside the same transaction as the balance changes
+        outboxWriter.appendAll(WalletBalanceUpdatedEvent.TOPIC, events, event -> event.getUserId().toString());
+        return outcomes;
+    }
+
+    private BalanceChange applyToLockedWallet(Wallet wallet, WalletOperationRequest operation) {
+        if (wallet.getStatus() != WalletStatus.ACTIVE) {
+            throw new IllegalStateException("Wallet is not active. Current status: " + wallet.getStatus());
+        }
+
+        BigDecimal previousBalance = wallet.getBalance();
+        if (isDebit(operation) && wallet.getAvailableBalance().compareTo(operation.getAmount()) < 0) {
+            throw new InsufficientBalanceException(
+                String.format("Insufficient balance. Available balance: %s, Requested amount: %s",
+                             wallet.getAvailableBalance(), operation.getAmount())
+            );
+        }
+
+        wallet.setBalance(isDebit(operation)
+            ? previousBalance.subtract(operation.getAmount())
+            : previousBalance.add(operation.getAmount()));
+        return BalanceChange.snapshotOf(wallet, previousBalance);
+    }
+
+    private CompletableFuture<BalanceChange> applyThroughEngine(WalletOperationRequest operation) {
+        UUID userId = operation.getUserId();
+        return balanceEngine.submit(userId, operation.getAmount(), mutationType(operation),
+            operation.getTransactionId(), () -> loadOrCreateWallet(userId));
+    }
+
+    private static boolean isDebit(WalletOperationRequest operation) {
+        return "DEBIT".equals(operation.getType());
+    }
+
+    private static MutationType mutationType(WalletOperationRequest operation) {
+        return isDebit(operation) ? MutationType.DEBIT : MutationType.CREDIT;
+    }
+
+    /**
+     * Map a change committed by the engine, journal or a partition worker, which also
+     * wrote its balance event to the outbox in that commit
      */
-    private void publishBalanceUpdatedEvent(Wallet wallet, BigDecimal previousBalance, 
+    private WalletResponse cacheAndMap(BalanceChange change) {
+        WalletResponse response = mapToResponse(change.getWallet());
+        balanceCache.update(response);
+        return response;
+    }
+
+    /**
+     * Load a wallet for the in-memory engine, auto-creating it like the JPA path does
+     */
+    private Wallet loadOrCreateWallet(UUID userId) {
+        return walletRepository.findByUserId(userId)
+            .orElseGet(() -> {
+                logger.warn("Wallet not found for user: {}. Auto-creating wallet.", userId);
+                return createWallet(userId, "USD");
+            });
+    }
+
+    /**
+     * Queue wallet balance updated event in the outbox; joins the caller's transaction
+     */
+    void publishBalanceUpdatedEvent(Wallet wallet, BigDecimal previousBalance, 
                                           BigDecimal changeAmount, String transactionType, 
                                           String transactionId) {
-        try {
-            WalletBalanceUpdatedEvent event = new WalletBalanceUpdatedEvent(
-                wallet.getId(),
-                wallet.getUserId(),
-                previousBalance,
-                wallet.getBalance(),
-                changeAmount,
-                wallet.getCurrency(),
-                transactionType,
-                transactionId != null ? transactionId : UUID.randomUUID().toString()
-            );
+        WalletBalanceUpdatedEvent event = WalletBalanceUpdatedEvent.of(
+            wallet, previousBalance, changeAmount, transactionType, transactionId);
 
-            kafkaTemplate.send(WALLET_BALANCE_UPDATED_TOPIC, wallet.getUserId().toString(), event);
-            logger.debug("Published wallet.balance.updated event for wallet: {}", wallet.getId());
-        } catch (Exception e) {
-            logger.error("Failed to publish wallet.balance.updated event for wallet: {}", wallet.getId(), e);
-            // Note: In production, consider implementing retry mechanism or dead letter queue
-        }
+        outboxWriter.append(WalletBalanceUpdatedEvent.TOPIC, wallet.getUserId().toString(), event);
+        logger.debug("Queued wallet.balance.updated event for wallet: {}", wallet.getId());
     }
 
     /**
      * Map Wallet entity to WalletResponse DTO
      */
-    private WalletResponse mapToResponse(Wallet wallet) {
+    WalletResponse mapToResponse(Wallet wallet) {
         WalletResponse response = new WalletResponse();
         response.setId(wallet.getId());
         response.setUserId(wallet.getUserId());
         response.setBalance(wallet.getBalance());
+        response.setAvailableBalance(wallet.getAvailableBalance());
         response.setCurrency(wallet.getCurrency());
         response.setStatus(wallet.getStatus().name());
         response.setCreatedAt(wallet.getCreatedAt());
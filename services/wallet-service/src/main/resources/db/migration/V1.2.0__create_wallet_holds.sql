@@ -0,0 +1,30 @@
+-- Funds set aside by holds; available balance = balance - reserved
+ALTER TABLE wallets ADD COLUMN reserved DECIMAL(19, 2) NOT NULL DEFAULT 0.00;
+ALTER TABLE wallets ADD CONSTRAINT chk_reserved_within_balance CHECK (reserved >= 0 AND reserved <= balance);
+
+COMMENT ON COLUMN wallets.reserved IS 'Part of the balance held by ACTIVE wallet_holds';
+
+-- Two-phase holds: reserved now, then committed (debited) or released
+CREATE TABLE IF NOT EXISTS wallet_holds (
+    hold_id UUID PRIMARY KEY,
+    user_id UUID NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    status VARCHAR(20) NOT NULL,
+    reference VARCHAR(100),
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    expires_at TIMESTAMP NOT NULL,
+    settled_at TIMESTAMP,
+    CONSTRAINT chk_hold_amount_positive CHECK (amount > 0),
+    CONSTRAINT chk_hold_status CHECK (status IN ('ACTIVE', 'COMMITTED', 'RELEASED', 'EXPIRED'))
+);
+
+-- A retried reserve with the same reference gets the original hold
+CREATE UNIQUE INDEX IF NOT EXISTS idx_wallet_hold_reference ON wallet_holds(reference) WHERE reference IS NOT NULL;
+
+CREATE INDEX IF NOT EXISTS idx_wallet_hold_user_id ON wallet_holds(user_id);
+
+-- Expiry sweep only looks at ACTIVE holds
+CREATE INDEX IF NOT EXISTS idx_wallet_hold_active_expiry ON wallet_holds(expires_at) WHERE status = 'ACTIVE';
+
+COMMENT ON TABLE wallet_holds IS 'Funds reserved against a wallet until committed, released or expired';
@@ -0,0 +1,116 @@
+package com.micropay.wallet.benchmark;
+
+import com.micropay.wallet.WalletServiceApplication;
+import com.micropay.wallet.dto.WalletResponse;
+import com.micropay.wallet.service.WalletService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Credit throughput on a few hot wallets, row-locked per request ({@code jpa}, one
+ * {@code findByUserIdWithLock} transaction per credit) against single-writer partitions
+ * ({@code partitioned}, no row locks, one transaction per drained batch).
+ *
+ * 16 threads credit {@code hotWallets} wallets through WalletService, outbox insert
+ * included. Runs against in-memory H2 by default; pass
+ * {@code -Dbenchmark.datasource.url/username/password} to point it at PostgreSQL, where
+ * lock waits include the round trips made while the row lock is held.
+ *
+ * Run with (JMH forks a JVM, so the test classpath is passed explicitly):
+ * mvn -B test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java \
+ *     "-Dexec.args=-cp %classpath com.micropay.wallet.benchmark.WalletContentionBenchmark"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class WalletContentionBenchmark {
+
+    private static final String H2_URL =
+        "jdbc:h2:mem:wallet_bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000";
+
+    @Param({"jpa", "partitioned"})
+    public String mode;
+
+    @Param({"1", "16"})
+    public int hotWallets;
+
+    private ConfigurableApplicationContext context;
+    private WalletService walletService;
+    private UUID[] userIds;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(WalletServiceApplication.class)
+            .web(WebApplicationType.NONE)
+            .properties(
+                "spring.cloud.config.enabled=false",
+                "spring.config.import=",
+                "spring.config.location=classpath:application-test.yml",
+                "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+                "spring.datasource.url=" + System.getProperty("benchmark.datasource.url", H2_URL),
+                "spring.datasource.username=" + System.getProperty("benchmark.datasource.username", "sa"),
+                "spring.datasource.password=" + System.getProperty("benchmark.datasource.password", ""),
+                "spring.datasource.hikari.maximum-pool-size=20",
+                "jwt.secret=benchmark-secret-key-long-enough-for-hmac-sha256-signing",
+                "jwt.expiration=86400000",
+                "outbox.relay.enabled=false",
+                "logging.level.root=WARN",
+                "wallet.engine.mode=" + mode)
+            .run();
+        context.getBean(JdbcTemplate.class).execute(
+            "CREATE TABLE IF NOT EXISTS outbox_events (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+                + "topic VARCHAR(255) NOT NULL, event_key VARCHAR(255), payload TEXT NOT NULL, "
+                + "payload_type VARCHAR(255), created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+
+        walletService = context.getBean(WalletService.class);
+        userIds = new UUID[hotWallets];
+        for (int i = 0; i < hotWallets; i++) {
+            userIds[i] = UUID.randomUUID();
+            walletService.createWallet(userIds[i], "USD");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public WalletResponse creditHotWallet() {
+        UUID userId = userIds[ThreadLocalRandom.current().nextInt(userIds.length)];
+        return walletService.creditWallet(userId, BigDecimal.ONE, null);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(WalletContentionBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
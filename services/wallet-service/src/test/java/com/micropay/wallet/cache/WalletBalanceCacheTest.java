@@ -0,0 +1,148 @@
+package com.micropay.wallet.cache;
+
+import com.micropay.wallet.dto.WalletResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Wallet Balance Cache Tests")
+class WalletBalanceCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MutableClock clock;
+    private WalletBalanceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        clock = new MutableClock();
+        cache = new WalletBalanceCache(true, 2, Duration.ofSeconds(30), clock, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should drop the least recently read wallet when full")
+    void testLruEviction() {
+        // Given
+        WalletResponse first = wallet("10.00", 0);
+        WalletResponse second = wallet("20.00", 0);
+        cache.update(first);
+        cache.update(second);
+        cache.get(first.getUserId());
+
+        // When
+        cache.update(wallet("30.00", 0));
+
+        // Then
+        assertTrue(cache.get(first.getUserId()).isPresent());
+        assertTrue(cache.get(second.getUserId()).isEmpty());
+        assertEquals(2, cache.size());
+        assertEquals(1.0, meterRegistry.counter("wallet.cache.evictions").count());
+    }
+
+    @Test
+    @DisplayName("Should not cache a read that raced with an eviction or a newer write")
+    void testStaleLoadIsDropped() {
+        // Given: a read starts, then a batch evicts the wallet before the read finishes
+        WalletResponse loaded = wallet("10.00", 0);
+        long generation = cache.beginLoad();
+        cache.evict(loaded.getUserId());
+
+        // When
+        cache.putLoaded(loaded, generation);
+
+        // Then
+        assertTrue(cache.get(loaded.getUserId()).isEmpty());
+
+        // Given: a read starts, then a credit commits the new balance first
+        long nextGeneration = cache.beginLoad();
+        WalletResponse committed = wallet("25.00", 1);
+        committed.setUserId(loaded.getUserId());
+        cache.update(committed);
+
+        // When
+        cache.putLoaded(loaded, nextGeneration);
+
+        // Then
+        assertEquals(new BigDecimal("25.00"), cache.get(loaded.getUserId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should keep the newer snapshot when updates arrive out of order")
+    void testOlderUpdateIgnored() {
+        // Given
+        WalletResponse newer = wallet("50.00", 2);
+        WalletResponse older = wallet("40.00", 1);
+        older.setUserId(newer.getUserId());
+        cache.update(newer);
+
+        // When
+        cache.update(older);
+
+        // Then
+        assertEquals(new BigDecimal("50.00"), cache.get(newer.getUserId()).orElseThrow().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should expire entries after the TTL and hand out copies")
+    void testExpiryAndCopies() {
+        // Given
+        WalletResponse wallet = wallet("10.00", 0);
+        cache.update(wallet);
+        cache.get(wallet.getUserId()).orElseThrow().setBalance(BigDecimal.ONE);
+
+        // When
+        WalletResponse cached = cache.get(wallet.getUserId()).orElseThrow();
+        clock.advance(Duration.ofSeconds(31));
+
+        // Then
+        assertEquals(new BigDecimal("10.00"), cached.getBalance());
+        assertTrue(cache.get(wallet.getUserId()).isEmpty());
+        assertEquals(2.0, meterRegistry.counter("wallet.cache.requests", "result", "hit").count());
+        assertEquals(1.0, meterRegistry.counter("wallet.cache.requests", "result", "miss").count());
+    }
+
+    private WalletResponse wallet(String balance, int minutesAfterEpoch) {
+        WalletResponse wallet = new WalletResponse();
+        wallet.setId(UUID.randomUUID());
+        wallet.setUserId(UUID.randomUUID());
+        wallet.setBalance(new BigDecimal(balance));
+        wallet.setCurrency("USD");
+        wallet.setStatus("ACTIVE");
+        wallet.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(minutesAfterEpoch));
+        return wallet;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now = Instant.parse("2024-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.micropay.wallet.engine;
+
+import com.micropay.outbox.OutboxWriter;
+import com.micropay.wallet.dto.WalletBalanceUpdatedEvent;
+import com.micropay.wallet.engine.MutationType;
+import com.micropay.wallet.exception.InsufficientBalanceException;
+import com.micropay.wallet.model.Wallet;
+import com.micropay.wallet.model.WalletStatus;
+import com.micropay.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Striped Balance Engine Tests")
+class StripedBalanceEngineTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private StripedBalanceEngine engine;
+    private UUID userId;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        engine = engine(300000, 100000);
+        userId = UUID.randomUUID();
+        wallet = wallet(userId, "100.00");
+    }
+
+    private StripedBalanceEngine engine(long idleEvictMs, int maxResident) {
+        return new StripedBalanceEngine("striped", 8, 50, idleEvictMs, maxResident,
+            walletRepository, outboxWriter, transactionManager, new SimpleMeterRegistry());
+    }
+
+    private static Wallet wallet(UUID userId, String balance) {
+        Wallet wallet = new Wallet(userId, new BigDecimal(balance), "USD");
+        wallet.setId(UUID.randomUUID());
+        wallet.setStatus(WalletStatus.ACTIVE);
+        wallet.setCreatedAt(LocalDateTime.now());
+        return wallet;
+    }
+
+    private void committedAs(String balance) {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(walletRepository.findAllByUserIdIn(anyCollection())).thenReturn(List.of(wallet(userId, balance)));
+    }
+
+    private CompletableFuture<BalanceChange> submit(String amount, MutationType type, String transactionId) {
+        return engine.submit(userId, new BigDecimal(amount), type, transactionId, () -> wallet);
+    }
+
+    @Test
+    @DisplayName("Should hydrate once and apply concurrent credits without losing updates")
+    void credit_ConcurrentHotWallet() throws InterruptedException {
+        int threads = 8;
+        int creditsPerThread = 1_000;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch done = new CountDownLatch(threads);
+        int[] loads = new int[1];
+
+        for (int t = 0; t < threads; t++) {
+            pool.execute(() -> {
+                for (int i = 0; i < creditsPerThread; i++) {
+                    engine.submit(userId, new BigDecimal("0.01"), MutationType.CREDIT, null, () -> {
+                        loads[0]++;
+                        return wallet;
+                    });
+                }
+                done.countDown();
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        pool.shutdown();
+
+        assertEquals(1, loads[0]);
+        assertEquals(new BigDecimal("180.00"), engine.residentBalance(userId).orElseThrow());
+
+        committedAs("180.00");
+        when(walletRepository.applyBalanceDelta(any(), any(), any())).thenReturn(1);
+        engine.flush();
+
+        verify(walletRepository).applyBalanceDelta(eq(userId), eq(new BigDecimal("80.00")), any());
+    }
+
+    @Test
+    @DisplayName("Should answer callers only once the group commit is done")
+    void submit_CompletesAfterFlush() {
+        committedAs("125.00");
+        when(walletRepository.applyBalanceDelta(any(), any(), any())).thenReturn(1);
+
+        CompletableFuture<BalanceChange> credit = submit("25.00", MutationType.CREDIT, "TXN-1");
+        assertFalse(credit.isDone());
+
+        engine.flush();
+
+        assertEquals(new BigDecimal("125.00"), credit.join().getWallet().getBalance());
+    }
+
+    @Test
+    @DisplayName("Should reject debit beyond resident balance without side effects")
+    void debit_InsufficientBalance() {
+        CompletableFuture<BalanceChange> debit = submit("100.01", MutationType.DEBIT, "TXN-1");
+
+        CompletionException error = assertThrows(CompletionException.class, debit::join);
+        assertInstanceOf(InsufficientBalanceException.class, error.getCause());
+        assertEquals(new BigDecimal("100.00"), engine.residentBalance(userId).orElseThrow());
+        engine.flush();
+        verify(walletRepository, never()).applyBalanceDelta(any(), any(), any());
+        verifyNoInteractions(outboxWriter);
+    }
+
+    @Test
+    @DisplayName("Should refuse amounts finer than cents instead of rounding them")
+    void submit_RejectsSubCentAmounts() {
+        CompletionException error = assertThrows(CompletionException.class,
+            () -> submit("0.005", MutationType.CREDIT, "TXN-1").join());
+
+        assertInstanceOf(IllegalArgumentException.class, error.getCause());
+        assertEquals(1000L, StripedBalanceEngine.toCents(new BigDecimal("10.000")));
+        verifyNoInteractions(walletRepository);
+    }
+
+    @Test
+    @DisplayName("Should net credits and debits into a single delta per wallet")
+    void flush_NetsDeltas() {
+        committedAs("85.00");
+        when(walletRepository.applyBalanceDelta(any(), any(), any())).thenReturn(1);
+
+        CompletableFuture<BalanceChange> credit = submit("25.00", MutationType.CREDIT, "TXN-1");
+        CompletableFuture<BalanceChange> debit = submit("40.00", MutationType.DEBIT, "TXN-2");
+        engine.flush();
+
+        assertEquals(new BigDecimal("100.00"), credit.join().getPreviousBalance());
+        assertEquals(new BigDecimal("125.00"), credit.join().getWallet().getBalance());
+        assertEquals(new BigDecimal("85.00"), debit.join().getWallet().getBalance());
+        verify(walletRepository).applyBalanceDelta(eq(userId), eq(new BigDecimal("-15.00")), any());
+        List<WalletBalanceUpdatedEvent> events = capturedEvents(1).get(0);
+        assertEquals(List.of("TXN-1", "TXN-2"), events.stream().map(WalletBalanceUpdatedEvent::getTransactionId).toList());
+        assertEquals(new BigDecimal("-40.00"), events.get(1).getChangeAmount());
+        assertEquals(new BigDecimal("85.00"), events.get(1).getNewBalance());
+    }
+
+    @Test
+    @DisplayName("Should replay a wallet against its row when the guarded update fails")
+    void flush_ReplaysWhenGuardFails() {
+        // Another writer took the row down to 30.00 since this instance hydrated it
+        Wallet row = wallet(userId, "30.00");
+        committedAs("20.00");
+        when(walletRepository.applyBalanceDelta(any(), any(), any())).thenReturn(0);
+        when(walletRepository.findByUserIdWithLock(userId)).thenReturn(Optional.of(row));
+
+        CompletableFuture<BalanceChange> small = submit("10.00", MutationType.DEBIT, "TXN-1");
+        CompletableFuture<BalanceChange> large = submit("50.00", MutationType.DEBIT, "TXN-2");
+        engine.flush();
+
+        assertEquals(new BigDecimal("20.00"), small.join().getWallet().getBalance());
+        CompletionException error = assertThrows(CompletionException.class, large::join);
+        assertInstanceOf(InsufficientBalanceException.class, error.getCause());
+        assertEquals(new BigDecimal("20.00"), row.getBalance());
+        List<WalletBalanceUpdatedEvent> events = capturedEvents(1).get(0);
+        assertEquals(List.of("TXN-1"), events.stream().map(WalletBalanceUpdatedEvent::getTransactionId).toList());
+        assertEquals(new BigDecimal("20.00"), engine.residentBalance(userId).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Should fail the callers and restore the resident balance when the commit fails")
+    void flush_FailsCallersOnCommitFailure() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(walletRepository.applyBalanceDelta(any(), any(), any()))
+            .thenThrow(new IllegalStateException("connection lost"));
+
+        CompletableFuture<BalanceChange> credit = submit("10.00", MutationType.CREDIT, "TXN-1");
+        engine.flush();
+
+        CompletionException error = assertThrows(CompletionException.class, credit::join);
+        assertEquals("connection lost", error.getCause().getMessage());
+        assertEquals(new BigDecimal("100.00"), engine.residentBalance(userId).orElseThrow());
+        verifyNoInteractions(outboxWriter);
+
+        // Nothing is left to be written again
+        engine.flush();
+        verify(walletRepository, times(1)).applyBalanceDelta(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should evict idle wallets and beyond the resident limit")
+    void flush_EvictsResidents() {
+        StripedBalanceEngine bounded = engine(300000, 2);
+        List<UUID> userIds = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            UUID id = UUID.randomUUID();
+            userIds.add(id);
+            bounded.submit(id, new BigDecimal("101.00"), MutationType.DEBIT, "TXN-" + i, () -> wallet(id, "100.00"));
+        }
+
+        bounded.flush();
+
+        assertEquals(2, userIds.stream().filter(id -> bounded.residentBalance(id).isPresent()).count());
+
+        StripedBalanceEngine idle = engine(-1, 100000);
+        idle.submit(userId, new BigDecimal("101.00"), MutationType.DEBIT, "TXN-1", () -> wallet);
+        idle.flush();
+        assertTrue(idle.residentBalance(userId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Should refuse mutations on inactive wallets")
+    void credit_InactiveWallet() {
+        wallet.setStatus(WalletStatus.SUSPENDED);
+
+        assertThrows(IllegalStateException.class, () ->
+            engine.credit(userId, BigDecimal.ONE, "TXN-1", () -> wallet));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<WalletBalanceUpdatedEvent>> capturedEvents(int flushes) {
+        ArgumentCaptor<List<WalletBalanceUpdatedEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxWriter, times(flushes)).appendAll(eq(WalletBalanceUpdatedEvent.TOPIC), events.capture(), any());
+        return events.getAllValues();
+    }
+}
@@ -0,0 +1,153 @@
+package com.micropay.wallet.engine;
+
+import com.micropay.outbox.OutboxWriter;
+import com.micropay.wallet.dto.WalletBalanceUpdatedEvent;
+import com.micropay.wallet.exception.InsufficientBalanceException;
+import com.micropay.wallet.model.Wallet;
+import com.micropay.wallet.model.WalletStatus;
+import com.micropay.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Wallet Mutation Journal Tests")
+class WalletMutationJournalTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WalletMutationJournal journal;
+    private UUID userId;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        journal = new WalletMutationJournal("journal", 50, 5, 1000, walletRepository, outboxWriter, transactionManager, new SimpleMeterRegistry());
+        userId = UUID.randomUUID();
+
+        wallet = new Wallet(userId, new BigDecimal("100.00"), "USD");
+        wallet.setId(UUID.randomUUID());
+        wallet.setStatus(WalletStatus.ACTIVE);
+        wallet.setCreatedAt(LocalDateTime.now());
+    }
+
+    @AfterEach
+    void tearDown() {
+        journal.stop();
+    }
+
+    @Test
+    @DisplayName("Should give each mutation in a batch its own result")
+    @SuppressWarnings("unchecked")
+    void commit_PerCallerResults() {
+        when(walletRepository.findAllByUserIdInWithLock(anyCollection())).thenReturn(List.of(wallet));
+
+        WalletMutation credit = new WalletMutation(
+            userId, new BigDecimal("50.00"), MutationType.CREDIT, "PAY-1");
+        WalletMutation debit = new WalletMutation(
+            userId, new BigDecimal("120.00"), MutationType.DEBIT, "PAY-2");
+        WalletMutation overdraft = new WalletMutation(
+            userId, new BigDecimal("40.00"), MutationType.DEBIT, "PAY-3");
+
+        journal.commit(List.of(credit, debit, overdraft));
+
+        assertEquals(new BigDecimal("150.00"), credit.getResult().join().getWallet().getBalance());
+        assertEquals(new BigDecimal("150.00"), debit.getResult().join().getPreviousBalance());
+        assertEquals(new BigDecimal("30.00"), debit.getResult().join().getWallet().getBalance());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> overdraft.getResult().get());
+        assertInstanceOf(InsufficientBalanceException.class, failure.getCause());
+
+        assertEquals(new BigDecimal("30.00"), wallet.getBalance());
+        verify(walletRepository, times(1)).findAllByUserIdInWithLock(anyCollection());
+        verify(transactionManager).commit(any());
+
+        // Only applied mutations produce an event, written before the batch commits
+        ArgumentCaptor<List<WalletBalanceUpdatedEvent>> events = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(outboxWriter, transactionManager);
+        inOrder.verify(outboxWriter).appendAll(eq(WalletBalanceUpdatedEvent.TOPIC), events.capture(), any());
+        inOrder.verify(transactionManager).commit(any());
+        assertEquals(List.of("PAY-1", "PAY-2"),
+            events.getValue().stream().map(WalletBalanceUpdatedEvent::getTransactionId).toList());
+        assertEquals(new BigDecimal("-120.00"), events.getValue().get(1).getChangeAmount());
+    }
+
+    @Test
+    @DisplayName("Should auto-create missing wallets inside the batch transaction")
+    void commit_AutoCreatesWallet() {
+        when(walletRepository.findAllByUserIdInWithLock(anyCollection())).thenReturn(List.of());
+        when(walletRepository.saveAndFlush(any(Wallet.class))).thenAnswer(invocation -> {
+            Wallet created = invocation.getArgument(0);
+            created.setId(UUID.randomUUID());
+            return created;
+        });
+
+        WalletMutation credit = new WalletMutation(
+            userId, new BigDecimal("5.00"), MutationType.CREDIT, "PAY-4");
+
+        journal.commit(List.of(credit));
+
+        assertEquals(new BigDecimal("5.00"), credit.getResult().join().getWallet().getBalance());
+        verify(walletRepository).saveAndFlush(any(Wallet.class));
+    }
+
+    @Test
+    @DisplayName("Should commit concurrent submissions through the writer thread")
+    void submit_ThroughWriter() throws Exception {
+        when(walletRepository.findAllByUserIdInWithLock(anyCollection())).thenReturn(List.of(wallet));
+        journal.start();
+
+        List<CompletableFuture<BalanceChange>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> journal.credit(userId, BigDecimal.ONE, null)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        assertEquals(0, new BigDecimal("300.00").compareTo(wallet.getBalance()));
+        verify(walletRepository, atMost(200)).findAllByUserIdInWithLock(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should fail queued mutations and reject new ones after stop")
+    void stop_FailsQueuedAndRejectsNew() {
+        // Queued, but the writer never runs
+        CompletableFuture<BalanceChange> queued =
+            journal.submit(userId, BigDecimal.ONE, MutationType.CREDIT, "PAY-5");
+
+        journal.stop();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertThrows(IllegalStateException.class, () -> journal.credit(userId, BigDecimal.ONE, "PAY-6"));
+        verifyNoInteractions(walletRepository, outboxWriter);
+    }
+}
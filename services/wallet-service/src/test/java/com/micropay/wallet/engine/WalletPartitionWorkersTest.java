@@ -0,0 +1,169 @@
+package com.micropay.wallet.engine;
+
+import com.micropay.outbox.OutboxWriter;
+import com.micropay.wallet.dto.WalletBalanceUpdatedEvent;
+import com.micropay.wallet.exception.InsufficientBalanceException;
+import com.micropay.wallet.model.Wallet;
+import com.micropay.wallet.model.WalletStatus;
+import com.micropay.wallet.repository.WalletRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.internals.BuiltInPartitioner;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Wallet Partition Workers Tests")
+class WalletPartitionWorkersTest {
+
+    @Mock
+    private WalletRepository walletRepository;
+
+    @Mock
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private WalletPartitionWorkers workers;
+    private UUID userId;
+    private Wallet wallet;
+
+    @BeforeEach
+    void setUp() {
+        workers = new WalletPartitionWorkers("partitioned", 3, 50, 1000, 3, walletRepository, outboxWriter, transactionManager, new SimpleMeterRegistry());
+        userId = UUID.randomUUID();
+        wallet = walletWithBalance("100.00");
+    }
+
+    @AfterEach
+    void tearDown() {
+        workers.stop();
+    }
+
+    @Test
+    @DisplayName("Should route a wallet to the partition Kafka assigns its userId key")
+    void partitionFor_MatchesKafkaPartitioner() {
+        for (int i = 0; i < 1000; i++) {
+            UUID key = UUID.randomUUID();
+            int expected = BuiltInPartitioner.partitionForKey(key.toString().getBytes(StandardCharsets.UTF_8), 3);
+            assertEquals(expected, WalletPartitionWorkers.partitionFor(key, 3));
+        }
+    }
+
+    @Test
+    @DisplayName("Should apply a batch in order without locking the wallets")
+    void commit_PerCallerResultsWithoutLocks() {
+        // Given
+        when(walletRepository.findAllByUserIdIn(anyCollection())).thenReturn(List.of(wallet));
+        WalletMutation credit = new WalletMutation(
+            userId, new BigDecimal("50.00"), MutationType.CREDIT, "PAY-1");
+        WalletMutation debit = new WalletMutation(
+            userId, new BigDecimal("120.00"), MutationType.DEBIT, "PAY-2");
+        WalletMutation overdraft = new WalletMutation(
+            userId, new BigDecimal("40.00"), MutationType.DEBIT, "PAY-3");
+
+        // When
+        workers.commit(List.of(credit, debit, overdraft));
+
+        // Then
+        assertEquals(new BigDecimal("150.00"), credit.getResult().join().getWallet().getBalance());
+        assertEquals(new BigDecimal("30.00"), debit.getResult().join().getWallet().getBalance());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> overdraft.getResult().get());
+        assertInstanceOf(InsufficientBalanceException.class, failure.getCause());
+        verify(walletRepository, never()).findAllByUserIdInWithLock(anyCollection());
+        verify(transactionManager).commit(any());
+        verify(outboxWriter).appendAll(eq(WalletBalanceUpdatedEvent.TOPIC), argThat(events -> events.size() == 2), any());
+    }
+
+    @Test
+    @DisplayName("Should re-read and re-apply a batch that lost to an outside write")
+    void commit_RetriesOnVersionConflict() {
+        // Given: a hold reserved 80.00 between the first read and its commit
+        when(walletRepository.findAllByUserIdIn(anyCollection()))
+            .thenReturn(List.of(walletWithBalance("100.00")))
+            .thenAnswer(invocation -> {
+                Wallet reread = walletWithBalance("100.00");
+                reread.setReserved(new BigDecimal("80.00"));
+                return List.of(reread);
+            });
+        doThrow(new ObjectOptimisticLockingFailureException(Wallet.class, userId))
+            .doNothing()
+            .when(transactionManager).commit(any());
+        WalletMutation debit = new WalletMutation(
+            userId, new BigDecimal("50.00"), MutationType.DEBIT, "PAY-4");
+
+        // When
+        workers.commit(List.of(debit));
+
+        // Then: the retry sees the reservation and rejects the debit
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> debit.getResult().get());
+        assertInstanceOf(InsufficientBalanceException.class, failure.getCause());
+        verify(walletRepository, times(2)).findAllByUserIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should serialise concurrent mutations of a wallet on its partition worker")
+    void submit_ThroughWorker() throws Exception {
+        // Given
+        when(walletRepository.findAllByUserIdIn(anyCollection())).thenReturn(List.of(wallet));
+        workers.start();
+
+        // When
+        List<CompletableFuture<BalanceChange>> results = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> workers.credit(userId, BigDecimal.ONE, null)));
+        }
+        CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(0, new BigDecimal("300.00").compareTo(wallet.getBalance()));
+        verify(walletRepository, atMost(200)).findAllByUserIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("Should fail queued mutations and reject new ones after stop")
+    void stop_FailsQueuedAndRejectsNew() {
+        // Queued, but no worker runs
+        CompletableFuture<BalanceChange> queued =
+            workers.submit(userId, BigDecimal.ONE, MutationType.CREDIT, "PAY-7");
+
+        workers.stop();
+
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+        assertThrows(IllegalStateException.class, () -> workers.debit(userId, BigDecimal.ONE, "PAY-8"));
+        verifyNoInteractions(walletRepository, outboxWriter);
+    }
+
+    private Wallet walletWithBalance(String balance) {
+        Wallet created = new Wallet(userId, new BigDecimal(balance), "USD");
+        created.setId(UUID.randomUUID());
+        created.setStatus(WalletStatus.ACTIVE);
+        created.setCreatedAt(LocalDateTime.now());
+        return created;
+    }
+}
@@ -0,0 +1,178 @@
+package com.micropay.wallet.service;
+
+import com.micropay.outbox.OutboxWriter;
+import com.micropay.wallet.dto.HoldResponse;
+import com.micropay.wallet.dto.WalletBalanceUpdatedEvent;
+import com.micropay.wallet.exception.HoldNotActiveException;
+import com.micropay.wallet.exception.InsufficientBalanceException;
+import com.micropay.wallet.model.Wallet;
+import com.micropay.wallet.repository.WalletRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "spring.cloud.config.enabled=false",
+    "spring.config.import=",
+    "jwt.secret=test-secret-key-for-testing-only-long-enough-to-be-secure",
+    "jwt.expiration=86400000",
+    "security.identity.secret=test-identity-secret-distinct-from-the-jwt-secret",
+    "spring.autoconfigure.exclude=org.springframework.boot.autoconfigure.kafka.KafkaAutoConfiguration",
+    "outbox.relay.enabled=false",
+    "wallet.holds.sweep-interval-ms=3600000"
+})
+@DisplayName("Wallet Hold Service Tests")
+class WalletHoldServiceTest {
+
+    @Autowired
+    private WalletHoldService holdService;
+
+    @Autowired
+    private WalletService walletService;
+
+    @Autowired
+    private WalletRepository walletRepository;
+
+    @MockBean
+    private OutboxWriter outboxWriter;
+
+    private UUID userId;
+
+    @BeforeEach
+    void setUp() {
+        userId = UUID.randomUUID();
+        walletService.createWallet(userId, "USD");
+        walletService.creditWallet(userId, new BigDecimal("100.00"), "TOP-UP");
+    }
+
+    @Test
+    @DisplayName("Should keep held funds from other debits and debit them on commit")
+    void testReserveAndCommit() {
+        // Given
+        HoldResponse hold = holdService.reserve(userId, new BigDecimal("70.00"), null, null);
+
+        // When & Then: only the unreserved 30.00 can be debited directly
+        assertThrows(InsufficientBalanceException.class,
+            () -> walletService.debitWallet(userId, new BigDecimal("40.00"), "TXN-1"));
+        assertEquals(new BigDecimal("30.00"), walletService.getWalletByUserId(userId).getAvailableBalance());
+
+        HoldResponse committed = holdService.commit(hold.getHoldId());
+        HoldResponse committedAgain = holdService.commit(hold.getHoldId());
+
+        Wallet wallet = walletRepository.findByUserId(userId).orElseThrow();
+        assertEquals("COMMITTED", committed.getStatus());
+        assertEquals("COMMITTED", committedAgain.getStatus());
+        assertEquals(new BigDecimal("30.00"), wallet.getBalance());
+        assertEquals(new BigDecimal("0.00"), wallet.getReserved());
+        assertThrows(HoldNotActiveException.class, () -> holdService.release(hold.getHoldId()));
+        // the top-up in setUp, the reserve and the commit
+        verify(outboxWriter, times(3)).append(eq("wallet.balance.updated"), eq(userId.toString()), any());
+    }
+
+    @Test
+    @DisplayName("Should return released funds and refuse to commit a released hold")
+    void testRelease() {
+        // Given
+        HoldResponse hold = holdService.reserve(userId, new BigDecimal("60.00"), null, "transfer-1");
+
+        // When
+        holdService.release(hold.getHoldId());
+        HoldResponse releasedAgain = holdService.release(hold.getHoldId());
+
+        // Then
+        assertEquals("RELEASED", releasedAgain.getStatus());
+        assertEquals(new BigDecimal("100.00"), walletService.getWalletByUserId(userId).getAvailableBalance());
+        assertThrows(HoldNotActiveException.class, () -> holdService.commit(hold.getHoldId()));
+        assertEquals(hold.getHoldId(), holdService.reserve(userId, new BigDecimal("60.00"), null, "transfer-1").getHoldId());
+
+        // The reserve and the release each publish the available balance; the balance is unchanged
+        ArgumentCaptor<WalletBalanceUpdatedEvent> events = ArgumentCaptor.forClass(WalletBalanceUpdatedEvent.class);
+        verify(outboxWriter, times(3)).append(eq("wallet.balance.updated"), eq(userId.toString()), events.capture());
+        WalletBalanceUpdatedEvent reserved = events.getAllValues().get(1);
+        WalletBalanceUpdatedEvent released = events.getAllValues().get(2);
+        assertEquals("HOLD_RESERVED", reserved.getTransactionType());
+        assertEquals(new BigDecimal("40.00"), reserved.getAvailableBalance());
+        assertEquals(new BigDecimal("100.00"), reserved.getNewBalance());
+        assertEquals("transfer-1", reserved.getTransactionId());
+        assertEquals("HOLD_RELEASED", released.getTransactionType());
+        assertEquals(new BigDecimal("100.00"), released.getAvailableBalance());
+    }
+
+    @Test
+    @DisplayName("Should expire abandoned holds")
+    void testExpiry() throws Exception {
+        // Given
+        int indexedBefore = holdService.indexedHoldCount();
+        HoldResponse hold = holdService.reserve(userId, new BigDecimal("80.00"), 1L, null);
+        assertEquals(indexedBefore + 1, holdService.indexedHoldCount());
+
+        // When
+        Thread.sleep(1100);
+        holdService.sweep();
+
+        // Then
+        assertEquals("EXPIRED", holdService.getHold(hold.getHoldId()).getStatus());
+        assertEquals(indexedBefore, holdService.indexedHoldCount());
+        assertEquals(new BigDecimal("100.00"), walletService.getWalletByUserId(userId).getAvailableBalance());
+        assertThrows(HoldNotActiveException.class, () -> holdService.commit(hold.getHoldId()));
+        verify(outboxWriter).append(eq("wallet.balance.updated"), eq(userId.toString()),
+            argThat(event -> event instanceof WalletBalanceUpdatedEvent expired
+                && "HOLD_EXPIRED".equals(expired.getTransactionType())
+                && new BigDecimal("100.00").compareTo(expired.getAvailableBalance()) == 0));
+    }
+
+    @Test
+    @DisplayName("Should never reserve more than the balance under concurrent holds")
+    void testConcurrentReserves() throws Exception {
+        // Given: 40 concurrent holds of 5.00 against a balance of 100.00
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Callable<Boolean>> reserves = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            reserves.add(() -> {
+                try {
+                    holdService.reserve(userId, new BigDecimal("5.00"), null, null);
+                    return true;
+                } catch (InsufficientBalanceException e) {
+                    return false;
+                }
+            });
+        }
+
+        // When
+        int succeeded = 0;
+        for (Future<Boolean> outcome : executor.invokeAll(reserves)) {
+            succeeded += outcome.get() ? 1 : 0;
+        }
+        executor.shutdown();
+
+        // Then
+        Wallet wallet = walletRepository.findByUserId(userId).orElseThrow();
+        assertEquals(20, succeeded);
+        assertEquals(new BigDecimal("100.00"), wallet.getReserved());
+        assertEquals(new BigDecimal("100.00"), wallet.getBalance());
+    }
+}
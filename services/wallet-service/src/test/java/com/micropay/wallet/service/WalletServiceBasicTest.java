@@ -1,11 +1,20 @@
 package com.micropay.wallet.service;
 
+import com.micropay.wallet.cache.WalletBalanceCache;
+import com.micropay.wallet.dto.BatchWalletOperationResponse;
+import com.micropay.wallet.dto.WalletOperationRequest;
+import com.micropay.wallet.dto.WalletOperationResult;
 import com.micropay.wallet.dto.WalletResponse;
+import com.micropay.wallet.engine.BalanceChange;
+import com.micropay.wallet.engine.StripedBalanceEngine;
+import com.micropay.wallet.engine.WalletMutationJournal;
+import com.micropay.wallet.engine.WalletPartitionWorkers;
 import com.micropay.wallet.exception.InsufficientBalanceException;
 import com.micropay.wallet.exception.WalletNotFoundException;
 import com.micropay.wallet.model.Wallet;
 import com.micropay.wallet.model.WalletStatus;
 import com.micropay.wallet.repository.WalletRepository;
+import com.micropay.outbox.OutboxWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,16 +22,21 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -34,7 +48,22 @@ class WalletServiceBasicTest {
     private WalletRepository walletRepository;
 
     @Mock
-    private KafkaTemplate<String, Object> kafkaTemplate;
+    private OutboxWriter outboxWriter;
+
+    @Mock
+    private StripedBalanceEngine balanceEngine;
+
+    @Mock
+    private WalletMutationJournal mutationJournal;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private WalletBalanceCache balanceCache;
+
+    @Mock
+    private WalletPartitionWorkers partitionWorkers;
 
     @InjectMocks
     private WalletService walletService;
@@ -76,6 +105,24 @@ class WalletServiceBasicTest {
         assertEquals(WalletStatus.ACTIVE.name(), response.getStatus());
 
         verify(walletRepository).findByUserId(userId);
+        verify(balanceCache).putLoaded(response, 0L);
+    }
+
+    @Test
+    @DisplayName("Should answer from the balance cache without reading the database")
+    void getWalletByUserId_CacheHit() {
+        // Given
+        WalletResponse cached = new WalletResponse();
+        cached.setUserId(userId);
+        cached.setBalance(new BigDecimal("42.00"));
+        when(balanceCache.get(userId)).thenReturn(Optional.of(cached));
+
+        // When
+        WalletResponse response = walletService.getWalletByUserId(userId);
+
+        // Then
+        assertEquals(new BigDecimal("42.00"), response.getBalance());
+        verifyNoInteractions(walletRepository);
     }
 
     @Test
@@ -170,7 +217,8 @@ class WalletServiceBasicTest {
         assertNotNull(response);
         verify(walletRepository).findByUserIdWithLock(userId);
         verify(walletRepository).save(wallet);
-        verify(kafkaTemplate).send(eq("wallet.balance.updated"), eq(userId.toString()), any());
+        verify(outboxWriter).append(eq("wallet.balance.updated"), eq(userId.toString()), any());
+        verify(balanceCache).update(response);
     }
 
     @Test
@@ -188,7 +236,7 @@ class WalletServiceBasicTest {
         assertNotNull(response);
         verify(walletRepository).findByUserIdWithLock(userId);
         verify(walletRepository).save(wallet);
-        verify(kafkaTemplate).send(eq("wallet.balance.updated"), eq(userId.toString()), any());
+        verify(outboxWriter).append(eq("wallet.balance.updated"), eq(userId.toString()), any());
     }
 
     @Test
@@ -241,7 +289,7 @@ class WalletServiceBasicTest {
         assertNotNull(response);
         verify(walletRepository).findByUserIdWithLock(userId);
         verify(walletRepository).save(wallet);
-        verify(kafkaTemplate).send(eq("wallet.balance.updated"), eq(userId.toString()), any());
+        verify(outboxWriter).append(eq("wallet.balance.updated"), eq(userId.toString()), any());
     }
 
     @Test
@@ -293,4 +341,86 @@ class WalletServiceBasicTest {
         verify(walletRepository, times(2)).findByUserIdWithLock(userId);
         verify(walletRepository, atLeastOnce()).save(any(Wallet.class));
     }
+
+    @Test
+    @DisplayName("Should apply batch with one lock query and reject items individually")
+    void applyBatch_PerItemResults() {
+        // Given
+        Wallet otherWallet = new Wallet(UUID.randomUUID(), new BigDecimal("10.00"), "USD");
+        otherWallet.setId(UUID.randomUUID());
+        otherWallet.setStatus(WalletStatus.ACTIVE);
+        when(walletRepository.findAllByUserIdInWithLock(anyCollection())).thenReturn(List.of(wallet, otherWallet));
+
+        List<WalletOperationRequest> operations = List.of(
+            new WalletOperationRequest(userId, "CREDIT", new BigDecimal("20.00"), "PAY-1"),
+            new WalletOperationRequest(otherWallet.getUserId(), "DEBIT", new BigDecimal("15.00"), "PAY-2"),
+            new WalletOperationRequest(userId, "DEBIT", new BigDecimal("70.00"), "PAY-3")
+        );
+
+        // When
+        BatchWalletOperationResponse response = walletService.applyBatch(operations);
+
+        // Then
+        assertEquals(2, response.getApplied());
+        assertEquals(1, response.getRejected());
+        assertEquals(new BigDecimal("120.00"), response.getResults().get(0).getBalance());
+        assertEquals(WalletOperationResult.REJECTED, response.getResults().get(1).getStatus());
+        assertEquals(new BigDecimal("50.00"), response.getResults().get(2).getBalance());
+        assertEquals(new BigDecimal("50.00"), wallet.getBalance());
+        assertEquals(new BigDecimal("10.00"), otherWallet.getBalance());
+
+        verify(walletRepository, times(1)).findAllByUserIdInWithLock(anyCollection());
+        verify(outboxWriter).appendAll(eq("wallet.balance.updated"), argThat(events -> events.size() == 2), any());
+    }
+
+    @Test
+    @DisplayName("Should auto-create missing wallets in a batch")
+    void applyBatch_AutoCreate() {
+        // Given
+        when(walletRepository.findAllByUserIdInWithLock(anyCollection())).thenReturn(List.of());
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.empty());
+        when(walletRepository.save(any(Wallet.class))).thenAnswer(invocation -> {
+            Wallet created = invocation.getArgument(0);
+            created.setId(walletId);
+            created.setStatus(WalletStatus.ACTIVE);
+            return created;
+        });
+
+        // When
+        BatchWalletOperationResponse response = walletService.applyBatch(List.of(
+            new WalletOperationRequest(userId, "CREDIT", new BigDecimal("5.00"), null)));
+
+        // Then
+        assertEquals(1, response.getApplied());
+        assertEquals(new BigDecimal("5.00"), response.getResults().get(0).getBalance());
+        verify(walletRepository).save(any(Wallet.class));
+    }
+
+    @Test
+    @DisplayName("Should report each batched journal item's failure without losing the others")
+    void applyBatch_JournalFailuresPerItem() {
+        // Given
+        UUID stoppedUser = UUID.randomUUID();
+        when(mutationJournal.isEnabled()).thenReturn(true);
+        when(mutationJournal.submit(eq(userId), any(), any(), eq("PAY-1")))
+            .thenReturn(CompletableFuture.completedFuture(BalanceChange.snapshotOf(wallet, new BigDecimal("80.00"))));
+        when(mutationJournal.submit(eq(stoppedUser), any(), any(), eq("PAY-2")))
+            .thenReturn(CompletableFuture.failedFuture(new DataAccessResourceFailureException("connection lost")));
+        when(mutationJournal.submit(eq(userId), any(), any(), eq("PAY-3")))
+            .thenThrow(new IllegalStateException("Wallet mutation journal is stopped"));
+
+        // When
+        BatchWalletOperationResponse response = walletService.applyBatch(List.of(
+            new WalletOperationRequest(userId, "CREDIT", new BigDecimal("20.00"), "PAY-1"),
+            new WalletOperationRequest(stoppedUser, "CREDIT", new BigDecimal("5.00"), "PAY-2"),
+            new WalletOperationRequest(userId, "DEBIT", new BigDecimal("5.00"), "PAY-3")));
+
+        // Then
+        assertEquals(1, response.getApplied());
+        assertEquals(2, response.getRejected());
+        assertEquals(new BigDecimal("100.00"), response.getResults().get(0).getBalance());
+        assertEquals("connection lost", response.getResults().get(1).getError());
+        assertEquals("Wallet mutation journal is stopped", response.getResults().get(2).getError());
+        verify(mutationJournal, times(3)).submit(any(), any(), any(), any());
+    }
 }
@@ -0,0 +1,45 @@
+import http from 'k6/http';
+import { check } from 'k6';
+
+// Hammers credits against a single hot wallet to compare wallet engine modes.
+// Run once per WALLET_ENGINE_MODE (jpa, striped, journal), then compare the `http_reqs` rate (credits/sec) and p95 latency k6 reports.
+//
+//   k6 run -e TOKEN=<jwt> -e USER_ID=<uuid> tests/load/k6-wallet-hot-credit.js
+//
+// BASE_URL defaults to the gateway; point it at http://localhost:8083 with
+// PATH_PREFIX= to take the gateway out of the measurement.
+
+export let options = {
+  scenarios: {
+    hot_wallet: {
+      executor: 'constant-vus',
+      vus: Number(__ENV.VUS || 50),
+      duration: __ENV.DURATION || '60s',
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost';
+const PATH_PREFIX = __ENV.PATH_PREFIX !== undefined ? __ENV.PATH_PREFIX : '/api';
+const USER_ID = __ENV.USER_ID;
+const TOKEN = __ENV.TOKEN;
+
+export default function () {
+  const res = http.post(
+    `${BASE_URL}${PATH_PREFIX}/wallet/${USER_ID}/credit`,
+    JSON.stringify({ amount: 0.01, description: 'k6 hot wallet credit' }),
+    {
+      headers: {
+        'Content-Type': 'application/json',
+        Authorization: `Bearer ${TOKEN}`,
+      },
+    }
+  );
+
+  check(res, {
+    'credit ok': (r) => r.status === 200,
+  });
+}